@@ -16,30 +16,32 @@
 package org.esa.s3tbx.aatsr.sst;
 
 import com.bc.ceres.core.ProgressMonitor;
+import org.esa.s3tbx.commons.ValidPixelMask;
 import org.esa.snap.core.datamodel.Band;
 import org.esa.snap.core.datamodel.Product;
 import org.esa.snap.core.datamodel.ProductData;
+import org.esa.snap.core.datamodel.RasterDataNode;
+import org.esa.snap.core.gpf.Operator;
 import org.esa.snap.core.gpf.OperatorException;
 import org.esa.snap.core.gpf.OperatorSpi;
+import org.esa.snap.core.gpf.Tile;
 import org.esa.snap.core.gpf.annotations.OperatorMetadata;
 import org.esa.snap.core.gpf.annotations.Parameter;
 import org.esa.snap.core.gpf.annotations.SourceProduct;
-import org.esa.snap.core.gpf.pointop.PixelOperator;
-import org.esa.snap.core.gpf.pointop.ProductConfigurer;
-import org.esa.snap.core.gpf.pointop.Sample;
-import org.esa.snap.core.gpf.pointop.SourceSampleConfigurer;
-import org.esa.snap.core.gpf.pointop.TargetSampleConfigurer;
-import org.esa.snap.core.gpf.pointop.WritableSample;
+import org.esa.snap.core.util.ProductUtils;
 import org.esa.snap.core.util.ResourceInstaller;
 import org.esa.snap.core.util.SystemUtils;
 
 import javax.media.jai.OpImage;
+import java.awt.Rectangle;
 import java.awt.image.Raster;
 import java.io.File;
 import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
 
 /**
  * An operator for computing sea surface temperature from (A)ATSR products.
@@ -53,7 +55,7 @@ import java.nio.file.Path;
                   copyright = "Brockmann Consult GmbH",
                   version = "2.0",
                   description = "Computes sea surface temperature (SST) from (A)ATSR products.")
-public class AatsrSstOp extends PixelOperator {
+public class AatsrSstOp extends Operator {
 
     private static final float COEFF_0_SCALE = 1.0f;
     private static final String NADIR_SST_BAND_NAME = "nadir_sst";
@@ -164,133 +166,150 @@ public class AatsrSstOp extends PixelOperator {
     private transient int[] nadirCoefficientIndexes;
     private transient int[] dualCoefficientIndexes;
 
-    private transient int nadirMaskIndex;
-    private transient int dualMaskIndex;
+    private transient RasterDataNode[] nadirRasters;
+    private transient RasterDataNode[] fwardRasters;
+    private transient ValidPixelMask nadirMask;
+    private transient ValidPixelMask dualMask;
 
-    private transient int currentPixel = 0;
+    private transient Band nadirSstBand;
+    private transient Band dualSstBand;
 
     @Override
-    protected void computePixel(int x, int y, Sample[] sourceSamples, WritableSample[] targetSamples) {
-        checkCancellation();
+    public void initialize() throws OperatorException {
+        nadirRasters = getSourceRasters(SstConstants.NADIR_370_BAND, SstConstants.NADIR_1100_BAND,
+                                        SstConstants.NADIR_1200_BAND, SstConstants.SUN_ELEV_NADIR);
+        if (dual) {
+            fwardRasters = getSourceRasters(SstConstants.FORWARD_370_BAND, SstConstants.FORWARD_1100_BAND,
+                                            SstConstants.FORWARD_1200_BAND, SstConstants.SUN_ELEV_FORWARD);
+        }
+        nadirMask = ValidPixelMask.create(nadirMaskExpression, sourceProduct);
+        dualMask = ValidPixelMask.create(dualMaskExpression, sourceProduct);
+
+        final Product targetProduct = new Product(sourceProduct.getName(), sourceProduct.getProductType(),
+                                                  sourceProduct.getSceneRasterWidth(),
+                                                  sourceProduct.getSceneRasterHeight());
+        ProductUtils.copyMetadata(sourceProduct, targetProduct);
+        ProductUtils.copyTimeInformation(sourceProduct, targetProduct);
+        ProductUtils.copyTiePointGrids(sourceProduct, targetProduct);
+        ProductUtils.copyGeoCoding(sourceProduct, targetProduct);
         if (nadir) {
-            if (nadirMaskIndex >= 0 && sourceSamples[nadirMaskIndex].getBoolean()) {
-                final float ir37 = sourceSamples[0].getFloat();
-                final float ir11 = sourceSamples[1].getFloat();
-                final float ir12 = sourceSamples[2].getFloat();
-                final float sea = sourceSamples[3].getFloat();
-
-                final int i = nadirCoefficientIndexes[x];
-                final float nadirSst = computeNadirSst(i, ir37, ir11, ir12, sea);
+            nadirSstBand = createBand(targetProduct, NADIR_SST_BAND_NAME, SstConstants.OUT_BAND_NADIR_DESCRIPTION);
+        }
+        if (dual) {
+            dualSstBand = createBand(targetProduct, DUAL_SST_BAND_NAME, SstConstants.OUT_BAND_DUAL_DESCRIPTION);
+        }
+        setTargetProduct(targetProduct);
+    }
 
-                targetSamples[0].set(nadirSst);
+    @Override
+    public void computeTileStack(Map<Band, Tile> targetTiles, Rectangle targetRectangle, ProgressMonitor pm) throws OperatorException {
+        checkForCancellation();
+        final float[][] nadirSamples = getSourceSamples(nadirRasters, targetRectangle);
+        if (nadir) {
+            final Tile nadirTile = targetTiles.get(nadirSstBand);
+            final float[] nadirSst = new float[targetRectangle.width * targetRectangle.height];
+            if (nadirMask != null) {
+                final int[] mask = nadirMask.getSamples(targetRectangle);
+                computeNadirSst(targetRectangle, nadirSamples, mask, nadirSst);
             } else {
-                targetSamples[0].set(invalidSstValue);
+                Arrays.fill(nadirSst, invalidSstValue);
             }
+            nadirTile.setSamples(nadirSst);
         }
+        checkForCancellation();
         if (dual) {
-            if (dualMaskIndex >= 0 && sourceSamples[dualMaskIndex].getBoolean()) {
-                final float ir37N = sourceSamples[0].getFloat();
-                final float ir11N = sourceSamples[1].getFloat();
-                final float ir12N = sourceSamples[2].getFloat();
-                final float ir37F = sourceSamples[4].getFloat();
-                final float ir11F = sourceSamples[5].getFloat();
-                final float ir12F = sourceSamples[6].getFloat();
-
-                final float seaN = sourceSamples[3].getFloat();
-                final float seaF = sourceSamples[7].getFloat();
-
-                final int i = dualCoefficientIndexes[x];
-                final float dualSst = computeDualSst(i, ir37N, ir11N, ir12N, ir37F, ir11F, ir12F, seaN, seaF);
-
-                targetSamples[1].set(dualSst);
+            final Tile dualTile = targetTiles.get(dualSstBand);
+            final float[] dualSst = new float[targetRectangle.width * targetRectangle.height];
+            if (dualMask != null) {
+                final float[][] fwardSamples = getSourceSamples(fwardRasters, targetRectangle);
+                final int[] mask = dualMask.getSamples(targetRectangle);
+                computeDualSst(targetRectangle, nadirSamples, fwardSamples, mask, dualSst);
             } else {
-                targetSamples[1].set(invalidSstValue);
+                Arrays.fill(dualSst, invalidSstValue);
             }
+            dualTile.setSamples(dualSst);
         }
     }
 
-    private void checkCancellation() {
-        if (currentPixel % 1000 == 0) {
-            checkForCancellation();
-            currentPixel = 0;
+    private void computeNadirSst(Rectangle rectangle, float[][] samples, int[] mask, float[] sst) {
+        final float[] ir37 = samples[0];
+        final float[] ir11 = samples[1];
+        final float[] ir12 = samples[2];
+        final float[] sea = samples[3];
+        // the coefficient set only depends on the column
+        final int[] coefficientIndexes = nadirCoefficientIndexes;
+        for (int y = 0; y < rectangle.height; y++) {
+            for (int x = 0, k = y * rectangle.width; x < rectangle.width; x++, k++) {
+                if (mask[k] == 0) {
+                    sst[k] = invalidSstValue;
+                    continue;
+                }
+                final int i = coefficientIndexes[rectangle.x + x];
+                // is night?
+                if (sea[k] < 0.0f && ir37[k] > 0.0f) {
+                    sst[k] = b0[i] + b1[i] * ir11[k] + b2[i] * ir12[k] + b3[i] * ir37[k];
+                } else {
+                    sst[k] = a0[i] + a1[i] * ir11[k] + a2[i] * ir12[k];
+                }
+            }
         }
-        currentPixel++;
     }
 
-    private float computeNadirSst(int i, float ir37, float ir11, float ir12, float sea) {
-        // is night?
-        if (sea < 0.0f && ir37 > 0.0f) {
-            return b0[i] + b1[i] * ir11 + b2[i] * ir12 + b3[i] * ir37;
-        } else {
-            return a0[i] + a1[i] * ir11 + a2[i] * ir12;
+    private void computeDualSst(Rectangle rectangle, float[][] nadirSamples, float[][] fwardSamples, int[] mask,
+                                float[] sst) {
+        final float[] ir37N = nadirSamples[0];
+        final float[] ir11N = nadirSamples[1];
+        final float[] ir12N = nadirSamples[2];
+        final float[] seaN = nadirSamples[3];
+        final float[] ir37F = fwardSamples[0];
+        final float[] ir11F = fwardSamples[1];
+        final float[] ir12F = fwardSamples[2];
+        final float[] seaF = fwardSamples[3];
+        final int[] coefficientIndexes = dualCoefficientIndexes;
+        for (int y = 0; y < rectangle.height; y++) {
+            for (int x = 0, k = y * rectangle.width; x < rectangle.width; x++, k++) {
+                if (mask[k] == 0) {
+                    sst[k] = invalidSstValue;
+                    continue;
+                }
+                final int i = coefficientIndexes[rectangle.x + x];
+                // is night?
+                if (seaN[k] < 0.0f && seaF[k] < 0.0f && ir37N[k] > 0.0f && ir37F[k] > 0.0f) {
+                    sst[k] = d0[i] + d1[i] * ir11N[k] + d2[i] * ir12N[k] + d3[i] * ir37N[k] + d4[i] * ir11F[k] +
+                             d5[i] * ir12F[k] + d6[i] * ir37F[k];
+                } else {
+                    sst[k] = c0[i] + c1[i] * ir11N[k] + c2[i] * ir12N[k] + c3[i] * ir11F[k] + c4[i] * ir12F[k];
+                }
+            }
         }
     }
 
-    private float computeDualSst(int i, float ir37N, float ir11N, float ir12N, float ir37F, float ir11F,
-                                 float ir12F, float seaN, float seaF) {
-        // is night?
-        if (seaN < 0.0f && seaF < 0.0f && ir37N > 0.0f && ir37F > 0.0f) {
-            return d0[i] + d1[i] * ir11N + d2[i] * ir12N + d3[i] * ir37N + d4[i] * ir11F + d5[i] * ir12F + d6[i] * ir37F;
-        } else {
-            return c0[i] + c1[i] * ir11N + c2[i] * ir12N + c3[i] * ir11F + c4[i] * ir12F;
+    private float[][] getSourceSamples(RasterDataNode[] rasters, Rectangle rectangle) {
+        final float[][] samples = new float[rasters.length][];
+        for (int i = 0; i < rasters.length; i++) {
+            samples[i] = getSourceTile(rasters[i], rectangle).getSamplesFloat();
         }
+        return samples;
     }
 
-    @Override
-    protected void configureSourceSamples(SourceSampleConfigurer sc) throws OperatorException {
-        sc.defineSample(0, SstConstants.NADIR_370_BAND);
-        sc.defineSample(1, SstConstants.NADIR_1100_BAND);
-        sc.defineSample(2, SstConstants.NADIR_1200_BAND);
-        sc.defineSample(3, SstConstants.SUN_ELEV_NADIR);
-
-        if (dual) {
-            sc.defineSample(4, SstConstants.FORWARD_370_BAND);
-            sc.defineSample(5, SstConstants.FORWARD_1100_BAND);
-            sc.defineSample(6, SstConstants.FORWARD_1200_BAND);
-            sc.defineSample(7, SstConstants.SUN_ELEV_FORWARD);
-        }
-
-        nadirMaskIndex = -1;
-        if (nadirMaskExpression != null && !nadirMaskExpression.trim().isEmpty()) {
-            nadirMaskIndex = 8;
-            sc.defineComputedSample(nadirMaskIndex, ProductData.TYPE_UINT8, nadirMaskExpression);
-        }
-
-        dualMaskIndex = -1;
-        if (dualMaskExpression != null && !dualMaskExpression.trim().isEmpty()) {
-            dualMaskIndex = 9;
-            sc.defineComputedSample(dualMaskIndex, ProductData.TYPE_UINT8, dualMaskExpression);
-        }
-    }
-
-    @Override
-    protected void configureTargetSamples(TargetSampleConfigurer sc) throws OperatorException {
-        if (nadir) {
-            sc.defineSample(0, NADIR_SST_BAND_NAME);
-        }
-        if (dual) {
-            sc.defineSample(1, DUAL_SST_BAND_NAME);
+    private RasterDataNode[] getSourceRasters(String... names) {
+        final RasterDataNode[] rasters = new RasterDataNode[names.length];
+        for (int i = 0; i < names.length; i++) {
+            rasters[i] = sourceProduct.getRasterDataNode(names[i]);
+            if (rasters[i] == null) {
+                throw new OperatorException("Source product does not contain raster '" + names[i] + "'");
+            }
         }
+        return rasters;
     }
 
-    @Override
-    protected void configureTargetProduct(ProductConfigurer productConfigurer) {
-        super.configureTargetProduct(productConfigurer);
-
-        if (nadir) {
-            final Band nadirSstBand = productConfigurer.addBand(NADIR_SST_BAND_NAME, ProductData.TYPE_FLOAT32);
-            nadirSstBand.setUnit(SstConstants.OUT_BAND_UNIT);
-            nadirSstBand.setDescription(SstConstants.OUT_BAND_NADIR_DESCRIPTION);
-            nadirSstBand.setGeophysicalNoDataValue(invalidSstValue);
-            nadirSstBand.setNoDataValueUsed(true);
-        }
-        if (dual) {
-            final Band dualSstBand = productConfigurer.addBand(DUAL_SST_BAND_NAME, ProductData.TYPE_FLOAT32);
-            dualSstBand.setUnit(SstConstants.OUT_BAND_UNIT);
-            dualSstBand.setDescription(SstConstants.OUT_BAND_DUAL_DESCRIPTION);
-            dualSstBand.setGeophysicalNoDataValue(invalidSstValue);
-            dualSstBand.setNoDataValueUsed(true);
-        }
+    private Band createBand(Product targetProduct, String name, String description) {
+        final Band sstBand = targetProduct.addBand(name, ProductData.TYPE_FLOAT32);
+        sstBand.setUnit(SstConstants.OUT_BAND_UNIT);
+        sstBand.setDescription(description);
+        sstBand.setGeophysicalNoDataValue(invalidSstValue);
+        sstBand.setNoDataValueUsed(true);
+        return sstBand;
     }
 
     @Override
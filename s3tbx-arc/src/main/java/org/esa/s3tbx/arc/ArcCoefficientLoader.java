@@ -18,7 +18,6 @@ package org.esa.s3tbx.arc;
 import org.esa.snap.core.gpf.OperatorException;
 import org.esa.snap.core.util.Guardian;
 import org.esa.snap.core.util.StringUtils;
-import org.esa.snap.core.util.math.VectorLookupTable;
 
 import java.io.File;
 import java.io.FileInputStream;
@@ -119,8 +118,7 @@ public class ArcCoefficientLoader {
         value = _props.getProperty(_coeffskey);
         final double[] lutdata = loadCoeffArray(value);
 
-        final VectorLookupTable lut = new VectorLookupTable(7, lutdata, dimensions);
-        ArcCoefficients coeffs = new ArcCoefficients(name, description, lut);
+        ArcCoefficients coeffs = new ArcCoefficients(name, description, dimensions, lutdata);
 
         _logger.fine("... success");
 
@@ -23,9 +23,16 @@ import org.esa.snap.core.util.math.VectorLookupTable;
  */
 public class ArcCoefficients {
 
+    /**
+     * The number of coefficients of an SST retrieval
+     */
+    public static final int NUM_COEFFS = 7;
+
     private String _name;
     private String _description;
     private VectorLookupTable _lut;
+    private double[][] _dimensions;
+    private double[] _values;
 
     /**
      * Constructs the object with default values
@@ -37,6 +44,16 @@ public class ArcCoefficients {
         _lut = lut;
     }
 
+    /**
+     * Constructs the object from the raw lookup table data. The dimensions are water vapour, forward secant and nadir
+     * secant, each entry of the table holds {@link #NUM_COEFFS} coefficients.
+     */
+    public ArcCoefficients(String name, String desc, double[][] dimensions, double[] values) {
+        this(name, desc, new VectorLookupTable(NUM_COEFFS, values, dimensions));
+        _dimensions = dimensions;
+        _values = values;
+    }
+
     /**
      * Sets the name for this coefficient set
      */
@@ -73,6 +90,8 @@ public class ArcCoefficients {
     public void set_Coeffs(VectorLookupTable lut) {
         Guardian.assertNotNull("lut", lut);
         _lut = lut;
+        _dimensions = null;
+        _values = null;
     }
 
     /**
@@ -83,4 +102,76 @@ public class ArcCoefficients {
         return _lut;
     }
 
+    /**
+     * Interpolates the coefficients for the given water vapour and secants into the given array. Other than
+     * {@link VectorLookupTable#getValues(double...)} no arrays are allocated, so this can be called per pixel.
+     * Coordinates outside the table are clamped to its boundaries.
+     *
+     * @param wv     the total column water vapour
+     * @param secfwd the forward-view secant
+     * @param secnad the nadir-view secant
+     * @param coeffs the array receiving the {@link #NUM_COEFFS} coefficients
+     */
+    public void getCoefficients(double wv, double secfwd, double secnad, double[] coeffs) {
+        if (_values == null) {
+            System.arraycopy(_lut.getValues(wv, secfwd, secnad), 0, coeffs, 0, NUM_COEFFS);
+            return;
+        }
+        final double[] wvband = _dimensions[0];
+        final double[] fwd = _dimensions[1];
+        final double[] nad = _dimensions[2];
+        final int i0 = lowerIndex(wvband, wv);
+        final int j0 = lowerIndex(fwd, secfwd);
+        final int k0 = lowerIndex(nad, secnad);
+        final double fi = fraction(wvband, i0, wv);
+        final double fj = fraction(fwd, j0, secfwd);
+        final double fk = fraction(nad, k0, secnad);
+
+        final int strideK = NUM_COEFFS;
+        final int strideJ = nad.length * strideK;
+        final int strideI = fwd.length * strideJ;
+        final int base = i0 * strideI + j0 * strideJ + k0 * strideK;
+        for (int c = 0; c < NUM_COEFFS; c++) {
+            final int o = base + c;
+            final double v00 = lerp(_values[o], _values[o + strideK], fk);
+            final double v01 = lerp(_values[o + strideJ], _values[o + strideJ + strideK], fk);
+            final double v10 = lerp(_values[o + strideI], _values[o + strideI + strideK], fk);
+            final double v11 = lerp(_values[o + strideI + strideJ], _values[o + strideI + strideJ + strideK], fk);
+            coeffs[c] = lerp(lerp(v00, v01, fj), lerp(v10, v11, fj), fi);
+        }
+    }
+
+    private static int lowerIndex(double[] axis, double value) {
+        if (value <= axis[0]) {
+            return 0;
+        }
+        if (value >= axis[axis.length - 1]) {
+            return axis.length - 2;
+        }
+        int lo = 0;
+        int hi = axis.length - 1;
+        while (hi > lo + 1) {
+            final int mid = (lo + hi) >>> 1;
+            if (value < axis[mid]) {
+                hi = mid;
+            } else {
+                lo = mid;
+            }
+        }
+        return lo;
+    }
+
+    private static double fraction(double[] axis, int index, double value) {
+        if (value <= axis[0]) {
+            return 0.0;
+        }
+        if (value >= axis[axis.length - 1]) {
+            return 1.0;
+        }
+        return (value - axis[index]) / (axis[index + 1] - axis[index]);
+    }
+
+    private static double lerp(double a, double b, double f) {
+        return a + f * (b - a);
+    }
 }
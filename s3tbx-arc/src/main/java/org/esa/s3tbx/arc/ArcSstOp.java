@@ -16,32 +16,34 @@
 package org.esa.s3tbx.arc;
 
 import com.bc.ceres.core.ProgressMonitor;
+import org.esa.s3tbx.commons.ValidPixelMask;
 import org.esa.snap.core.datamodel.Band;
 import org.esa.snap.core.datamodel.Product;
 import org.esa.snap.core.datamodel.ProductData;
 import org.esa.snap.core.datamodel.ProductNode;
 import org.esa.snap.core.datamodel.RasterDataNode;
+import org.esa.snap.core.gpf.Operator;
 import org.esa.snap.core.gpf.OperatorException;
 import org.esa.snap.core.gpf.OperatorSpi;
+import org.esa.snap.core.gpf.Tile;
 import org.esa.snap.core.gpf.annotations.OperatorMetadata;
 import org.esa.snap.core.gpf.annotations.Parameter;
 import org.esa.snap.core.gpf.annotations.SourceProduct;
-import org.esa.snap.core.gpf.pointop.PixelOperator;
-import org.esa.snap.core.gpf.pointop.ProductConfigurer;
-import org.esa.snap.core.gpf.pointop.Sample;
-import org.esa.snap.core.gpf.pointop.SourceSampleConfigurer;
-import org.esa.snap.core.gpf.pointop.TargetSampleConfigurer;
-import org.esa.snap.core.gpf.pointop.WritableSample;
+import org.esa.snap.core.image.ResolutionLevel;
+import org.esa.snap.core.image.VirtualBandOpImage;
+import org.esa.snap.core.util.ProductUtils;
 import org.esa.snap.core.util.ResourceInstaller;
 import org.esa.snap.core.util.SystemUtils;
 import org.esa.snap.core.util.converters.BooleanExpressionConverter;
 import org.esa.snap.core.util.converters.GeneralExpressionConverter;
 
+import java.awt.Rectangle;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -56,7 +58,7 @@ import java.util.stream.Stream;
         copyright = "University of Reading, Brockmann Consult GmbH",
         version = "1.0",
         description = "Computes sea surface temperature (SST) from (A)ATSR and SLSTR products.")
-public class ArcSstOp extends PixelOperator {
+public class ArcSstOp extends Operator {
 
     private Sensor sensor;
 
@@ -132,150 +134,168 @@ public class ArcSstOp extends PixelOperator {
     private transient ArcCoefficients coeff2;
     private transient ArcCoefficients coeff3;
 
-    private transient int nadirMaskIndex;
-    private transient int dualMaskIndex;
-    private transient int asdiMaskIndex;
+    private transient RasterDataNode[] sourceRasters;
+    private transient RasterDataNode tcwvRaster;
+    private transient VirtualBandOpImage tcwvImage;
+    private transient ValidPixelMask nadirValidMask;
+    private transient ValidPixelMask dualValidMask;
+    private transient ValidPixelMask asdiValidMask;
 
-    private transient int currentPixel = 0;
+    private transient Band nadirSstBand;
+    private transient Band dualSstBand;
+    private transient Band asdiSstBand;
 
     @Override
-    protected void computePixel(int x, int y, Sample[] sourceSamples, WritableSample[] targetSamples) {
-        checkCancellation();
-        double secnad, secfwd;
+    public void initialize() throws OperatorException {
+        sensor = getSensor();
+        final String[] sourceRasterNames = sensor.getRasterNames();
+        sourceRasters = new RasterDataNode[8];
+        for (int i = 0; i < sourceRasters.length; i++) {
+            sourceRasters[i] = sourceProduct.getRasterDataNode(sourceRasterNames[i]);
+        }
         if (sensor.isAtsr()) {
-            secnad = 1.0 / Math.cos(Math.toRadians(90 - sourceSamples[6].getFloat()));
-            secfwd = 1.0 / Math.cos(Math.toRadians(90 - sourceSamples[7].getFloat()));
+            tcwvImage = createTcwvImage(tcwvExpression);
         } else {
-            secnad = 1.0 / Math.cos(Math.toRadians(sourceSamples[6].getFloat()));
-            secfwd = 1.0 / Math.cos(Math.toRadians(sourceSamples[7].getFloat()));
+            tcwvRaster = sourceProduct.getRasterDataNode(sourceRasterNames[8]);
         }
-
-        final float ir37N = sourceSamples[0].getFloat();
-        final float ir11N = sourceSamples[1].getFloat();
-        final float ir12N = sourceSamples[2].getFloat();
-        final float ir37F = sourceSamples[3].getFloat();
-        final float ir11F = sourceSamples[4].getFloat();
-        final float ir12F = sourceSamples[5].getFloat();
-        final float ntcwv = sourceSamples[8].getFloat();
-
+        nadirValidMask = nadir ? ValidPixelMask.create(nadirMaskExpression, sourceProduct) : null;
+        dualValidMask = dual ? ValidPixelMask.create(dualMaskExpression, sourceProduct) : null;
+        asdiValidMask = asdi ? ValidPixelMask.create(asdiMaskExpression, sourceProduct) : null;
+
+        final Product targetProduct = new Product(sourceProduct.getName(), sourceProduct.getProductType(),
+                                                  sourceProduct.getSceneRasterWidth(),
+                                                  sourceProduct.getSceneRasterHeight());
+        ProductUtils.copyMetadata(sourceProduct, targetProduct);
+        ProductUtils.copyTimeInformation(sourceProduct, targetProduct);
+        ProductUtils.copyTiePointGrids(sourceProduct, targetProduct);
+        ProductUtils.copyGeoCoding(sourceProduct, targetProduct);
         if (nadir) {
-            if (nadirMaskIndex >= 0 && !sourceSamples[nadirMaskIndex].getBoolean()) {
-                targetSamples[0].set(invalidSstValue);
-            } else if (ir11N < 260.0 || ir12N < 260.0) {
-                targetSamples[0].set(invalidSstValue);
-            } else {
-                final double coeff[] = coeff1.get_Coeffs().getValues(ntcwv, 1.75, secnad);
-                final double nadirSst = coeff[0]*ir37N + coeff[1]*ir11N + coeff[2]*ir12N +
-                        coeff[6];
-
-                targetSamples[0].set(nadirSst);
-            }
+            nadirSstBand = createBand(targetProduct, nadirCoefficientsFile);
         }
         if (dual) {
-            if (dualMaskIndex >= 0 && !sourceSamples[dualMaskIndex].getBoolean()) {
-                targetSamples[1].set(invalidSstValue);
-            } else if (ir11N < 260.0 || ir12N < 260.0 || ir11F < 260.0 || ir12F < 260.0) {
-                targetSamples[1].set(invalidSstValue);
-            } else {
-                final double coeff[] = coeff2.get_Coeffs().getValues(ntcwv, secfwd, secnad);
-                final double dualSst = coeff[0]*ir37N + coeff[1]*ir11N + coeff[2]*ir12N +
-                        coeff[3]*ir37F + coeff[4]*ir11F + coeff[5]*ir12F +
-                        coeff[6];
-
-                targetSamples[1].set(dualSst);
-            }
+            dualSstBand = createBand(targetProduct, dualCoefficientsFile);
         }
         if (asdi) {
-            if (asdiMaskIndex >= 0 && !sourceSamples[asdiMaskIndex].getBoolean()) {
-                targetSamples[2].set(invalidSstValue);
-            } else if (ir11N < 100.0 || ir12N < 100.0 || ir11F < 100.0 || ir12F < 100.0) {
-                targetSamples[2].set(invalidSstValue);
-            } else {
-                final double coeff[] = coeff3.get_Coeffs().getValues(ntcwv, secfwd, secnad);
-                final double asdi = coeff[0] * ir37N + coeff[1] * ir11N + coeff[2] * ir12N +
-                        coeff[3] * ir37F + coeff[4] * ir11F + coeff[5] * ir12F +
-                        coeff[6];
-                targetSamples[2].set(asdi);
-            }
+            asdiSstBand = createBand(targetProduct, asdiCoefficientsFile);
         }
-    }
-
-    private void checkCancellation() {
-        if (currentPixel % 1000 == 0) {
-            checkForCancellation();
-            currentPixel = 0;
-        }
-        currentPixel++;
+        setTargetProduct(targetProduct);
     }
 
     @Override
-    protected void configureSourceSamples(SourceSampleConfigurer sc) throws OperatorException {
-        String[] sourceRasterNames = sensor.getRasterNames();
-        for (int i = 0; i < sourceRasterNames.length; i++) {
-            sc.defineSample(i, sourceRasterNames[i]);
-        }
-        if (sensor.isAtsr()) {
-            sc.defineComputedSample(sourceRasterNames.length, ProductData.TYPE_FLOAT32, tcwvExpression);
-        }
-
-        nadirMaskIndex = -1;
-        if (nadirMaskExpression != null && !nadirMaskExpression.trim().isEmpty()) {
-            nadirMaskIndex = 10;
-            sc.defineComputedSample(nadirMaskIndex, ProductData.TYPE_UINT8, nadirMaskExpression);
+    public void computeTileStack(Map<Band, Tile> targetTiles, Rectangle targetRectangle, ProgressMonitor pm) throws OperatorException {
+        final float[][] bt = new float[6][];
+        for (int i = 0; i < bt.length; i++) {
+            bt[i] = getSourceTile(sourceRasters[i], targetRectangle).getSamplesFloat();
         }
-
-        dualMaskIndex = -1;
-        if (dualMaskExpression != null && !dualMaskExpression.trim().isEmpty()) {
-            dualMaskIndex = 11;
-            sc.defineComputedSample(dualMaskIndex, ProductData.TYPE_UINT8, dualMaskExpression);
+        final float[] nadirAngle = getSourceTile(sourceRasters[6], targetRectangle).getSamplesFloat();
+        final float[] fwardAngle = getSourceTile(sourceRasters[7], targetRectangle).getSamplesFloat();
+        final float[] tcwv;
+        if (tcwvImage != null) {
+            tcwv = tcwvImage.getData(targetRectangle).getSamples(targetRectangle.x, targetRectangle.y,
+                                                                 targetRectangle.width, targetRectangle.height,
+                                                                 0, (float[]) null);
+        } else {
+            tcwv = getSourceTile(tcwvRaster, targetRectangle).getSamplesFloat();
         }
-        asdiMaskIndex = -1;
-        if (asdiMaskExpression != null && !asdiMaskExpression.trim().isEmpty()) {
-            asdiMaskIndex = 12;
-            sc.defineComputedSample(asdiMaskIndex, ProductData.TYPE_UINT8, asdiMaskExpression);
+        final int[] nadirMask = getMaskSamples(nadirValidMask, targetRectangle);
+        final int[] dualMask = getMaskSamples(dualValidMask, targetRectangle);
+        final int[] asdiMask = getMaskSamples(asdiValidMask, targetRectangle);
+
+        final Tile nadirTile = nadir ? targetTiles.get(nadirSstBand) : null;
+        final Tile dualTile = dual ? targetTiles.get(dualSstBand) : null;
+        final Tile asdiTile = asdi ? targetTiles.get(asdiSstBand) : null;
+
+        final float[] ir37N = bt[0];
+        final float[] ir11N = bt[1];
+        final float[] ir12N = bt[2];
+        final float[] ir37F = bt[3];
+        final float[] ir11F = bt[4];
+        final float[] ir12F = bt[5];
+        final double[] coeff = new double[ArcCoefficients.NUM_COEFFS];
+        final boolean atsr = sensor.isAtsr();
+
+        int i = 0;
+        for (int y = targetRectangle.y; y < targetRectangle.y + targetRectangle.height; y++) {
+            checkForCancellation();
+            for (int x = targetRectangle.x; x < targetRectangle.x + targetRectangle.width; x++, i++) {
+                // the view geometry is shared by all retrievals of the pixel
+                final double secnad;
+                final double secfwd;
+                if (atsr) {
+                    secnad = 1.0 / Math.cos(Math.toRadians(90 - nadirAngle[i]));
+                    secfwd = 1.0 / Math.cos(Math.toRadians(90 - fwardAngle[i]));
+                } else {
+                    secnad = 1.0 / Math.cos(Math.toRadians(nadirAngle[i]));
+                    secfwd = 1.0 / Math.cos(Math.toRadians(fwardAngle[i]));
+                }
+                final float ntcwv = tcwv[i];
+
+                if (nadir) {
+                    if (nadirMask != null && nadirMask[i] == 0) {
+                        nadirTile.setSample(x, y, invalidSstValue);
+                    } else if (ir11N[i] < 260.0 || ir12N[i] < 260.0) {
+                        nadirTile.setSample(x, y, invalidSstValue);
+                    } else {
+                        coeff1.getCoefficients(ntcwv, 1.75, secnad, coeff);
+                        final double nadirSst = coeff[0] * ir37N[i] + coeff[1] * ir11N[i] + coeff[2] * ir12N[i] +
+                                coeff[6];
+                        nadirTile.setSample(x, y, nadirSst);
+                    }
+                }
+                if (dual) {
+                    if (dualMask != null && dualMask[i] == 0) {
+                        dualTile.setSample(x, y, invalidSstValue);
+                    } else if (ir11N[i] < 260.0 || ir12N[i] < 260.0 || ir11F[i] < 260.0 || ir12F[i] < 260.0) {
+                        dualTile.setSample(x, y, invalidSstValue);
+                    } else {
+                        coeff2.getCoefficients(ntcwv, secfwd, secnad, coeff);
+                        final double dualSst = coeff[0] * ir37N[i] + coeff[1] * ir11N[i] + coeff[2] * ir12N[i] +
+                                coeff[3] * ir37F[i] + coeff[4] * ir11F[i] + coeff[5] * ir12F[i] +
+                                coeff[6];
+                        dualTile.setSample(x, y, dualSst);
+                    }
+                }
+                if (asdi) {
+                    if (asdiMask != null && asdiMask[i] == 0) {
+                        asdiTile.setSample(x, y, invalidSstValue);
+                    } else if (ir11N[i] < 100.0 || ir12N[i] < 100.0 || ir11F[i] < 100.0 || ir12F[i] < 100.0) {
+                        asdiTile.setSample(x, y, invalidSstValue);
+                    } else {
+                        coeff3.getCoefficients(ntcwv, secfwd, secnad, coeff);
+                        final double asdiValue = coeff[0] * ir37N[i] + coeff[1] * ir11N[i] + coeff[2] * ir12N[i] +
+                                coeff[3] * ir37F[i] + coeff[4] * ir11F[i] + coeff[5] * ir12F[i] +
+                                coeff[6];
+                        asdiTile.setSample(x, y, asdiValue);
+                    }
+                }
+            }
         }
     }
 
-    @Override
-    protected void configureTargetSamples(TargetSampleConfigurer sc) throws OperatorException {
-        if (nadir) {
-            sc.defineSample(0, nadirCoefficientsFile.getCoefficientsName());
-        }
-        if (dual) {
-            sc.defineSample(1, dualCoefficientsFile.getCoefficientsName());
-        }
-        if (asdi) {
-            sc.defineSample(2, asdiCoefficientsFile.getCoefficientsName());
-        }
+    private static int[] getMaskSamples(ValidPixelMask mask, Rectangle rectangle) {
+        return mask != null ? mask.getSamples(rectangle) : null;
     }
 
-    @Override
-    protected void configureTargetProduct(ProductConfigurer productConfigurer) {
-        super.configureTargetProduct(productConfigurer);
-
-        if (nadir) {
-            createBand(productConfigurer, nadirCoefficientsFile);
-        }
-        if (dual) {
-            createBand(productConfigurer, dualCoefficientsFile);
-        }
-        if (asdi) {
-            createBand(productConfigurer, asdiCoefficientsFile);
+    private VirtualBandOpImage createTcwvImage(String expression) {
+        if (expression == null || expression.trim().isEmpty()) {
+            return null;
         }
+        return VirtualBandOpImage.builder(expression, sourceProduct)
+                .dataType(ProductData.TYPE_FLOAT32)
+                .fillValue(Float.NaN)
+                .tileSize(sourceProduct.getPreferredTileSize())
+                .mask(false)
+                .level(ResolutionLevel.MAXRES)
+                .create();
     }
 
-    private void createBand(ProductConfigurer productConfigurer, ArcFiles coeff) {
-        final Band nadirSstBand = productConfigurer.addBand(coeff.getCoefficientsName(), ProductData.TYPE_FLOAT32);
-        nadirSstBand.setUnit(ArcConstants.OUT_BAND_UNIT);
-        nadirSstBand.setDescription(coeff.getDescription());
-        nadirSstBand.setGeophysicalNoDataValue(invalidSstValue);
-        nadirSstBand.setNoDataValueUsed(true);
-    }
-
-    @Override
-    protected void prepareInputs() throws OperatorException {
-        super.prepareInputs();
-        sensor = getSensor();
+    private Band createBand(Product targetProduct, ArcFiles coeff) {
+        final Band sstBand = targetProduct.addBand(coeff.getCoefficientsName(), ProductData.TYPE_FLOAT32);
+        sstBand.setUnit(ArcConstants.OUT_BAND_UNIT);
+        sstBand.setDescription(coeff.getDescription());
+        sstBand.setGeophysicalNoDataValue(invalidSstValue);
+        sstBand.setNoDataValueUsed(true);
+        return sstBand;
     }
 
     @Override
@@ -0,0 +1,47 @@
+/*
+ * Copyright (C) 2010 Brockmann Consult GmbH (info@brockmann-consult.de)
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.s3tbx.arc;
+
+import org.junit.Test;
+
+import java.net.URL;
+
+import static org.junit.Assert.*;
+
+public class ArcCoefficientsTest {
+
+    @Test
+    public void testGetCoefficients_matchesLookupTable() throws Exception {
+        final URL resource = ArcCoefficientsTest.class.getResource("/auxdata/arc/ARC_D2_AATSR_2007.coef");
+        final ArcCoefficients coefficients = new ArcCoefficientLoader().load(resource);
+
+        final double[] coeffs = new double[ArcCoefficients.NUM_COEFFS];
+        final double[][] coordinates = {
+                {30.0, 1.7, 1.03},
+                {0.0, 1.6, 1.0},
+                {12.3, 1.654, 1.011},
+                {60.0, 1.8, 1.08},
+                // outside the table
+                {75.0, 1.9, 0.98},
+                {-5.0, 1.5, 1.2},
+        };
+        for (double[] c : coordinates) {
+            coefficients.getCoefficients(c[0], c[1], c[2], coeffs);
+            final double[] expected = coefficients.get_Coeffs().getValues(c[0], c[1], c[2]);
+            assertArrayEquals(expected, coeffs, 1e-10);
+        }
+    }
+}
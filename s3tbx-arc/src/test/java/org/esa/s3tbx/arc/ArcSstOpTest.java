@@ -0,0 +1,118 @@
+package org.esa.s3tbx.arc;
+
+import org.esa.snap.core.datamodel.Band;
+import org.esa.snap.core.datamodel.Product;
+import org.esa.snap.core.datamodel.ProductData;
+import org.esa.snap.core.datamodel.TiePointGrid;
+import org.junit.Test;
+
+import java.awt.image.Raster;
+import java.net.URL;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+public class ArcSstOpTest {
+
+    private static final int WIDTH = 16;
+    private static final int HEIGHT = 12;
+    private static final float INVALID = -999.0f;
+
+    @Test
+    public void testAatsrTilesMatchPixelWiseRetrieval() throws Exception {
+        final Product source = createAatsrProduct();
+
+        final ArcSstOp op = new ArcSstOp();
+        op.setParameterDefaultValues();
+        op.setSourceProduct(source);
+        final Product target = op.getTargetProduct();
+
+        final String[] names = ArcConstants.SOURCE_RASTER_NAMES_AATSR;
+        assertNotNull(target.getTiePointGrid(names[6]));
+        assertNotNull(target.getTiePointGrid(names[7]));
+
+        final ArcCoefficients nadirCoeffs = load(ArcFiles.ARC_N2_AATSR);
+        final ArcCoefficients dualCoeffs = load(ArcFiles.ARC_D2_AATSR);
+        final ArcCoefficients asdiCoeffs = load(ArcFiles.ASDI_AATSR);
+        final Raster nadirSst = target.getBand(ArcFiles.ARC_N2_AATSR.getCoefficientsName()).getSourceImage().getData();
+        final Raster dualSst = target.getBand(ArcFiles.ARC_D2_AATSR.getCoefficientsName()).getSourceImage().getData();
+        final Raster asdiValue = target.getBand(ArcFiles.ASDI_AATSR.getCoefficientsName()).getSourceImage().getData();
+
+        final float[][] samples = new float[8][WIDTH * HEIGHT];
+        for (int n = 0; n < samples.length; n++) {
+            source.getRasterDataNode(names[n]).readPixels(0, 0, WIDTH, HEIGHT, samples[n]);
+        }
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                final float[] pixel = new float[samples.length];
+                for (int n = 0; n < samples.length; n++) {
+                    pixel[n] = samples[n][y * WIDTH + x];
+                }
+                final String pos = " at " + x + "," + y;
+                assertEquals("nadir" + pos, retrieveNadir(nadirCoeffs, pixel), nadirSst.getSampleFloat(x, y, 0), 1.0e-3f);
+                assertEquals("dual" + pos, retrieveDual(dualCoeffs, pixel, 260.0), dualSst.getSampleFloat(x, y, 0), 1.0e-3f);
+                assertEquals("asdi" + pos, retrieveDual(asdiCoeffs, pixel, 100.0), asdiValue.getSampleFloat(x, y, 0), 1.0e-3f);
+            }
+        }
+    }
+
+    // the retrieval as the former pixel operator computed it, with the coefficients taken from the lookup table
+    private static float retrieveNadir(ArcCoefficients coefficients, float[] pixel) {
+        if (pixel[1] < 260.0 || pixel[2] < 260.0) {
+            return INVALID;
+        }
+        final double secnad = 1.0 / Math.cos(Math.toRadians(90 - pixel[6]));
+        final double[] coeff = coefficients.get_Coeffs().getValues(30.0, 1.75, secnad);
+        return (float) (coeff[0] * pixel[0] + coeff[1] * pixel[1] + coeff[2] * pixel[2] + coeff[6]);
+    }
+
+    private static float retrieveDual(ArcCoefficients coefficients, float[] pixel, double threshold) {
+        if (pixel[1] < threshold || pixel[2] < threshold || pixel[4] < threshold || pixel[5] < threshold) {
+            return INVALID;
+        }
+        final double secnad = 1.0 / Math.cos(Math.toRadians(90 - pixel[6]));
+        final double secfwd = 1.0 / Math.cos(Math.toRadians(90 - pixel[7]));
+        final double[] coeff = coefficients.get_Coeffs().getValues(30.0, secfwd, secnad);
+        return (float) (coeff[0] * pixel[0] + coeff[1] * pixel[1] + coeff[2] * pixel[2] +
+                coeff[3] * pixel[3] + coeff[4] * pixel[4] + coeff[5] * pixel[5] +
+                coeff[6]);
+    }
+
+    private static ArcCoefficients load(ArcFiles file) throws Exception {
+        final URL resource = ArcSstOpTest.class.getResource("/auxdata/arc/" + file.getFilename());
+        return new ArcCoefficientLoader().load(resource);
+    }
+
+    private static Product createAatsrProduct() {
+        final String[] names = ArcConstants.SOURCE_RASTER_NAMES_AATSR;
+        final Product product = new Product("ATS_TOA_1P", "ATS_TOA_1P", WIDTH, HEIGHT);
+        for (int n = 0; n < 6; n++) {
+            final float[] data = new float[WIDTH * HEIGHT];
+            for (int y = 0; y < HEIGHT; y++) {
+                for (int x = 0; x < WIDTH; x++) {
+                    // the first rows are too cold for the SSTs, the first one even for the ASDI
+                    final float offset = y == 0 ? -200.0f : y == 1 ? -30.0f : 0.0f;
+                    data[y * WIDTH + x] = 270.0f + 1.5f * x + 0.7f * y + 0.3f * n + offset;
+                }
+            }
+            final Band band = product.addBand(names[n], ProductData.TYPE_FLOAT32);
+            band.setRasterData(ProductData.createInstance(data));
+        }
+        // the view elevations, the forward view looking at about 55 degrees zenith angle
+        product.addTiePointGrid(createElevationGrid(names[6], 89.0f, -1.4f));
+        product.addTiePointGrid(createElevationGrid(names[7], 37.0f, -0.4f));
+        return product;
+    }
+
+    private static TiePointGrid createElevationGrid(String name, float start, float step) {
+        final int gridWidth = WIDTH / 4 + 1;
+        final int gridHeight = HEIGHT / 4 + 1;
+        final float[] data = new float[gridWidth * gridHeight];
+        for (int j = 0; j < gridHeight; j++) {
+            for (int i = 0; i < gridWidth; i++) {
+                data[j * gridWidth + i] = start + step * i + 0.1f * j;
+            }
+        }
+        return new TiePointGrid(name, gridWidth, gridHeight, 0.5, 0.5, 4.0, 4.0, data);
+    }
+}
@@ -18,25 +18,26 @@ package org.esa.s3tbx.dataio.atsr;
 import com.bc.ceres.core.ProgressMonitor;
 import org.esa.snap.core.datamodel.ProductData;
 
-import javax.imageio.stream.ImageInputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 abstract class AtsrBandReader {
 
     protected String _bandName;
     protected long _startOffset;
-    protected long _currentOffset;
     protected float _multiplier;
-    protected ImageInputStream _stream;
+    protected int _pixelSize;
+    protected AtsrRasterSource _source;
 
     /**
-     * Creates the object with given band name, file offset conversion multiplier and file stream.
+     * Creates the object with given band name, file offset conversion multiplier, pixel size and raster source.
      */
-    AtsrBandReader(String bandName, int offset, float mult, ImageInputStream stream) {
+    AtsrBandReader(String bandName, int offset, float mult, int pixelSize, AtsrRasterSource source) {
         _bandName = bandName;
         _startOffset = offset;
         _multiplier = mult;
-        _stream = stream;
+        _pixelSize = pixelSize;
+        _source = source;
     }
 
     /**
@@ -47,32 +48,43 @@ abstract class AtsrBandReader {
     }
 
     /**
-     * Reads the band data from file.
+     * Reads the band data from file. All lines covered by the source region are read with a single read, the
+     * sub-sampled lines are decoded afterwards. Does not change any state, hence may be called concurrently.
      */
-    abstract void readBandData(int sourceOffsetX, int sourceOffsetY,
-                               int sourceWidth, int sourceHeight,
-                               int sourceStepX, int sourceStepY,
-                               int destOffsetX, int destOffsetY,
-                               int destWidth, int destHeight,
-                               ProductData destBuffer,
-                               ProgressMonitor pm) throws IOException;
-
-    /**
-     * Sets the file stream to the start position of the reading process
-     */
-    void setStreamPos(int sourceOffsetX, int sourceOffsetY, int pixelSize) throws IOException {
-        // calculate offset in stream and wind to position
-        _currentOffset = (sourceOffsetY * AtsrConstants.ATSR_SCENE_RASTER_WIDTH + sourceOffsetX) * pixelSize;
-        _currentOffset += _startOffset;
-        _stream.seek(_currentOffset);
+    void readBandData(int sourceOffsetX, int sourceOffsetY,
+                      int sourceWidth, int sourceHeight,
+                      int sourceStepX, int sourceStepY,
+                      int destOffsetX, int destOffsetY,
+                      int destWidth, int destHeight,
+                      ProductData destBuffer,
+                      ProgressMonitor pm) throws IOException {
+        pm.beginTask("Reading band '" + getBandName() + "'...", sourceHeight);
+        try {
+            final ByteBuffer lines = _source.readLines(_startOffset, sourceOffsetY, sourceHeight, _pixelSize);
+            int targetIdx = 0;
+            for (int y = 0; y < sourceHeight; y += sourceStepY) {
+                if (pm.isCanceled()) {
+                    break;
+                }
+                final int linePos = (y * AtsrConstants.ATSR_SCENE_RASTER_WIDTH + sourceOffsetX) * _pixelSize;
+                targetIdx = decodeLine(lines, linePos, sourceWidth, sourceStepX, destBuffer, targetIdx);
+                pm.worked(sourceStepY);
+            }
+        } finally {
+            pm.done();
+        }
     }
 
     /**
-     * Updates the stream position to the position: <code>_currentOffset += delta * pixelSize</code>
+     * Decodes a sub-sampled raster line into the destination buffer.
+     *
+     * @param lines      the raster lines read
+     * @param linePos    the position of the first pixel of the line in bytes
+     * @param width      the number of source pixels of the line
+     * @param stepX      the sub-sampling in x direction
+     * @param destBuffer the destination buffer
+     * @param targetIdx  the index of the first destination element
+     * @return the index of the destination element following the line
      */
-    void updateStreamPos(int delta, int pixelSize) throws IOException {
-        _currentOffset = (int) _stream.getStreamPosition();
-        _currentOffset += delta * pixelSize;
-        _stream.seek(_currentOffset);
-    }
+    abstract int decodeLine(ByteBuffer lines, int linePos, int width, int stepX, ProductData destBuffer, int targetIdx);
 }
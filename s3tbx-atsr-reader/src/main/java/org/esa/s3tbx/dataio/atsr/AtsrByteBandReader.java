@@ -15,57 +15,29 @@
  */
 package org.esa.s3tbx.dataio.atsr;
 
-import com.bc.ceres.core.ProgressMonitor;
 import org.esa.snap.core.datamodel.ProductData;
 
-import javax.imageio.stream.ImageInputStream;
-import java.io.IOException;
+import java.nio.ByteBuffer;
 
 class AtsrByteBandReader extends AtsrBandReader {
 
-    private static final int _pixelSize = 1;
+    private static final int PIXEL_SIZE = 1;
 
     /**
-     * Creates the object with given band name, file offset conversion multiplier and file stream.
+     * Creates the object with given band name, file offset conversion multiplier and raster source.
      */
-    AtsrByteBandReader(String bandName, int offset, float mult, ImageInputStream stream) {
-        super(bandName, offset, mult, stream);
+    AtsrByteBandReader(String bandName, int offset, float mult, AtsrRasterSource source) {
+        super(bandName, offset, mult, PIXEL_SIZE, source);
     }
 
     @Override
-    synchronized void readBandData(int sourceOffsetX, int sourceOffsetY, int sourceWidth, int sourceHeight,
-                                   int sourceStepX,
-                                   int sourceStepY, int destOffsetX, int destOffsetY, int destWidth, int destHeight,
-                                   ProductData destBuffer, ProgressMonitor pm) throws IOException {
-        setStreamPos(sourceOffsetX, sourceOffsetY, _pixelSize);
-
-        float[] targetData = (float[]) destBuffer.getElems();
-        byte[] line = new byte[sourceWidth];
-        int targetIdx = 0;
-
-
-        pm.beginTask("Reading band '" + getBandName() + "'...", sourceHeight);
-        // loop over lines
-        try {
-            for (int y = 0; y < sourceHeight; y += sourceStepY) {
-                if (pm.isCanceled()) {
-                    break;
-                }
-                _stream.readFully(line, 0, line.length);
-
-                // convert line - and eventually subsample
-                for (int x = 0; x < sourceWidth; x += sourceStepX) {
-                    final int value = Math.abs((line[x] & 0xFF));
-                    targetData[targetIdx] = value * _multiplier;
-                    ++targetIdx;
-                }
-                updateStreamPos(AtsrConstants.ATSR_SCENE_RASTER_WIDTH - sourceWidth, _pixelSize);
-
-                pm.worked(1);
-            }
-        } finally {
-            pm.done();
+    int decodeLine(ByteBuffer lines, int linePos, int width, int stepX, ProductData destBuffer, int targetIdx) {
+        final float[] targetData = (float[]) destBuffer.getElems();
+        // convert line - and eventually subsample
+        for (int x = 0; x < width; x += stepX) {
+            targetData[targetIdx] = (lines.get(linePos + x) & 0xFF) * _multiplier;
+            ++targetIdx;
         }
-
+        return targetIdx;
     }
 }
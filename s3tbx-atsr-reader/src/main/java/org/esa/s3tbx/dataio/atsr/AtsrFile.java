@@ -25,6 +25,7 @@ import org.esa.snap.core.datamodel.TiePointGrid;
 import javax.imageio.stream.ImageInputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.RandomAccessFile;
 import java.nio.ByteOrder;
 import java.util.HashMap;
 import java.util.Vector;
@@ -32,6 +33,8 @@ import java.util.Vector;
 abstract class AtsrFile {
 
     private ImageInputStream _stream;
+    private RandomAccessFile _rasterFile;
+    private AtsrRasterSource _rasterSource;
     private AtsrHeader _header;
     private File _file;
     private Vector _bands;
@@ -55,12 +58,16 @@ abstract class AtsrFile {
 
         checkByteSwapping();
         readHeader();
+        createRasterSource();
     }
 
     /**
      * Closes the ATSR file.
      */
     public void close() throws IOException {
+        if (_rasterFile != null) {
+            _rasterFile.close();
+        }
         if (_stream != null) {
             _stream.close();
         }
@@ -140,6 +147,13 @@ abstract class AtsrFile {
         return _stream;
     }
 
+    /**
+     * Retrieves the source of the band raster data.
+     */
+    AtsrRasterSource getRasterSource() {
+        return _rasterSource;
+    }
+
     /**
      * Retrieves the band reader for the band passed in.
      */
@@ -272,6 +286,19 @@ abstract class AtsrFile {
         return coding;
     }
 
+    /**
+     * Creates the source of the band raster data. If the file is known, the raster data is read with positional
+     * reads from a separate file channel, otherwise from the stream.
+     */
+    private void createRasterSource() throws IOException {
+        if (_file != null) {
+            _rasterFile = new RandomAccessFile(_file, "r");
+            _rasterSource = new AtsrRasterSource(_rasterFile.getChannel(), _stream, _stream.getByteOrder());
+        } else {
+            _rasterSource = new AtsrRasterSource(null, _stream, _stream.getByteOrder());
+        }
+    }
+
     /**
      * Checks whether byte swapping is needed or not. Sets the stream state according.
      */
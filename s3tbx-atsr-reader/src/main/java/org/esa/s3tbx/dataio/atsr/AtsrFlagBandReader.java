@@ -15,59 +15,32 @@
  */
 package org.esa.s3tbx.dataio.atsr;
 
-import com.bc.ceres.core.ProgressMonitor;
 import org.esa.snap.core.datamodel.ProductData;
 
-import javax.imageio.stream.ImageInputStream;
-import java.io.IOException;
+import java.nio.ByteBuffer;
 
 /**
  * This class is responsible for reading ERS ATSR flag bands.
  */
 public class AtsrFlagBandReader extends AtsrBandReader {
 
-    static final int _pixelSize = 2;
+    private static final int PIXEL_SIZE = 2;
 
     /**
-     * Creates the object with given band name, file offset conversion multiplier and file stream.
+     * Creates the object with given band name, file offset conversion multiplier and raster source.
      */
-    AtsrFlagBandReader(String bandName, int offset, float mult, ImageInputStream stream) {
-        super(bandName, offset, mult, stream);
+    AtsrFlagBandReader(String bandName, int offset, float mult, AtsrRasterSource source) {
+        super(bandName, offset, mult, PIXEL_SIZE, source);
     }
 
     @Override
-    synchronized void readBandData(int sourceOffsetX, int sourceOffsetY, int sourceWidth, int sourceHeight,
-                                   int sourceStepX,
-                                   int sourceStepY, int destOffsetX, int destOffsetY, int destWidth, int destHeight,
-                                   ProductData destBuffer, ProgressMonitor pm) throws IOException {
-        setStreamPos(sourceOffsetX, sourceOffsetY, _pixelSize);
-
-        short[] targetData = (short[]) destBuffer.getElems();
-        short[] line = new short[sourceWidth];
-        int targetIdx = 0;
-
-        pm.beginTask("Reading band '" + getBandName() + "'...", sourceHeight);
-        // loop over lines
-        try {
-            for (int y = 0; y < sourceHeight; y += sourceStepY) {
-                if (pm.isCanceled()) {
-                    break;
-                }
-                _stream.readFully(line, 0, line.length);
-
-                // convert line - and eventually subsample
-                for (int x = 0; x < sourceWidth; x += sourceStepX) {
-
-                    targetData[targetIdx] = line[x];
-
-                    ++targetIdx;
-                }
-                updateStreamPos(AtsrConstants.ATSR_SCENE_RASTER_WIDTH - sourceWidth, _pixelSize);
-
-                pm.worked(1);
-            }
-        } finally {
-            pm.done();
+    int decodeLine(ByteBuffer lines, int linePos, int width, int stepX, ProductData destBuffer, int targetIdx) {
+        final short[] targetData = (short[]) destBuffer.getElems();
+        // convert line - and eventually subsample
+        for (int x = 0; x < width; x += stepX) {
+            targetData[targetIdx] = lines.getShort(linePos + x * PIXEL_SIZE);
+            ++targetIdx;
         }
+        return targetIdx;
     }
 }
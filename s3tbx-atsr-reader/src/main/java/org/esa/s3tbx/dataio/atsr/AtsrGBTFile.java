@@ -427,34 +427,34 @@ public class AtsrGBTFile extends AtsrFile {
         if (getHeader().isThermalPresent()) {
             // 1200nm brightness temperature nadir
             reader = new AtsrShortBandReader(AtsrGBTConstants.NADIR_1200_BT_NAME, _nadir1200offset,
-                                             AtsrGBTConstants.BRIGHTNESS_TEMPERATURE_FACTOR, getStream());
+                                             AtsrGBTConstants.BRIGHTNESS_TEMPERATURE_FACTOR, getRasterSource());
             addBandReader(reader);
 
             // 1100nm brightness temperature nadir
             reader = new AtsrShortBandReader(AtsrGBTConstants.NADIR_1100_BT_NAME, _nadir1100offset,
-                                             AtsrGBTConstants.BRIGHTNESS_TEMPERATURE_FACTOR, getStream());
+                                             AtsrGBTConstants.BRIGHTNESS_TEMPERATURE_FACTOR, getRasterSource());
             addBandReader(reader);
 
             // 370nm brightness temperature nadir
             reader = new AtsrShortBandReader(AtsrGBTConstants.NADIR_370_BT_NAME, _nadir370offset,
-                                             AtsrGBTConstants.BRIGHTNESS_TEMPERATURE_FACTOR, getStream());
+                                             AtsrGBTConstants.BRIGHTNESS_TEMPERATURE_FACTOR, getRasterSource());
             addBandReader(reader);
 
             // add forward bands reader if present
             if (!getHeader().isNadirOnly()) {
                 // 1200nm brightness temperature forward
                 reader = new AtsrShortBandReader(AtsrGBTConstants.FORWARD_1200_BT_NAME, _forward1200offset,
-                                                 AtsrGBTConstants.BRIGHTNESS_TEMPERATURE_FACTOR, getStream());
+                                                 AtsrGBTConstants.BRIGHTNESS_TEMPERATURE_FACTOR, getRasterSource());
                 addBandReader(reader);
 
                 // 1100nm brightness temperature forward
                 reader = new AtsrShortBandReader(AtsrGBTConstants.FORWARD_1100_BT_NAME, _forward1100offset,
-                                                 AtsrGBTConstants.BRIGHTNESS_TEMPERATURE_FACTOR, getStream());
+                                                 AtsrGBTConstants.BRIGHTNESS_TEMPERATURE_FACTOR, getRasterSource());
                 addBandReader(reader);
 
                 // 370nm brightness temperature forward
                 reader = new AtsrShortBandReader(AtsrGBTConstants.FORWARD_370_BT_NAME, _forward370offset,
-                                                 AtsrGBTConstants.BRIGHTNESS_TEMPERATURE_FACTOR, getStream());
+                                                 AtsrGBTConstants.BRIGHTNESS_TEMPERATURE_FACTOR, getRasterSource());
                 addBandReader(reader);
 
             }
@@ -463,14 +463,14 @@ public class AtsrGBTFile extends AtsrFile {
         if (getHeader().isThermalPresent() || getHeader().isVisiblePresent()) {
             // 1600nm reflectance nadir
             reader = new AtsrShortBandReader(AtsrGBTConstants.NADIR_1600_REF_NAME, _nadir1600offset,
-                                             AtsrGBTConstants.REFLECTANCE_FACTOR, getStream());
+                                             AtsrGBTConstants.REFLECTANCE_FACTOR, getRasterSource());
             addBandReader(reader);
 
             // add forward band reader if present
             if (!getHeader().isNadirOnly()) {
                 // 1600nm reflectance forward
                 reader = new AtsrShortBandReader(AtsrGBTConstants.FORWARD_1600_REF_NAME, _forward1600offset,
-                                                 AtsrGBTConstants.REFLECTANCE_FACTOR, getStream());
+                                                 AtsrGBTConstants.REFLECTANCE_FACTOR, getRasterSource());
                 addBandReader(reader);
             }
         }
@@ -478,34 +478,34 @@ public class AtsrGBTFile extends AtsrFile {
         if (getHeader().isVisiblePresent()) {
             // 870nm reflectance nadir
             reader = new AtsrShortBandReader(AtsrGBTConstants.NADIR_870_REF_NAME, _nadir870offset,
-                                             AtsrGBTConstants.REFLECTANCE_FACTOR, getStream());
+                                             AtsrGBTConstants.REFLECTANCE_FACTOR, getRasterSource());
             addBandReader(reader);
 
             // 650nm reflectance nadir
             reader = new AtsrShortBandReader(AtsrGBTConstants.NADIR_650_REF_NAME, _nadir650offset,
-                                             AtsrGBTConstants.REFLECTANCE_FACTOR, getStream());
+                                             AtsrGBTConstants.REFLECTANCE_FACTOR, getRasterSource());
             addBandReader(reader);
 
             // 550nm reflectance nadir
             reader = new AtsrShortBandReader(AtsrGBTConstants.NADIR_550_REF_NAME, _nadir550offset,
-                                             AtsrGBTConstants.REFLECTANCE_FACTOR, getStream());
+                                             AtsrGBTConstants.REFLECTANCE_FACTOR, getRasterSource());
             addBandReader(reader);
 
             // add forward bands reader when needed
             if (!getHeader().isNadirOnly()) {
                 // 870nm reflectance forward
                 reader = new AtsrShortBandReader(AtsrGBTConstants.FORWARD_870_REF_NAME, _forward870offset,
-                                                 AtsrGBTConstants.REFLECTANCE_FACTOR, getStream());
+                                                 AtsrGBTConstants.REFLECTANCE_FACTOR, getRasterSource());
                 addBandReader(reader);
 
                 // 650nm reflectance forward
                 reader = new AtsrShortBandReader(AtsrGBTConstants.FORWARD_650_REF_NAME, _forward650offset,
-                                                 AtsrGBTConstants.REFLECTANCE_FACTOR, getStream());
+                                                 AtsrGBTConstants.REFLECTANCE_FACTOR, getRasterSource());
                 addBandReader(reader);
 
                 // 550nm reflectance forward
                 reader = new AtsrShortBandReader(AtsrGBTConstants.FORWARD_550_REF_NAME, _forward550offset,
-                                                 AtsrGBTConstants.REFLECTANCE_FACTOR, getStream());
+                                                 AtsrGBTConstants.REFLECTANCE_FACTOR, getRasterSource());
                 addBandReader(reader);
             }
         }
@@ -513,36 +513,36 @@ public class AtsrGBTFile extends AtsrFile {
         if (getHeader().isXYPresent()) {
             // nadir x offset
             reader = new AtsrByteBandReader(AtsrGBTConstants.NADIR_X_OFFS_NAME, _nadirXOffset,
-                                            AtsrGBTConstants.COORDINATE_OFFSET_FACTOR, getStream());
+                                            AtsrGBTConstants.COORDINATE_OFFSET_FACTOR, getRasterSource());
             addBandReader(reader);
 
             // nadir y offset
             reader = new AtsrByteBandReader(AtsrGBTConstants.NADIR_Y_OFFS_NAME, _nadirYOffset,
-                                            AtsrGBTConstants.COORDINATE_OFFSET_FACTOR, getStream());
+                                            AtsrGBTConstants.COORDINATE_OFFSET_FACTOR, getRasterSource());
             addBandReader(reader);
 
             // add forward bands reader when needed
             if (!getHeader().isNadirOnly()) {
                 // forward x offset
                 reader = new AtsrByteBandReader(AtsrGBTConstants.FORWARD_X_OFFS_NAME, _forwardXOffset,
-                                                AtsrGBTConstants.COORDINATE_OFFSET_FACTOR, getStream());
+                                                AtsrGBTConstants.COORDINATE_OFFSET_FACTOR, getRasterSource());
                 addBandReader(reader);
 
                 // forward y offset
                 reader = new AtsrByteBandReader(AtsrGBTConstants.FORWARD_Y_OFFS_NAME, _forwardYOffset,
-                                                AtsrGBTConstants.COORDINATE_OFFSET_FACTOR, getStream());
+                                                AtsrGBTConstants.COORDINATE_OFFSET_FACTOR, getRasterSource());
                 addBandReader(reader);
             }
         }
 
         if (getHeader().areFlagsPresent()) {
             reader = new AtsrFlagBandReader(AtsrConstants.NADIR_FLAGS_NAME, _nadirFlagsOffset,
-                                            1, getStream());
+                                            1, getRasterSource());
             addBandReader(reader);
 
             if (!getHeader().isNadirOnly()) {
                 reader = new AtsrFlagBandReader(AtsrConstants.FORWARD_FLAGS_NAME, _forwardFlagsOffset,
-                                                1, getStream());
+                                                1, getRasterSource());
                 addBandReader(reader);
             }
         }
@@ -262,47 +262,47 @@ public class AtsrGSSTFile extends AtsrFile {
 
         // sst nadir
         reader = new AtsrShortBandReader(AtsrGSSTConstants.NADIR_SST_NAME, _nadirSSTOffset,
-                                         AtsrGSSTConstants.SST_FACTOR, getStream());
+                                         AtsrGSSTConstants.SST_FACTOR, getRasterSource());
         addBandReader(reader);
 
         // sst dual
         reader = new AtsrShortBandReader(AtsrGSSTConstants.DUAL_SST_NAME, _dualSSTOffset,
-                                         AtsrGSSTConstants.SST_FACTOR, getStream());
+                                         AtsrGSSTConstants.SST_FACTOR, getRasterSource());
         addBandReader(reader);
 
         // confidence flags
         reader = new AtsrFlagBandReader(AtsrGSSTConstants.SST_CONFIDENCE_NAME, _confidenceSSTOffset,
-                                        1, getStream());
+                                        1, getRasterSource());
         addBandReader(reader);
 
         if (getHeader().isXYPresent()) {
             reader = new AtsrByteBandReader(AtsrGSSTConstants.NADIR_X_OFFS_NAME, _nadirXOffset,
-                                            AtsrGSSTConstants.COORDINATE_OFFSET_FACTOR, getStream());
+                                            AtsrGSSTConstants.COORDINATE_OFFSET_FACTOR, getRasterSource());
             addBandReader(reader);
 
             reader = new AtsrByteBandReader(AtsrGSSTConstants.NADIR_Y_OFFS_NAME, _nadirYOffset,
-                                            AtsrGSSTConstants.COORDINATE_OFFSET_FACTOR, getStream());
+                                            AtsrGSSTConstants.COORDINATE_OFFSET_FACTOR, getRasterSource());
             addBandReader(reader);
 
             if (!getHeader().isNadirOnly()) {
                 reader = new AtsrByteBandReader(AtsrGSSTConstants.FORWARD_X_OFFS_NAME, _forwardXOffset,
-                                                AtsrGSSTConstants.COORDINATE_OFFSET_FACTOR, getStream());
+                                                AtsrGSSTConstants.COORDINATE_OFFSET_FACTOR, getRasterSource());
                 addBandReader(reader);
 
                 reader = new AtsrByteBandReader(AtsrGSSTConstants.FORWARD_Y_OFFS_NAME, _forwardYOffset,
-                                                AtsrGSSTConstants.COORDINATE_OFFSET_FACTOR, getStream());
+                                                AtsrGSSTConstants.COORDINATE_OFFSET_FACTOR, getRasterSource());
                 addBandReader(reader);
             }
         }
 
         if (getHeader().areFlagsPresent()) {
             reader = new AtsrFlagBandReader(AtsrConstants.NADIR_FLAGS_NAME, _nadirFlagsOffset,
-                                            1, getStream());
+                                            1, getRasterSource());
             addBandReader(reader);
 
             if (!getHeader().isNadirOnly()) {
                 reader = new AtsrFlagBandReader(AtsrConstants.FORWARD_FLAGS_NAME, _forwardFlagsOffset,
-                                                1, getStream());
+                                                1, getRasterSource());
                 addBandReader(reader);
             }
         }
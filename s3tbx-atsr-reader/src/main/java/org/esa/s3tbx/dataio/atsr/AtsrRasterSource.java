@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) 2010 Brockmann Consult GmbH (info@brockmann-consult.de)
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.s3tbx.dataio.atsr;
+
+import javax.imageio.stream.ImageInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+/**
+ * Reads blocks of raster lines of the 512 x 512 pixel bands of an ATSR file.
+ * <p>
+ * If a file channel is given, the lines are read with positional reads which neither move nor lock a shared stream
+ * position, so any number of bands and tiles are read concurrently. Otherwise the lines are read from the stream
+ * of the file, one block at a time.
+ */
+class AtsrRasterSource {
+
+    private final FileChannel _channel;
+    private final ImageInputStream _stream;
+    private final ByteOrder _byteOrder;
+
+    /**
+     * Creates the object with given file channel, file stream and byte order of the raster data.
+     *
+     * @param channel   the channel used for positional reads, may be null
+     * @param stream    the stream used if no channel is given
+     * @param byteOrder the byte order of the raster data
+     */
+    AtsrRasterSource(FileChannel channel, ImageInputStream stream, ByteOrder byteOrder) {
+        _channel = channel;
+        _stream = stream;
+        _byteOrder = byteOrder;
+    }
+
+    /**
+     * Reads consecutive full raster lines of a band with a single read.
+     *
+     * @param bandOffset the file offset of the band
+     * @param firstLine  the first line to read
+     * @param numLines   the number of lines to read
+     * @param pixelSize  the size of a pixel in bytes
+     * @return the lines, ordered with the byte order of the file
+     */
+    ByteBuffer readLines(long bandOffset, int firstLine, int numLines, int pixelSize) throws IOException {
+        final int lineSize = AtsrConstants.ATSR_SCENE_RASTER_WIDTH * pixelSize;
+        final long position = bandOffset + (long) firstLine * lineSize;
+        final byte[] lines = new byte[numLines * lineSize];
+        if (_channel != null) {
+            final ByteBuffer buffer = ByteBuffer.wrap(lines);
+            while (buffer.hasRemaining()) {
+                if (_channel.read(buffer, position + buffer.position()) < 0) {
+                    throw new EOFException("Unexpected end of file at position " + (position + buffer.position()));
+                }
+            }
+        } else {
+            synchronized (_stream) {
+                _stream.seek(position);
+                _stream.readFully(lines, 0, lines.length);
+            }
+        }
+        return ByteBuffer.wrap(lines).order(_byteOrder);
+    }
+}
@@ -0,0 +1,106 @@
+package org.esa.s3tbx.dataio.atsr;
+
+import com.bc.ceres.core.ProgressMonitor;
+import org.esa.snap.core.datamodel.ProductData;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.imageio.stream.FileImageInputStream;
+import javax.imageio.stream.ImageInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.junit.Assert.assertEquals;
+
+public class AtsrBandReaderTest {
+
+    private static final int WIDTH = AtsrConstants.ATSR_SCENE_RASTER_WIDTH;
+    private static final int HEIGHT = AtsrConstants.ATSR_SCENE_RASTER_HEIGHT;
+    private static final int SHORT_BAND_OFFSET = 100;
+    private static final int BYTE_BAND_OFFSET = SHORT_BAND_OFFSET + WIDTH * HEIGHT * 2;
+
+    private File file;
+    private RandomAccessFile randomAccessFile;
+    private ImageInputStream stream;
+
+    @Before
+    public void setUp() throws IOException {
+        file = File.createTempFile("atsr", ".gbt");
+        final ByteBuffer buffer = ByteBuffer.allocate(BYTE_BAND_OFFSET + WIDTH * HEIGHT);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                buffer.putShort(SHORT_BAND_OFFSET + (y * WIDTH + x) * 2, shortValue(x, y));
+                buffer.put(BYTE_BAND_OFFSET + y * WIDTH + x, (byte) (x + y));
+            }
+        }
+        try (OutputStream outputStream = new FileOutputStream(file)) {
+            outputStream.write(buffer.array());
+        }
+        randomAccessFile = new RandomAccessFile(file, "r");
+        stream = new FileImageInputStream(randomAccessFile);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        stream.close();
+        file.delete();
+    }
+
+    @Test
+    public void testSubSampledRegionWithPositionalReads() throws IOException {
+        assertSubSampledRegion(new AtsrRasterSource(randomAccessFile.getChannel(), stream, ByteOrder.LITTLE_ENDIAN));
+    }
+
+    @Test
+    public void testSubSampledRegionWithStreamReads() throws IOException {
+        assertSubSampledRegion(new AtsrRasterSource(null, stream, ByteOrder.LITTLE_ENDIAN));
+    }
+
+    private static void assertSubSampledRegion(AtsrRasterSource source) throws IOException {
+        final int offsetX = 17;
+        final int offsetY = 250;
+        final int width = 101;
+        final int height = 50;
+        final int stepX = 2;
+        final int stepY = 3;
+        final int destWidth = (width - 1) / stepX + 1;
+        final int destHeight = (height - 1) / stepY + 1;
+
+        final AtsrBandReader shortReader = new AtsrShortBandReader("bt", SHORT_BAND_OFFSET, 0.01f, source);
+        final ProductData shortData = ProductData.createInstance(new float[destWidth * destHeight]);
+        shortReader.readBandData(offsetX, offsetY, width, height, stepX, stepY, 0, 0, destWidth, destHeight,
+                                 shortData, ProgressMonitor.NULL);
+
+        final AtsrBandReader flagReader = new AtsrFlagBandReader("flags", SHORT_BAND_OFFSET, 1, source);
+        final ProductData flagData = ProductData.createInstance(new short[destWidth * destHeight]);
+        flagReader.readBandData(offsetX, offsetY, width, height, stepX, stepY, 0, 0, destWidth, destHeight,
+                                flagData, ProgressMonitor.NULL);
+
+        final AtsrBandReader byteReader = new AtsrByteBandReader("x_offs", BYTE_BAND_OFFSET, 0.5f, source);
+        final ProductData byteData = ProductData.createInstance(new float[destWidth * destHeight]);
+        byteReader.readBandData(offsetX, offsetY, width, height, stepX, stepY, 0, 0, destWidth, destHeight,
+                                byteData, ProgressMonitor.NULL);
+
+        for (int j = 0; j < destHeight; j++) {
+            for (int i = 0; i < destWidth; i++) {
+                final int x = offsetX + i * stepX;
+                final int y = offsetY + j * stepY;
+                final int index = j * destWidth + i;
+                assertEquals(Math.abs(shortValue(x, y)) * 0.01f, shortData.getElemFloatAt(index), 0.0f);
+                assertEquals(shortValue(x, y), (short) flagData.getElemIntAt(index));
+                assertEquals(((x + y) & 0xFF) * 0.5f, byteData.getElemFloatAt(index), 0.0f);
+            }
+        }
+    }
+
+    private static short shortValue(int x, int y) {
+        return (short) (x * 61 - y * 97);
+    }
+}
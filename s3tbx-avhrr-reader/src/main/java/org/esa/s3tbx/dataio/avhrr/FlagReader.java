@@ -88,7 +88,7 @@ public class FlagReader implements BandReader {
 
     }
 
-    private byte readFlags(int rawY) throws IOException {
+    protected byte readFlags(int rawY) throws IOException {
         long[] flags = new long[6];
         int dataSetOffset = avhrrFile.getFlagOffset(rawY);
 
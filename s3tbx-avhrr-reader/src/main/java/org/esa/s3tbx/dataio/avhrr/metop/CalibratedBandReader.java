@@ -24,7 +24,6 @@ import org.esa.s3tbx.dataio.avhrr.AvhrrFile;
 import org.esa.s3tbx.dataio.avhrr.calibration.RadianceCalibrator;
 import org.esa.snap.core.datamodel.ProductData;
 
-import javax.imageio.stream.ImageInputStream;
 import java.io.IOException;
 import java.text.MessageFormat;
 
@@ -39,9 +38,8 @@ class CalibratedBandReader extends PlainBandReader {
 
     private final RadianceCalibrator calibrator;
 
-    public CalibratedBandReader(int channel, MetopFile metopFile,
-                                ImageInputStream inputStream, RadianceCalibrator radianceCalibrator) {
-        super(channel, metopFile, inputStream);
+    public CalibratedBandReader(int channel, MetopFile metopFile, RadianceCalibrator radianceCalibrator) {
+        super(channel, metopFile);
         calibrator = radianceCalibrator;
     }
 
@@ -101,6 +99,9 @@ class CalibratedBandReader extends PlainBandReader {
 
         pm.beginTask(MessageFormat.format("Reading AVHRR band ''{0}''...", getBandName()), rawCoord.maxY - rawCoord.minY);
 
+        final MdrRecordCache recordCache = metopFile.getRecordCache();
+        final int datasetIndex = AvhrrConstants.CH_DATASET_INDEXES[channel];
+        final short[] radianceScanLine = new short[sourceWidth];
         int targetIdx = rawCoord.targetStart;
         for (int sourceY = rawCoord.minY; sourceY <= rawCoord.maxY; sourceY += sourceStepY) {
             if (pm.isCanceled()) {
@@ -108,16 +109,10 @@ class CalibratedBandReader extends PlainBandReader {
             }
 
             if (hasData(sourceY)) {
-                final int dataOffset = getDataOffset(sourceOffsetX, sourceY);
-                synchronized (inputStream) {
-                    final short[] radianceScanLine = new short[metopFile.getProductWidth()];
-                    inputStream.seek(dataOffset);
-                    inputStream.readFully(radianceScanLine, 0, sourceWidth);
-
-                    for (int sourceX = 0; sourceX <= sourceWidth - 1; sourceX++) {
-                        targetData[targetIdx] = calibrator.calibrate(radianceScanLine[sourceX] * scalingFactor);
-                        targetIdx += rawCoord.targetIncrement;
-                    }
+                recordCache.readSceneData(datasetIndex, sourceY, rawCoord.minX, radianceScanLine, 0, sourceWidth);
+                for (int sourceX = 0; sourceX <= sourceWidth - 1; sourceX++) {
+                    targetData[targetIdx] = calibrator.calibrate(radianceScanLine[sourceX] * scalingFactor);
+                    targetIdx += rawCoord.targetIncrement;
                 }
             } else {
                 for (int sourceX = rawCoord.minX; sourceX <= rawCoord.maxX; sourceX += sourceStepX) {
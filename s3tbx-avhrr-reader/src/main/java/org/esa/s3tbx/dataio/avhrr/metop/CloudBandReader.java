@@ -23,7 +23,6 @@ import org.esa.s3tbx.dataio.avhrr.AvhrrFile;
 import org.esa.s3tbx.dataio.avhrr.BandReader;
 import org.esa.snap.core.datamodel.ProductData;
 
-import javax.imageio.stream.ImageInputStream;
 import java.io.IOException;
 import java.text.MessageFormat;
 
@@ -36,12 +35,8 @@ class CloudBandReader implements BandReader {
 
     protected MetopFile metopFile;
 
-    protected final ImageInputStream inputStream;
-
-    public CloudBandReader(MetopFile metopFile,
-                           ImageInputStream inputStream) {
+    public CloudBandReader(MetopFile metopFile) {
         this.metopFile = metopFile;
-        this.inputStream = inputStream;
     }
 
     @Override
@@ -86,25 +81,18 @@ class CloudBandReader implements BandReader {
         pm.beginTask(MessageFormat.format("Reading AVHRR band ''{0}''...", getBandName()),
                      rawCoord.maxY - rawCoord.minY);
 
+        final MdrRecordCache recordCache = metopFile.getRecordCache();
         int targetIdx = rawCoord.targetStart;
         for (int sourceY = rawCoord.minY; sourceY <= rawCoord.maxY; sourceY += sourceStepY) {
             if (pm.isCanceled()) {
                 break;
             }
 
-            final int dataOffset = getDataOffset(sourceOffsetX, sourceY);
-            synchronized (inputStream) {
-                inputStream.seek(dataOffset);
-                inputStream.readFully(targetData, targetIdx, sourceWidth);
-            }
+            recordCache.readCloudData(sourceY, rawCoord.minX, targetData, targetIdx, sourceWidth);
             targetIdx += sourceWidth;
             pm.worked(1);
         }
         pm.done();
 
     }
-
-    protected int getDataOffset(int sourceOffsetX, int sourceY) {
-        return metopFile.getScanLineOffset(sourceY) + 22472  + ((metopFile.getNumTrimX() + sourceOffsetX) * 2);
-    }
 }
\ No newline at end of file
@@ -0,0 +1,254 @@
+/*
+ * Copyright (C) 2015 Brockmann Consult GmbH (info@brockmann-consult.de)
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+
+package org.esa.s3tbx.dataio.avhrr.metop;
+
+import org.esa.s3tbx.dataio.avhrr.AvhrrConstants;
+
+import javax.imageio.stream.ImageInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Caches the scene data of the MDR records of a METOP-AVHRR/3 product in blocks of consecutive records.
+ * <p>
+ * An MDR record interleaves the scene data of all channels with the cloud information, the quality flags and the
+ * frame indicator of its scan line. When a scan line is accessed first, the whole block of records containing it is
+ * read with a single positional read and demultiplexed into the data of all bands at once. Hence the records are read
+ * once and sequentially, however many bands are read. Positional reads do not move a shared stream position, so
+ * blocks are read concurrently; only the lookup of a block is synchronized.
+ */
+class MdrRecordCache {
+
+    /**
+     * The number of records per block.
+     */
+    static final int BLOCK_SIZE = 64;
+
+    private static final int MAX_CACHED_BLOCKS = 16;
+
+    private static final int SCENE_DATA_OFFSET = 24;
+
+    private static final int NUM_DATASETS = 5;
+
+    private static final int WIDTH = AvhrrConstants.RAW_SCENE_RASTER_WIDTH;
+
+    private final FileChannel channel;
+    private final ImageInputStream inputStream;
+    private final long firstMdrOffset;
+    private final int mdrSize;
+    private final int numRecords;
+    private final int flagOffset;
+    private final int frameIndicatorOffset;
+    private final int cloudOffset;
+    private final Map<Integer, Block> blocks;
+
+    /**
+     * Creates a cache for the given records.
+     *
+     * @param channel              the channel of the product file used for positional reads,
+     *                             may be {@code null} if the product is not read from a file
+     * @param inputStream          the stream of the product, used if no channel is given
+     * @param firstMdrOffset       the file position of the first MDR record
+     * @param mdrSize              the size of an MDR record in bytes
+     * @param numRecords           the number of MDR records
+     * @param flagOffset           the position of the quality flags within a record
+     * @param frameIndicatorOffset the position of the frame indicator byte within a record
+     * @param cloudOffset          the position of the cloud information within a record
+     */
+    MdrRecordCache(FileChannel channel, ImageInputStream inputStream, long firstMdrOffset, int mdrSize,
+                   int numRecords, int flagOffset, int frameIndicatorOffset, int cloudOffset) {
+        this.channel = channel;
+        this.inputStream = inputStream;
+        this.firstMdrOffset = firstMdrOffset;
+        this.mdrSize = mdrSize;
+        this.numRecords = numRecords;
+        this.flagOffset = flagOffset;
+        this.frameIndicatorOffset = frameIndicatorOffset;
+        this.cloudOffset = cloudOffset;
+        blocks = new LinkedHashMap<Integer, Block>(MAX_CACHED_BLOCKS, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Block> eldest) {
+                return size() > MAX_CACHED_BLOCKS;
+            }
+        };
+    }
+
+    /**
+     * Copies scene data of a scan line.
+     *
+     * @param datasetIndex the index of the scene dataset, see {@link AvhrrConstants#CH_DATASET_INDEXES}
+     * @param rawY         the index of the record
+     * @param rawX         the first raw pixel to copy
+     * @param dest         the destination array
+     * @param destPos      the first destination index
+     * @param length       the number of pixels to copy
+     * @throws IOException if the records could not be read
+     */
+    void readSceneData(int datasetIndex, int rawY, int rawX, short[] dest, int destPos, int length) throws IOException {
+        final Block block = getBlock(rawY);
+        System.arraycopy(block.sceneData[datasetIndex], (rawY - block.firstRecord) * WIDTH + rawX, dest, destPos, length);
+    }
+
+    /**
+     * Copies cloud information of a scan line.
+     *
+     * @param rawY    the index of the record
+     * @param rawX    the first raw pixel to copy
+     * @param dest    the destination array
+     * @param destPos the first destination index
+     * @param length  the number of pixels to copy
+     * @throws IOException if the records could not be read
+     */
+    void readCloudData(int rawY, int rawX, short[] dest, int destPos, int length) throws IOException {
+        final Block block = getBlock(rawY);
+        System.arraycopy(block.cloudData, (rawY - block.firstRecord) * WIDTH + rawX, dest, destPos, length);
+    }
+
+    /**
+     * Returns the quality flags of a scan line, one bit for each quality field being set.
+     *
+     * @param rawY the index of the record
+     * @return the flags
+     * @throws IOException if the records could not be read
+     */
+    byte getFlags(int rawY) throws IOException {
+        final Block block = getBlock(rawY);
+        return block.flags[rawY - block.firstRecord];
+    }
+
+    /**
+     * Returns the frame indicator byte of a scan line.
+     *
+     * @param rawY the index of the record
+     * @return the frame indicator
+     * @throws IOException if the records could not be read
+     */
+    int getFrameIndicator(int rawY) throws IOException {
+        final Block block = getBlock(rawY);
+        return block.frameIndicators[rawY - block.firstRecord];
+    }
+
+    /**
+     * Reads bytes of the product file without caching them.
+     *
+     * @param position the file position
+     * @param dest     the destination, which is filled completely
+     * @throws IOException if the bytes could not be read
+     */
+    void read(long position, byte[] dest) throws IOException {
+        if (channel != null) {
+            final ByteBuffer buffer = ByteBuffer.wrap(dest);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, position + buffer.position()) < 0) {
+                    throw new EOFException("Unexpected end of file at position " + (position + buffer.position()));
+                }
+            }
+        } else {
+            synchronized (inputStream) {
+                inputStream.seek(position);
+                inputStream.readFully(dest);
+            }
+        }
+    }
+
+    private Block getBlock(int rawY) throws IOException {
+        if (rawY < 0 || rawY >= numRecords) {
+            throw new IllegalArgumentException("rawY out of range: " + rawY);
+        }
+        final int blockIndex = rawY / BLOCK_SIZE;
+        Block block;
+        synchronized (blocks) {
+            block = blocks.get(blockIndex);
+            if (block == null) {
+                final int firstRecord = blockIndex * BLOCK_SIZE;
+                block = new Block(firstRecord, Math.min(BLOCK_SIZE, numRecords - firstRecord));
+                blocks.put(blockIndex, block);
+            }
+        }
+        block.load();
+        return block;
+    }
+
+    private final class Block {
+
+        final int firstRecord;
+        final int numRecords;
+        short[][] sceneData;
+        short[] cloudData;
+        byte[] flags;
+        int[] frameIndicators;
+        private volatile boolean loaded;
+
+        Block(int firstRecord, int numRecords) {
+            this.firstRecord = firstRecord;
+            this.numRecords = numRecords;
+        }
+
+        void load() throws IOException {
+            if (loaded) {
+                return;
+            }
+            synchronized (this) {
+                if (loaded) {
+                    return;
+                }
+                final byte[] records = new byte[numRecords * mdrSize];
+                read(firstMdrOffset + (long) firstRecord * mdrSize, records);
+                demultiplex(ByteBuffer.wrap(records));
+                loaded = true;
+            }
+        }
+
+        private void demultiplex(ByteBuffer records) {
+            sceneData = new short[NUM_DATASETS][numRecords * WIDTH];
+            cloudData = new short[numRecords * WIDTH];
+            flags = new byte[numRecords];
+            frameIndicators = new int[numRecords];
+            for (int i = 0; i < numRecords; i++) {
+                final int recordOffset = i * mdrSize;
+                for (int dataset = 0; dataset < NUM_DATASETS; dataset++) {
+                    records.position(recordOffset + SCENE_DATA_OFFSET + dataset * WIDTH * 2);
+                    records.asShortBuffer().get(sceneData[dataset], i * WIDTH, WIDTH);
+                }
+                records.position(recordOffset + cloudOffset);
+                records.asShortBuffer().get(cloudData, i * WIDTH, WIDTH);
+                flags[i] = decodeFlags(records, recordOffset + flagOffset);
+                frameIndicators[i] = records.get(recordOffset + frameIndicatorOffset);
+            }
+        }
+
+        private byte decodeFlags(ByteBuffer records, int offset) {
+            final boolean[] set = {
+                    records.getInt(offset) != 0,            // Quality Indicator Bit Field
+                    records.getInt(offset + 4) != 0,        // Scan Line Quality Flags
+                    records.getShort(offset + 8) != 0,      // Calibration Quality Flags 3b
+                    records.getShort(offset + 10) != 0,     // Calibration Quality Flags 4
+                    records.getShort(offset + 12) != 0,     // Calibration Quality Flags 5
+                    records.getShort(offset + 14) != 0      // Count of Bit Errors in Frame Sync
+            };
+            byte flag = 0;
+            for (int i = 0; i < set.length; i++) {
+                flag |= (set[i] ? 1 : 0) << i;
+            }
+            return flag;
+        }
+    }
+}
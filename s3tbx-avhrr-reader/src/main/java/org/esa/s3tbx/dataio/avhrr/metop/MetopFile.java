@@ -21,7 +21,6 @@ package org.esa.s3tbx.dataio.avhrr.metop;
 import org.esa.s3tbx.dataio.avhrr.AvhrrConstants;
 import org.esa.s3tbx.dataio.avhrr.AvhrrFile;
 import org.esa.s3tbx.dataio.avhrr.BandReader;
-import org.esa.s3tbx.dataio.avhrr.FlagReader;
 import org.esa.s3tbx.dataio.avhrr.HeaderUtil;
 import org.esa.s3tbx.dataio.avhrr.calibration.Radiance2TemperatureCalibrator;
 import org.esa.s3tbx.dataio.avhrr.calibration.RadianceCalibrator;
@@ -32,6 +31,8 @@ import javax.imageio.stream.FileImageInputStream;
 import javax.imageio.stream.ImageInputStream;
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -74,8 +75,14 @@ class MetopFile extends AvhrrFile {
 
     private static final int FRAME_INDICATOR_OFFSET = 26580;
 
+    private static final int CLOUD_OFFSET = 22472;
+
     private ImageInputStream inputStream;
 
+    private final FileChannel fileChannel;
+
+    private MdrRecordCache recordCache;
+
     private GenericRecordHeader mphrHeader;
 
     private AsciiRecord mainProductHeaderRecord;
@@ -98,7 +105,19 @@ class MetopFile extends AvhrrFile {
     private MetadataElement readerInfo;
 
     public MetopFile(ImageInputStream imageInputStream) {
+        this(imageInputStream, null);
+    }
+
+    /**
+     * Creates a METOP file reading the MDR records with positional reads.
+     *
+     * @param imageInputStream the stream used to read the headers
+     * @param fileChannel      the channel of the same file used to read the MDR records,
+     *                         may be {@code null} if the records shall be read from the stream
+     */
+    public MetopFile(ImageInputStream imageInputStream, FileChannel fileChannel) {
         this.inputStream = imageInputStream;
+        this.fileChannel = fileChannel;
         readerInfo = new MetadataElement("READER_INFO");
     }
 
@@ -200,6 +219,11 @@ class MetopFile extends AvhrrFile {
         }
         productHeight = mainProductHeaderRecord.getIntValue("TOTAL_MDR");
         int toSkip = checkMdrs(navSampleRate);
+        final int recordOffsetDifference = numNavPoints == LOW_PRECISION_TIE_POINT_WIDTH ? TIE_POINT_DIFFERENCE : 0;
+        recordCache = new MdrRecordCache(fileChannel, inputStream, firstMdrOffset, mdrSize, productHeight,
+                                         FLAG_OFFSET - recordOffsetDifference,
+                                         FRAME_INDICATOR_OFFSET + 1 - recordOffsetDifference,
+                                         CLOUD_OFFSET - recordOffsetDifference);
         analyzeFrameIndicator();
 
         readerInfo.addAttribute(HeaderUtil.createAttribute("TRIM_BOTTOM", toSkip, "pixel", "Number of lines cut from the end of the product to match the tie-points."));
@@ -233,19 +257,19 @@ class MetopFile extends AvhrrFile {
 
     @Override
     public BandReader createVisibleRadianceBandReader(int channel) {
-        return new PlainBandReader(channel, this, inputStream);
+        return new PlainBandReader(channel, this);
     }
 
     @Override
     public BandReader createIrRadianceBandReader(int channel) {
-        return new PlainBandReader(channel, this, inputStream);
+        return new PlainBandReader(channel, this);
     }
 
     @Override
     public BandReader createReflectanceFactorBandReader(int channel) {
         RadianceCalibrator radianceCalibrator = new MetopRad2ReflFactorCalibrator(giadrRadiance.getSolarIrradiance(channel), 1);
         //TODO this 1 should be the earth-sun-distance-ratio, but this ratio is always 0.
-        return new CalibratedBandReader(channel, this, inputStream, radianceCalibrator);
+        return new CalibratedBandReader(channel, this, radianceCalibrator);
     }
 
     @Override
@@ -254,12 +278,12 @@ class MetopFile extends AvhrrFile {
                 giadrRadiance.getConstant1(channel), giadrRadiance.getConstant2(channel),
                 giadrRadiance.getCentralWavenumber(channel));
 
-        return new CalibratedBandReader(channel, this, inputStream, radianceCalibrator);
+        return new CalibratedBandReader(channel, this, radianceCalibrator);
     }
 
     @Override
     public BandReader createFlagBandReader() {
-        return new FlagReader(this, inputStream);
+        return new MetopFlagReader(this, inputStream);
     }
 
     @Override
@@ -269,7 +293,7 @@ class MetopFile extends AvhrrFile {
 
     @Override
     public BandReader createCloudBandReader() {
-        return new CloudBandReader(this, inputStream);
+        return new CloudBandReader(this);
     }
 
     public int getNumNavPoints() {
@@ -303,6 +327,8 @@ class MetopFile extends AvhrrFile {
         final int numRawAngles = numNavPoints * 4;
         final int numRawLatLon = numNavPoints * 2;
 
+        final byte[] rawNavData = new byte[numRawAngles * 2 + numRawLatLon * 4];
+        final ByteBuffer rawNavBuffer = ByteBuffer.wrap(rawNavData);
         short[] rawAngles = new short[numRawAngles];
         int[] rawLatLon = new int[numRawLatLon];
 
@@ -311,11 +337,11 @@ class MetopFile extends AvhrrFile {
 
         for (int scanLine = 0; scanLine < getProductHeight(); scanLine += navSampleRate) {
             final int scanLineOffset = getScanLineOffset(scanLine);
-            synchronized (inputStream) {
-                inputStream.seek(scanLineOffset + TIE_POINT_OFFSET);
-                inputStream.readFully(rawAngles, 0, numRawAngles);
-                inputStream.readFully(rawLatLon, 0, numRawLatLon);
-            }
+            recordCache.read(scanLineOffset + TIE_POINT_OFFSET, rawNavData);
+            rawNavBuffer.clear();
+            rawNavBuffer.asShortBuffer().get(rawAngles, 0, numRawAngles);
+            rawNavBuffer.position(numRawAngles * 2);
+            rawNavBuffer.asIntBuffer().get(rawLatLon, 0, numRawLatLon);
             for (int scanPoint = 0; scanPoint < numNavPoints; scanPoint++) {
                 tiePointData[0][targetIndex] = rawAngles[scanPoint * 4] * 1E-2f;
                 tiePointData[1][targetIndex] = rawAngles[scanPoint * 4 + 1] * 1E-2f;
@@ -356,16 +382,11 @@ class MetopFile extends AvhrrFile {
     }
 
     int readFrameIndicator(int rawY) throws IOException {
-        int flagOffset = getScanLineOffset(rawY) + FRAME_INDICATOR_OFFSET + 1;
-        if (numNavPoints == LOW_PRECISION_TIE_POINT_WIDTH) {
-            flagOffset = flagOffset - TIE_POINT_DIFFERENCE;
-        }
-        byte flag;
-        synchronized (inputStream) {
-            inputStream.seek(flagOffset);
-            flag = inputStream.readByte();
-        }
-        return flag;
+        return recordCache.getFrameIndicator(rawY);
+    }
+
+    MdrRecordCache getRecordCache() {
+        return recordCache;
     }
 
     public static boolean canOpenFile(File file) throws IOException {
@@ -35,6 +35,7 @@ import javax.imageio.stream.FileImageInputStream;
 import javax.imageio.stream.ImageInputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.RandomAccessFile;
 
 
 /**
@@ -62,8 +63,9 @@ public class MetopReader extends AvhrrReader implements AvhrrConstants {
         final File dataFile = MetopReaderPlugIn.getInputFile(getInput());
 
         try {
-            ImageInputStream imageInputStream = new FileImageInputStream(dataFile);
-            avhrrFile = new MetopFile(imageInputStream);
+            RandomAccessFile randomAccessFile = new RandomAccessFile(dataFile, "r");
+            ImageInputStream imageInputStream = new FileImageInputStream(randomAccessFile);
+            avhrrFile = new MetopFile(imageInputStream, randomAccessFile.getChannel());
             avhrrFile.readHeader();
             createProduct();
         } catch (IOException e) {
@@ -24,7 +24,6 @@ import org.esa.s3tbx.dataio.avhrr.AvhrrFile;
 import org.esa.s3tbx.dataio.avhrr.BandReader;
 import org.esa.snap.core.datamodel.ProductData;
 
-import javax.imageio.stream.ImageInputStream;
 import java.io.IOException;
 import java.text.MessageFormat;
 
@@ -42,13 +41,9 @@ class PlainBandReader implements BandReader {
 
     protected MetopFile metopFile;
 
-    protected final ImageInputStream inputStream;
-
-    public PlainBandReader(int channel, MetopFile metopFile,
-                           ImageInputStream inputStream) {
+    public PlainBandReader(int channel, MetopFile metopFile) {
         this.channel = channel;
         this.metopFile = metopFile;
-        this.inputStream = inputStream;
     }
 
     @Override
@@ -108,6 +103,8 @@ class PlainBandReader implements BandReader {
         pm.beginTask(MessageFormat.format("Reading AVHRR band ''{0}''...", getBandName()),
                      rawCoord.maxY - rawCoord.minY);
 
+        final MdrRecordCache recordCache = metopFile.getRecordCache();
+        final int datasetIndex = AvhrrConstants.CH_DATASET_INDEXES[channel];
         int targetIdx = rawCoord.targetStart;
         for (int sourceY = rawCoord.minY; sourceY <= rawCoord.maxY; sourceY += sourceStepY) {
             if (pm.isCanceled()) {
@@ -115,11 +112,7 @@ class PlainBandReader implements BandReader {
             }
 
             if (hasData(sourceY)) {
-                final int dataOffset = getDataOffset(sourceOffsetX, sourceY);
-                synchronized (inputStream) {
-                    inputStream.seek(dataOffset);
-                    inputStream.readFully(targetData, targetIdx, sourceWidth);
-                }
+                recordCache.readSceneData(datasetIndex, sourceY, rawCoord.minX, targetData, targetIdx, sourceWidth);
                 targetIdx += sourceWidth;
             } else {
                 for (int sourceX = rawCoord.minX; sourceX <= rawCoord.maxX; sourceX += sourceStepX) {
@@ -133,13 +126,6 @@ class PlainBandReader implements BandReader {
 
     }
 
-    protected int getDataOffset(int sourceOffsetX, int sourceY) {
-        return metopFile.getScanLineOffset(sourceY)
-                + 24
-                + (AvhrrConstants.RAW_SCENE_RASTER_WIDTH * AvhrrConstants.CH_DATASET_INDEXES[channel] * 2)
-                + ((metopFile.getNumTrimX() + sourceOffsetX) * 2);
-    }
-
     protected boolean isVisibleBand() {
         return channel == AvhrrConstants.CH_1 || channel == AvhrrConstants.CH_2
                 || channel == AvhrrConstants.CH_3A;
@@ -17,87 +17,65 @@
 package org.esa.s3tbx.dataio.avhrr.noaa.pod;
 
 import org.esa.snap.core.dataio.ProductSubsetDef;
-import org.esa.snap.core.datamodel.GeoApproximation;
 import org.esa.snap.core.datamodel.GeoPos;
 import org.esa.snap.core.datamodel.PixelPos;
-import org.esa.snap.core.datamodel.PixelPosEstimator;
 import org.esa.snap.core.datamodel.Product;
 import org.esa.snap.core.datamodel.Scene;
 import org.esa.snap.core.datamodel.TiePointGeoCoding;
 import org.esa.snap.core.datamodel.TiePointGrid;
 
-import javax.media.jai.PlanarImage;
-import java.awt.Rectangle;
-
 /**
  * This geo-coding improves the inverse approximations used in the {@code TiePointGeoCoding} in order
  * to facilitate accurate re-projections and graticule drawing.
  * <p/>
- * Limitation: this geo-coding is not transferred when making subsets and is not saved when a product
- * is written to disk.
+ * The pixel position of a geographic position is found by a {@link PodPixelLocator}, which is created from the
+ * tie point grids on first use. The geo-coding is saved with a product by the {@link PodGeoCodingPersistable}.
  *
  * @author Ralf Quast
  */
 final class PodGeoCoding extends TiePointGeoCoding {
 
-    private transient PixelPosEstimator pixelPosEstimator;
-    private transient PodPixelFinder pixelFinder;
-    private transient GeoApproximation[] approximations;
-    private transient PlanarImage latImage;
+    private transient volatile PodPixelLocator pixelLocator;
+    private transient boolean pixelLocatorCreated;
 
     PodGeoCoding(TiePointGrid latGrid, TiePointGrid lonGrid) {
-        this(latGrid, lonGrid, createApproximations(lonGrid.getGeophysicalImage(), latGrid.getGeophysicalImage()));
-    }
-
-    private PodGeoCoding(TiePointGrid latGrid, TiePointGrid lonGrid, GeoApproximation[] approximations) {
         super(latGrid, lonGrid);
-        this.approximations = approximations;
-
-        final PlanarImage lonImage = lonGrid.getGeophysicalImage();
-        latImage = latGrid.getGeophysicalImage();
-
-        final Rectangle bounds = new Rectangle(0, 0, lonGrid.getRasterWidth(), lonGrid.getRasterHeight());
-        pixelPosEstimator = new PixelPosEstimator(approximations, bounds);
-        pixelFinder = new PodPixelFinder(lonImage, latImage, null, 0.01);
     }
 
     @Override
     public boolean canGetPixelPos() {
-        return pixelPosEstimator.canGetPixelPos();
+        return getPixelLocator() != null || super.canGetPixelPos();
     }
 
     @Override
     public PixelPos getPixelPos(GeoPos geoPos, PixelPos pixelPos) {
-        if (pixelPosEstimator.canGetPixelPos()) {
+        final PodPixelLocator locator = getPixelLocator();
+        if (locator != null) {
             if (pixelPos == null) {
                 pixelPos = new PixelPos();
             }
-            pixelPosEstimator.getPixelPos(geoPos, pixelPos);
-            if (pixelPos.isValid()) {
-                // check that LAT displacement is less than 0.5
-                int x = (int) Math.floor(pixelPos.x);
-                int y = (int) Math.floor(pixelPos.y);
-                try {
-                    double lat = latImage.getData(new Rectangle(x, y, 1, 1)).getSampleDouble(x, y, 0);
-                    if (Math.abs(lat - geoPos.getLat()) > 0.5) {
-                        pixelPos.setInvalid();
-                    }
-                } catch (IllegalArgumentException iae) {
-                    pixelPosEstimator.getPixelPos(geoPos, pixelPos);
-                }
-
-            }
-//            if (pixelPos.isValid()) {
-//                pixelFinder.findPixelPos(geoPos, pixelPos);
-//            }
+            locator.getPixelPos(geoPos.getLat(), geoPos.getLon(), pixelPos);
         } else {
-            super.getPixelPos(geoPos, pixelPos);
+            pixelPos = super.getPixelPos(geoPos, pixelPos);
         }
         return pixelPos;
     }
 
-    private static GeoApproximation[] createApproximations(PlanarImage lonImage, PlanarImage latImage) {
-        return GeoApproximation.createApproximations(lonImage, latImage, null, 0.5);
+    private PodPixelLocator getPixelLocator() {
+        PodPixelLocator locator = pixelLocator;
+        if (locator == null) {
+            synchronized (this) {
+                if (!pixelLocatorCreated) {
+                    final TiePointGrid latGrid = getLatGrid();
+                    final TiePointGrid lonGrid = getLonGrid();
+                    pixelLocator = PodPixelLocator.create(latGrid, lonGrid,
+                                                          latGrid.getRasterWidth(), latGrid.getRasterHeight());
+                    pixelLocatorCreated = true;
+                }
+                locator = pixelLocator;
+            }
+        }
+        return locator;
     }
 
     @Override
@@ -116,12 +94,7 @@ final class PodGeoCoding extends TiePointGeoCoding {
             destProduct.addTiePointGrid(lonGrid);
         }
         if (latGrid != null && lonGrid != null) {
-            if (subsetDef == null || subsetDef.getRegion() == null) {
-                // re-use approximations
-                destScene.setGeoCoding(new PodGeoCoding(latGrid, lonGrid, approximations));
-            } else {
-                destScene.setGeoCoding(new PodGeoCoding(latGrid, lonGrid));
-            }
+            destScene.setGeoCoding(new PodGeoCoding(latGrid, lonGrid));
             return true;
         } else {
             return false;
@@ -132,9 +105,9 @@ final class PodGeoCoding extends TiePointGeoCoding {
     public void dispose() {
         super.dispose();
 
-        pixelFinder = null;
-        pixelPosEstimator = null;
-        approximations = null;
-        latImage = null;
+        synchronized (this) {
+            pixelLocator = null;
+            pixelLocatorCreated = true;
+        }
     }
 }
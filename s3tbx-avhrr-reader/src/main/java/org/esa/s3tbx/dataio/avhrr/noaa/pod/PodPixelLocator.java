@@ -0,0 +1,375 @@
+/*
+ * Copyright (C) 2015 Brockmann Consult GmbH (info@brockmann-consult.de)
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+
+package org.esa.s3tbx.dataio.avhrr.noaa.pod;
+
+import org.esa.snap.core.datamodel.PixelPos;
+import org.esa.snap.core.datamodel.TiePointGrid;
+
+/**
+ * Finds the pixel position of a geographic position within an AVHRR orbit, given by latitude and longitude tie
+ * point grids.
+ * <p/>
+ * The tie points are indexed by their unit vectors on the sphere. The tie point grid is divided into blocks of
+ * {@link #BLOCK_HEIGHT} rows and {@link #BLOCK_WIDTH} columns, which are roughly square on ground as the scan lines
+ * are much closer to each other than the tie points of a scan line. Consecutive rows of blocks are grouped. Every
+ * block and group is bounded by a sphere enclosing its tie points. As the groups follow the ground track of the
+ * orbit, the bounding spheres are small compared to the orbit, also near the poles and across the anti-meridian.
+ * A look-up first finds the tie point nearest to the geographic position, skipping all groups and blocks that cannot
+ * contain a nearer tie point. Then, starting from a cell adjacent to this tie point, the interpolation of the tie
+ * point grids is inverted within a cell, moving on to the neighbouring cell while the position is outside.
+ * <p/>
+ * The interpolation inverted is the one of {@link TiePointGrid#getPixelDouble(double, double)}: latitude is
+ * interpolated bilinearly, while longitude, as a grid with a discontinuity at 180 degrees, is the direction of the
+ * bilinearly interpolated sine and cosine of the tie point longitudes. Hence the pixel position found is the exact
+ * inverse of the geographic position given by the geo-coding, up to {@link #MAX_ERROR} cell widths. Positions farther from the orbit than the largest cell diagonal are rejected. Instances are immutable
+ * and can be used by several threads concurrently. A look-up does not allocate any objects.
+ */
+final class PodPixelLocator {
+
+    /**
+     * Upper bound of the deviation of a pixel position found from the exact inverse, in cells.
+     */
+    static final double MAX_ERROR = 1.0e-8;
+
+    private static final int BLOCK_HEIGHT = 32;
+    private static final int BLOCK_WIDTH = 4;
+    private static final int BLOCK_ROWS_PER_GROUP = 4;
+    private static final int MAX_CELL_STEPS = 16;
+    private static final int MAX_ITERATIONS = 20;
+
+    private final int gridWidth;
+    private final int gridHeight;
+    private final double offsetX;
+    private final double offsetY;
+    private final double subSamplingX;
+    private final double subSamplingY;
+    private final int sceneWidth;
+    private final int sceneHeight;
+
+    private final float[] lats;
+    // the sine and cosine of the tie point longitudes, rounded like those of a tie point grid
+    private final float[] sinLons;
+    private final float[] cosLons;
+    // the unit vectors of the tie points
+    private final double[] px;
+    private final double[] py;
+    private final double[] pz;
+    private final int blockColumnCount;
+    private final int blockRowCount;
+    private final Bounds blocks;
+    private final Bounds groups;
+    // the squared chord length of the largest cell diagonal
+    private final double maxDistanceSq;
+
+    PodPixelLocator(float[] lats, float[] lons, int gridWidth, int gridHeight,
+                    double offsetX, double offsetY, double subSamplingX, double subSamplingY,
+                    int sceneWidth, int sceneHeight) {
+        if (gridWidth < 2 || gridHeight < 2) {
+            throw new IllegalArgumentException("gridWidth < 2 || gridHeight < 2");
+        }
+        if (lats.length != gridWidth * gridHeight || lons.length != lats.length) {
+            throw new IllegalArgumentException("lats.length != gridWidth * gridHeight || lons.length != lats.length");
+        }
+        this.gridWidth = gridWidth;
+        this.gridHeight = gridHeight;
+        this.offsetX = offsetX;
+        this.offsetY = offsetY;
+        this.subSamplingX = subSamplingX;
+        this.subSamplingY = subSamplingY;
+        this.sceneWidth = sceneWidth;
+        this.sceneHeight = sceneHeight;
+        this.lats = lats.clone();
+
+        final int n = lats.length;
+        sinLons = new float[n];
+        cosLons = new float[n];
+        px = new double[n];
+        py = new double[n];
+        pz = new double[n];
+        for (int k = 0; k < n; k++) {
+            final double phi = Math.toRadians(lats[k]);
+            final double lam = Math.toRadians(lons[k]);
+            px[k] = Math.cos(phi) * Math.cos(lam);
+            py[k] = Math.cos(phi) * Math.sin(lam);
+            pz[k] = Math.sin(phi);
+            sinLons[k] = (float) Math.sin(lam);
+            cosLons[k] = (float) Math.cos(lam);
+        }
+
+        double maxDiagonalSq = 0.0;
+        for (int j = 0; j < gridHeight - 1; j++) {
+            for (int i = 0; i < gridWidth - 1; i++) {
+                final int k = j * gridWidth + i;
+                maxDiagonalSq = max(maxDiagonalSq, distanceSq(k, px[k + gridWidth + 1], py[k + gridWidth + 1], pz[k + gridWidth + 1]));
+                maxDiagonalSq = max(maxDiagonalSq, distanceSq(k + 1, px[k + gridWidth], py[k + gridWidth], pz[k + gridWidth]));
+            }
+        }
+        maxDistanceSq = maxDiagonalSq;
+
+        blockColumnCount = (gridWidth + BLOCK_WIDTH - 1) / BLOCK_WIDTH;
+        blockRowCount = (gridHeight + BLOCK_HEIGHT - 1) / BLOCK_HEIGHT;
+        blocks = new Bounds(blockRowCount * blockColumnCount);
+        for (int r = 0; r < blockRowCount; r++) {
+            for (int c = 0; c < blockColumnCount; c++) {
+                blocks.setPoints(r * blockColumnCount + c, px, py, pz, gridWidth,
+                                 c * BLOCK_WIDTH, Math.min((c + 1) * BLOCK_WIDTH, gridWidth),
+                                 r * BLOCK_HEIGHT, Math.min((r + 1) * BLOCK_HEIGHT, gridHeight));
+            }
+        }
+        final int groupCount = (blockRowCount + BLOCK_ROWS_PER_GROUP - 1) / BLOCK_ROWS_PER_GROUP;
+        groups = new Bounds(groupCount);
+        for (int g = 0; g < groupCount; g++) {
+            groups.setPoints(g, px, py, pz, gridWidth, 0, gridWidth,
+                             g * BLOCK_ROWS_PER_GROUP * BLOCK_HEIGHT,
+                             Math.min((g + 1) * BLOCK_ROWS_PER_GROUP * BLOCK_HEIGHT, gridHeight));
+        }
+    }
+
+    /**
+     * Creates a pixel locator for the given tie point grids.
+     *
+     * @param latGrid     the latitude tie point grid
+     * @param lonGrid     the longitude tie point grid, with the same layout as the latitude grid
+     * @param sceneWidth  the width of the scene
+     * @param sceneHeight the height of the scene
+     * @return the pixel locator, or {@code null} if the grids are too small
+     */
+    static PodPixelLocator create(TiePointGrid latGrid, TiePointGrid lonGrid, int sceneWidth, int sceneHeight) {
+        final int gridWidth = latGrid.getGridWidth();
+        final int gridHeight = latGrid.getGridHeight();
+        if (gridWidth < 2 || gridHeight < 2) {
+            return null;
+        }
+        return new PodPixelLocator(latGrid.getTiePoints(), lonGrid.getTiePoints(), gridWidth, gridHeight,
+                                   latGrid.getOffsetX(), latGrid.getOffsetY(),
+                                   latGrid.getSubSamplingX(), latGrid.getSubSamplingY(),
+                                   sceneWidth, sceneHeight);
+    }
+
+    /**
+     * Finds the pixel position of a geographic position.
+     *
+     * @param lat      the latitude
+     * @param lon      the longitude
+     * @param pixelPos the pixel position, set invalid if the geographic position is not within the scene
+     */
+    void getPixelPos(double lat, double lon, PixelPos pixelPos) {
+        pixelPos.setInvalid();
+        if (Double.isNaN(lat) || Double.isNaN(lon)) {
+            return;
+        }
+        final double phi = Math.toRadians(lat);
+        final double lam = Math.toRadians(lon);
+        final double qx = Math.cos(phi) * Math.cos(lam);
+        final double qy = Math.cos(phi) * Math.sin(lam);
+        final double qz = Math.sin(phi);
+
+        final int nearest = findNearestTiePoint(qx, qy, qz);
+        if (nearest < 0) {
+            return;
+        }
+        int i0 = Math.min(nearest % gridWidth, gridWidth - 2);
+        int j0 = Math.min(nearest / gridWidth, gridHeight - 2);
+        for (int step = 0; step < MAX_CELL_STEPS; step++) {
+            final int k00 = j0 * gridWidth + i0;
+            final int k10 = k00 + 1;
+            final int k01 = k00 + gridWidth;
+            final int k11 = k01 + 1;
+            // the latitudes of the corners relative to the geographic position
+            final double y00 = lats[k00] - lat;
+            final double y10 = lats[k10] - lat;
+            final double y01 = lats[k01] - lat;
+            final double y11 = lats[k11] - lat;
+
+            // Newton's method for the root of the interpolation, with the longitude residual in degrees
+            double s = 0.5;
+            double t = 0.5;
+            boolean converged = false;
+            for (int iteration = 0; iteration < MAX_ITERATIONS; iteration++) {
+                final double sinLon = bilinear(sinLons, k00, k10, k01, k11, s, t);
+                final double cosLon = bilinear(cosLons, k00, k10, k01, k11, s, t);
+                final double normSq = sinLon * sinLon + cosLon * cosLon;
+                final double dSinS = (1 - t) * (sinLons[k10] - sinLons[k00]) + t * (sinLons[k11] - sinLons[k01]);
+                final double dCosS = (1 - t) * (cosLons[k10] - cosLons[k00]) + t * (cosLons[k11] - cosLons[k01]);
+                final double dSinT = (1 - s) * (sinLons[k01] - sinLons[k00]) + s * (sinLons[k11] - sinLons[k10]);
+                final double dCosT = (1 - s) * (cosLons[k01] - cosLons[k00]) + s * (cosLons[k11] - cosLons[k10]);
+
+                final double fx = deltaLon(Math.toDegrees(Math.atan2(sinLon, cosLon)), lon);
+                final double fy = (1 - s) * (1 - t) * y00 + s * (1 - t) * y10 + (1 - s) * t * y01 + s * t * y11;
+                final double dxs = Math.toDegrees((cosLon * dSinS - sinLon * dCosS) / normSq);
+                final double dys = (1 - t) * (y10 - y00) + t * (y11 - y01);
+                final double dxt = Math.toDegrees((cosLon * dSinT - sinLon * dCosT) / normSq);
+                final double dyt = (1 - s) * (y01 - y00) + s * (y11 - y10);
+                final double det = dxs * dyt - dxt * dys;
+                if (det == 0.0 || Double.isNaN(det)) {
+                    break;
+                }
+                final double ds = (fx * dyt - fy * dxt) / det;
+                final double dt = (dxs * fy - dys * fx) / det;
+                s -= ds;
+                t -= dt;
+                if (Math.abs(ds) + Math.abs(dt) < MAX_ERROR) {
+                    converged = true;
+                    break;
+                }
+            }
+            if (!converged) {
+                return;
+            }
+
+            if (s < -MAX_ERROR && i0 > 0) {
+                i0--;
+            } else if (s > 1.0 + MAX_ERROR && i0 < gridWidth - 2) {
+                i0++;
+            } else if (t < -MAX_ERROR && j0 > 0) {
+                j0--;
+            } else if (t > 1.0 + MAX_ERROR && j0 < gridHeight - 2) {
+                j0++;
+            } else {
+                final double x = offsetX + (i0 + s) * subSamplingX;
+                final double y = offsetY + (j0 + t) * subSamplingY;
+                if (x >= 0.0 && x < sceneWidth && y >= 0.0 && y < sceneHeight) {
+                    pixelPos.setLocation(x, y);
+                }
+                return;
+            }
+        }
+    }
+
+    private int findNearestTiePoint(double qx, double qy, double qz) {
+        int nearest = -1;
+        double nearestDistanceSq = maxDistanceSq;
+        for (int g = 0; g < groups.size(); g++) {
+            if (groups.cannotContainNearer(g, qx, qy, qz, nearestDistanceSq)) {
+                continue;
+            }
+            final int maxBlockRow = Math.min((g + 1) * BLOCK_ROWS_PER_GROUP, blockRowCount);
+            for (int r = g * BLOCK_ROWS_PER_GROUP; r < maxBlockRow; r++) {
+                for (int c = 0; c < blockColumnCount; c++) {
+                    if (blocks.cannotContainNearer(r * blockColumnCount + c, qx, qy, qz, nearestDistanceSq)) {
+                        continue;
+                    }
+                    final int maxI = Math.min((c + 1) * BLOCK_WIDTH, gridWidth);
+                    final int maxJ = Math.min((r + 1) * BLOCK_HEIGHT, gridHeight);
+                    for (int j = r * BLOCK_HEIGHT; j < maxJ; j++) {
+                        for (int k = j * gridWidth + c * BLOCK_WIDTH, maxK = j * gridWidth + maxI; k < maxK; k++) {
+                            final double d = distanceSq(k, qx, qy, qz);
+                            if (d < nearestDistanceSq) {
+                                nearestDistanceSq = d;
+                                nearest = k;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return nearest;
+    }
+
+    private double distanceSq(int k, double qx, double qy, double qz) {
+        final double dx = px[k] - qx;
+        final double dy = py[k] - qy;
+        final double dz = pz[k] - qz;
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    // NaN is ignored
+    private static double max(double a, double b) {
+        return b > a ? b : a;
+    }
+
+    private static double bilinear(float[] values, int k00, int k10, int k01, int k11, double s, double t) {
+        return (1 - s) * (1 - t) * values[k00] + s * (1 - t) * values[k10] + (1 - s) * t * values[k01] + s * t * values[k11];
+    }
+
+    private static double deltaLon(double lon, double refLon) {
+        double delta = lon - refLon;
+        if (delta > 180.0) {
+            delta -= 360.0;
+        } else if (delta < -180.0) {
+            delta += 360.0;
+        }
+        return delta;
+    }
+
+    /**
+     * Spheres enclosing consecutive ranges of tie points.
+     */
+    private static final class Bounds {
+
+        private final double[] cx;
+        private final double[] cy;
+        private final double[] cz;
+        private final double[] radius;
+
+        Bounds(int size) {
+            cx = new double[size];
+            cy = new double[size];
+            cz = new double[size];
+            radius = new double[size];
+        }
+
+        int size() {
+            return radius.length;
+        }
+
+        void setPoints(int index, double[] px, double[] py, double[] pz, int gridWidth,
+                       int minI, int maxI, int minJ, int maxJ) {
+            double sx = 0.0;
+            double sy = 0.0;
+            double sz = 0.0;
+            int count = 0;
+            for (int j = minJ; j < maxJ; j++) {
+                for (int k = j * gridWidth + minI; k < j * gridWidth + maxI; k++) {
+                    if (!Double.isNaN(px[k] + py[k] + pz[k])) {
+                        sx += px[k];
+                        sy += py[k];
+                        sz += pz[k];
+                        count++;
+                    }
+                }
+            }
+            if (count == 0) {
+                // never a candidate
+                cx[index] = cy[index] = cz[index] = 0.0;
+                radius[index] = -Double.MAX_VALUE;
+                return;
+            }
+            cx[index] = sx / count;
+            cy[index] = sy / count;
+            cz[index] = sz / count;
+            double maxDistanceSq = 0.0;
+            for (int j = minJ; j < maxJ; j++) {
+                for (int k = j * gridWidth + minI; k < j * gridWidth + maxI; k++) {
+                    final double dx = px[k] - cx[index];
+                    final double dy = py[k] - cy[index];
+                    final double dz = pz[k] - cz[index];
+                    maxDistanceSq = max(maxDistanceSq, dx * dx + dy * dy + dz * dz);
+                }
+            }
+            radius[index] = Math.sqrt(maxDistanceSq);
+        }
+
+        boolean cannotContainNearer(int index, double qx, double qy, double qz, double distanceSq) {
+            final double dx = qx - cx[index];
+            final double dy = qy - cy[index];
+            final double dz = qz - cz[index];
+            final double lowerBound = Math.sqrt(dx * dx + dy * dy + dz * dz) - radius[index];
+            return lowerBound > 0.0 && lowerBound * lowerBound >= distanceSq;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package org.esa.s3tbx.dataio.avhrr.metop;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.imageio.stream.FileImageInputStream;
+import javax.imageio.stream.ImageInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class MdrRecordCacheTest {
+
+    private static final int FIRST_MDR_OFFSET = 100;
+    private static final int MDR_SIZE = 26660;
+    private static final int NUM_RECORDS = MdrRecordCache.BLOCK_SIZE + 10;
+    private static final int FLAG_OFFSET = 22204;
+    private static final int FRAME_INDICATOR_OFFSET = 26581;
+    private static final int CLOUD_OFFSET = 22472;
+    private static final int WIDTH = 2048;
+
+    private File file;
+    private RandomAccessFile randomAccessFile;
+    private ImageInputStream inputStream;
+
+    @Before
+    public void setUp() throws IOException {
+        file = File.createTempFile("metop", ".nat");
+        final ByteBuffer buffer = ByteBuffer.allocate(FIRST_MDR_OFFSET + NUM_RECORDS * MDR_SIZE);
+        for (int y = 0; y < NUM_RECORDS; y++) {
+            final int recordOffset = FIRST_MDR_OFFSET + y * MDR_SIZE;
+            for (int dataset = 0; dataset < 5; dataset++) {
+                for (int x = 0; x < WIDTH; x++) {
+                    buffer.putShort(recordOffset + 24 + (dataset * WIDTH + x) * 2, sceneValue(dataset, x, y));
+                }
+            }
+            for (int x = 0; x < WIDTH; x++) {
+                buffer.putShort(recordOffset + CLOUD_OFFSET + x * 2, cloudValue(x, y));
+            }
+            // scan line quality flags and calibration quality flags 5
+            buffer.putInt(recordOffset + FLAG_OFFSET + 4, y % 2);
+            buffer.putShort(recordOffset + FLAG_OFFSET + 12, (short) (y % 3 == 0 ? 0x8000 : 0));
+            buffer.put(recordOffset + FRAME_INDICATOR_OFFSET, (byte) (y % 5 == 0 ? 1 : 0));
+        }
+        try (OutputStream outputStream = new FileOutputStream(file)) {
+            outputStream.write(buffer.array());
+        }
+        randomAccessFile = new RandomAccessFile(file, "r");
+        inputStream = new FileImageInputStream(randomAccessFile);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        inputStream.close();
+        file.delete();
+    }
+
+    @Test
+    public void testPositionalReads() throws IOException {
+        assertRecordsDemultiplexed(createCache(true));
+    }
+
+    @Test
+    public void testStreamReads() throws IOException {
+        assertRecordsDemultiplexed(createCache(false));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRecordOutOfRange() throws IOException {
+        createCache(true).getFlags(NUM_RECORDS);
+    }
+
+    private MdrRecordCache createCache(boolean positional) {
+        return new MdrRecordCache(positional ? randomAccessFile.getChannel() : null, inputStream,
+                                  FIRST_MDR_OFFSET, MDR_SIZE, NUM_RECORDS,
+                                  FLAG_OFFSET, FRAME_INDICATOR_OFFSET, CLOUD_OFFSET);
+    }
+
+    private static void assertRecordsDemultiplexed(MdrRecordCache cache) throws IOException {
+        final int rawX = 4;
+        final int length = 2041;
+        // the last block is shorter, the first block is accessed again after the last one
+        for (int y : new int[]{0, 1, MdrRecordCache.BLOCK_SIZE - 1, MdrRecordCache.BLOCK_SIZE, NUM_RECORDS - 1, 2}) {
+            for (int dataset = 0; dataset < 5; dataset++) {
+                final short[] expected = new short[length + 1];
+                final short[] actual = new short[length + 1];
+                for (int x = 0; x < length; x++) {
+                    expected[x + 1] = sceneValue(dataset, rawX + x, y);
+                }
+                cache.readSceneData(dataset, y, rawX, actual, 1, length);
+                assertArrayEquals(expected, actual);
+            }
+            final short[] expectedCloud = new short[length];
+            final short[] actualCloud = new short[length];
+            for (int x = 0; x < length; x++) {
+                expectedCloud[x] = cloudValue(rawX + x, y);
+            }
+            cache.readCloudData(y, rawX, actualCloud, 0, length);
+            assertArrayEquals(expectedCloud, actualCloud);
+
+            final int expectedFlags = (y % 2 == 1 ? 2 : 0) | (y % 3 == 0 ? 16 : 0);
+            assertEquals(expectedFlags, cache.getFlags(y));
+            assertEquals(y % 5 == 0 ? 1 : 0, cache.getFrameIndicator(y));
+        }
+    }
+
+    private static short sceneValue(int dataset, int x, int y) {
+        return (short) (dataset * 10007 + y * 131 + x - 20000);
+    }
+
+    private static short cloudValue(int x, int y) {
+        return (short) (x * 7 + y);
+    }
+}
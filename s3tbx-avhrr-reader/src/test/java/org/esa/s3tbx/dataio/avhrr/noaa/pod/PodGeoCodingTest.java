@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) 2015 Brockmann Consult GmbH (info@brockmann-consult.de)
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+
+package org.esa.s3tbx.dataio.avhrr.noaa.pod;
+
+import org.esa.snap.core.datamodel.GeoPos;
+import org.esa.snap.core.datamodel.PixelPos;
+import org.esa.snap.core.datamodel.Product;
+import org.esa.snap.core.datamodel.TiePointGrid;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PodGeoCodingTest {
+
+    private static final int GRID_WIDTH = PodAvhrrFile.TIE_POINT_GRID_WIDTH;
+    private static final int SCENE_WIDTH = PodAvhrrFile.PRODUCT_WIDTH;
+    private static final int SCENE_HEIGHT = 800;
+
+    @Test
+    public void testRoundTripAcrossAntiMeridian() {
+        // a descending swath at low latitudes, its ground track crossing the anti-meridian
+        final PodGeoCoding geoCoding = createGeoCoding(150.0);
+        assertTrue(geoCoding.getGeoPos(new PixelPos(0.5 * SCENE_WIDTH, 0.5), null).getLon() < -170.0);
+        assertTrue(geoCoding.getGeoPos(new PixelPos(0.5 * SCENE_WIDTH, SCENE_HEIGHT - 0.5), null).getLon() > 170.0);
+
+        assertRoundTrip(geoCoding);
+    }
+
+    @Test
+    public void testRoundTripNearPole() {
+        // the swath passes close to the north pole, where longitude changes fast across the scan lines
+        final PodGeoCoding geoCoding = createGeoCoding(70.0);
+        double maxLat = -90.0;
+        for (int y = 0; y < SCENE_HEIGHT; y += 10) {
+            maxLat = Math.max(maxLat, geoCoding.getGeoPos(new PixelPos(0.5, y + 0.5), null).getLat());
+        }
+        assertTrue(maxLat > 88.0);
+
+        assertRoundTrip(geoCoding);
+    }
+
+    private static void assertRoundTrip(PodGeoCoding geoCoding) {
+        assertTrue(geoCoding.canGetPixelPos());
+
+        final Random random = new Random(27);
+        for (int n = 0; n < 10000; n++) {
+            final PixelPos expected = new PixelPos(random.nextDouble() * SCENE_WIDTH,
+                                                   random.nextDouble() * SCENE_HEIGHT);
+            final GeoPos geoPos = geoCoding.getGeoPos(expected, null);
+
+            final PixelPos actual = geoCoding.getPixelPos(geoPos, null);
+
+            assertTrue("pixel " + expected, actual.isValid());
+            assertEquals("x of pixel " + expected, expected.x, actual.x, 1.0e-4);
+            assertEquals("y of pixel " + expected, expected.y, actual.y, 1.0e-4);
+        }
+    }
+
+    // the tie point grids of a swath of a sun-synchronous orbit, laid out like those of a POD product
+    private static PodGeoCoding createGeoCoding(double startArgument) {
+        final float[] lats = new float[GRID_WIDTH * SCENE_HEIGHT];
+        final float[] lons = new float[GRID_WIDTH * SCENE_HEIGHT];
+        final double inclination = Math.toRadians(99.0);
+        for (int j = 0; j < SCENE_HEIGHT; j++) {
+            final double u = Math.toRadians(startArgument + 0.05 * j);
+            final double[] track = {Math.cos(u), Math.sin(u) * Math.cos(inclination), Math.sin(u) * Math.sin(inclination)};
+            final double[] across = {0.0, -Math.sin(inclination), Math.cos(inclination)};
+            for (int i = 0; i < GRID_WIDTH; i++) {
+                final double d = Math.toRadians(0.3 * (i - GRID_WIDTH / 2));
+                final double x = Math.cos(d) * track[0] + Math.sin(d) * across[0];
+                final double y = Math.cos(d) * track[1] + Math.sin(d) * across[1];
+                final double z = Math.cos(d) * track[2] + Math.sin(d) * across[2];
+                lats[j * GRID_WIDTH + i] = (float) Math.toDegrees(Math.asin(z));
+                lons[j * GRID_WIDTH + i] = (float) Math.toDegrees(Math.atan2(y, x));
+            }
+        }
+        final Product product = new Product("pod", "NOAA_POD_AVHRR_HRPT", SCENE_WIDTH, SCENE_HEIGHT);
+        final TiePointGrid latGrid = createGrid("latitude", lats, TiePointGrid.DISCONT_NONE);
+        final TiePointGrid lonGrid = createGrid("longitude", lons, TiePointGrid.DISCONT_AT_180);
+        product.addTiePointGrid(latGrid);
+        product.addTiePointGrid(lonGrid);
+        final PodGeoCoding geoCoding = new PodGeoCoding(latGrid, lonGrid);
+        product.setSceneGeoCoding(geoCoding);
+        return geoCoding;
+    }
+
+    private static TiePointGrid createGrid(String name, float[] data, int discontinuity) {
+        return new TiePointGrid(name, GRID_WIDTH, SCENE_HEIGHT,
+                                PodAvhrrFile.TIE_POINT_OFFSET_X + 0.5, 0.5,
+                                PodAvhrrFile.TIE_POINT_SAMPLING_X, 1.0,
+                                data, discontinuity);
+    }
+}
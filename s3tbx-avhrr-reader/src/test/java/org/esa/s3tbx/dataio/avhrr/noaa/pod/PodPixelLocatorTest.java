@@ -0,0 +1,150 @@
+/*
+ * Copyright (C) 2015 Brockmann Consult GmbH (info@brockmann-consult.de)
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+
+package org.esa.s3tbx.dataio.avhrr.noaa.pod;
+
+import org.esa.snap.core.datamodel.PixelPos;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PodPixelLocatorTest {
+
+    private static final int GRID_WIDTH = PodAvhrrFile.TIE_POINT_GRID_WIDTH;
+    private static final int GRID_HEIGHT = 600;
+    private static final double OFFSET_X = PodAvhrrFile.TIE_POINT_OFFSET_X + 0.5;
+    private static final double OFFSET_Y = 0.5;
+    private static final double SUB_SAMPLING_X = PodAvhrrFile.TIE_POINT_SAMPLING_X;
+    private static final int SCENE_WIDTH = PodAvhrrFile.PRODUCT_WIDTH;
+
+    private float[] lats;
+    private float[] lons;
+    private PodPixelLocator locator;
+
+    @Before
+    public void setUp() {
+        // a swath of a sun-synchronous orbit, passing close to the north pole and crossing the anti-meridian
+        lats = new float[GRID_WIDTH * GRID_HEIGHT];
+        lons = new float[GRID_WIDTH * GRID_HEIGHT];
+        final double inclination = Math.toRadians(99.0);
+        for (int j = 0; j < GRID_HEIGHT; j++) {
+            final double u = Math.toRadians(60.0 + 0.05 * j);
+            // ground track and across-track direction
+            final double[] track = {Math.cos(u), Math.sin(u) * Math.cos(inclination), Math.sin(u) * Math.sin(inclination)};
+            final double[] across = {0.0, -Math.sin(inclination), Math.cos(inclination)};
+            for (int i = 0; i < GRID_WIDTH; i++) {
+                final double d = Math.toRadians(0.3 * (i - GRID_WIDTH / 2));
+                final double x = Math.cos(d) * track[0] + Math.sin(d) * across[0];
+                final double y = Math.cos(d) * track[1] + Math.sin(d) * across[1];
+                final double z = Math.cos(d) * track[2] + Math.sin(d) * across[2];
+                final double lon = Math.toDegrees(Math.atan2(y, x)) + 150.0;
+                lats[j * GRID_WIDTH + i] = (float) Math.toDegrees(Math.asin(z));
+                lons[j * GRID_WIDTH + i] = (float) (lon > 180.0 ? lon - 360.0 : lon);
+            }
+        }
+        locator = new PodPixelLocator(lats, lons, GRID_WIDTH, GRID_HEIGHT, OFFSET_X, OFFSET_Y, SUB_SAMPLING_X, 1.0,
+                                      SCENE_WIDTH, GRID_HEIGHT);
+    }
+
+    @Test
+    public void testPixelPosIsInverseOfInterpolation() {
+        final Random random = new Random(5);
+        final PixelPos pixelPos = new PixelPos();
+        for (int n = 0; n < 10000; n++) {
+            final double x = OFFSET_X + random.nextDouble() * (GRID_WIDTH - 1) * SUB_SAMPLING_X;
+            final double y = OFFSET_Y + random.nextDouble() * (GRID_HEIGHT - 1);
+            final double[] geoPos = interpolate(x, y);
+
+            locator.getPixelPos(geoPos[0], geoPos[1], pixelPos);
+
+            assertTrue(pixelPos.isValid());
+            assertEquals(x, pixelPos.x, 1.0e-4);
+            assertEquals(y, pixelPos.y, 1.0e-4);
+        }
+    }
+
+    @Test
+    public void testPixelPosAtTiePoints() {
+        final PixelPos pixelPos = new PixelPos();
+        for (int j = 0; j < GRID_HEIGHT; j += 7) {
+            for (int i = 0; i < GRID_WIDTH; i++) {
+                // the interpolated longitude deviates from the tie point by the rounding of its sine and cosine
+                final double[] geoPos = interpolate(OFFSET_X + i * SUB_SAMPLING_X, OFFSET_Y + j);
+                assertEquals(lats[j * GRID_WIDTH + i], geoPos[0], 1.0e-4);
+                locator.getPixelPos(geoPos[0], geoPos[1], pixelPos);
+
+                assertTrue(pixelPos.isValid());
+                assertEquals(OFFSET_X + i * SUB_SAMPLING_X, pixelPos.x, 1.0e-4);
+                assertEquals(OFFSET_Y + j, pixelPos.y, 1.0e-4);
+            }
+        }
+    }
+
+    @Test
+    public void testPixelPosOutsideOfSwathIsInvalid() {
+        final PixelPos pixelPos = new PixelPos();
+        locator.getPixelPos(-45.0, 10.0, pixelPos);
+        assertFalse(pixelPos.isValid());
+
+        // beyond the first scan line
+        final double[] geoPos = interpolate(OFFSET_X + 500.0, -10.0);
+        locator.getPixelPos(geoPos[0], geoPos[1], pixelPos);
+        assertFalse(pixelPos.isValid());
+
+        locator.getPixelPos(Double.NaN, 10.0, pixelPos);
+        assertFalse(pixelPos.isValid());
+    }
+
+    @Test
+    public void testPixelPosOfExtrapolatedPixel() {
+        final PixelPos pixelPos = new PixelPos();
+        final double[] geoPos = interpolate(10.0, 300.5);
+
+        locator.getPixelPos(geoPos[0], geoPos[1], pixelPos);
+
+        assertTrue(pixelPos.isValid());
+        assertEquals(10.0, pixelPos.x, 1.0e-4);
+        assertEquals(300.5, pixelPos.y, 1.0e-4);
+    }
+
+    // interpolation like a tie point grid, extrapolating at the borders: latitude is interpolated bilinearly, longitude
+    // is the direction of the bilinearly interpolated sine and cosine
+    private double[] interpolate(double x, double y) {
+        final double fi = (x - OFFSET_X) / SUB_SAMPLING_X;
+        final double fj = y - OFFSET_Y;
+        final int i0 = Math.max(0, Math.min((int) Math.floor(fi), GRID_WIDTH - 2));
+        final int j0 = Math.max(0, Math.min((int) Math.floor(fj), GRID_HEIGHT - 2));
+        final double s = fi - i0;
+        final double t = fj - j0;
+        final int k00 = j0 * GRID_WIDTH + i0;
+        final int[] k = {k00, k00 + 1, k00 + GRID_WIDTH, k00 + GRID_WIDTH + 1};
+        final double[] w = {(1 - s) * (1 - t), s * (1 - t), (1 - s) * t, s * t};
+        double lat = 0.0;
+        double sinLon = 0.0;
+        double cosLon = 0.0;
+        for (int c = 0; c < 4; c++) {
+            lat += w[c] * lats[k[c]];
+            sinLon += w[c] * (float) Math.sin(Math.toRadians(lons[k[c]]));
+            cosLon += w[c] * (float) Math.cos(Math.toRadians(lons[k[c]]));
+        }
+        return new double[]{lat, Math.toDegrees(Math.atan2(sinLon, cosLon))};
+    }
+}
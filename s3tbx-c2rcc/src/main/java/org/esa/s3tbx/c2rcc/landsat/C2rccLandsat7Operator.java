@@ -271,6 +271,11 @@ public class C2rccLandsat7Operator extends PixelOperator implements C2rccConfigu
             label = "Derive water reflectance from path radiance and transmittance")
     private boolean deriveRwFromPathAndTransmittance;
 
+    @Parameter(defaultValue = "false", description = "Evaluate the neural nets in single precision. This is faster, " +
+            "but the results deviate slightly from the double precision evaluation.",
+            label = "Use single precision neural nets")
+    private boolean useSinglePrecisionNets;
+
     @Parameter(defaultValue = "true", label = "Output TOA reflectances")
     private boolean outputRtoa;
 
@@ -382,6 +387,10 @@ public class C2rccLandsat7Operator extends PixelOperator implements C2rccConfigu
         this.deriveRwFromPathAndTransmittance = deriveRwFromPathAndTransmittance;
     }
 
+    public void setUseSinglePrecisionNets(boolean useSinglePrecisionNets) {
+        this.useSinglePrecisionNets = useSinglePrecisionNets;
+    }
+
     public void setOutputKd(boolean outputKd) {
         this.outputKd = outputKd;
     }
@@ -1054,13 +1063,13 @@ public class C2rccLandsat7Operator extends PixelOperator implements C2rccConfigu
             pm.setSubTaskName("Defining algorithm");
             if (StringUtils.isNotNullAndNotEmpty(alternativeNNPath)) {
                 String[] nnFilePaths = NNUtils.getNNFilePaths(Paths.get(alternativeNNPath), NNUtils.ALTERNATIVE_NET_DIR_NAMES);
-                algorithm = new C2rccLandsat7Algorithm(nnFilePaths, false);
+                algorithm = new C2rccLandsat7Algorithm(nnFilePaths, false, useSinglePrecisionNets);
             } else {
                 String[] nnFilePaths = c2rccNetSetMap.get(STANDARD_NETS);
                 if (nnFilePaths == null) {
                     throw new OperatorException(String.format("Unknown set '%s' of neural nets specified.", STANDARD_NETS));
                 }
-                algorithm = new C2rccLandsat7Algorithm(nnFilePaths, true);
+                algorithm = new C2rccLandsat7Algorithm(nnFilePaths, true, useSinglePrecisionNets);
             }
             algorithm.setTemperature(temperature);
             algorithm.setSalinity(salinity);
@@ -304,6 +304,11 @@ public class C2rccMerisOperator extends PixelOperator implements C2rccConfigurab
             label = "Derive water reflectance from path radiance and transmittance")
     private boolean deriveRwFromPathAndTransmittance;
 
+    @Parameter(defaultValue = "false", description = "Evaluate the neural nets in single precision. This is faster, " +
+            "but the results deviate slightly from the double precision evaluation.",
+            label = "Use single precision neural nets")
+    private boolean useSinglePrecisionNets;
+
     @Parameter(defaultValue = "false",
             description = "If 'false', use solar flux from source product")
     private boolean useDefaultSolarFlux;
@@ -424,6 +429,10 @@ public class C2rccMerisOperator extends PixelOperator implements C2rccConfigurab
         this.deriveRwFromPathAndTransmittance = deriveRwFromPathAndTransmittance;
     }
 
+    public void setUseSinglePrecisionNets(boolean useSinglePrecisionNets) {
+        this.useSinglePrecisionNets = useSinglePrecisionNets;
+    }
+
     public void setOutputKd(boolean outputKd) {
         this.outputKd = outputKd;
     }
@@ -1020,13 +1029,13 @@ public class C2rccMerisOperator extends PixelOperator implements C2rccConfigurab
             if (StringUtils.isNotNullAndNotEmpty(alternativeNNPath)) {
                 String[] nnFilePaths = NNUtils.getNNFilePaths(Paths.get(alternativeNNPath),
                         NNUtils.ALTERNATIVE_NET_DIR_NAMES);
-                algorithm = new C2rccMerisAlgorithm(nnFilePaths, false);
+                algorithm = new C2rccMerisAlgorithm(nnFilePaths, false, useSinglePrecisionNets);
             } else {
                 String[] nnFilePaths = c2rccNetSetMap.get(netSet);
                 if (nnFilePaths == null) {
                     throw new OperatorException(String.format("Unknown set '%s' of neural nets specified.", netSet));
                 }
-                algorithm = new C2rccMerisAlgorithm(nnFilePaths, true);
+                algorithm = new C2rccMerisAlgorithm(nnFilePaths, true, useSinglePrecisionNets);
             }
 
             algorithm.setTemperature(temperature);
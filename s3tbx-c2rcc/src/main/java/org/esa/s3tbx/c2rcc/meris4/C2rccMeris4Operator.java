@@ -289,6 +289,11 @@ public class C2rccMeris4Operator extends PixelOperator implements C2rccConfigura
             label = "Derive water reflectance from path radiance and transmittance")
     private boolean deriveRwFromPathAndTransmittance;
 
+    @Parameter(defaultValue = "false", description = "Evaluate the neural nets in single precision. This is faster, " +
+            "but the results deviate slightly from the double precision evaluation.",
+            label = "Use single precision neural nets")
+    private boolean useSinglePrecisionNets;
+
     @Parameter(defaultValue = "true", description =
             "If selected, the ECMWF auxiliary data (total_ozone, sea_level_pressure) of the source product is used",
             label = "Use ECMWF aux data of source product")
@@ -416,6 +421,10 @@ public class C2rccMeris4Operator extends PixelOperator implements C2rccConfigura
         this.deriveRwFromPathAndTransmittance = deriveRwFromPathAndTransmittance;
     }
 
+    public void setUseSinglePrecisionNets(boolean useSinglePrecisionNets) {
+        this.useSinglePrecisionNets = useSinglePrecisionNets;
+    }
+
     public void setOutputKd(boolean outputKd) {
         this.outputKd = outputKd;
     }
@@ -990,13 +999,13 @@ public class C2rccMeris4Operator extends PixelOperator implements C2rccConfigura
             if (StringUtils.isNotNullAndNotEmpty(alternativeNNPath)) {
                 String[] nnFilePaths = NNUtils.getNNFilePaths(Paths.get(alternativeNNPath),
                         NNUtils.ALTERNATIVE_NET_DIR_NAMES);
-                algorithm = new C2rccMeris4Algorithm(nnFilePaths, false);
+                algorithm = new C2rccMeris4Algorithm(nnFilePaths, false, useSinglePrecisionNets);
             } else {
                 String[] nnFilePaths = c2rccNetSetMap.get(netSet);
                 if (nnFilePaths == null) {
                     throw new OperatorException(String.format("Unknown set '%s' of neural nets specified.", netSet));
                 }
-                algorithm = new C2rccMeris4Algorithm(nnFilePaths, true);
+                algorithm = new C2rccMeris4Algorithm(nnFilePaths, true, useSinglePrecisionNets);
             }
             algorithm.setTemperature(temperature);
             algorithm.setSalinity(salinity);
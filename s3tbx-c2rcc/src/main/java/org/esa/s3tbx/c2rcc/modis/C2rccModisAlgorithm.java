@@ -1,12 +1,10 @@
 package org.esa.s3tbx.c2rcc.modis;
 
-import org.esa.snap.core.nn.NNffbpAlphaTabFast;
+import org.esa.s3tbx.c2rcc.util.NNRegistry;
+import org.esa.s3tbx.c2rcc.util.NeuralNet;
 import org.esa.snap.core.util.BitSetter;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
 
 import static java.lang.Math.*;
 import static org.esa.s3tbx.c2rcc.util.ArrayMath.*;
@@ -116,9 +114,10 @@ public class C2rccModisAlgorithm {
     double[] thresh_rtosaaaNNrat = {0.95, 1.05};  // threshold for out of scope flag Rtosa has to be adjusted
     double[] thresh_rwslope = {0.95, 1.05};    // threshold for out of scope flag Rw has to be adjusted
 
-    private ThreadLocal<NNffbpAlphaTabFast> rtoa_rw_nn3;
-    private ThreadLocal<NNffbpAlphaTabFast> rw_IOP;
-    private ThreadLocal<NNffbpAlphaTabFast> rtoa_aaNN7;
+    private ThreadLocal<NeuralNet> rtoa_rw_nn3;
+    private ThreadLocal<NeuralNet> rw_IOP;
+    private ThreadLocal<NeuralNet> rtoa_aaNN7;
+    private final boolean singlePrecisionNets;
 
     public void setTemperature(double temperature) {
         this.temperature = temperature;
@@ -129,6 +128,11 @@ public class C2rccModisAlgorithm {
     }
 
     public C2rccModisAlgorithm() throws IOException {
+        this(false);
+    }
+
+    public C2rccModisAlgorithm(boolean singlePrecisionNets) throws IOException {
+        this.singlePrecisionNets = singlePrecisionNets;
         rtoa_rw_nn3 = nnhs("modis/rtoa_rw_modis_nn3/33x73x53x33_508087.3.net");
         rw_IOP = nnhs("modis/inv_modis_fl/97x77x37_13150.2.net");
         rtoa_aaNN7 = nnhs("modis/rtoa_modis_aaNN7/31x7x31_250.8.net");
@@ -287,38 +291,8 @@ public class C2rccModisAlgorithm {
         return new Result(rw, iops_nn1, r_tosa, rtosa_aann, rtosa_aaNNrat_min, rtosa_aaNNrat_max, flags);
     }
 
-    private ThreadLocal<NNffbpAlphaTabFast> nnhs(String path) throws IOException {
-        String name = "/auxdata/nets/" + path;
-        InputStream stream = C2rccModisAlgorithm.class.getResourceAsStream(name);
-        if (stream == null) {
-            throw new IllegalStateException("resource not found: " + name);
-        }
-        final String nnCode = readFully(stream);
-        return new ThreadLocal<NNffbpAlphaTabFast>() {
-            @Override
-            protected NNffbpAlphaTabFast initialValue() {
-                try {
-                    return new NNffbpAlphaTabFast(nnCode);
-                } catch (IOException e) {
-                    throw new IllegalStateException(e);
-                }
-            }
-        };
-    }
-
-    private String readFully(InputStream stream) throws IOException {
-        String text;
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(stream))) {
-            text = "";
-            while (true) {
-                String line = reader.readLine();
-                if (line == null) {
-                    break;
-                }
-                text += line + "\n";
-            }
-        }
-        return text;
+    private ThreadLocal<NeuralNet> nnhs(String path) throws IOException {
+        return NNRegistry.getResourceNeuralNet(C2rccModisAlgorithm.class, "/auxdata/nets/" + path, singlePrecisionNets);
     }
 
 }
@@ -150,6 +150,11 @@ public class C2rccModisOperator extends PixelOperator implements C2rccConfigurab
     @Parameter(defaultValue = "false", label = "Output TOSA reflectances")
     private boolean outputRtosa;
 
+    @Parameter(defaultValue = "false", description = "Evaluate the neural nets in single precision. This is faster, " +
+            "but the results deviate slightly from the double precision evaluation.",
+            label = "Use single precision neural nets")
+    private boolean useSinglePrecisionNets;
+
     @Parameter(defaultValue = "false", description =
             "Reflectance values in the target product shall be either written as remote sensing or water leaving reflectances",
             label = "Output AC reflectances as rrs instead of rhow")
@@ -241,6 +246,10 @@ public class C2rccModisOperator extends PixelOperator implements C2rccConfigurab
         this.outputRtosa = outputRtosa;
     }
 
+    public void setUseSinglePrecisionNets(boolean useSinglePrecisionNets) {
+        this.useSinglePrecisionNets = useSinglePrecisionNets;
+    }
+
     @Override
     public void setOutputAsRrs(boolean asRrs) {
         outputAsRrs = asRrs;
@@ -416,7 +425,7 @@ public class C2rccModisOperator extends PixelOperator implements C2rccConfigurab
         try {
             pm.setSubTaskName("Defining algorithm ...");
             try {
-                algorithm = new C2rccModisAlgorithm();
+                algorithm = new C2rccModisAlgorithm(useSinglePrecisionNets);
             } catch (IOException e) {
                 throw new OperatorException(e);
             }
@@ -1,16 +1,12 @@
 package org.esa.s3tbx.c2rcc.msi;
 
-import org.esa.snap.core.nn.NNffbpAlphaTabFast;
+import org.esa.s3tbx.c2rcc.util.NNRegistry;
+import org.esa.s3tbx.c2rcc.util.NeuralNet;
 import org.esa.snap.core.util.BitSetter;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Arrays;
 
@@ -69,17 +65,18 @@ public class C2rccMsiAlgorithm {
     static String[] SOURCE_BAND_REFL_NAMES = new String[]{"B1", "B2", "B3", "B4", "B5", "B6", "B7", "B8", "B8A", "B9", "B10", "B11", "B12",};
     static String[] NN_SOURCE_BAND_REFL_NAMES = new String[]{"B1", "B2", "B3", "B4", "B5", "B6", "B7", "B8A",};
 
-    final ThreadLocal<NNffbpAlphaTabFast> nn_rw_iop; // NN Rw -< IOPs input 10 bands, 5 IOPs
-    final ThreadLocal<NNffbpAlphaTabFast> nn_rtosa_rw; // NN Rtosa -> Rw 12 bands
-    final ThreadLocal<NNffbpAlphaTabFast> nn_rtosa_aann; // Rtosa -> Rtosa' 12 bands
-    final ThreadLocal<NNffbpAlphaTabFast> nn_rtosa_rpath; //Rtosa -> Rpath 12 bands
-    final ThreadLocal<NNffbpAlphaTabFast> nn_rtosa_trans; // Rtosa -> transd, transu 12 bands
-    final ThreadLocal<NNffbpAlphaTabFast> nn_iop_rw; // IOPs(5) -> Rw' (10 bands)
-    final ThreadLocal<NNffbpAlphaTabFast> nn_rw_kd; // Rw (10 bands) -> kd489, kdmin
-    final ThreadLocal<NNffbpAlphaTabFast> nn_iop_unciop; // IOPs (5) -> uncertainties of IOPs (5)
-    final ThreadLocal<NNffbpAlphaTabFast> nn_iop_uncsumiop_unckd; // IOPs (5) -> unc_adg, unc_atot, unc_btot, unc_kd489, unc_kdmin
-    final ThreadLocal<NNffbpAlphaTabFast> nn_rw_rwnorm; // Rw (10) -> Rwn (10)
+    final ThreadLocal<NeuralNet> nn_rw_iop; // NN Rw -< IOPs input 10 bands, 5 IOPs
+    final ThreadLocal<NeuralNet> nn_rtosa_rw; // NN Rtosa -> Rw 12 bands
+    final ThreadLocal<NeuralNet> nn_rtosa_aann; // Rtosa -> Rtosa' 12 bands
+    final ThreadLocal<NeuralNet> nn_rtosa_rpath; //Rtosa -> Rpath 12 bands
+    final ThreadLocal<NeuralNet> nn_rtosa_trans; // Rtosa -> transd, transu 12 bands
+    final ThreadLocal<NeuralNet> nn_iop_rw; // IOPs(5) -> Rw' (10 bands)
+    final ThreadLocal<NeuralNet> nn_rw_kd; // Rw (10 bands) -> kd489, kdmin
+    final ThreadLocal<NeuralNet> nn_iop_unciop; // IOPs (5) -> uncertainties of IOPs (5)
+    final ThreadLocal<NeuralNet> nn_iop_uncsumiop_unckd; // IOPs (5) -> unc_adg, unc_atot, unc_btot, unc_kd489, unc_kdmin
+    final ThreadLocal<NeuralNet> nn_rw_rwnorm; // Rw (10) -> Rwn (10)
     private final ArrayList<String> nnNames;
+    private final boolean singlePrecisionNets;
     double salinity = 35.0;
     double temperature = 15.0;
 
@@ -106,7 +103,13 @@ public class C2rccMsiAlgorithm {
     private boolean deriveRwFromPathAndTransmittance;
 
     C2rccMsiAlgorithm(final String[] nnFilePaths, final boolean loadFromResources) throws IOException {
+        this(nnFilePaths, loadFromResources, false);
+    }
+
+    C2rccMsiAlgorithm(final String[] nnFilePaths, final boolean loadFromResources,
+                      final boolean singlePrecisionNets) throws IOException {
         nnNames = new ArrayList<>();
+        this.singlePrecisionNets = singlePrecisionNets;
 
         // rtosa auto NN
         nn_rtosa_aann = nnhs(nnFilePaths[IDX_rtosa_aann], loadFromResources);
@@ -596,52 +599,18 @@ public class C2rccMsiAlgorithm {
         return nnNames.toArray(new String[nnNames.size()]);
     }
 
-    private ThreadLocal<NNffbpAlphaTabFast> nnhs(String sourcePath, boolean loadFromResource) throws IOException {
-
-//        Files.
-
-        final InputStream stream;
+    private ThreadLocal<NeuralNet> nnhs(String sourcePath, boolean loadFromResource) throws IOException {
         if (loadFromResource) {
             String name = "/auxdata/nets/" + sourcePath;
-            stream = C2rccMsiAlgorithm.class.getResourceAsStream(name);
-            if (stream == null) {
-                throw new IllegalStateException("resource not found: " + name);
-            }
+            ThreadLocal<NeuralNet> nn = NNRegistry.getResourceNeuralNet(C2rccMsiAlgorithm.class, name, singlePrecisionNets);
             nnNames.add(name);
+            return nn;
         } else {
             final Path path = Paths.get(sourcePath);
-            stream = Files.newInputStream(path, StandardOpenOption.READ);
-            if (stream == null) {
-                throw new IllegalStateException("file not found: " + path.toString());
-            }
+            ThreadLocal<NeuralNet> nn = NNRegistry.getFileNeuralNet(path, singlePrecisionNets);
             nnNames.add(path.toString());
+            return nn;
         }
-        final String nnCode = readFully(stream);
-        return new ThreadLocal<NNffbpAlphaTabFast>() {
-            @Override
-            protected NNffbpAlphaTabFast initialValue() {
-                try {
-                    return new NNffbpAlphaTabFast(nnCode);
-                } catch (IOException e) {
-                    throw new IllegalStateException(e);
-                }
-            }
-        };
-    }
-
-    private String readFully(InputStream stream) throws IOException {
-        String text;
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(stream))) {
-            text = "";
-            while (true) {
-                String line = reader.readLine();
-                if (line == null) {
-                    break;
-                }
-                text += line + "\n";
-            }
-        }
-        return text;
     }
 
     /**
@@ -303,6 +303,11 @@ public class C2rccMsiOperator extends PixelOperator implements C2rccConfigurable
             label = "Derive water reflectance from path radiance and transmittance")
     private boolean deriveRwFromPathAndTransmittance;
 
+    @Parameter(defaultValue = "false", description = "Evaluate the neural nets in single precision. This is faster, " +
+            "but the results deviate slightly from the double precision evaluation.",
+            label = "Use single precision neural nets")
+    private boolean useSinglePrecisionNets;
+
     @Parameter(defaultValue = "true", label = "Output TOA reflectances")
     private boolean outputRtoa;
 
@@ -408,6 +413,10 @@ public class C2rccMsiOperator extends PixelOperator implements C2rccConfigurable
         this.deriveRwFromPathAndTransmittance = deriveRwFromPathAndTransmittance;
     }
 
+    public void setUseSinglePrecisionNets(boolean useSinglePrecisionNets) {
+        this.useSinglePrecisionNets = useSinglePrecisionNets;
+    }
+
     void setOutputKd(boolean outputKd) {
         this.outputKd = outputKd;
     }
@@ -1007,13 +1016,13 @@ public class C2rccMsiOperator extends PixelOperator implements C2rccConfigurable
             if (StringUtils.isNotNullAndNotEmpty(alternativeNNPath)) {
                 String[] nnFilePaths = NNUtils.getNNFilePaths(Paths.get(alternativeNNPath),
                         NNUtils.ALTERNATIVE_NET_DIR_NAMES);
-                algorithm = new C2rccMsiAlgorithm(nnFilePaths, false);
+                algorithm = new C2rccMsiAlgorithm(nnFilePaths, false, useSinglePrecisionNets);
             } else {
                 String[] nnFilePaths = c2rccNetSetMap.get(netSet);
                 if (nnFilePaths == null) {
                     throw new OperatorException(String.format("Unknown set '%s' of neural nets specified.", netSet));
                 }
-                algorithm = new C2rccMsiAlgorithm(nnFilePaths, true);
+                algorithm = new C2rccMsiAlgorithm(nnFilePaths, true, useSinglePrecisionNets);
             }
             algorithm.setTemperature(temperature);
             algorithm.setSalinity(salinity);
@@ -279,6 +279,11 @@ public class C2rccOlciOperator extends PixelOperator implements C2rccConfigurabl
             label = "Derive water reflectance from path radiance and transmittance")
     private boolean deriveRwFromPathAndTransmittance;
 
+    @Parameter(defaultValue = "false", description = "Evaluate the neural nets in single precision. This is faster, " +
+            "but the results deviate slightly from the double precision evaluation.",
+            label = "Use single precision neural nets")
+    private boolean useSinglePrecisionNets;
+
     @Parameter(defaultValue = "true", description =
             "Use ECMWF auxiliary data (total_ozone, sea_level_pressure) from the source product.",
             label = "Use ECMWF aux data of source product")
@@ -406,6 +411,10 @@ public class C2rccOlciOperator extends PixelOperator implements C2rccConfigurabl
         this.deriveRwFromPathAndTransmittance = deriveRwFromPathAndTransmittance;
     }
 
+    public void setUseSinglePrecisionNets(boolean useSinglePrecisionNets) {
+        this.useSinglePrecisionNets = useSinglePrecisionNets;
+    }
+
     public void setOutputKd(boolean outputKd) {
         this.outputKd = outputKd;
     }
@@ -989,7 +998,7 @@ public class C2rccOlciOperator extends PixelOperator implements C2rccConfigurabl
             } else {
                 nnFilePaths = NNUtils.getNNFilePaths(Paths.get(alternativeNNPath), NNUtils.ALTERNATIVE_NET_DIR_NAMES);
             }
-            algorithm = new C2rccOlciAlgorithm(nnFilePaths, loadFromResources);
+            algorithm = new C2rccOlciAlgorithm(nnFilePaths, loadFromResources, useSinglePrecisionNets);
 
             algorithm.setTemperature(temperature);
             algorithm.setSalinity(salinity);
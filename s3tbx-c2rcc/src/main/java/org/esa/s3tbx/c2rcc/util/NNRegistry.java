@@ -0,0 +1,179 @@
+package org.esa.s3tbx.c2rcc.util;
+
+import org.esa.snap.core.nn.NNffbpAlphaTabFast;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Process wide registry of the neural nets used by the C2RCC algorithms.
+ * <p>
+ * The textual net definition is read only once per process. Nets loaded from resources are identified by their
+ * resource name, nets loaded from files by their path and the hash of their content, so a modified file is read
+ * again. The registry keeps only immutable data, the parsed {@link NNffbpAlphaTabFloat.Weights} of single precision
+ * nets and the definition of double precision nets, and at most {@link #MAX_CACHED_NETS} of them.
+ * <p>
+ * Every call returns a new {@link ThreadLocal}, which is meant to be kept by the algorithm instance. The evaluators
+ * of the threads therefore live as long as the algorithm and its operator, and not as long as the threads of the
+ * pool. A single precision evaluator holds only its activations and shares the weights with all others, a double
+ * precision evaluator is a {@link NNffbpAlphaTabFast}, which keeps its own copy of the weights.
+ */
+public class NNRegistry {
+
+    static final int MAX_CACHED_NETS = 128;
+
+    private static final Map<String, Object> DEFINITIONS = Collections.synchronizedMap(
+            new LinkedHashMap<String, Object>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Object> eldest) {
+                    return size() > MAX_CACHED_NETS;
+                }
+            });
+
+    private NNRegistry() {
+    }
+
+    /**
+     * Returns the net stored as resource.
+     *
+     * @param resourceClass the class used to load the resource
+     * @param resourceName  the absolute name of the resource
+     * @return the thread local providing an instance of the net for the calling thread
+     * @throws IOException if the resource could not be read
+     */
+    public static ThreadLocal<NNffbpAlphaTabFast> getResourceNet(Class<?> resourceClass, String resourceName) throws IOException {
+        return createThreadLocal(getResourceDefinition(resourceClass, resourceName, false));
+    }
+
+    /**
+     * Returns the net stored in the given file.
+     *
+     * @param path the path of the net file
+     * @return the thread local providing an instance of the net for the calling thread
+     * @throws IOException if the file could not be read
+     */
+    public static ThreadLocal<NNffbpAlphaTabFast> getFileNet(Path path) throws IOException {
+        return createThreadLocal(getFileDefinition(path, false));
+    }
+
+    /**
+     * Returns the net stored as resource, evaluated in single or double precision.
+     *
+     * @param resourceClass   the class used to load the resource
+     * @param resourceName    the absolute name of the resource
+     * @param singlePrecision whether the net shall be evaluated in single precision
+     * @return the thread local providing an instance of the net for the calling thread
+     * @throws IOException if the resource could not be read
+     * @see NNffbpAlphaTabFloat
+     */
+    public static ThreadLocal<NeuralNet> getResourceNeuralNet(Class<?> resourceClass, String resourceName,
+                                                              boolean singlePrecision) throws IOException {
+        return createNeuralNetThreadLocal(getResourceDefinition(resourceClass, resourceName, singlePrecision));
+    }
+
+    /**
+     * Returns the net stored in the given file, evaluated in single or double precision.
+     *
+     * @param path            the path of the net file
+     * @param singlePrecision whether the net shall be evaluated in single precision
+     * @return the thread local providing an instance of the net for the calling thread
+     * @throws IOException if the file could not be read
+     * @see NNffbpAlphaTabFloat
+     */
+    public static ThreadLocal<NeuralNet> getFileNeuralNet(Path path, boolean singlePrecision) throws IOException {
+        return createNeuralNetThreadLocal(getFileDefinition(path, singlePrecision));
+    }
+
+    private static Object getResourceDefinition(Class<?> resourceClass, String resourceName,
+                                                boolean singlePrecision) throws IOException {
+        final String key = precisionKey("resource:" + resourceName, singlePrecision);
+        Object definition = DEFINITIONS.get(key);
+        if (definition == null) {
+            final InputStream stream = resourceClass.getResourceAsStream(resourceName);
+            if (stream == null) {
+                throw new IllegalStateException("resource not found: " + resourceName);
+            }
+            definition = register(key, readFully(stream), singlePrecision);
+        }
+        return definition;
+    }
+
+    private static Object getFileDefinition(Path path, boolean singlePrecision) throws IOException {
+        final byte[] content = Files.readAllBytes(path);
+        final String key = precisionKey("file:" + path.toAbsolutePath().normalize() + ':' + hash(content),
+                                        singlePrecision);
+        Object definition = DEFINITIONS.get(key);
+        if (definition == null) {
+            definition = register(key, readFully(new ByteArrayInputStream(content)), singlePrecision);
+        }
+        return definition;
+    }
+
+    // the weights of single precision nets are parsed once and shared by the instances of all threads
+    private static Object register(String key, String nnCode, boolean singlePrecision) throws IOException {
+        final Object definition = singlePrecision ? NNffbpAlphaTabFloat.Weights.parse(nnCode) : nnCode;
+        final Object previous = DEFINITIONS.putIfAbsent(key, definition);
+        return previous != null ? previous : definition;
+    }
+
+    private static String precisionKey(String key, boolean singlePrecision) {
+        return (singlePrecision ? "float:" : "double:") + key;
+    }
+
+    private static ThreadLocal<NeuralNet> createNeuralNetThreadLocal(final Object definition) {
+        if (definition instanceof NNffbpAlphaTabFloat.Weights) {
+            final NNffbpAlphaTabFloat.Weights weights = (NNffbpAlphaTabFloat.Weights) definition;
+            return ThreadLocal.withInitial(() -> new NNffbpAlphaTabFloat(weights));
+        }
+        final String nnCode = (String) definition;
+        return ThreadLocal.withInitial(() -> NeuralNet.of(createNet(nnCode)));
+    }
+
+    private static ThreadLocal<NNffbpAlphaTabFast> createThreadLocal(final Object definition) {
+        final String nnCode = (String) definition;
+        return ThreadLocal.withInitial(() -> createNet(nnCode));
+    }
+
+    private static NNffbpAlphaTabFast createNet(String nnCode) {
+        try {
+            return new NNffbpAlphaTabFast(nnCode);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // line separators are normalised, as the nets have always been read line by line
+    private static String readFully(InputStream stream) throws IOException {
+        final StringBuilder text = new StringBuilder();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(stream))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                text.append(line).append('\n');
+            }
+        }
+        return text.toString();
+    }
+
+    private static String hash(byte[] content) {
+        try {
+            final byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+            final StringBuilder sb = new StringBuilder(2 * digest.length);
+            for (byte b : digest) {
+                sb.append(String.format("%02x", b));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
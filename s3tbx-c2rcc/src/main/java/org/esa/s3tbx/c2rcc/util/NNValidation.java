@@ -0,0 +1,130 @@
+package org.esa.s3tbx.c2rcc.util;
+
+import org.esa.snap.core.nn.NNffbpAlphaTabFast;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Random;
+
+/**
+ * Compares the single precision evaluation of a neural net with the double precision evaluation.
+ * <p>
+ * The reference pixels are input vectors, either given or drawn uniformly from the input ranges of the net. For
+ * every output the maximum and the root mean square of the absolute deviation are reported. Running the class
+ * prints the deviations for the net files given as arguments.
+ */
+public class NNValidation {
+
+    private NNValidation() {
+    }
+
+    /**
+     * Creates reference pixels uniformly distributed within the input ranges of the net.
+     *
+     * @param net   the net
+     * @param count the number of pixels
+     * @param seed  the seed of the random numbers
+     * @return the input vectors of the pixels
+     */
+    public static double[][] createReferenceInputs(NeuralNet net, int count, long seed) {
+        final double[] inmin = net.getInmin();
+        final double[] inmax = net.getInmax();
+        final Random random = new Random(seed);
+        final double[][] inputs = new double[count][inmin.length];
+        for (double[] input : inputs) {
+            for (int i = 0; i < input.length; i++) {
+                input[i] = inmin[i] + random.nextDouble() * (inmax[i] - inmin[i]);
+            }
+        }
+        return inputs;
+    }
+
+    /**
+     * Evaluates both nets for the given reference pixels.
+     *
+     * @param reference the net evaluated in double precision
+     * @param candidate the net evaluated in single precision
+     * @param inputs    the input vectors of the reference pixels
+     * @return the deviation of the candidate from the reference
+     */
+    public static Deviation compare(NeuralNet reference, NeuralNet candidate, double[][] inputs) {
+        final int numOutputs = reference.getOutmin().length;
+        final double[] max = new double[numOutputs];
+        final double[] sumSq = new double[numOutputs];
+        for (double[] input : inputs) {
+            final double[] expected = reference.calc(input);
+            final double[] actual = candidate.calc(input);
+            for (int i = 0; i < numOutputs; i++) {
+                final double deviation = Math.abs(actual[i] - expected[i]);
+                max[i] = Math.max(max[i], deviation);
+                sumSq[i] += deviation * deviation;
+            }
+        }
+        final double[] rms = new double[numOutputs];
+        for (int i = 0; i < numOutputs; i++) {
+            rms[i] = inputs.length > 0 ? Math.sqrt(sumSq[i] / inputs.length) : 0.0;
+        }
+        return new Deviation(max, rms);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.out.println("Usage: NNValidation <net file>...");
+            return;
+        }
+        for (String arg : args) {
+            final String nnCode = new String(Files.readAllBytes(Paths.get(arg)), StandardCharsets.UTF_8);
+            final NeuralNet reference = NeuralNet.of(new NNffbpAlphaTabFast(nnCode));
+            final NeuralNet candidate = new NNffbpAlphaTabFloat(nnCode);
+            final Deviation deviation = compare(reference, candidate, createReferenceInputs(reference, 10000, 42));
+            System.out.printf("%s%n  max deviation: %g%n  RMS deviation: %g%n",
+                              arg, deviation.getMaxDeviation(), deviation.getRmsDeviation());
+        }
+    }
+
+    /**
+     * The absolute deviation per output of a net.
+     */
+    public static class Deviation {
+
+        private final double[] max;
+        private final double[] rms;
+
+        Deviation(double[] max, double[] rms) {
+            this.max = max;
+            this.rms = rms;
+        }
+
+        public double[] getMax() {
+            return max;
+        }
+
+        public double[] getRms() {
+            return rms;
+        }
+
+        /**
+         * @return the maximum deviation over all outputs
+         */
+        public double getMaxDeviation() {
+            double value = 0.0;
+            for (double v : max) {
+                value = Math.max(value, v);
+            }
+            return value;
+        }
+
+        /**
+         * @return the maximum RMS deviation over all outputs
+         */
+        public double getRmsDeviation() {
+            double value = 0.0;
+            for (double v : rms) {
+                value = Math.max(value, v);
+            }
+            return value;
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package org.esa.s3tbx.c2rcc.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+
+/**
+ * Single precision variant of {@link org.esa.snap.core.nn.NNffbpAlphaTabFast}. The net is read from the same textual
+ * definition, but weights, biases and activations are kept as {@code float} and the sigmoid activation is linearly
+ * interpolated from a precomputed {@code float} table. This halves the memory traffic of the matrix-vector products,
+ * at the cost of a small deviation from the double precision results, which can be assessed with
+ * {@link NNValidation}.
+ * <p>
+ * The parsed net is immutable and can be shared by several instances, see {@link #NNffbpAlphaTabFloat(Weights)}.
+ * An instance keeps the activations of the planes and must be used by one thread only.
+ */
+public class NNffbpAlphaTabFloat implements NeuralNet {
+
+    private static final float ACTIVATION_MIN = -16.0f;
+    private static final float ACTIVATION_MAX = 16.0f;
+    private static final int ACTIVATION_TABLE_SIZE = 4096;
+    private static final float ACTIVATION_SCALE = (ACTIVATION_TABLE_SIZE - 1) / (ACTIVATION_MAX - ACTIVATION_MIN);
+    private static final float[] ACTIVATION_TABLE = createActivationTable();
+
+    private final Weights weights;
+    private final float[][] activations;
+
+    public NNffbpAlphaTabFloat(String nnCode) throws IOException {
+        this(Weights.parse(nnCode));
+    }
+
+    /**
+     * Creates a new instance sharing the given net.
+     *
+     * @param weights the parsed net
+     */
+    public NNffbpAlphaTabFloat(Weights weights) {
+        this.weights = weights;
+        activations = new float[weights.size.length][];
+        for (int i = 0; i < activations.length; i++) {
+            activations[i] = new float[weights.size[i]];
+        }
+    }
+
+    public Weights getWeights() {
+        return weights;
+    }
+
+    @Override
+    public double[] calc(double[] input) {
+        final float[] in = activations[0];
+        for (int i = 0; i < in.length; i++) {
+            in[i] = (float) ((input[i] - weights.inmin[i]) / (weights.inmax[i] - weights.inmin[i]));
+        }
+        for (int pl = 0; pl < activations.length - 1; pl++) {
+            final float[] src = activations[pl];
+            final float[] dst = activations[pl + 1];
+            final float[] wgt = weights.wgt[pl];
+            final float[] bias = weights.bias[pl];
+            final int numSrc = src.length;
+            for (int i = 0, offset = 0; i < dst.length; i++, offset += numSrc) {
+                float sum = bias[i];
+                for (int j = 0; j < numSrc; j++) {
+                    sum += wgt[offset + j] * src[j];
+                }
+                dst[i] = activation(sum);
+            }
+        }
+        final float[] out = activations[activations.length - 1];
+        final double[] output = new double[out.length];
+        for (int i = 0; i < out.length; i++) {
+            output[i] = out[i] * (weights.outmax[i] - weights.outmin[i]) + weights.outmin[i];
+        }
+        return output;
+    }
+
+    @Override
+    public double[] getInmin() {
+        return weights.inmin;
+    }
+
+    @Override
+    public double[] getInmax() {
+        return weights.inmax;
+    }
+
+    @Override
+    public double[] getOutmin() {
+        return weights.outmin;
+    }
+
+    @Override
+    public double[] getOutmax() {
+        return weights.outmax;
+    }
+
+    static float activation(float x) {
+        final float position = (x - ACTIVATION_MIN) * ACTIVATION_SCALE;
+        if (position <= 0.0f) {
+            return ACTIVATION_TABLE[0];
+        }
+        if (position >= ACTIVATION_TABLE_SIZE - 1) {
+            return ACTIVATION_TABLE[ACTIVATION_TABLE_SIZE - 1];
+        }
+        final int index = (int) position;
+        final float fraction = position - index;
+        final float lower = ACTIVATION_TABLE[index];
+        return lower + fraction * (ACTIVATION_TABLE[index + 1] - lower);
+    }
+
+    private static float[] createActivationTable() {
+        final float[] table = new float[ACTIVATION_TABLE_SIZE];
+        for (int i = 0; i < table.length; i++) {
+            final double x = ACTIVATION_MIN + i / (double) ACTIVATION_SCALE;
+            table[i] = (float) (1.0 / (1.0 + Math.exp(-x)));
+        }
+        return table;
+    }
+
+    /**
+     * The parsed, immutable definition of a net.
+     */
+    public static final class Weights {
+
+        private final double[] inmin;
+        private final double[] inmax;
+        private final double[] outmin;
+        private final double[] outmax;
+        private final int[] size;
+        // per plane, the weights of a target node are stored consecutively
+        private final float[][] wgt;
+        private final float[][] bias;
+
+        private Weights(double[] inmin, double[] inmax, double[] outmin, double[] outmax, int[] size,
+                        float[][] wgt, float[][] bias) {
+            this.inmin = inmin;
+            this.inmax = inmax;
+            this.outmin = outmin;
+            this.outmax = outmax;
+            this.size = size;
+            this.wgt = wgt;
+            this.bias = bias;
+        }
+
+        /**
+         * Parses the textual definition of a net, as read by {@link org.esa.snap.core.nn.NNffbpAlphaTabFast}.
+         *
+         * @param nnCode the definition
+         * @return the parsed net
+         * @throws IOException if the definition is malformed
+         */
+        public static Weights parse(String nnCode) throws IOException {
+            final BufferedReader reader = new BufferedReader(new StringReader(nnCode));
+            String line = reader.readLine();
+            while (line != null && !line.startsWith("#")) {
+                line = reader.readLine();
+            }
+            if (line == null) {
+                throw new IOException("Input and output ranges of neural net not found");
+            }
+            final double[][] inRanges = readRanges(reader);
+            final double[][] outRanges = readRanges(reader);
+            while (line != null && !line.startsWith("$")) {
+                line = reader.readLine();
+            }
+            line = reader.readLine();
+            if (line == null || !line.startsWith("#planes=")) {
+                throw new IOException("Planes of neural net not found");
+            }
+            final String[] planeTokens = line.substring("#planes=".length()).trim().split("\\s+");
+            final int numPlanes = Integer.parseInt(planeTokens[0]);
+            final int[] size = new int[numPlanes];
+            for (int i = 0; i < numPlanes; i++) {
+                size[i] = Integer.parseInt(planeTokens[i + 1]);
+            }
+            if (size[0] != inRanges[0].length || size[numPlanes - 1] != outRanges[0].length) {
+                throw new IOException("Planes of neural net do not match the number of inputs and outputs");
+            }
+
+            // biases of the planes 1..n-1 and weights between the planes 0..n-1
+            final float[][] bias = new float[numPlanes - 1][];
+            final float[][] wgt = new float[numPlanes - 1][];
+            for (int block = 0; block < 2 * (numPlanes - 1); block++) {
+                final String[] header = readHeader(reader);
+                final int plane = Integer.parseInt(header[1]);
+                if ("bias".equals(header[0])) {
+                    bias[plane - 1] = readValues(reader, size[plane]);
+                } else if ("wgt".equals(header[0])) {
+                    wgt[plane] = readValues(reader, size[plane] * size[plane + 1]);
+                } else {
+                    throw new IOException("Unexpected block '" + header[0] + "' in neural net definition");
+                }
+            }
+            for (int pl = 0; pl < numPlanes - 1; pl++) {
+                if (bias[pl] == null || wgt[pl] == null) {
+                    throw new IOException("Incomplete neural net definition");
+                }
+            }
+            return new Weights(inRanges[0], inRanges[1], outRanges[0], outRanges[1], size, wgt, bias);
+        }
+
+        private static double[][] readRanges(BufferedReader reader) throws IOException {
+            final int count = Integer.parseInt(readLine(reader).trim());
+            final double[][] ranges = new double[2][count];
+            for (int i = 0; i < count; i++) {
+                final String[] tokens = readLine(reader).trim().split("\\s+");
+                ranges[0][i] = Double.parseDouble(tokens[0]);
+                ranges[1][i] = Double.parseDouble(tokens[1]);
+            }
+            return ranges;
+        }
+
+        private static String[] readHeader(BufferedReader reader) throws IOException {
+            String line = readLine(reader).trim();
+            while (line.isEmpty()) {
+                line = readLine(reader).trim();
+            }
+            final String[] tokens = line.split("\\s+");
+            if (tokens.length < 2) {
+                throw new IOException("Invalid block header '" + line + "' in neural net definition");
+            }
+            return tokens;
+        }
+
+        private static float[] readValues(BufferedReader reader, int count) throws IOException {
+            final float[] values = new float[count];
+            int i = 0;
+            while (i < count) {
+                final String line = readLine(reader).trim();
+                if (line.isEmpty()) {
+                    continue;
+                }
+                for (String token : line.split("\\s+")) {
+                    if (i == count) {
+                        throw new IOException("Too many values in neural net definition");
+                    }
+                    values[i++] = (float) Double.parseDouble(token);
+                }
+            }
+            return values;
+        }
+
+        private static String readLine(BufferedReader reader) throws IOException {
+            final String line = reader.readLine();
+            if (line == null) {
+                throw new IOException("Unexpected end of neural net definition");
+            }
+            return line;
+        }
+    }
+}
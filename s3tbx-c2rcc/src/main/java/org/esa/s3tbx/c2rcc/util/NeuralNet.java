@@ -0,0 +1,59 @@
+package org.esa.s3tbx.c2rcc.util;
+
+import org.esa.snap.core.nn.NNffbpAlphaTabFast;
+
+/**
+ * A feed forward neural net as used by the C2RCC algorithms. Instances keep working arrays and must not be used by
+ * several threads at the same time.
+ */
+public interface NeuralNet {
+
+    /**
+     * Evaluates the net.
+     *
+     * @param input the input values
+     * @return the output values
+     */
+    double[] calc(double[] input);
+
+    double[] getInmin();
+
+    double[] getInmax();
+
+    double[] getOutmin();
+
+    double[] getOutmax();
+
+    /**
+     * @param nn the net evaluated in double precision
+     * @return the given net as {@code NeuralNet}
+     */
+    static NeuralNet of(NNffbpAlphaTabFast nn) {
+        return new NeuralNet() {
+            @Override
+            public double[] calc(double[] input) {
+                return nn.calc(input);
+            }
+
+            @Override
+            public double[] getInmin() {
+                return nn.getInmin();
+            }
+
+            @Override
+            public double[] getInmax() {
+                return nn.getInmax();
+            }
+
+            @Override
+            public double[] getOutmin() {
+                return nn.getOutmin();
+            }
+
+            @Override
+            public double[] getOutmax() {
+                return nn.getOutmax();
+            }
+        };
+    }
+}
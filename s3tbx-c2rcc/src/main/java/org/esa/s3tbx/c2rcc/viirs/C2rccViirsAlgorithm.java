@@ -1,12 +1,10 @@
 package org.esa.s3tbx.c2rcc.viirs;
 
-import org.esa.snap.core.nn.NNffbpAlphaTabFast;
+import org.esa.s3tbx.c2rcc.util.NNRegistry;
+import org.esa.s3tbx.c2rcc.util.NeuralNet;
 import org.esa.snap.core.util.BitSetter;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.util.Arrays;
 
 import static java.lang.Math.*;
@@ -87,9 +85,10 @@ public class C2rccViirsAlgorithm {
     double[] thresh_rwslope = {0.95, 1.05};    // threshold for out of scope flag Rw has to be adjusted
 
 
-    final ThreadLocal<NNffbpAlphaTabFast> logrw_iop_NN;
-    final ThreadLocal<NNffbpAlphaTabFast> rtosa_rw_nn;
-    final ThreadLocal<NNffbpAlphaTabFast> aaNN_test_oos_rtosa;
+    final ThreadLocal<NeuralNet> logrw_iop_NN;
+    final ThreadLocal<NeuralNet> rtosa_rw_nn;
+    final ThreadLocal<NeuralNet> aaNN_test_oos_rtosa;
+    private final boolean singlePrecisionNets;
 
     public void setTemperature(double temperature) {
         this.temperature = temperature;
@@ -230,43 +229,18 @@ public class C2rccViirsAlgorithm {
     }
 
     C2rccViirsAlgorithm() throws IOException {
+        this(false);
+    }
+
+    C2rccViirsAlgorithm(boolean singlePrecisionNets) throws IOException {
+        this.singlePrecisionNets = singlePrecisionNets;
         aaNN_test_oos_rtosa = nnhs("viirs/coastcolour_atmo_press_20150221/rtoa_viirs_aaNN7/31x7x31_228.7.net");
         rtosa_rw_nn = nnhs("viirs/coastcolour_atmo_press_20150221/rtoa_rw_viirs_nn3/33x73x53x33_420666.6.net");
         logrw_iop_NN = nnhs("viirs/coastcolour_wat_20140318/inv_viirs_logrw_logiop_20140318_noise_p5/87x77x37_15389.9.net");
     }
 
-    private ThreadLocal<NNffbpAlphaTabFast> nnhs(String path) throws IOException {
-        String name = "/auxdata/nets/" + path;
-        InputStream stream = C2rccViirsAlgorithm.class.getResourceAsStream(name);
-        if (stream == null) {
-            throw new IllegalStateException("resource not found: " + name);
-        }
-        final String nnCode = readFully(stream);
-        return new ThreadLocal<NNffbpAlphaTabFast>() {
-            @Override
-            protected NNffbpAlphaTabFast initialValue() {
-                try {
-                    return new NNffbpAlphaTabFast(nnCode);
-                } catch (IOException e) {
-                    throw new IllegalStateException(e);
-                }
-            }
-        };
-    }
-
-    private String readFully(InputStream stream) throws IOException {
-        String text;
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(stream))) {
-            text = "";
-            while (true) {
-                String line = reader.readLine();
-                if (line == null) {
-                    break;
-                }
-                text += line + "\n";
-            }
-        }
-        return text;
+    private ThreadLocal<NeuralNet> nnhs(String path) throws IOException {
+        return NNRegistry.getResourceNeuralNet(C2rccViirsAlgorithm.class, "/auxdata/nets/" + path, singlePrecisionNets);
     }
 
 }
@@ -155,6 +155,11 @@ public class C2rccViirsOperator extends PixelOperator implements C2rccConfigurab
     @Parameter(defaultValue = "false", label = "Output TOSA reflectances")
     private boolean outputRtosa;
 
+    @Parameter(defaultValue = "false", description = "Evaluate the neural nets in single precision. This is faster, " +
+            "but the results deviate slightly from the double precision evaluation.",
+            label = "Use single precision neural nets")
+    private boolean useSinglePrecisionNets;
+
     @Parameter(defaultValue = "false", description =
             "Reflectance values in the target product shall be either written as remote sensing or water leaving reflectances",
             label = "Output AC reflectances as rrs instead of rhow")
@@ -350,7 +355,7 @@ public class C2rccViirsOperator extends PixelOperator implements C2rccConfigurab
         pm.beginTask("Preparing computation", 2);
         try {
             pm.setSubTaskName("Defining algorithm ...");
-            algorithm = new C2rccViirsAlgorithm();
+            algorithm = new C2rccViirsAlgorithm(useSinglePrecisionNets);
             algorithm.setTemperature(temperature);
             algorithm.setSalinity(salinity);
             pm.worked(1);
@@ -435,6 +440,10 @@ public class C2rccViirsOperator extends PixelOperator implements C2rccConfigurab
         this.outputRtosa = outputRtosa;
     }
 
+    public void setUseSinglePrecisionNets(boolean useSinglePrecisionNets) {
+        this.useSinglePrecisionNets = useSinglePrecisionNets;
+    }
+
     @Override
     public void dispose() {
         super.dispose();
@@ -2,6 +2,7 @@ package org.esa.s3tbx.c2rcc.modis;
 
 import org.junit.Test;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 
@@ -53,4 +54,23 @@ public class C2rccModisAlgorithmTest {
 //        System.arraycopy(y1, 59, iopsExpected1, 0, iopsExpected1.length);
 //        assertArrayEquals(iopsExpected1, result1.iops, 1e-2);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testSinglePrecisionNets() throws Exception {
+        final double[] toaRef = {
+                0.17401233, 0.14464998, 0.109189205,
+                0.07873539, 0.07067424, 0.041668475,
+                0.040452786, 0.032773286, 0.024377074
+        };
+        C2rccModisAlgorithm.Result expected = new C2rccModisAlgorithm(false).processPixel(
+                toaRef, 64.19979, 158.32169, 24.818445, 102.8721, 1019.4312, 277.9019);
+        C2rccModisAlgorithm.Result actual = new C2rccModisAlgorithm(true).processPixel(
+                toaRef, 64.19979, 158.32169, 24.818445, 102.8721, 1019.4312, 277.9019);
+
+        assertArrayEquals(expected.rtosa_in, actual.rtosa_in, 0.0);
+        assertArrayEquals(expected.rw, actual.rw, 1e-4);
+        for (int i = 0; i < expected.iops.length; i++) {
+            assertEquals(expected.iops[i], actual.iops[i], Math.abs(expected.iops[i]) * 1e-2);
+        }
+    }
+}
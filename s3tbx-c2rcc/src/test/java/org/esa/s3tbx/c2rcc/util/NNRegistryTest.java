@@ -0,0 +1,90 @@
+package org.esa.s3tbx.c2rcc.util;
+
+import com.google.common.jimfs.Jimfs;
+import org.esa.snap.core.nn.NNffbpAlphaTabFast;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.*;
+
+public class NNRegistryTest {
+
+    private static final String NET_RESOURCE = "/auxdata/nets/landsat/l8_nets_20160818/rw_rwnorm/27x7x27_9.7.net";
+
+    private FileSystem fileSystem;
+
+    @Before
+    public void setUp() throws Exception {
+        fileSystem = Jimfs.newFileSystem();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        fileSystem.close();
+    }
+
+    @Test
+    public void testResourceNetIsCreatedPerThreadLocal() throws Exception {
+        ThreadLocal<NNffbpAlphaTabFast> nn1 = NNRegistry.getResourceNet(NNRegistry.class, NET_RESOURCE);
+        ThreadLocal<NNffbpAlphaTabFast> nn2 = NNRegistry.getResourceNet(NNRegistryTest.class, NET_RESOURCE);
+        assertNotSame(nn1, nn2);
+        assertSame(nn1.get(), nn1.get());
+        assertNotSame(nn1.get(), nn2.get());
+        assertArrayEquals(nn1.get().getInmin(), nn2.get().getInmin(), 0.0);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testResourceNetNotFound() throws Exception {
+        NNRegistry.getResourceNet(NNRegistry.class, "/auxdata/nets/not/existing.net");
+    }
+
+    @Test
+    public void testFileNetIsReloadedWhenModified() throws Exception {
+        Path netFile = fileSystem.getPath("test.net");
+        String nnCode = readResource();
+        Files.write(netFile, nnCode.getBytes());
+        NNffbpAlphaTabFloat.Weights weights = getWeights(NNRegistry.getFileNeuralNet(netFile, true));
+        assertSame(weights, getWeights(NNRegistry.getFileNeuralNet(netFile, true)));
+
+        Files.write(netFile, (nnCode + "\n").getBytes());
+        assertNotSame(weights, getWeights(NNRegistry.getFileNeuralNet(netFile, true)));
+    }
+
+    @Test
+    public void testNumberOfCachedNetsIsBounded() throws Exception {
+        String nnCode = readResource();
+        Path firstFile = fileSystem.getPath("first.net");
+        Files.write(firstFile, nnCode.getBytes());
+        NNffbpAlphaTabFloat.Weights weights = getWeights(NNRegistry.getFileNeuralNet(firstFile, true));
+
+        for (int i = 0; i < NNRegistry.MAX_CACHED_NETS; i++) {
+            Path netFile = fileSystem.getPath("net" + i + ".net");
+            Files.write(netFile, nnCode.getBytes());
+            NNRegistry.getFileNeuralNet(netFile, true);
+        }
+        assertNotSame(weights, getWeights(NNRegistry.getFileNeuralNet(firstFile, true)));
+    }
+
+    private static NNffbpAlphaTabFloat.Weights getWeights(ThreadLocal<NeuralNet> net) {
+        return ((NNffbpAlphaTabFloat) net.get()).getWeights();
+    }
+
+    private static String readResource() throws Exception {
+        try (InputStream stream = NNRegistryTest.class.getResourceAsStream(NET_RESOURCE)) {
+            ByteArrayOutputStream content = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int n;
+            while ((n = stream.read(buffer)) != -1) {
+                content.write(buffer, 0, n);
+            }
+            return content.toString();
+        }
+    }
+}
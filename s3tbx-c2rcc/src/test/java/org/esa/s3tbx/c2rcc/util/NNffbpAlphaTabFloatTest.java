@@ -0,0 +1,62 @@
+package org.esa.s3tbx.c2rcc.util;
+
+import org.esa.snap.core.nn.NNffbpAlphaTabFast;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class NNffbpAlphaTabFloatTest {
+
+    private static final String NET_RESOURCE = "/auxdata/nets/landsat/l8_nets_20160818/rw_rwnorm/27x7x27_9.7.net";
+
+    @Test
+    public void testActivation() {
+        assertEquals(0.5f, NNffbpAlphaTabFloat.activation(0.0f), 1.0e-6f);
+        assertEquals(1.0 / (1.0 + Math.exp(-1.3)), NNffbpAlphaTabFloat.activation(1.3f), 1.0e-5);
+        assertEquals(1.0 / (1.0 + Math.exp(4.2)), NNffbpAlphaTabFloat.activation(-4.2f), 1.0e-5);
+        assertEquals(0.0f, NNffbpAlphaTabFloat.activation(-100.0f), 1.0e-6f);
+        assertEquals(1.0f, NNffbpAlphaTabFloat.activation(100.0f), 1.0e-6f);
+    }
+
+    @Test
+    public void testDeviationFromDoublePrecision() throws Exception {
+        final NeuralNet reference = NNRegistry.getResourceNeuralNet(NNRegistry.class, NET_RESOURCE, false).get();
+        final NeuralNet candidate = NNRegistry.getResourceNeuralNet(NNRegistry.class, NET_RESOURCE, true).get();
+        assertTrue(candidate instanceof NNffbpAlphaTabFloat);
+        assertArrayEquals(reference.getInmin(), candidate.getInmin(), 0.0);
+        assertArrayEquals(reference.getOutmax(), candidate.getOutmax(), 0.0);
+
+        final double[][] inputs = NNValidation.createReferenceInputs(reference, 1000, 42);
+        final NNValidation.Deviation deviation = NNValidation.compare(reference, candidate, inputs);
+        assertEquals(5, deviation.getMax().length);
+        assertTrue(deviation.getMaxDeviation() < 1.0e-3);
+        assertTrue(deviation.getRmsDeviation() <= deviation.getMaxDeviation());
+    }
+
+    @Test
+    public void testSinglePrecisionNetIsShared() throws Exception {
+        ThreadLocal<NeuralNet> nn1 = NNRegistry.getResourceNeuralNet(NNRegistry.class, NET_RESOURCE, true);
+        ThreadLocal<NeuralNet> nn2 = NNRegistry.getResourceNeuralNet(NNRegistryTest.class, NET_RESOURCE, true);
+        assertNotSame(nn1, nn2);
+        // the evaluators only keep their activations, the weights are shared
+        final NNffbpAlphaTabFloat net1 = (NNffbpAlphaTabFloat) nn1.get();
+        final NNffbpAlphaTabFloat net2 = (NNffbpAlphaTabFloat) nn2.get();
+        assertNotSame(net1, net2);
+        assertSame(net1.getWeights(), net2.getWeights());
+        final NeuralNet[] otherThreadNet = new NeuralNet[1];
+        final Thread thread = new Thread(() -> otherThreadNet[0] = nn1.get());
+        thread.start();
+        thread.join();
+        assertNotSame(net1, otherThreadNet[0]);
+        assertSame(net1.getWeights(), ((NNffbpAlphaTabFloat) otherThreadNet[0]).getWeights());
+        assertFalse(NNRegistry.getResourceNeuralNet(NNRegistry.class, NET_RESOURCE, false).get() instanceof NNffbpAlphaTabFloat);
+    }
+
+    @Test
+    public void testAdapterDelegates() throws Exception {
+        final NNffbpAlphaTabFast nn = NNRegistry.getResourceNet(NNRegistry.class, NET_RESOURCE).get();
+        final NeuralNet net = NeuralNet.of(nn);
+        final double[] input = NNValidation.createReferenceInputs(net, 1, 7)[0];
+        assertArrayEquals(nn.calc(input), net.calc(input), 0.0);
+    }
+}
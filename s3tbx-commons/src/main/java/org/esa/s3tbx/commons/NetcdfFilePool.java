@@ -0,0 +1,262 @@
+/*
+ * Copyright (C) 2014 Brockmann Consult GmbH (info@brockmann-consult.de)
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+
+package org.esa.s3tbx.commons;
+
+import org.esa.snap.dataio.netcdf.util.NetcdfFileOpener;
+import ucar.ma2.Array;
+import ucar.ma2.InvalidRangeException;
+import ucar.ma2.Section;
+import ucar.nc2.NetcdfFile;
+import ucar.nc2.NetcdfFiles;
+import ucar.nc2.Variable;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * A bounded pool of handles to the same NetCDF/HDF file.
+ * <p>
+ * A {@link NetcdfFile} must not be read by several threads at once. Instead of locking a single handle, every read
+ * takes an idle handle of the pool. If all handles are busy, a further handle is opened, up to a maximum number of
+ * handles; beyond that, reads wait for a handle to become idle. Hence tiles of the same band are read concurrently
+ * while the number of open files stays bounded.
+ */
+public class NetcdfFilePool {
+
+    /**
+     * The default maximum number of handles per file.
+     */
+    public static final int DEFAULT_MAX_HANDLES = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), 8));
+
+    /**
+     * Opens a further handle to the file.
+     */
+    public interface Opener {
+
+        /**
+         * @return the handle, or {@code null} if the file cannot be opened
+         * @throws IOException if an I/O error occurs
+         */
+        NetcdfFile open() throws IOException;
+    }
+
+    private final Opener opener;
+    private final int maxHandles;
+    private final Deque<NetcdfFile> idleHandles;
+    private final List<NetcdfFile> handles;
+    private boolean closed;
+
+    /**
+     * Creates a pool.
+     *
+     * @param firstHandle an open handle, which becomes the first handle of the pool, or {@code null} if all handles
+     *                    are opened on demand
+     * @param opener      opens further handles
+     * @param maxHandles  the maximum number of handles
+     */
+    public NetcdfFilePool(NetcdfFile firstHandle, Opener opener, int maxHandles) {
+        if (maxHandles < 1) {
+            throw new IllegalArgumentException("maxHandles < 1");
+        }
+        this.opener = opener;
+        this.maxHandles = maxHandles;
+        idleHandles = new ArrayDeque<>(maxHandles);
+        handles = new ArrayList<>(maxHandles);
+        if (firstHandle != null) {
+            idleHandles.push(firstHandle);
+            handles.add(firstHandle);
+        }
+    }
+
+    /**
+     * Creates a pool for a file on disk.
+     *
+     * @param path       the path of the file
+     * @param maxHandles the maximum number of handles
+     * @return the pool, or {@code null} if the file cannot be opened
+     * @throws IOException if an I/O error occurs
+     */
+    public static NetcdfFilePool forPath(final String path, int maxHandles) throws IOException {
+        final NetcdfFile netcdfFile = NetcdfFileOpener.open(path);
+        if (netcdfFile == null) {
+            return null;
+        }
+        return new NetcdfFilePool(netcdfFile, () -> NetcdfFileOpener.open(path), maxHandles);
+    }
+
+    /**
+     * Creates a pool for a file held in memory. All handles share the given bytes.
+     *
+     * @param name       the name of the file
+     * @param data       the content of the file
+     * @param maxHandles the maximum number of handles
+     * @return the pool
+     * @throws IOException if the file cannot be opened
+     */
+    public static NetcdfFilePool forMemory(final String name, final byte[] data, int maxHandles) throws IOException {
+        return new NetcdfFilePool(NetcdfFiles.openInMemory(name, data), () -> NetcdfFiles.openInMemory(name, data),
+                                  maxHandles);
+    }
+
+    /**
+     * @return the first handle of the pool, which may be used to inspect the file structure
+     *         as long as no data is read through it, or {@code null} if no handle has been opened yet
+     */
+    public NetcdfFile getFirstHandle() {
+        synchronized (this) {
+            return handles.isEmpty() ? null : handles.get(0);
+        }
+    }
+
+    /**
+     * Reads a section of a variable using an idle handle.
+     *
+     * @param variable a variable of the file, as found in any of its handles
+     * @param origin   the origin of the section
+     * @param shape    the shape of the section
+     * @return the data of the section
+     * @throws IOException if the pool is closed, no handle can be opened or the variable is not found
+     */
+    public Array read(Variable variable, int[] origin, int[] shape) throws IOException, InvalidRangeException {
+        return read(variable, new Section(origin, shape));
+    }
+
+    /**
+     * Reads a section of a variable using an idle handle.
+     *
+     * @param variable a variable of the file, as found in any of its handles
+     * @param section  the section, which may be strided
+     * @return the data of the section
+     * @throws IOException if the pool is closed, no handle can be opened or the variable is not found
+     */
+    public Array read(Variable variable, Section section) throws IOException, InvalidRangeException {
+        return read(variable.getFullNameEscaped(), section);
+    }
+
+    /**
+     * Reads a section of a variable using an idle handle.
+     *
+     * @param variableName the full escaped name of the variable
+     * @param section      the section, which may be strided
+     * @return the data of the section
+     * @throws IOException if the pool is closed, no handle can be opened or the variable is not found
+     */
+    public Array read(String variableName, Section section) throws IOException, InvalidRangeException {
+        final NetcdfFile handle = acquire();
+        if (handle == null) {
+            throw new IOException("No handle available, the pool has been closed or the file cannot be opened");
+        }
+        try {
+            final Variable handleVariable = handle.findVariable(variableName);
+            if (handleVariable == null) {
+                throw new IOException("Variable '" + variableName + "' not found in " + handle.getLocation());
+            }
+            return handleVariable.read(section);
+        } finally {
+            release(handle);
+        }
+    }
+
+    /**
+     * Borrows an idle handle, opening a further handle if all are busy. Blocks while the maximum number of handles
+     * is in use. The handle must be given back by {@link #release(NetcdfFile)}.
+     *
+     * @return the handle, or {@code null} if the pool is closed or a further handle cannot be opened
+     * @throws IOException if an I/O error occurs or the waiting thread is interrupted
+     */
+    public NetcdfFile acquire() throws IOException {
+        synchronized (this) {
+            while (true) {
+                if (closed) {
+                    return null;
+                }
+                if (!idleHandles.isEmpty()) {
+                    return idleHandles.pop();
+                }
+                if (handles.size() < maxHandles) {
+                    // reserve the slot, the handle is opened outside of the lock
+                    handles.add(null);
+                    break;
+                }
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while waiting for a file handle", e);
+                }
+            }
+        }
+        NetcdfFile handle = null;
+        try {
+            handle = opener.open();
+            return handle;
+        } finally {
+            synchronized (this) {
+                handles.remove(handles.lastIndexOf(null));
+                if (handle != null) {
+                    handles.add(handle);
+                }
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Gives back a handle borrowed by {@link #acquire()}. If the pool has been closed meanwhile, the handle is closed.
+     *
+     * @param handle the handle
+     */
+    public void release(NetcdfFile handle) {
+        synchronized (this) {
+            if (!closed) {
+                idleHandles.push(handle);
+                notifyAll();
+                return;
+            }
+            handles.remove(handle);
+        }
+        closeQuietly(handle);
+    }
+
+    /**
+     * Closes all handles. Reads still in progress complete on their handle, which is closed afterwards.
+     */
+    public void close() {
+        final List<NetcdfFile> toClose;
+        synchronized (this) {
+            closed = true;
+            toClose = new ArrayList<>(idleHandles);
+            handles.removeAll(idleHandles);
+            idleHandles.clear();
+            notifyAll();
+        }
+        for (NetcdfFile handle : toClose) {
+            closeQuietly(handle);
+        }
+    }
+
+    private static void closeQuietly(NetcdfFile handle) {
+        try {
+            handle.close();
+        } catch (IOException e) {
+            // ok
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package org.esa.s3tbx.commons;
+
+import org.esa.snap.core.datamodel.Product;
+import org.esa.snap.core.datamodel.ProductData;
+import org.esa.snap.core.gpf.OperatorException;
+import org.esa.snap.core.image.ResolutionLevel;
+import org.esa.snap.core.image.VirtualBandOpImage;
+import org.esa.snap.core.util.StringUtils;
+
+import java.awt.Rectangle;
+import java.awt.image.Raster;
+import java.awt.image.RenderedImage;
+
+/**
+ * Valid pixel mask of an operator supporting a valid-pixel expression.
+ * <p>
+ * The expression is evaluated by a {@link VirtualBandOpImage}. Operators computing whole tiles fetch the mask of the
+ * target rectangle with {@link #getSamples(Rectangle)}. For pixel-wise queries, the samples of the image tile
+ * containing the requested pixel are fetched once and kept for the calling thread, so successive queries for the
+ * pixels of a target tile are plain array lookups.
+ */
+public class ValidPixelMask {
+
+    private final RenderedImage maskImage;
+    private final ThreadLocal<MaskTile> currentTile;
+
+    ValidPixelMask(RenderedImage maskImage) {
+        this.maskImage = maskImage;
+        currentTile = new ThreadLocal<>();
+    }
+
+    /**
+     * Creates the mask for the given expression.
+     *
+     * @param validPixelExpression the valid-pixel expression
+     * @param sourceProduct        the product the expression refers to
+     * @return the mask, or {@code null} if the expression is empty
+     * @throws OperatorException if the expression is not compatible with the product
+     */
+    public static ValidPixelMask create(String validPixelExpression, Product sourceProduct) throws OperatorException {
+        if (StringUtils.isNullOrEmpty(validPixelExpression)) {
+            return null;
+        }
+        if (!sourceProduct.isCompatibleBandArithmeticExpression(validPixelExpression)) {
+            final String message = String.format("The given expression '%s' is not compatible with the source product.", validPixelExpression);
+            throw new OperatorException(message);
+        }
+        final VirtualBandOpImage maskImage = VirtualBandOpImage.builder(validPixelExpression, sourceProduct)
+                .dataType(ProductData.TYPE_FLOAT32)
+                .fillValue(0.0f)
+                .tileSize(sourceProduct.getPreferredTileSize())
+                .mask(false)
+                .level(ResolutionLevel.MAXRES)
+                .create();
+        return new ValidPixelMask(maskImage);
+    }
+
+    /**
+     * Returns the mask of the given rectangle, line by line.
+     *
+     * @param rectangle the rectangle in pixel coordinates
+     * @return the samples of the mask, non-zero where the expression holds
+     */
+    public int[] getSamples(Rectangle rectangle) {
+        return maskImage.getData(rectangle).getSamples(rectangle.x, rectangle.y, rectangle.width, rectangle.height,
+                                                       0, (int[]) null);
+    }
+
+    /**
+     * @param x the pixel's X coordinate
+     * @param y the pixel's Y coordinate
+     * @return whether the expression holds for the given pixel
+     */
+    public boolean isValid(int x, int y) {
+        MaskTile tile = currentTile.get();
+        if (tile == null || !tile.contains(x, y)) {
+            tile = readTile(x, y);
+            currentTile.set(tile);
+        }
+        return tile.isValid(x, y);
+    }
+
+    private MaskTile readTile(int x, int y) {
+        final int tileX = Math.floorDiv(x - maskImage.getTileGridXOffset(), maskImage.getTileWidth());
+        final int tileY = Math.floorDiv(y - maskImage.getTileGridYOffset(), maskImage.getTileHeight());
+        final Raster raster = maskImage.getTile(tileX, tileY);
+        final Rectangle imageBounds = new Rectangle(maskImage.getMinX(), maskImage.getMinY(),
+                                                    maskImage.getWidth(), maskImage.getHeight());
+        final Rectangle bounds = raster.getBounds().intersection(imageBounds);
+        final float[] samples = raster.getSamples(bounds.x, bounds.y, bounds.width, bounds.height, 0, (float[]) null);
+        return new MaskTile(bounds, samples);
+    }
+
+    private static class MaskTile {
+
+        private final Rectangle bounds;
+        private final float[] samples;
+
+        private MaskTile(Rectangle bounds, float[] samples) {
+            this.bounds = bounds;
+            this.samples = samples;
+        }
+
+        private boolean contains(int x, int y) {
+            return bounds.contains(x, y);
+        }
+
+        private boolean isValid(int x, int y) {
+            return samples[(y - bounds.y) * bounds.width + (x - bounds.x)] != 0;
+        }
+    }
+}
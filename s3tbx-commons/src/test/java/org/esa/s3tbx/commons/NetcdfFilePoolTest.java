@@ -0,0 +1,185 @@
+package org.esa.s3tbx.commons;
+
+import org.junit.Before;
+import org.junit.Test;
+import ucar.ma2.Array;
+import ucar.ma2.Section;
+import ucar.nc2.NetcdfFile;
+import ucar.nc2.NetcdfFiles;
+import ucar.nc2.Variable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class NetcdfFilePoolTest {
+
+    private static final int WIDTH = 3;
+    private static final int HEIGHT = 4;
+
+    private byte[] fileContent;
+    private AtomicInteger openCount;
+
+    @Before
+    public void setUp() {
+        fileContent = createNetcdf3File();
+        openCount = new AtomicInteger();
+    }
+
+    @Test
+    public void testReadSection() throws Exception {
+        final NetcdfFilePool pool = createPool(2);
+        final Variable variable = pool.getFirstHandle().findVariable("v");
+
+        final Array array = pool.read(variable, new int[]{1, 1}, new int[]{2, 2});
+
+        assertArrayEquals(new short[]{value(1, 1), value(1, 2), value(2, 1), value(2, 2)},
+                          (short[]) array.getStorage());
+        assertEquals(1, openCount.get());
+    }
+
+    @Test
+    public void testConcurrentReadsAreBounded() throws Exception {
+        final int maxHandles = 3;
+        final NetcdfFilePool pool = createPool(maxHandles);
+        final Variable variable = pool.getFirstHandle().findVariable("v");
+
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                final int y = i % HEIGHT;
+                results.add(executor.submit(new Callable<Boolean>() {
+                    @Override
+                    public Boolean call() throws Exception {
+                        final short[] row = (short[]) pool.read(variable, new int[]{y, 0},
+                                                                new int[]{1, WIDTH}).getStorage();
+                        return row[0] == value(y, 0) && row[WIDTH - 1] == value(y, WIDTH - 1);
+                    }
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertTrue(openCount.get() <= maxHandles);
+    }
+
+    @Test
+    public void testReadStridedSection() throws Exception {
+        final NetcdfFilePool pool = createPool(2);
+        final Variable variable = pool.getFirstHandle().findVariable("v");
+
+        final Array array = pool.read(variable, new Section(new int[]{0, 0}, new int[]{2, 2}, new int[]{2, 2}));
+
+        assertArrayEquals(new short[]{value(0, 0), value(0, 2), value(2, 0), value(2, 2)},
+                          (short[]) array.copyTo1DJavaArray());
+    }
+
+    @Test
+    public void testReadByNameOpensFirstHandle() throws Exception {
+        final NetcdfFilePool pool = new NetcdfFilePool(null, createOpener(), 2);
+        assertEquals(0, openCount.get());
+
+        final Array array = pool.read("v", new Section(new int[]{2, 0}, new int[]{1, WIDTH}));
+
+        assertArrayEquals(new short[]{value(2, 0), value(2, 1), value(2, 2)}, (short[]) array.getStorage());
+        assertEquals(1, openCount.get());
+    }
+
+    @Test
+    public void testHandlesAreOpenedOnDemand() throws Exception {
+        final NetcdfFilePool pool = new NetcdfFilePool(null, createOpener(), 2);
+        assertNull(pool.getFirstHandle());
+        assertEquals(0, openCount.get());
+
+        final NetcdfFile first = pool.acquire();
+        final NetcdfFile second = pool.acquire();
+        assertNotNull(first);
+        assertNotNull(second);
+        assertNotSame(first, second);
+        assertEquals(2, openCount.get());
+        pool.release(first);
+        pool.release(second);
+
+        assertSame(second, pool.acquire());
+        assertEquals(2, openCount.get());
+    }
+
+    @Test
+    public void testAcquireAfterClose() throws Exception {
+        final NetcdfFilePool pool = createPool(2);
+        pool.close();
+
+        assertNull(pool.acquire());
+    }
+
+    @Test(expected = IOException.class)
+    public void testReadAfterClose() throws Exception {
+        final NetcdfFilePool pool = createPool(2);
+        final Variable variable = pool.getFirstHandle().findVariable("v");
+        pool.close();
+
+        pool.read(variable, new int[]{0, 0}, new int[]{1, 1});
+    }
+
+    private NetcdfFilePool createPool(int maxHandles) throws IOException {
+        final NetcdfFilePool.Opener opener = createOpener();
+        return new NetcdfFilePool(opener.open(), opener, maxHandles);
+    }
+
+    private NetcdfFilePool.Opener createOpener() {
+        return new NetcdfFilePool.Opener() {
+            @Override
+            public NetcdfFile open() throws IOException {
+                openCount.incrementAndGet();
+                return NetcdfFiles.openInMemory("test.nc", fileContent);
+            }
+        };
+    }
+
+    private static short value(int y, int x) {
+        return (short) (100 * y + x);
+    }
+
+    // a netCDF-3 classic file with a single short variable v(y, x)
+    private static byte[] createNetcdf3File() {
+        final ByteBuffer buffer = ByteBuffer.allocate(96 + HEIGHT * WIDTH * 2);
+        buffer.put(new byte[]{'C', 'D', 'F', 1});
+        buffer.putInt(0);                  // numrecs
+        buffer.putInt(10).putInt(2);       // NC_DIMENSION, 2 dimensions
+        putName(buffer, 'y');
+        buffer.putInt(HEIGHT);
+        putName(buffer, 'x');
+        buffer.putInt(WIDTH);
+        buffer.putInt(0).putInt(0);        // no global attributes
+        buffer.putInt(11).putInt(1);       // NC_VARIABLE, 1 variable
+        putName(buffer, 'v');
+        buffer.putInt(2).putInt(0).putInt(1);
+        buffer.putInt(0).putInt(0);        // no variable attributes
+        buffer.putInt(3);                  // NC_SHORT
+        buffer.putInt(HEIGHT * WIDTH * 2); // vsize
+        buffer.putInt(96);                 // begin
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                buffer.putShort(value(y, x));
+            }
+        }
+        return buffer.array();
+    }
+
+    private static void putName(ByteBuffer buffer, char name) {
+        buffer.putInt(1);
+        buffer.put(new byte[]{(byte) name, 0, 0, 0});
+    }
+}
@@ -0,0 +1,72 @@
+package org.esa.s3tbx.commons;
+
+import org.esa.snap.core.datamodel.Band;
+import org.esa.snap.core.datamodel.Product;
+import org.esa.snap.core.datamodel.ProductData;
+import org.esa.snap.core.gpf.OperatorException;
+import org.junit.Test;
+
+import java.awt.Dimension;
+import java.awt.Rectangle;
+
+import static org.junit.Assert.*;
+
+public class ValidPixelMaskTest {
+
+    @Test
+    public void testCreate_emptyExpression() {
+        final Product product = createProduct();
+
+        assertNull(ValidPixelMask.create(null, product));
+        assertNull(ValidPixelMask.create("", product));
+    }
+
+    @Test(expected = OperatorException.class)
+    public void testCreate_incompatibleExpression() {
+        ValidPixelMask.create("not_existing > 0", createProduct());
+    }
+
+    @Test
+    public void testIsValid() {
+        final ValidPixelMask mask = ValidPixelMask.create("value % 3 == 0", createProduct());
+
+        assertNotNull(mask);
+        for (int y = 0; y < 7; y++) {
+            for (int x = 0; x < 9; x++) {
+                assertEquals((y * 9 + x) % 3 == 0, mask.isValid(x, y));
+            }
+        }
+        // back to a tile read before
+        assertTrue(mask.isValid(0, 0));
+        assertFalse(mask.isValid(1, 0));
+    }
+
+    @Test
+    public void testGetSamples() {
+        final ValidPixelMask mask = ValidPixelMask.create("value % 3 == 0", createProduct());
+
+        assertNotNull(mask);
+        // a rectangle spanning four tiles of the mask image
+        final Rectangle rectangle = new Rectangle(2, 3, 5, 3);
+        final int[] samples = mask.getSamples(rectangle);
+        assertEquals(rectangle.width * rectangle.height, samples.length);
+        for (int y = 0, k = 0; y < rectangle.height; y++) {
+            for (int x = 0; x < rectangle.width; x++, k++) {
+                final int index = (rectangle.y + y) * 9 + rectangle.x + x;
+                assertEquals(index % 3 == 0, samples[k] != 0);
+            }
+        }
+    }
+
+    private static Product createProduct() {
+        final Product product = new Product("test", "test", 9, 7);
+        product.setPreferredTileSize(new Dimension(4, 4));
+        final Band band = product.addBand("value", ProductData.TYPE_INT32);
+        final int[] values = new int[9 * 7];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i;
+        }
+        band.setRasterData(ProductData.createInstance(values));
+        return product;
+    }
+}
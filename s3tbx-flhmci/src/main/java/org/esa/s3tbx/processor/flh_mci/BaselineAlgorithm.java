@@ -26,6 +26,9 @@ public final class BaselineAlgorithm {
     private double lambdaFactor;
     private double inverseDelta;
     private double cloudCorrectionFactor;
+    // weights of the lower and upper baseline band, including the cloud correction
+    private double lowerWeight;
+    private double upperWeight;
 
     /**
      * Constructs the object with default parameters
@@ -34,6 +37,7 @@ public final class BaselineAlgorithm {
         lambdaFactor = 1.0;
         inverseDelta = 1.0;
         cloudCorrectionFactor = DEFAULT_CLOUD_CORRECT;
+        updateWeights();
     }
 
     /**
@@ -72,6 +76,7 @@ public final class BaselineAlgorithm {
 
         // wavelength factor
         lambdaFactor = num / denom;
+        updateWeights();
     }
 
     /**
@@ -81,6 +86,7 @@ public final class BaselineAlgorithm {
      */
     public final void setCloudCorrectionFactor(float factor) {
         cloudCorrectionFactor = factor;
+        updateWeights();
     }
 
     /**
@@ -105,4 +111,39 @@ public final class BaselineAlgorithm {
     public final double computeSlope(double lower, double upper) {
         return (upper - lower) * inverseDelta;
     }
+
+    /**
+     * Computes the baseline height for a sequence of pixels, e.g. the pixels of a tile.
+     *
+     * @param lower      lower baseline wavelength radiances
+     * @param upper      upper baseline wavelength radiances
+     * @param peak       the signal wavelength radiances
+     * @param lineHeight receives the line heights
+     */
+    public final void computeLineHeights(float[] lower, float[] upper, float[] peak, float[] lineHeight) {
+        final double lw = lowerWeight;
+        final double uw = upperWeight;
+        for (int i = 0; i < lineHeight.length; i++) {
+            lineHeight[i] = (float) (peak[i] - lw * lower[i] - uw * upper[i]);
+        }
+    }
+
+    /**
+     * Computes the baseline slope for a sequence of pixels, e.g. the pixels of a tile.
+     *
+     * @param lower lower baseline wavelength radiances
+     * @param upper upper baseline wavelength radiances
+     * @param slope receives the slopes
+     */
+    public final void computeSlopes(float[] lower, float[] upper, float[] slope) {
+        final double id = inverseDelta;
+        for (int i = 0; i < slope.length; i++) {
+            slope[i] = (float) ((upper[i] - lower[i]) * id);
+        }
+    }
+
+    private void updateWeights() {
+        lowerWeight = cloudCorrectionFactor * (1.0 - lambdaFactor);
+        upperWeight = cloudCorrectionFactor * lambdaFactor;
+    }
 }
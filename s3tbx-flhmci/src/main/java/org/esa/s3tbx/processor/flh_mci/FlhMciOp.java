@@ -17,25 +17,26 @@ package org.esa.s3tbx.processor.flh_mci;
 
 import com.bc.ceres.binding.Property;
 import com.bc.ceres.binding.Validator;
+import com.bc.ceres.core.ProgressMonitor;
+import org.esa.s3tbx.commons.ValidPixelMask;
 import org.esa.snap.core.datamodel.Band;
 import org.esa.snap.core.datamodel.Product;
 import org.esa.snap.core.datamodel.ProductData;
 import org.esa.snap.core.datamodel.ProductNode;
+import org.esa.snap.core.gpf.Operator;
 import org.esa.snap.core.gpf.OperatorException;
 import org.esa.snap.core.gpf.OperatorSpi;
+import org.esa.snap.core.gpf.Tile;
 import org.esa.snap.core.gpf.annotations.OperatorMetadata;
 import org.esa.snap.core.gpf.annotations.Parameter;
 import org.esa.snap.core.gpf.annotations.SourceProduct;
-import org.esa.snap.core.gpf.pointop.PixelOperator;
-import org.esa.snap.core.gpf.pointop.ProductConfigurer;
-import org.esa.snap.core.gpf.pointop.Sample;
-import org.esa.snap.core.gpf.pointop.SourceSampleConfigurer;
-import org.esa.snap.core.gpf.pointop.TargetSampleConfigurer;
-import org.esa.snap.core.gpf.pointop.WritableSample;
 import org.esa.snap.core.util.ProductUtils;
 import org.esa.snap.core.util.StringUtils;
 import org.esa.snap.core.util.converters.BooleanExpressionConverter;
 
+import java.awt.Rectangle;
+import java.util.Map;
+
 /**
  * An operator for computing fluorescence line height (FLH) or maximum chlorophyll index (MCI).
  *
@@ -47,7 +48,7 @@ import org.esa.snap.core.util.converters.BooleanExpressionConverter;
         category = "Optical/Thematic Water Processing",
         version = "3.1",
         description = "Computes fluorescence line height (FLH) or maximum chlorophyll index (MCI).")
-public class FlhMciOp extends PixelOperator {
+public class FlhMciOp extends Operator {
 
     @SourceProduct(alias = "source", label = "Source product", description = "The source product.")
     private Product sourceProduct;
@@ -86,54 +87,41 @@ public class FlhMciOp extends PixelOperator {
     private float invalidFlhMciValue;
 
     private transient BaselineAlgorithm algorithm;
-
-    private transient int currentPixel = 0;
+    private transient Band signalBand;
+    private transient Band lowerBaselineBand;
+    private transient Band upperBaselineBand;
+    private transient ValidPixelMask validPixelMask;
+    private transient Band lineHeightBand;
+    private transient Band slopeBand;
 
     @Override
-    protected void computePixel(int x, int y, Sample[] sourceSamples, WritableSample[] targetSamples) {
-        checkCancellation();
-
-        final float signal = sourceSamples[0].getFloat();
-        final float lower = sourceSamples[1].getFloat();
-        final float upper = sourceSamples[2].getFloat();
+    public void initialize() throws OperatorException {
+        setParametersFromPreset();
+        validateParameters();
 
-        targetSamples[0].set(algorithm.computeLineHeight(lower, upper, signal));
-        if (slope) {
-            targetSamples[1].set(algorithm.computeSlope(lower, upper));
-        }
-    }
+        signalBand = sourceProduct.getBand(signalBandName);
+        lowerBaselineBand = sourceProduct.getBand(lowerBaselineBandName);
+        upperBaselineBand = sourceProduct.getBand(upperBaselineBandName);
 
-    private void checkCancellation() {
-        if (currentPixel % 1000 == 0) {
-            checkForCancellation();
-            currentPixel = 0;
-        }
-        currentPixel++;
-    }
-
-    @Override
-    protected void configureSourceSamples(SourceSampleConfigurer sc) throws OperatorException {
-        sc.setValidPixelMask(maskExpression);
-        sc.defineSample(0, signalBandName);
-        sc.defineSample(1, lowerBaselineBandName);
-        sc.defineSample(2, upperBaselineBandName);
-    }
+        float lowerLambda = getWavelength(lowerBaselineBandName);
+        float signalLambda = getWavelength(signalBandName);
+        float upperLambda = getWavelength(upperBaselineBandName);
 
-    @Override
-    protected void configureTargetSamples(TargetSampleConfigurer sc) throws OperatorException {
-        sc.defineSample(0, lineHeightBandName);
-        if (slope) {
-            sc.defineSample(1, slopeBandName);
-        }
-    }
+        algorithm = new BaselineAlgorithm();
+        algorithm.setWavelengths(lowerLambda, upperLambda, signalLambda);
+        algorithm.setCloudCorrectionFactor(cloudCorrectionFactor);
 
-    @Override
-    protected void configureTargetProduct(ProductConfigurer productConfigurer) {
-        super.configureTargetProduct(productConfigurer);
+        validPixelMask = ValidPixelMask.create(maskExpression, sourceProduct);
 
-        final Band lineHeightBand = productConfigurer.addBand(lineHeightBandName, ProductData.TYPE_FLOAT32);
+        final Product targetProduct = new Product(sourceProduct.getName(), sourceProduct.getProductType(),
+                                                  sourceProduct.getSceneRasterWidth(),
+                                                  sourceProduct.getSceneRasterHeight());
+        ProductUtils.copyMetadata(sourceProduct, targetProduct);
+        ProductUtils.copyTimeInformation(sourceProduct, targetProduct);
+        ProductUtils.copyTiePointGrids(sourceProduct, targetProduct);
+        ProductUtils.copyGeoCoding(sourceProduct, targetProduct);
 
-        final Band signalBand = sourceProduct.getBand(signalBandName);
+        lineHeightBand = targetProduct.addBand(lineHeightBandName, ProductData.TYPE_FLOAT32);
         lineHeightBand.setUnit(signalBand.getUnit());
         lineHeightBand.setDescription("Line height band");
         lineHeightBand.setValidPixelExpression(maskExpression);
@@ -143,7 +131,7 @@ public class FlhMciOp extends PixelOperator {
         ProductUtils.copySpectralBandProperties(signalBand, lineHeightBand);
 
         if (slope) {
-            final Band slopeBand = productConfigurer.addBand(slopeBandName, ProductData.TYPE_FLOAT32);
+            slopeBand = targetProduct.addBand(slopeBandName, ProductData.TYPE_FLOAT32);
             slopeBand.setUnit(signalBand.getUnit() + " nm-1");
             slopeBand.setDescription("Baseline slope band");
             slopeBand.setNoDataValueUsed(true);
@@ -151,22 +139,39 @@ public class FlhMciOp extends PixelOperator {
             slopeBand.setValidPixelExpression(maskExpression);
         }
 
-        ProductUtils.copyFlagBands(sourceProduct, productConfigurer.getTargetProduct(), true);
+        ProductUtils.copyFlagBands(sourceProduct, targetProduct, true);
+        setTargetProduct(targetProduct);
     }
 
     @Override
-    protected void prepareInputs() throws OperatorException {
-        super.prepareInputs();
-        setParametersFromPreset();
-        validateParameters();
+    public void computeTileStack(Map<Band, Tile> targetTiles, Rectangle targetRectangle, ProgressMonitor pm) throws OperatorException {
+        checkForCancellation();
+        final float[] signal = getSourceTile(signalBand, targetRectangle).getSamplesFloat();
+        final float[] lower = getSourceTile(lowerBaselineBand, targetRectangle).getSamplesFloat();
+        final float[] upper = getSourceTile(upperBaselineBand, targetRectangle).getSamplesFloat();
+        final int[] mask = validPixelMask != null ? validPixelMask.getSamples(targetRectangle) : null;
+
+        final float[] lineHeight = new float[signal.length];
+        algorithm.computeLineHeights(lower, upper, signal, lineHeight);
+        applyMask(mask, lineHeight);
+        targetTiles.get(lineHeightBand).setSamples(lineHeight);
 
-        float lowerLambda = getWavelength(lowerBaselineBandName);
-        float signalLambda = getWavelength(signalBandName);
-        float upperLambda = getWavelength(upperBaselineBandName);
+        if (slope) {
+            final float[] slopes = new float[signal.length];
+            algorithm.computeSlopes(lower, upper, slopes);
+            applyMask(mask, slopes);
+            targetTiles.get(slopeBand).setSamples(slopes);
+        }
+    }
 
-        algorithm = new BaselineAlgorithm();
-        algorithm.setWavelengths(lowerLambda, upperLambda, signalLambda);
-        algorithm.setCloudCorrectionFactor(cloudCorrectionFactor);
+    private void applyMask(int[] mask, float[] samples) {
+        if (mask != null) {
+            for (int i = 0; i < samples.length; i++) {
+                if (mask[i] == 0) {
+                    samples[i] = invalidFlhMciValue;
+                }
+            }
+        }
     }
 
     private void validateParameters() throws OperatorException {
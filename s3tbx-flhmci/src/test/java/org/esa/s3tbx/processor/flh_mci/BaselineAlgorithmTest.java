@@ -86,5 +86,21 @@ public class BaselineAlgorithmTest {
         assertEquals(1.005f, BaselineAlgorithm.DEFAULT_CLOUD_CORRECT, 1e-6);
     }
 
-}
+    @org.junit.Test
+    public void testComputeLineHeightsAndSlopes() {
+        algo.setWavelengths(665.f, 709.f, 681.f);
+        algo.setCloudCorrectionFactor(1.005f);
+        final float[] lower = {12.5f, 30.1f, 0.0f};
+        final float[] upper = {10.2f, 35.7f, 4.0f};
+        final float[] peak = {14.8f, 31.0f, 2.0f};
 
+        final float[] lineHeights = new float[3];
+        final float[] slopes = new float[3];
+        algo.computeLineHeights(lower, upper, peak, lineHeights);
+        algo.computeSlopes(lower, upper, slopes);
+        for (int i = 0; i < lineHeights.length; i++) {
+            assertEquals(algo.computeLineHeight(lower[i], upper[i], peak[i]), lineHeights[i], 1e-5);
+            assertEquals(algo.computeSlope(lower[i], upper[i]), slopes[i], 1e-6);
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package org.esa.s3tbx.processor.flh_mci;
 
+import org.esa.snap.core.datamodel.Band;
 import org.esa.snap.core.datamodel.Product;
 import org.esa.snap.core.datamodel.ProductData;
+import org.esa.snap.core.datamodel.TiePointGrid;
 import org.esa.snap.core.gpf.GPF;
 import org.esa.snap.core.gpf.OperatorException;
 import org.hamcrest.CoreMatchers;
@@ -124,4 +126,38 @@ public class FlhMciOpTest {
             assertThat(e.getMessage(), CoreMatchers.containsString(expectedExceptionMessage));
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testComputeLineHeightAndSlope() throws Exception {
+        Product sourceProduct = new Product("dummy", "D", 4, 3);
+        addSpectralBand(sourceProduct, "lbase", 665.0f, 10.0f);
+        addSpectralBand(sourceProduct, "ubase", 709.0f, 20.0f);
+        addSpectralBand(sourceProduct, "sband", 681.0f, 30.0f);
+        sourceProduct.addBand("valid", "X < 2");
+        sourceProduct.addTiePointGrid(new TiePointGrid("sun_zenith", 3, 2, 0.5, 0.5, 2.0, 2.0, new float[6]));
+        HashMap<String, Object> parameters = new HashMap<>();
+        parameters.put("lowerBaselineBandName", "lbase");
+        parameters.put("upperBaselineBandName", "ubase");
+        parameters.put("signalBandName", "sband");
+        parameters.put("lineHeightBandName", "lineHeight");
+        parameters.put("slopeBandName", "slope");
+        parameters.put("maskExpression", "valid");
+        parameters.put("cloudCorrectionFactor", 1.0f);
+
+        Product targetProduct = GPF.createProduct("FlhMci", parameters, sourceProduct);
+
+        Band lineHeightBand = targetProduct.getBand("lineHeight");
+        Band slopeBand = targetProduct.getBand("slope");
+        assertNotNull(targetProduct.getTiePointGrid("sun_zenith"));
+        // 30 - (10 + (20 - 10) * 16 / 44)
+        assertEquals(16.363636f, lineHeightBand.getSampleFloat(1, 2), 1.0e-5f);
+        assertEquals(10.0f / 44.0f, slopeBand.getSampleFloat(0, 1), 1.0e-6f);
+        assertTrue(Float.isNaN(lineHeightBand.getSampleFloat(2, 0)));
+        assertTrue(Float.isNaN(slopeBand.getSampleFloat(3, 2)));
+    }
+
+    private static void addSpectralBand(Product product, String name, float wavelength, float value) {
+        Band band = product.addBand(name, String.valueOf(value));
+        band.setSpectralWavelength(wavelength);
+    }
+}
@@ -3,7 +3,6 @@ package org.esa.s3tbx.fu;
 import org.esa.snap.core.datamodel.Band;
 import org.esa.snap.core.datamodel.Product;
 import org.esa.snap.core.datamodel.ProductData;
-import org.esa.snap.core.gpf.pointop.WritableSample;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -44,11 +43,7 @@ abstract class BandDefinition {
         band.setNoDataValueUsed(noDataValueUsed);
     }
 
-    abstract void setTargetSample(FuResult result, WritableSample targetSample);
-
-    void setNoDataValue(WritableSample targetSample) {
-        targetSample.set(noDataValue);
-    }
+    abstract double getValue(FuResult result);
 
 
     static BandDefinition[] create(boolean includeIntermediateResults, Instrument instrument) {
@@ -57,57 +52,57 @@ abstract class BandDefinition {
             String bandNameSuffix = "_" + instrument.name();
             list.add(new BandDefinition("", X3_BAND_NAME + bandNameSuffix, ProductData.TYPE_FLOAT32, Float.NaN, true) {
                 @Override
-                public void setTargetSample(FuResult result, WritableSample targetSample) {
-                    targetSample.set(result.getX3());
+                double getValue(FuResult result) {
+                    return result.getX3();
                 }
             });
             list.add(new BandDefinition("", Y3_BAND_NAME + bandNameSuffix, ProductData.TYPE_FLOAT32, Float.NaN, true) {
                 @Override
-                public void setTargetSample(FuResult result, WritableSample targetSample) {
-                    targetSample.set(result.getY3());
+                double getValue(FuResult result) {
+                    return result.getY3();
                 }
             });
             list.add(new BandDefinition("", Z3_BAND_NAME + bandNameSuffix, ProductData.TYPE_FLOAT32, Float.NaN, true) {
                 @Override
-                public void setTargetSample(FuResult result, WritableSample targetSample) {
-                    targetSample.set(result.getZ3());
+                double getValue(FuResult result) {
+                    return result.getZ3();
                 }
             });
             list.add(new BandDefinition("", CHRX_BAND_NAME + bandNameSuffix, ProductData.TYPE_FLOAT32, Float.NaN, true) {
                 @Override
-                public void setTargetSample(FuResult result, WritableSample targetSample) {
-                    targetSample.set(result.getChrX());
+                double getValue(FuResult result) {
+                    return result.getChrX();
                 }
             });
             list.add(new BandDefinition("", CHRY_BAND_NAME + bandNameSuffix, ProductData.TYPE_FLOAT32, Float.NaN, true) {
                 @Override
-                public void setTargetSample(FuResult result, WritableSample targetSample) {
-                    targetSample.set(result.getChrY());
+                double getValue(FuResult result) {
+                    return result.getChrY();
                 }
             });
             list.add(new BandDefinition("", POLY_CORR_BAND_NAME + bandNameSuffix, ProductData.TYPE_FLOAT32, Float.NaN, true) {
                 @Override
-                public void setTargetSample(FuResult result, WritableSample targetSample) {
-                    targetSample.set(result.getPolyCorr());
+                double getValue(FuResult result) {
+                    return result.getPolyCorr();
                 }
             });
             list.add(new BandDefinition("", HUE_BAND_NAME + bandNameSuffix, ProductData.TYPE_FLOAT32, Float.NaN, true) {
                 @Override
-                public void setTargetSample(FuResult result, WritableSample targetSample) {
-                    targetSample.set(result.getHue());
+                double getValue(FuResult result) {
+                    return result.getHue();
                 }
             });
         }
         list.add(new BandDefinition("", HUE_ANGLE_BAND_NAME, ProductData.TYPE_FLOAT32, Float.NaN, true) {
             @Override
-            public void setTargetSample(FuResult result, WritableSample targetSample) {
-                targetSample.set(result.getHueAngle());
+            double getValue(FuResult result) {
+                return result.getHueAngle();
             }
         });
         list.add(new BandDefinition("", FU_VALUE_BAND_NAME, ProductData.TYPE_INT8, Byte.MAX_VALUE, true) {
             @Override
-            public void setTargetSample(FuResult result, WritableSample targetSample) {
-                targetSample.set(result.getFuValue());
+            double getValue(FuResult result) {
+                return result.getFuValue();
             }
         });
 
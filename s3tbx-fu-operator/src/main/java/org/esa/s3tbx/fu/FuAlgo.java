@@ -87,6 +87,45 @@ class FuAlgo {
         return result;
     }
 
+    /**
+     * Same as {@link #compute(double[])}, but the hue is taken from the {@link HueLookupTable} and the polynomial
+     * correction is evaluated with Horner's scheme. Intended to be called for every pixel of a tile, hence the
+     * result object is reused.
+     *
+     * @param spectrum the reflectances
+     * @param result   receives the result
+     */
+    void computeFast(double[] spectrum, FuResultImpl result) {
+        double x3 = 0;
+        double y3 = 0;
+        double z3 = 0;
+        for (int i = 0; i < spectrum.length; i++) {
+            x3 += spectrum[i] * x3Factors[i];
+            y3 += spectrum[i] * y3Factors[i];
+            z3 += spectrum[i] * z3Factors[i];
+        }
+
+        final double denominator = x3 + y3 + z3;
+
+        final double chrX = x3 / denominator;
+        final double chrY = y3 / denominator;
+
+        final double hue = HueLookupTable.getHue(chrX, chrY);
+        final double hue100 = (hue / 100);
+        final double[] c = polyCoeffs;
+        final double polyCorr = ((((c[0] * hue100 + c[1]) * hue100 + c[2]) * hue100 + c[3]) * hue100 + c[4]) * hue100 + c[5];
+
+        result.x3 = x3;
+        result.y3 = y3;
+        result.z3 = z3;
+        result.chrX = chrX;
+        result.chrY = chrY;
+        result.hue = hue;
+        result.polyCorr = polyCorr;
+        result.hueAngle = hue + polyCorr;
+        result.fuValue = getFuValue(result.hueAngle);
+    }
+
     static byte getFuValue(final double hueAngle) {
         for (byte i = 0; i < ANGLE_OF_TRANSITIONS.length; i++) {
             if (hueAngle > ANGLE_OF_TRANSITIONS[i]) {
@@ -18,34 +18,30 @@
 package org.esa.s3tbx.fu;
 
 
+import com.bc.ceres.core.ProgressMonitor;
+import org.esa.s3tbx.commons.ValidPixelMask;
 import org.esa.snap.core.datamodel.Band;
 import org.esa.snap.core.datamodel.ColorPaletteDef;
 import org.esa.snap.core.datamodel.ImageInfo;
 import org.esa.snap.core.datamodel.IndexCoding;
-import org.esa.snap.core.datamodel.Mask;
 import org.esa.snap.core.datamodel.Product;
-import org.esa.snap.core.datamodel.RasterDataNode;
-import org.esa.snap.core.datamodel.SampleCoding;
-import org.esa.snap.core.datamodel.TiePointGrid;
-import org.esa.snap.core.datamodel.VirtualBand;
+import org.esa.snap.core.gpf.Operator;
 import org.esa.snap.core.gpf.OperatorException;
 import org.esa.snap.core.gpf.OperatorSpi;
+import org.esa.snap.core.gpf.Tile;
 import org.esa.snap.core.gpf.annotations.OperatorMetadata;
 import org.esa.snap.core.gpf.annotations.Parameter;
 import org.esa.snap.core.gpf.annotations.SourceProduct;
 import org.esa.snap.core.gpf.annotations.TargetProduct;
-import org.esa.snap.core.gpf.pointop.PixelOperator;
-import org.esa.snap.core.gpf.pointop.ProductConfigurer;
-import org.esa.snap.core.gpf.pointop.Sample;
-import org.esa.snap.core.gpf.pointop.SourceSampleConfigurer;
-import org.esa.snap.core.gpf.pointop.TargetSampleConfigurer;
-import org.esa.snap.core.gpf.pointop.WritableSample;
 import org.esa.snap.core.util.ProductUtils;
 import org.esa.snap.core.util.StringUtils;
 import org.esa.snap.core.util.converters.BooleanExpressionConverter;
 
 import java.awt.Color;
-import java.util.Arrays;
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 
 /**
  * The {@code FuOp} performs a MERIS, MODIS, OLCI and SeaWiFS based ocean colour classification
@@ -61,7 +57,7 @@ import java.util.Arrays;
         description = "Colour classification based on the discrete Forel-Ule scale.",
         authors = " H.J van der Woerd (IVM), M.R. Wernand (NIOZ), Muhammad Bala (BC), Marco Peters (BC)",
         copyright = "(c) 2016 by Brockmann Consult GmbH")
-public class FuOp extends PixelOperator {
+public class FuOp extends Operator {
 
     static Color[] FU_COLORS = new Color[]{
             new Color(0, 0, 0),
@@ -122,66 +118,13 @@ public class FuOp extends PixelOperator {
     private FuAlgo fuAlgo;
     private boolean autoDetectedInstrument = false;
     private BandDefinition[] targetBandDefs;
-
-
-    /**
-     * Computes the target samples from the given source samples.
-     * <p/>
-     * The number of source/target samples is the maximum defined sample index plus one. Source/target samples are defined
-     * by using the respective sample configurer in the
-     * {@link #configureSourceSamples(SourceSampleConfigurer) configureSourceSamples} and
-     * {@link #configureTargetSamples(TargetSampleConfigurer) configureTargetSamples} methods.
-     * Attempts to read from source samples or write to target samples at undefined sample indices will
-     * cause undefined behaviour.
-     *
-     * @param x             The current pixel's X coordinate.
-     * @param y             The current pixel's Y coordinate.
-     * @param sourceSamples The source samples (= source pixel).
-     * @param targetSamples The target samples (= target pixel).
-     */
-    @Override
-    protected void computePixel(int x, int y, Sample[] sourceSamples, WritableSample[] targetSamples) {
-        boolean isValid = true;
-        for (Sample sourceSample : sourceSamples) {
-            if (!sourceSample.getNode().isPixelValid(x, y)) {
-                isValid = false;
-                break;
-            }
-        }
-
-        if (isValid) {
-            RasterDataNode[] sourceNodes = Arrays.stream(sourceSamples).map(Sample::getNode).toArray(RasterDataNode[]::new);
-            double spectrum[] = getInputSpectrum(sourceSamples);
-            spectrum = instrument.preProcess(sourceProduct, sourceNodes, spectrum);
-            spectrum = applyPiToIrradianceSpectrum(spectrum);
-
-            FuResult result = fuAlgo.compute(spectrum);
-            for (int i = 0; i < targetBandDefs.length; i++) {
-                BandDefinition targetBandDef = targetBandDefs[i];
-                targetBandDef.setTargetSample(result, targetSamples[i]);
-            }
-        } else {
-            for (int i = 0; i < targetSamples.length; i++) {
-                targetBandDefs[i].setNoDataValue(targetSamples[i]);
-            }
-        }
-    }
-
-    private double[] getInputSpectrum(Sample[] sourceSamples) {
-        return Arrays.stream(sourceSamples).mapToDouble(Sample::getDouble).toArray();
-    }
-
-    private double[] applyPiToIrradianceSpectrum(double[] spectrum) {
-        if ((autoDetectedInstrument && instrument.isIrradiance()) || inputIsIrradianceReflectance) {
-            return Arrays.stream(spectrum).map(v -> v / Math.PI).toArray();
-        }
-        return spectrum;
-    }
+    private Band[] reflecBands;
+    private Band[] targetBands;
+    private ValidPixelMask validPixelMask;
+    private boolean divideByPi;
 
     @Override
-    protected void prepareInputs() throws OperatorException {
-        super.prepareInputs();
-        final Product sourceProduct = getSourceProduct();
+    public void initialize() throws OperatorException {
         if (instrument == Instrument.AUTO_DETECT) {
             instrument = DetectInstrument.getInstrument(sourceProduct);
 
@@ -194,40 +137,21 @@ public class FuOp extends PixelOperator {
         }
         fuAlgo = new FuAlgo(instrument);
         reflecBandNames = instrument.getReflectanceBandNames(sourceProduct, reflectanceNamePattern);
+        reflecBands = new Band[reflecBandNames.length];
+        for (int i = 0; i < reflecBandNames.length; i++) {
+            reflecBands[i] = sourceProduct.getBand(reflecBandNames[i]);
+        }
+        divideByPi = (autoDetectedInstrument && instrument.isIrradiance()) || inputIsIrradianceReflectance;
+        final String validPixelExpression = getValidPixelExpression();
+        validPixelMask = ValidPixelMask.create(validPixelExpression, sourceProduct);
 
         targetBandDefs = BandDefinition.create(includeIntermediateResults, instrument);
-    }
 
-    /**
-     * Configures the target product via the given {@link ProductConfigurer}. Called by {@link #initialize()}.
-     * <p/>
-     * Client implementations of this method usually add product components to the given target product, such as
-     * {@link Band bands} to be computed by this operator,
-     * {@link VirtualBand virtual bands},
-     * {@link Mask masks}
-     * or {@link SampleCoding sample codings}.
-     * <p/>
-     * The default implementation retrieves the (first) source product and copies to the target product
-     * <ul>
-     * <li>the start and stop time by calling {@link ProductConfigurer#copyTimeCoding()},</li>
-     * <li>all tie-point grids by calling {@link ProductConfigurer#copyTiePointGrids(String...)},</li>
-     * <li>the geo-coding by calling {@link ProductConfigurer#copyGeoCoding()}.</li>
-     * </ul>
-     * <p/>
-     * Clients that require a similar behaviour in their operator shall first call the {@code super} method
-     * in their implementation.
-     *
-     * @param productConfigurer The target product configurer.
-     * @throws OperatorException If the target product cannot be configured.
-     * @see Product#addBand(Band)
-     * @see Product#addBand(String, String)
-     * @see Product#addTiePointGrid(TiePointGrid)
-     * @see Product#getMaskGroup()
-     */
-    @Override
-    protected void configureTargetProduct(ProductConfigurer productConfigurer) {
-        super.configureTargetProduct(productConfigurer);
-        targetProduct = productConfigurer.getTargetProduct();
+        targetProduct = new Product(sourceProduct.getName(), sourceProduct.getProductType(),
+                                    sourceProduct.getSceneRasterWidth(), sourceProduct.getSceneRasterHeight());
+        ProductUtils.copyTimeInformation(sourceProduct, targetProduct);
+        ProductUtils.copyTiePointGrids(sourceProduct, targetProduct);
+        ProductUtils.copyGeoCoding(sourceProduct, targetProduct);
         ProductUtils.copyMetadata(sourceProduct, targetProduct);
         ProductUtils.copyVectorData(sourceProduct, targetProduct);
         if (copyAllSourceBands) {
@@ -240,56 +164,91 @@ public class FuOp extends PixelOperator {
         }
         ProductUtils.copyMasks(sourceProduct, targetProduct);
 
-        for (BandDefinition targetBandDef : targetBandDefs) {
-            targetBandDef.addToProduct(targetProduct);
+        targetBands = new Band[targetBandDefs.length];
+        for (int i = 0; i < targetBandDefs.length; i++) {
+            targetBandDefs[i].addToProduct(targetProduct);
+            targetBands[i] = targetProduct.getBand(targetBandDefs[i].name);
         }
 
-        Band fuBand = targetProduct.getBand(targetBandDefs[targetBandDefs.length - 1].name);
+        Band fuBand = targetBands[targetBands.length - 1];
         attachIndexCoding(fuBand);
     }
 
     /**
-     * Configures all source samples that this operator requires for the computation of target samples.
-     * Source sample are defined by using the provided {@link SourceSampleConfigurer}.
-     * <p/>
-     * <p/> The method is called by {@link #initialize()}.
-     *
-     * @param sourceSampleConfigurer The configurer that defines the layout of a pixel.
-     * @throws OperatorException If the source samples cannot be configured.
+     * Computes all target bands of a tile in one pass. The reflectances of a pixel are collected from the sample
+     * arrays of the source tiles and passed to {@link FuAlgo#computeFast(double[], FuResultImpl)}. Pixels which are
+     * not valid in one of the reflectance bands or in the valid pixel expression are set to the no-data values.
      */
     @Override
-    protected void configureSourceSamples(SourceSampleConfigurer sourceSampleConfigurer) throws OperatorException {
-        for (int i = 0; i < reflecBandNames.length; i++) {
-            sourceSampleConfigurer.defineSample(i, reflecBandNames[i]);
+    public void computeTileStack(Map<Band, Tile> targetTiles, Rectangle targetRectangle, ProgressMonitor pm) throws OperatorException {
+        final int numBands = reflecBands.length;
+        final double[][] reflectances = new double[numBands][];
+        final List<Tile> validatedTiles = new ArrayList<>();
+        for (int i = 0; i < numBands; i++) {
+            final Tile sourceTile = getSourceTile(reflecBands[i], targetRectangle);
+            reflectances[i] = sourceTile.getSamplesDouble();
+            if (reflecBands[i].isValidMaskUsed()) {
+                validatedTiles.add(sourceTile);
+            }
         }
-        if (StringUtils.isNotNullAndNotEmpty(validExpression)) {
-            sourceSampleConfigurer.setValidPixelMask(validExpression);
-        } else {
-            final String[] validExpressions = instrument.getValidExpressions();
-            for (String expression : validExpressions) {
-                boolean isCompatible = sourceProduct.isCompatibleBandArithmeticExpression(expression);
-                if (isCompatible) {
-                    sourceSampleConfigurer.setValidPixelMask(expression);
+        final int[] mask = validPixelMask != null ? validPixelMask.getSamples(targetRectangle) : null;
+
+        final float[][] targetSamples = new float[targetBandDefs.length][targetRectangle.width * targetRectangle.height];
+        final double[] spectrum = new double[numBands];
+        final FuResultImpl result = new FuResultImpl();
+        for (int y = targetRectangle.y, k = 0; y < targetRectangle.y + targetRectangle.height; y++) {
+            checkForCancellation();
+            for (int x = targetRectangle.x; x < targetRectangle.x + targetRectangle.width; x++, k++) {
+                if (!isValid(mask, validatedTiles, k, x, y)) {
+                    for (int i = 0; i < targetBandDefs.length; i++) {
+                        targetSamples[i][k] = (float) targetBandDefs[i].noDataValue;
+                    }
+                    continue;
+                }
+                for (int i = 0; i < numBands; i++) {
+                    spectrum[i] = reflectances[i][k];
+                }
+                double[] processed = instrument.preProcess(sourceProduct, reflecBands, spectrum);
+                if (divideByPi) {
+                    for (int i = 0; i < processed.length; i++) {
+                        processed[i] /= Math.PI;
+                    }
+                }
+                fuAlgo.computeFast(processed, result);
+                for (int i = 0; i < targetBandDefs.length; i++) {
+                    targetSamples[i][k] = (float) targetBandDefs[i].getValue(result);
                 }
             }
         }
+        for (int i = 0; i < targetBands.length; i++) {
+            targetTiles.get(targetBands[i]).setSamples(targetSamples[i]);
+        }
     }
 
-    /**
-     * Configures all target samples computed by this operator.
-     * Target samples are defined by using the provided {@link TargetSampleConfigurer}.
-     * <p/>
-     * <p/> The method is called by {@link #initialize()}.
-     *
-     * @param sampleConfigurer The configurer that defines the layout of a pixel.
-     * @throws OperatorException If the target samples cannot be configured.
-     */
-    @Override
-    protected void configureTargetSamples(TargetSampleConfigurer sampleConfigurer) throws OperatorException {
-        for (int i = 0; i < targetBandDefs.length; i++) {
-            BandDefinition targetBandDef = targetBandDefs[i];
-            sampleConfigurer.defineSample(i, targetBandDef.name);
+    private static boolean isValid(int[] mask, List<Tile> validatedTiles, int k, int x, int y) {
+        if (mask != null && mask[k] == 0) {
+            return false;
+        }
+        for (Tile tile : validatedTiles) {
+            if (!tile.isSampleValid(x, y)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String getValidPixelExpression() {
+        if (StringUtils.isNotNullAndNotEmpty(validExpression)) {
+            return validExpression;
+        }
+        // the last compatible expression is used
+        String validPixelExpression = null;
+        for (String expression : instrument.getValidExpressions()) {
+            if (sourceProduct.isCompatibleBandArithmeticExpression(expression)) {
+                validPixelExpression = expression;
+            }
         }
+        return validPixelExpression;
     }
 
     static void attachIndexCoding(Band fuBand) {
@@ -0,0 +1,94 @@
+/*
+ * Copyright (C) 2012 Brockmann Consult GmbH (info@brockmann-consult.de)
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+
+package org.esa.s3tbx.fu;
+
+/**
+ * Computes the hue angle of a chromaticity without calling {@link Math#atan2(double, double)}.
+ * <p>
+ * The arc tangent is tabulated on [0, 1] and interpolated with cubic Hermite polynomials, using the known derivative
+ * 1 / (1 + t<sup>2</sup>). With {@link #TABLE_SIZE} intervals the interpolation error is below {@link #MAX_ERROR}
+ * degrees, far below the single precision resolution of the hue angle band. The other octants are derived by symmetry.
+ */
+class HueLookupTable {
+
+    static final int TABLE_SIZE = 1024;
+    /**
+     * Upper bound of the deviation of {@link #getHue(double, double)} from the exact hue in degrees.
+     */
+    static final double MAX_ERROR = 1.0e-9;
+
+    private static final double CONST_WHITE_POINT = 0.333333;
+    private static final double[] ATAN = new double[TABLE_SIZE + 1];
+    private static final double[] ATAN_DERIVATIVE = new double[TABLE_SIZE + 1];
+
+    static {
+        for (int i = 0; i <= TABLE_SIZE; i++) {
+            final double t = i / (double) TABLE_SIZE;
+            ATAN[i] = Math.atan(t);
+            // derivative with respect to the position within an interval
+            ATAN_DERIVATIVE[i] = 1.0 / (1.0 + t * t) / TABLE_SIZE;
+        }
+    }
+
+    private HueLookupTable() {
+    }
+
+    /**
+     * Computes the hue in degrees, in the range [0, 360).
+     *
+     * @param chrX the x chromaticity
+     * @param chrY the y chromaticity
+     * @return the hue, the same as {@link FuAlgo#getHue(double, double)} within {@link #MAX_ERROR}
+     */
+    static double getHue(double chrX, double chrY) {
+        final double atan2 = atan2(chrY - CONST_WHITE_POINT, chrX - CONST_WHITE_POINT);
+        final double hue = (180 * atan2) / Math.PI;
+        return hue < 0 ? hue + 360 : hue;
+    }
+
+    static double atan2(double y, double x) {
+        final double absX = Math.abs(x);
+        final double absY = Math.abs(y);
+        if (!(absX + absY > 0.0)) {
+            // NaN or both zero
+            return Math.atan2(y, x);
+        }
+        final boolean steep = absY > absX;
+        double angle = steep ? atan(absX / absY) : atan(absY / absX);
+        if (steep) {
+            angle = Math.PI / 2 - angle;
+        }
+        if (x < 0.0) {
+            angle = Math.PI - angle;
+        }
+        return y < 0.0 ? -angle : angle;
+    }
+
+    // t in [0, 1]
+    private static double atan(double t) {
+        final double position = t * TABLE_SIZE;
+        final int i = Math.min((int) position, TABLE_SIZE - 1);
+        final double s = position - i;
+        final double s2 = s * s;
+        final double s3 = s2 * s;
+        final double h00 = 2 * s3 - 3 * s2 + 1;
+        final double h10 = s3 - 2 * s2 + s;
+        final double h01 = -2 * s3 + 3 * s2;
+        final double h11 = s3 - s2;
+        return h00 * ATAN[i] + h10 * ATAN_DERIVATIVE[i] + h01 * ATAN[i + 1] + h11 * ATAN_DERIVATIVE[i + 1];
+    }
+}
@@ -3,6 +3,8 @@ package org.esa.s3tbx.fu;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.Random;
+
 import static org.junit.Assert.*;
 
 public class FuAlgoTest {
@@ -118,4 +120,30 @@ public class FuAlgoTest {
         assertEquals(1.2515000000000285, fuAlgo.getPolyCorr(1.0, constPolyHueForMeris), 1e-8);
         assertEquals(-1.7544999999999717, fuAlgo.getPolyCorr(2.5, constPolyHueForMeris), 1e-8);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testComputeFastEqualsCompute() throws Exception {
+        final Random random = new Random(42);
+        for (Instrument instrument : Instrument.values()) {
+            if (instrument == Instrument.AUTO_DETECT) {
+                continue;
+            }
+            final FuAlgo algo = new FuAlgo(instrument);
+            final FuResultImpl fastResult = new FuResultImpl();
+            final double[] spectrum = new double[instrument.getWavelengths().length];
+            for (int n = 0; n < 1000; n++) {
+                for (int i = 0; i < spectrum.length; i++) {
+                    spectrum[i] = 0.05 * random.nextDouble();
+                }
+                final FuResult result = algo.compute(spectrum);
+                algo.computeFast(spectrum, fastResult);
+                assertEquals(result.getChrX(), fastResult.getChrX(), 1e-12);
+                assertEquals(result.getChrY(), fastResult.getChrY(), 1e-12);
+                assertEquals(result.getHue(), fastResult.getHue(), HueLookupTable.MAX_ERROR);
+                assertEquals(result.getPolyCorr(), fastResult.getPolyCorr(), 1e-8);
+                assertEquals(result.getHueAngle(), fastResult.getHueAngle(), 1e-8);
+                assertEquals(result.getFuValue(), fastResult.getFuValue());
+            }
+        }
+    }
+}
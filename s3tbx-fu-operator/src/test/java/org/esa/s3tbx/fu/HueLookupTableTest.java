@@ -0,0 +1,36 @@
+package org.esa.s3tbx.fu;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class HueLookupTableTest {
+
+    @Test
+    public void testAtan2() {
+        final Random random = new Random(5);
+        for (int i = 0; i < 100000; i++) {
+            final double x = random.nextDouble() * 2 - 1;
+            final double y = random.nextDouble() * 2 - 1;
+            assertEquals(Math.atan2(y, x), HueLookupTable.atan2(y, x), 1e-13);
+        }
+        assertEquals(Math.PI / 2, HueLookupTable.atan2(1.0, 0.0), 1e-15);
+        assertEquals(-Math.PI / 2, HueLookupTable.atan2(-1.0, 0.0), 1e-15);
+        assertEquals(Math.PI, HueLookupTable.atan2(0.0, -1.0), 1e-15);
+        assertEquals(0.0, HueLookupTable.atan2(0.0, 0.0), 0.0);
+        assertTrue(Double.isNaN(HueLookupTable.atan2(Double.NaN, 1.0)));
+    }
+
+    @Test
+    public void testGetHue() {
+        final FuAlgo fuAlgo = new FuAlgo();
+        assertEquals(225.0, HueLookupTable.getHue(0.0, 0.0), 1e-8);
+        assertEquals(50.52753979724931, HueLookupTable.getHue(5, 6), 1e-8);
+        assertEquals(37.4570178393783, HueLookupTable.getHue(40.1, 30.8), 1e-8);
+        assertEquals(fuAlgo.getHue(0.36494926760034363, 0.4220291209753466),
+                     HueLookupTable.getHue(0.36494926760034363, 0.4220291209753466), HueLookupTable.MAX_ERROR);
+        assertEquals(fuAlgo.getHue(0.3, 0.2), HueLookupTable.getHue(0.3, 0.2), HueLookupTable.MAX_ERROR);
+    }
+}
@@ -13,6 +13,7 @@ interface WaterFormConstants {
     String PROPERTY_KEY_COMPUTE_TSM = "computeTSM";
     String PROPERTY_KEY_COMPUTE_ATMO = "computeAtmCorr";
     String PROPERTY_KEY_CHECK_SUSPECT = "checkWhetherSuspectIsValid";
+    String PROPERTY_KEY_SINGLE_PRECISION = "useSinglePrecisionNets";
     String PROPERTY_KEY_EXPRESSION = "expression";
 
 }
@@ -44,7 +44,8 @@ class WaterVariablesPanel extends JPanel {
         GridBagUtils.addToPanel(this, createCheckBoxComponent(WaterFormConstants.PROPERTY_KEY_COMPUTE_YS), gbc, "gridy=2");
         GridBagUtils.addToPanel(this, createCheckBoxComponent(WaterFormConstants.PROPERTY_KEY_COMPUTE_ATMO), gbc, "gridy=3");
         GridBagUtils.addToPanel(this, createCheckBoxComponent(WaterFormConstants.PROPERTY_KEY_CHECK_SUSPECT), gbc, "gridy=4");
-        GridBagUtils.addToPanel(this, createValidExpressionPanel(), gbc, "gridy=5,fill=HORIZONTAL,weightx=1.0,weighty=0.0");
+        GridBagUtils.addToPanel(this, createCheckBoxComponent(WaterFormConstants.PROPERTY_KEY_SINGLE_PRECISION), gbc, "gridy=5");
+        GridBagUtils.addToPanel(this, createValidExpressionPanel(), gbc, "gridy=6,fill=HORIZONTAL,weightx=1.0,weighty=0.0");
         GridBagUtils.addVerticalFiller(this, gbc);
     }
 
@@ -81,6 +81,11 @@ public class WaterProcessorOp extends PixelOperator {
             defaultValue = "true", label = "Check whether '" + WaterProcessorOpConstant.SUSPECT_FLAG_NAME + "' is valid")
     private boolean checkWhetherSuspectIsValid;
 
+    @Parameter(defaultValue = "false", description = "Evaluate the neural nets in single precision. This is faster, " +
+            "but the results deviate slightly from the double precision evaluation.",
+            label = "Use single precision neural nets")
+    private boolean useSinglePrecisionNets;
+
     // TODO (mp/20160704) -  For OLCI: !quality_flags.invalid && (!quality_flags.land || quality_flags.fresh_inland_water)
     @Parameter(description = "Band maths expression which defines valid pixels. If the expression is empty," +
                              "all pixels will be considered.",
@@ -380,7 +385,11 @@ public class WaterProcessorOp extends PixelOperator {
         if (computeCHL) {
             // Run the 1-step chlorophyll network;
             stage = 1;
-            NN_CHL.compute(ipixel, inodes, opixel, onodes, width, resultFlags, 0, a);
+            if (useSinglePrecisionNets) {
+                NN_CHL.computeSinglePrecision(ipixel, inodes, opixel, onodes, width, resultFlags, 0, a);
+            } else {
+                NN_CHL.compute(ipixel, inodes, opixel, onodes, width, resultFlags, 0, a);
+            }
 
             // Input range failure
             if ((a[x] > -2.1) && (a[x] < -1.9)) {
@@ -406,7 +415,11 @@ public class WaterProcessorOp extends PixelOperator {
             }
             a[x] = aset;
 
-            NN_YellowSubstance.compute(ipixel, inodes, opixel, onodes, width, resultFlags, 0, a);
+            if (useSinglePrecisionNets) {
+                NN_YellowSubstance.computeSinglePrecision(ipixel, inodes, opixel, onodes, width, resultFlags, 0, a);
+            } else {
+                NN_YellowSubstance.compute(ipixel, inodes, opixel, onodes, width, resultFlags, 0, a);
+            }
 
             // Input range failure
             if ((a[x] > -2.1) && (a[x] < -1.9)) {
@@ -433,7 +446,11 @@ public class WaterProcessorOp extends PixelOperator {
             }
             a[x] = aset;
 
-            NN_TSM.compute(ipixel, inodes, opixel, onodes, width, resultFlags, 0, a);
+            if (useSinglePrecisionNets) {
+                NN_TSM.computeSinglePrecision(ipixel, inodes, opixel, onodes, width, resultFlags, 0, a);
+            } else {
+                NN_TSM.compute(ipixel, inodes, opixel, onodes, width, resultFlags, 0, a);
+            }
 
             // Input range failure
             if ((a[x] > -2.1) && (a[x] < -1.9)) {
@@ -462,7 +479,11 @@ public class WaterProcessorOp extends PixelOperator {
             }
             a[x] = aset;
 
-            NN_AtmCorr.compute(ipixel, inodes, opixel, onodes, width, resultFlags, 0, a);
+            if (useSinglePrecisionNets) {
+                NN_AtmCorr.computeSinglePrecision(ipixel, inodes, opixel, onodes, width, resultFlags, 0, a);
+            } else {
+                NN_AtmCorr.compute(ipixel, inodes, opixel, onodes, width, resultFlags, 0, a);
+            }
 
             // Input range failure
             if ((a[x] > -2.1) && (a[x] < -1.9)) {
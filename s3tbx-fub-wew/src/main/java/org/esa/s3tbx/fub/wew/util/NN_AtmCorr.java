@@ -979,6 +979,31 @@ public class NN_AtmCorr {
                 {+2.530000e-02, +9.420000e-01,}
     };
 
+    private final static NN_SinglePrecision SINGLE_PRECISION = new NN_SinglePrecision(
+                nodes_input_scale_limits_run19,
+                nodes_input_scale_run19,
+                nodes_input_pca_evec_run19,
+                nodes_hidden_weights_run19,
+                nodes_output_weights_run19,
+                nodes_output_scale_run19,
+                nodes_output_scale_off_run19,
+                nodes_output_scale_flag_run19,
+                nodes_output_scale_limits_run19);
+
+    /**
+     * Evaluates the net in single precision, see {@link NN_SinglePrecision}.
+     */
+    public static int computeSinglePrecision(final float[][] in,
+                                             final int getNumNodesInput,
+                                             final float[][] out,
+                                             final int getNumNodesOutput,
+                                             final int width,
+                                             final int[] mask,
+                                             final int errmask,
+                                             final float[] a) {
+        return SINGLE_PRECISION.compute(in, getNumNodesInput, out, getNumNodesOutput, width, mask, errmask, a);
+    }
+
     public static int compute(final float[][] in,
                               final int getNumNodesInput,
                               final float[][] out,
@@ -0,0 +1,213 @@
+package org.esa.s3tbx.fub.wew.util;
+
+/**
+ * Single precision evaluation of the FUB/WeW nets.
+ * <p>
+ * The nets are the same as in {@link NN_CHL}, {@link NN_YellowSubstance}, {@link NN_TSM} and {@link NN_AtmCorr}.
+ * Their tables are converted to float once, the hidden and output weights transposed, so that the inner loops run
+ * over contiguous arrays, and all layers are computed in float. The results deviate slightly from the double
+ * precision evaluation of the nets.
+ */
+public class NN_SinglePrecision {
+
+    private final int nodesInput;
+    private final int nodesHidden;
+    private final int nodesOutput;
+    private final float[][] inputScaleLimits;
+    private final float[] inputScaleOff;
+    private final int[] inputScaleFlag;
+    private final float[][] inputScale;
+    private final float[][] inputPcaEvec;
+    // [hidden][input + bias]
+    private final float[][] hiddenWeights;
+    // [output][hidden + bias]
+    private final float[][] outputWeights;
+    private final float[][] outputScale;
+    private final float[] outputScaleOff;
+    private final int[] outputScaleFlag;
+    private final float[][] outputScaleLimits;
+    private final float tInput;
+    private final float tHidden;
+
+    NN_SinglePrecision(double[][] inputScaleLimits,
+                       double[][] inputScale,
+                       double[][] inputPcaEvec,
+                       double[][] hiddenWeights,
+                       double[][] outputWeights,
+                       double[][] outputScale,
+                       double[] outputScaleOff,
+                       int[] outputScaleFlag,
+                       double[][] outputScaleLimits) {
+        nodesInput = inputScale.length;
+        nodesHidden = hiddenWeights[0].length;
+        nodesOutput = outputWeights[0].length;
+        this.inputScaleLimits = toFloat(inputScaleLimits);
+        this.inputScaleOff = toFloat(NN_General.NODES_INPUT_SCALE_OFF);
+        this.inputScaleFlag = NN_General.NODES_INPUT_SCALE_FLAG.clone();
+        this.inputScale = toFloat(inputScale);
+        this.inputPcaEvec = toFloat(inputPcaEvec);
+        this.hiddenWeights = transpose(hiddenWeights);
+        this.outputWeights = transpose(outputWeights);
+        this.outputScale = toFloat(outputScale);
+        this.outputScaleOff = toFloat(outputScaleOff);
+        this.outputScaleFlag = outputScaleFlag.clone();
+        this.outputScaleLimits = toFloat(outputScaleLimits);
+        tInput = 1.0f / nodesInput;
+        tHidden = 1.0f / nodesHidden;
+    }
+
+    /**
+     * Evaluates the net. The arguments and the return value are the same as for the double precision
+     * {@code compute} methods of the nets.
+     */
+    public int compute(final float[][] in,
+                       final int getNumNodesInput,
+                       final float[][] out,
+                       final int getNumNodesOutput,
+                       final int width,
+                       final int[] mask,
+                       final int errmask,
+                       final float[] a) {
+        // Return dimensions on request
+        if (getNumNodesInput <= 0) {
+            return nodesInput;
+        }
+        if (getNumNodesOutput <= 0) {
+            return nodesOutput;
+        }
+
+        // Crude compatibility checks
+        if (getNumNodesInput != nodesInput) {
+            return -1;
+        }
+        if (getNumNodesOutput != nodesOutput) {
+            return -2;
+        }
+
+        final float[] vt = new float[nodesInput + 1];
+        final float[] vt1 = new float[nodesHidden + 1];
+
+        final boolean[] rcheck = new boolean[width];
+        for (int x = 0; x < width; x++) {
+            rcheck[x] = a[x] < 0.0f;
+            a[x] = 1.0f;
+        }
+
+        for (int x = 0; x < width; x++) {
+            if (mask[x] != 0) {
+                continue;
+            }
+            // Check input range
+            if (rcheck[x]) {
+                for (int i = 0; i < nodesInput && a[x] > 0.0f; i++) {
+                    if (in[i][x] < inputScaleLimits[i][0] || in[i][x] > inputScaleLimits[i][1]) {
+                        a[x] -= 3.0f;
+                    }
+                }
+                if (a[x] < 0.0f) {
+                    mask[x] |= errmask;
+                }
+            }
+
+            // Apply input transformation
+            for (int i = 0; i < nodesInput; i++) {
+                if (inputScaleFlag[i] == -1) {
+                    in[i][x] = (float) Math.log(in[i][x]);
+                }
+                if (inputScaleFlag[i] == -2) {
+                    in[i][x] = (float) Math.exp(in[i][x]);
+                }
+            }
+
+            // Apply input scale layer parameters
+            for (int i = 0; i < nodesInput; i++) {
+                in[i][x] = inputScaleOff[i] + (in[i][x] - inputScale[i][0]) / inputScale[i][1];
+            }
+
+            // Apply input PCA layer parameters
+            for (int i = 0; i < nodesInput; i++) {
+                vt[i] = in[i][x];
+                if (inputScaleFlag[i] == 1) {
+                    vt[i] = 0.0f;
+                    for (int j = 0; j < nodesInput; j++) {
+                        if (inputScaleFlag[j] == 1) {
+                            vt[i] += in[j][x] * inputPcaEvec[j][i];
+                        }
+                    }
+                }
+            }
+            for (int i = 0; i < nodesInput; i++) {
+                in[i][x] = vt[i];
+            }
+            vt[nodesInput] = 1.0f;
+
+            // Pump through the first layer and the sigmoid
+            for (int i = 0; i < nodesHidden; i++) {
+                final float[] weights = hiddenWeights[i];
+                float sum = 0.0f;
+                for (int j = 0; j < weights.length; j++) {
+                    sum += vt[j] * weights[j];
+                }
+                vt1[i] = 1.0f / (1.0f + (float) Math.exp(-tInput * sum));
+            }
+            vt1[nodesHidden] = 1.0f;
+
+            // Pump through the second layer and the sigmoid, apply output scale layer and transformation
+            for (int i = 0; i < nodesOutput; i++) {
+                final float[] weights = outputWeights[i];
+                float sum = 0.0f;
+                for (int j = 0; j < weights.length; j++) {
+                    sum += vt1[j] * weights[j];
+                }
+                float value = 1.0f / (1.0f + (float) Math.exp(-tHidden * sum));
+                value = outputScale[i][0] + (value - outputScaleOff[i]) * outputScale[i][1];
+                if (outputScaleFlag[i] == -1) {
+                    value = (float) Math.log(value);
+                }
+                if (outputScaleFlag[i] == -2) {
+                    value = (float) Math.exp(value);
+                }
+                out[i][x] = value;
+            }
+
+            // Check output range
+            if (rcheck[x]) {
+                for (int i = 0; i < nodesOutput && a[x] >= -2.0f; i++) {
+                    if (out[i][x] < outputScaleLimits[i][0] || out[i][x] > outputScaleLimits[i][1]) {
+                        a[x] -= 20.0f;
+                    }
+                }
+                if (a[x] < 0.0f) {
+                    mask[x] |= errmask;
+                }
+            }
+        }
+        return 0;
+    }
+
+    private static float[] toFloat(double[] values) {
+        final float[] result = new float[values.length];
+        for (int i = 0; i < values.length; i++) {
+            result[i] = (float) values[i];
+        }
+        return result;
+    }
+
+    private static float[][] toFloat(double[][] values) {
+        final float[][] result = new float[values.length][];
+        for (int i = 0; i < values.length; i++) {
+            result[i] = toFloat(values[i]);
+        }
+        return result;
+    }
+
+    private static float[][] transpose(double[][] values) {
+        final float[][] result = new float[values[0].length][values.length];
+        for (int i = 0; i < values.length; i++) {
+            for (int j = 0; j < values[i].length; j++) {
+                result[j][i] = (float) values[i][j];
+            }
+        }
+        return result;
+    }
+}
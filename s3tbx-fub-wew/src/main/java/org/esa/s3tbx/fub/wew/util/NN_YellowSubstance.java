@@ -378,6 +378,31 @@ public class NN_YellowSubstance {
                 {-2.300000e+00, +0.000000e+00,}
     };
 
+    private final static NN_SinglePrecision SINGLE_PRECISION = new NN_SinglePrecision(
+                NN_General.NODES_INPUT_SCALE_LIMITS,
+                nodes_input_scale_run38,
+                nodes_input_pca_evec_run38,
+                nodes_hidden_weights_run38,
+                nodes_output_weights_run38,
+                nodes_output_scale_run38,
+                nodes_output_scale_off_run38,
+                nodes_output_scale_flag_run38,
+                nodes_output_scale_limits_run38);
+
+    /**
+     * Evaluates the net in single precision, see {@link NN_SinglePrecision}.
+     */
+    public static int computeSinglePrecision(final float[][] in,
+                                             final int getNumNodesInput,
+                                             final float[][] out,
+                                             final int getNumNodesOutput,
+                                             final int width,
+                                             final int[] mask,
+                                             final int errmask,
+                                             final float[] a) {
+        return SINGLE_PRECISION.compute(in, getNumNodesInput, out, getNumNodesOutput, width, mask, errmask, a);
+    }
+
     public static int compute(final float[][] in,
                               final int getNumNodesInput,
                               final float[][] out,
@@ -0,0 +1,87 @@
+package org.esa.s3tbx.fub.wew.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class NN_SinglePrecisionTest {
+
+    private static final float[] INPUT = {
+            0.05943133f, 0.05067047f, 0.041214053f, 0.037428323f, 0.030080993f,
+            0.024526045f, 0.023756435f, 0.022254849f, 0.021630857f, 0.021160515f,
+            0.019966979f, 0.019658221f, 11.66836f, 1023.05f, 0.7145359f, -0.385183f,
+            -0.385695f, 0.83837545f};
+
+    private interface Net {
+
+        int compute(float[][] in, int numNodesInput, float[][] out, int numNodesOutput, int width, int[] mask,
+                    int errmask, float[] a);
+    }
+
+    @Test
+    public void testCHL() {
+        assertSinglePrecisionMatchesDoublePrecision(NN_CHL::compute, NN_CHL::computeSinglePrecision);
+    }
+
+    @Test
+    public void testYellowSubstance() {
+        assertSinglePrecisionMatchesDoublePrecision(NN_YellowSubstance::compute,
+                                                    NN_YellowSubstance::computeSinglePrecision);
+    }
+
+    @Test
+    public void testTSM() {
+        assertSinglePrecisionMatchesDoublePrecision(NN_TSM::compute, NN_TSM::computeSinglePrecision);
+    }
+
+    @Test
+    public void testAtmCorr() {
+        assertSinglePrecisionMatchesDoublePrecision(NN_AtmCorr::compute, NN_AtmCorr::computeSinglePrecision);
+    }
+
+    @Test
+    public void testOutOfRangeInputIsFlagged() {
+        final float[][] in = createInput();
+        in[0][0] = 1.0f;
+        final float[][] out = new float[1][1];
+        final int[] mask = new int[1];
+        final float[] a = {-1.0f};
+
+        assertEquals(0, NN_CHL.computeSinglePrecision(in, 18, out, 1, 1, mask, 4, a));
+        assertEquals(4, mask[0]);
+        assertTrue(a[0] < 0.0f);
+    }
+
+    private static void assertSinglePrecisionMatchesDoublePrecision(Net doublePrecision, Net singlePrecision) {
+        final int numInputs = doublePrecision.compute(null, -1, null, 1, 0, null, 0, null);
+        final int numOutputs = doublePrecision.compute(null, 1, null, -1, 0, null, 0, null);
+        assertEquals(numInputs, singlePrecision.compute(null, -1, null, 1, 0, null, 0, null));
+        assertEquals(numOutputs, singlePrecision.compute(null, 1, null, -1, 0, null, 0, null));
+        assertEquals(-1, singlePrecision.compute(null, numInputs + 1, null, numOutputs, 0, null, 0, null));
+        assertEquals(-2, singlePrecision.compute(null, numInputs, null, numOutputs + 1, 0, null, 0, null));
+
+        final float[][] expected = new float[numOutputs][1];
+        final float[] expectedA = {-1.0f};
+        final int[] expectedMask = new int[1];
+        doublePrecision.compute(createInput(), numInputs, expected, numOutputs, 1, expectedMask, 4, expectedA);
+
+        final float[][] actual = new float[numOutputs][1];
+        final float[] actualA = {-1.0f};
+        final int[] actualMask = new int[1];
+        assertEquals(0, singlePrecision.compute(createInput(), numInputs, actual, numOutputs, 1, actualMask, 4, actualA));
+
+        for (int i = 0; i < numOutputs; i++) {
+            assertEquals("output " + i, expected[i][0], actual[i][0], 1.0e-5f);
+        }
+        assertEquals(expectedMask[0], actualMask[0]);
+        assertEquals(expectedA[0], actualA[0], 0.0f);
+    }
+
+    private static float[][] createInput() {
+        final float[][] in = new float[INPUT.length][1];
+        for (int i = 0; i < INPUT.length; i++) {
+            in[i][0] = INPUT[i];
+        }
+        return in;
+    }
+}
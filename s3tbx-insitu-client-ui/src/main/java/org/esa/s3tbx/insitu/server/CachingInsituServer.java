@@ -0,0 +1,77 @@
+package org.esa.s3tbx.insitu.server;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * An {@link InsituServer} keeping the responses of the most recent queries of another server. Only successful
+ * responses are kept. Two queries are considered to be equal if all their properties are equal. Queries for the
+ * number of observations only are always passed to the server, they are cheap and shall reflect its current data.
+ */
+public class CachingInsituServer implements InsituServer {
+
+    private static final int DEFAULT_CACHE_SIZE = 32;
+
+    private final InsituServer server;
+    private final Map<String, InsituResponse> cache;
+
+    public CachingInsituServer(InsituServer server) {
+        this(server, DEFAULT_CACHE_SIZE);
+    }
+
+    public CachingInsituServer(InsituServer server, int cacheSize) {
+        this.server = server;
+        cache = new LinkedHashMap<String, InsituResponse>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, InsituResponse> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    @Override
+    public String getName() {
+        return server.getName();
+    }
+
+    @Override
+    public InsituResponse query(InsituQuery query) throws InsituServerException {
+        if (query.countOnly()) {
+            return server.query(query);
+        }
+        final String key = createKey(query);
+        synchronized (cache) {
+            final InsituResponse response = cache.get(key);
+            if (response != null) {
+                return response;
+            }
+        }
+        // the server is queried outside of the lock, concurrent identical queries are rare
+        final InsituResponse response = server.query(query);
+        if (response != null && InsituResponse.STATUS_CODE.OK.equals(response.getStatus())) {
+            synchronized (cache) {
+                cache.put(key, response);
+            }
+        }
+        return response;
+    }
+
+    /**
+     * Removes all kept responses.
+     */
+    public void clear() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    static String createKey(InsituQuery query) {
+        return String.valueOf(query.subject()) + '|' +
+               query.lonMin() + '|' + query.latMin() + '|' + query.lonMax() + '|' + query.latMax() + '|' +
+               (query.startDate() != null ? query.startDate().getTime() : null) + '|' +
+               (query.stopDate() != null ? query.stopDate().getTime() : null) + '|' +
+               Arrays.toString(query.param()) + '|' + Arrays.toString(query.datasets()) + '|' +
+               query.shift() + '|' + query.limit() + '|' + query.countOnly();
+    }
+}
@@ -0,0 +1,385 @@
+package org.esa.s3tbx.insitu.server.local;
+
+import org.esa.s3tbx.insitu.server.InsituDataset;
+import org.esa.s3tbx.insitu.server.InsituObservation;
+import org.esa.s3tbx.insitu.server.InsituParameter;
+import org.esa.s3tbx.insitu.server.InsituQuery;
+import org.esa.s3tbx.insitu.server.InsituResponse;
+import org.esa.s3tbx.insitu.server.InsituServer;
+import org.esa.s3tbx.insitu.server.InsituServerException;
+import org.esa.s3tbx.insitu.server.InsituServerSpi;
+import org.esa.snap.core.util.SystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * An {@link InsituServer} answering queries from in-situ data stored in a local directory. Every CSV file in the
+ * directory holds one dataset, the format is described at {@link ObservationIndex}. The files are indexed when they
+ * are queried first, and indexed again after they have been modified.
+ * <p>
+ * Observation queries honour the bounding box, time range, parameters and datasets of the query. The
+ * {@link InsituQuery#shift() shift} and {@link InsituQuery#limit() limit} page through the matching observations of
+ * all datasets in the order of the dataset names, while the observation count of the response is always the total
+ * number of matching observations.
+ */
+public class LocalInsituServer implements InsituServer {
+
+    private static final String SERVER_NAME = "LOCAL";
+    private static final String SERVER_DESCRIPTION = "A server providing access to in-situ data stored in CSV files on this computer.";
+    private static final String STORE_DIR_PROPERTY = "s3tbx.insitu.local.dir";
+    private static final String CSV_EXTENSION = ".csv";
+
+    private final Path storeDir;
+    private final Map<Path, IndexEntry> indexes;
+
+    public LocalInsituServer(Path storeDir) {
+        this.storeDir = storeDir;
+        indexes = new HashMap<>();
+    }
+
+    @Override
+    public String getName() {
+        return SERVER_NAME;
+    }
+
+    @Override
+    public InsituResponse query(InsituQuery query) throws InsituServerException {
+        if (query.subject() == null) {
+            throw new InsituServerException("Subject of query must be specified");
+        }
+        final List<ObservationIndex> datasets = getDatasets(query.datasets());
+        switch (query.subject()) {
+            case DATASETS:
+                return queryDatasets(datasets);
+            case PARAMETERS:
+                return queryParameters(datasets);
+            default:
+                return queryObservations(datasets, query);
+        }
+    }
+
+    private InsituResponse queryDatasets(List<ObservationIndex> datasets) {
+        final List<InsituDataset> result = new ArrayList<>();
+        for (ObservationIndex index : datasets) {
+            result.add(new LocalDataset(index, Collections.emptyList()));
+        }
+        return new LocalResponse(0, Collections.emptyList(), result);
+    }
+
+    private InsituResponse queryParameters(List<ObservationIndex> datasets) {
+        final Map<String, InsituParameter> parameters = new LinkedHashMap<>();
+        for (ObservationIndex index : datasets) {
+            for (String paramName : index.getParamNames()) {
+                parameters.computeIfAbsent(paramName, name -> new LocalParameter(index, name));
+            }
+        }
+        return new LocalResponse(0, new ArrayList<>(parameters.values()), Collections.emptyList());
+    }
+
+    private InsituResponse queryObservations(List<ObservationIndex> datasets, InsituQuery query) {
+        long count = 0;
+        int skip = Math.max(0, query.shift());
+        int remaining = query.limit() > 0 ? query.limit() : Integer.MAX_VALUE;
+        final List<InsituDataset> result = new ArrayList<>();
+        for (ObservationIndex index : datasets) {
+            final int[] hits = index.find(query);
+            count += hits.length;
+            if (query.countOnly() || hits.length == 0) {
+                continue;
+            }
+            final int from = Math.min(skip, hits.length);
+            final int to = from + Math.min(remaining, hits.length - from);
+            skip -= from;
+            remaining -= to - from;
+            if (to > from) {
+                result.add(new LocalDataset(index, new ObservationList(index, Arrays.copyOfRange(hits, from, to))));
+            }
+        }
+        return new LocalResponse(count, Collections.emptyList(), result);
+    }
+
+    private synchronized List<ObservationIndex> getDatasets(String[] names) throws InsituServerException {
+        final Set<String> selection = names != null && names.length > 0 ? new HashSet<>(Arrays.asList(names)) : null;
+        final List<ObservationIndex> datasets = new ArrayList<>();
+        final List<Path> files = listFiles();
+        indexes.keySet().retainAll(files);
+        for (Path file : files) {
+            final ObservationIndex index = getIndex(file);
+            if (selection == null || selection.contains(index.getName())) {
+                datasets.add(index);
+            }
+        }
+        return datasets;
+    }
+
+    private List<Path> listFiles() throws InsituServerException {
+        if (!Files.isDirectory(storeDir)) {
+            return Collections.emptyList();
+        }
+        try (Stream<Path> stream = Files.list(storeDir)) {
+            return stream.filter(path -> path.getFileName().toString().toLowerCase().endsWith(CSV_EXTENSION))
+                    .filter(Files::isRegularFile)
+                    .sorted()
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new InsituServerException("Could not list in-situ data in " + storeDir, e);
+        }
+    }
+
+    private ObservationIndex getIndex(Path file) throws InsituServerException {
+        try {
+            final FileTime lastModified = Files.getLastModifiedTime(file);
+            final long size = Files.size(file);
+            IndexEntry entry = indexes.get(file);
+            if (entry == null || !entry.lastModified.equals(lastModified) || entry.size != size) {
+                final String fileName = file.getFileName().toString();
+                final String defaultName = fileName.substring(0, fileName.length() - CSV_EXTENSION.length());
+                entry = new IndexEntry(ObservationIndex.read(file, defaultName), lastModified, size);
+                indexes.put(file, entry);
+            }
+            return entry.index;
+        } catch (IOException e) {
+            throw new InsituServerException("Could not read in-situ data from " + file, e);
+        }
+    }
+
+    private static class IndexEntry {
+
+        private final ObservationIndex index;
+        private final FileTime lastModified;
+        private final long size;
+
+        private IndexEntry(ObservationIndex index, FileTime lastModified, long size) {
+            this.index = index;
+            this.lastModified = lastModified;
+            this.size = size;
+        }
+    }
+
+    private static class LocalResponse implements InsituResponse {
+
+        private final long observationCount;
+        private final List<InsituParameter> parameters;
+        private final List<InsituDataset> datasets;
+
+        private LocalResponse(long observationCount, List<InsituParameter> parameters, List<InsituDataset> datasets) {
+            this.observationCount = observationCount;
+            this.parameters = parameters;
+            this.datasets = datasets;
+        }
+
+        @Override
+        public STATUS_CODE getStatus() {
+            return STATUS_CODE.OK;
+        }
+
+        @Override
+        public List<String> getFailureReasons() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public long getObservationCount() {
+            return observationCount;
+        }
+
+        @Override
+        public List<InsituParameter> getParameters() {
+            return parameters;
+        }
+
+        @Override
+        public List<InsituDataset> getDatasets() {
+            return datasets;
+        }
+    }
+
+    private static class LocalDataset implements InsituDataset {
+
+        private final ObservationIndex index;
+        private final List<InsituObservation> observations;
+
+        private LocalDataset(ObservationIndex index, List<InsituObservation> observations) {
+            this.index = index;
+            this.observations = observations;
+        }
+
+        @Override
+        public String getName() {
+            return index.getName();
+        }
+
+        @Override
+        public String getPi() {
+            return index.getProperty(ObservationIndex.PROPERTY_PI);
+        }
+
+        @Override
+        public String getContact() {
+            return index.getProperty(ObservationIndex.PROPERTY_CONTACT);
+        }
+
+        @Override
+        public String getDescription() {
+            return index.getProperty(ObservationIndex.PROPERTY_DESCRIPTION);
+        }
+
+        @Override
+        public String getPolicy() {
+            return index.getProperty(ObservationIndex.PROPERTY_POLICY);
+        }
+
+        @Override
+        public String getWebsite() {
+            return index.getProperty(ObservationIndex.PROPERTY_WEBSITE);
+        }
+
+        @Override
+        public List<InsituObservation> getObservations() {
+            return observations;
+        }
+
+        @Override
+        public String toString() {
+            return getName();
+        }
+    }
+
+    private static class LocalParameter implements InsituParameter {
+
+        private final String name;
+        private final String description;
+        private final String type;
+        private final String unit;
+
+        private LocalParameter(ObservationIndex index, String name) {
+            this.name = name;
+            final String prefix = ObservationIndex.PARAM_PROPERTY_PREFIX + name + '.';
+            description = index.getProperty(prefix + "description");
+            type = index.getProperty(prefix + "type");
+            unit = index.getProperty(prefix + "unit");
+        }
+
+        @Override
+        public String getDescription() {
+            return description;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public String getType() {
+            return type;
+        }
+
+        @Override
+        public String getUnit() {
+            return unit;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    // observations are created on access, the list only keeps the indexes of the matching observations
+    private static class ObservationList extends AbstractList<InsituObservation> {
+
+        private final ObservationIndex index;
+        private final int[] hits;
+
+        private ObservationList(ObservationIndex index, int[] hits) {
+            this.index = index;
+            this.hits = hits;
+        }
+
+        @Override
+        public InsituObservation get(int i) {
+            return new LocalObservation(index, hits[i]);
+        }
+
+        @Override
+        public int size() {
+            return hits.length;
+        }
+    }
+
+    private static class LocalObservation implements InsituObservation {
+
+        private final ObservationIndex index;
+        private final int i;
+
+        private LocalObservation(ObservationIndex index, int i) {
+            this.index = index;
+            this.i = i;
+        }
+
+        @Override
+        public Date getDate() {
+            return new Date(index.getTime(i));
+        }
+
+        @Override
+        public double getLat() {
+            return index.getLat(i);
+        }
+
+        @Override
+        public double getLon() {
+            return index.getLon(i);
+        }
+
+        @Override
+        public String getParam() {
+            return index.getParam(i);
+        }
+
+        @Override
+        public double getValue() {
+            return index.getValue(i);
+        }
+    }
+
+    public static class Spi implements InsituServerSpi {
+
+        @Override
+        public String getName() {
+            return SERVER_NAME;
+        }
+
+        @Override
+        public String getDescription() {
+            return SERVER_DESCRIPTION;
+        }
+
+        @Override
+        public InsituServer createServer() throws InsituServerException {
+            final String storeDir = System.getProperty(STORE_DIR_PROPERTY);
+            if (storeDir != null) {
+                return new LocalInsituServer(Paths.get(storeDir));
+            }
+            return new LocalInsituServer(SystemUtils.getAuxDataPath().resolve("insitu"));
+        }
+    }
+}
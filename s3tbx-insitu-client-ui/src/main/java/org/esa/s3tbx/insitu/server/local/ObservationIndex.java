@@ -0,0 +1,315 @@
+package org.esa.s3tbx.insitu.server.local;
+
+import org.esa.s3tbx.insitu.server.InsituQuery;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * The observations of one in-situ dataset, kept in columns and sorted by time.
+ * <p>
+ * A dataset is stored in a CSV file. Lines starting with {@code #} hold the properties of the dataset as
+ * {@code key=value} pairs, the first other line is the header naming the columns {@code date}, {@code lat},
+ * {@code lon}, {@code param} and {@code value}. Dates are given in UTC as {@code yyyy-MM-dd HH:mm:ss}.
+ * <pre>
+ * # pi=Jane Doe
+ * # policy=Free for scientific use
+ * # param.es_412.unit=mW/(m^2*nm)
+ * date,lat,lon,param,value
+ * 2003-09-23 10:15:35,7.9,43.367,es_412,748.971558
+ * </pre>
+ * The file is read line by line. The parsed observations are kept in primitive arrays, not as an object each.
+ */
+class ObservationIndex {
+
+    static final String PROPERTY_NAME = "name";
+    static final String PROPERTY_PI = "pi";
+    static final String PROPERTY_CONTACT = "contact";
+    static final String PROPERTY_WEBSITE = "website";
+    static final String PROPERTY_POLICY = "policy";
+    static final String PROPERTY_DESCRIPTION = "description";
+    static final String PARAM_PROPERTY_PREFIX = "param.";
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd[ ]['T']HH:mm:ss");
+    private static final String[] COLUMNS = {"date", "lat", "lon", "param", "value"};
+
+    private final Map<String, String> properties;
+    private final String[] paramNames;
+    private final long[] times;
+    private final double[] lats;
+    private final double[] lons;
+    private final int[] params;
+    private final double[] values;
+
+    private ObservationIndex(Map<String, String> properties, String[] paramNames,
+                             long[] times, double[] lats, double[] lons, int[] params, double[] values) {
+        this.properties = properties;
+        this.paramNames = paramNames;
+        this.times = times;
+        this.lats = lats;
+        this.lons = lons;
+        this.params = params;
+        this.values = values;
+    }
+
+    /**
+     * Reads the dataset stored in the given file.
+     *
+     * @param file        the CSV file
+     * @param defaultName the name used if the file does not define one
+     * @return the index
+     * @throws IOException if the file could not be read or is malformed
+     */
+    static ObservationIndex read(Path file, String defaultName) throws IOException {
+        final Map<String, String> properties = new LinkedHashMap<>();
+        properties.put(PROPERTY_NAME, defaultName);
+        final Map<String, Integer> paramIndexes = new LinkedHashMap<>();
+        final Columns columns = new Columns();
+        int[] columnIndexes = null;
+        int lineNumber = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty()) {
+                    continue;
+                }
+                if (line.startsWith("#")) {
+                    final int separator = line.indexOf('=');
+                    if (separator > 0) {
+                        properties.put(line.substring(1, separator).trim(), line.substring(separator + 1).trim());
+                    }
+                    continue;
+                }
+                final String[] tokens = line.split(",");
+                if (columnIndexes == null) {
+                    columnIndexes = parseHeader(tokens, file);
+                    continue;
+                }
+                try {
+                    final long time = parseTime(tokens[columnIndexes[0]]);
+                    final double lat = Double.parseDouble(tokens[columnIndexes[1]].trim());
+                    final double lon = Double.parseDouble(tokens[columnIndexes[2]].trim());
+                    final String param = tokens[columnIndexes[3]].trim();
+                    final double value = Double.parseDouble(tokens[columnIndexes[4]].trim());
+                    final Integer paramIndex = paramIndexes.computeIfAbsent(param, p -> paramIndexes.size());
+                    columns.add(time, lat, lon, paramIndex, value);
+                } catch (ArrayIndexOutOfBoundsException | NumberFormatException | DateTimeParseException e) {
+                    throw new IOException(String.format("Invalid observation in line %d of '%s'", lineNumber, file), e);
+                }
+            }
+        }
+        return columns.createIndex(properties, paramIndexes.keySet().toArray(new String[0]));
+    }
+
+    String getProperty(String key) {
+        return properties.get(key);
+    }
+
+    String getName() {
+        return properties.get(PROPERTY_NAME);
+    }
+
+    String[] getParamNames() {
+        return paramNames;
+    }
+
+    int getObservationCount() {
+        return times.length;
+    }
+
+    long getTime(int i) {
+        return times[i];
+    }
+
+    double getLat(int i) {
+        return lats[i];
+    }
+
+    double getLon(int i) {
+        return lons[i];
+    }
+
+    String getParam(int i) {
+        return paramNames[params[i]];
+    }
+
+    double getValue(int i) {
+        return values[i];
+    }
+
+    /**
+     * Finds the observations matching the time range, bounding box and parameters of the given query. Unset
+     * properties of the query are not restricting.
+     *
+     * @param query the query
+     * @return the indexes of the matching observations in ascending order of time
+     */
+    int[] find(InsituQuery query) {
+        final boolean[] paramSelected = selectParams(query.param());
+        if (paramSelected == null) {
+            return new int[0];
+        }
+        final int start = query.startDate() != null ? lowerBound(query.startDate().getTime()) : 0;
+        final int end = query.stopDate() != null ? upperBound(query.stopDate().getTime()) : times.length;
+        final double latMin = query.latMin() != null ? query.latMin() : Double.NEGATIVE_INFINITY;
+        final double latMax = query.latMax() != null ? query.latMax() : Double.POSITIVE_INFINITY;
+        final double lonMin = query.lonMin() != null ? query.lonMin() : Double.NEGATIVE_INFINITY;
+        final double lonMax = query.lonMax() != null ? query.lonMax() : Double.POSITIVE_INFINITY;
+
+        int[] hits = new int[Math.max(0, Math.min(end - start, 1024))];
+        int count = 0;
+        for (int i = start; i < end; i++) {
+            if (paramSelected[params[i]] &&
+                lats[i] >= latMin && lats[i] <= latMax &&
+                lons[i] >= lonMin && lons[i] <= lonMax) {
+                if (count == hits.length) {
+                    hits = Arrays.copyOf(hits, Math.min(end - start, 2 * hits.length));
+                }
+                hits[count++] = i;
+            }
+        }
+        return count == hits.length ? hits : Arrays.copyOf(hits, count);
+    }
+
+    // null if none of the parameters is contained
+    private boolean[] selectParams(String[] names) {
+        final boolean[] selected = new boolean[paramNames.length];
+        if (names == null || names.length == 0) {
+            Arrays.fill(selected, true);
+            return selected;
+        }
+        final Set<String> nameSet = new HashSet<>(Arrays.asList(names));
+        boolean any = false;
+        for (int i = 0; i < paramNames.length; i++) {
+            selected[i] = nameSet.contains(paramNames[i]);
+            any |= selected[i];
+        }
+        return any ? selected : null;
+    }
+
+    // index of the first observation not before the given time
+    private int lowerBound(long time) {
+        int lo = 0;
+        int hi = times.length;
+        while (lo < hi) {
+            final int mid = (lo + hi) >>> 1;
+            if (times[mid] < time) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    // index of the first observation after the given time
+    private int upperBound(long time) {
+        int lo = 0;
+        int hi = times.length;
+        while (lo < hi) {
+            final int mid = (lo + hi) >>> 1;
+            if (times[mid] <= time) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private static int[] parseHeader(String[] tokens, Path file) throws IOException {
+        final List<String> header = new ArrayList<>();
+        for (String token : tokens) {
+            header.add(token.trim().toLowerCase());
+        }
+        final int[] columnIndexes = new int[COLUMNS.length];
+        for (int i = 0; i < COLUMNS.length; i++) {
+            columnIndexes[i] = header.indexOf(COLUMNS[i]);
+            if (columnIndexes[i] < 0) {
+                throw new IOException(String.format("Column '%s' missing in '%s'", COLUMNS[i], file));
+            }
+        }
+        return columnIndexes;
+    }
+
+    private static long parseTime(String text) {
+        return LocalDateTime.parse(text.trim(), DATE_FORMAT).toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private static class Columns {
+
+        private long[] times = new long[1024];
+        private double[] lats = new double[1024];
+        private double[] lons = new double[1024];
+        private int[] params = new int[1024];
+        private double[] values = new double[1024];
+        private int size;
+        private boolean sorted = true;
+
+        void add(long time, double lat, double lon, int param, double value) {
+            if (size == times.length) {
+                final int capacity = 2 * size;
+                times = Arrays.copyOf(times, capacity);
+                lats = Arrays.copyOf(lats, capacity);
+                lons = Arrays.copyOf(lons, capacity);
+                params = Arrays.copyOf(params, capacity);
+                values = Arrays.copyOf(values, capacity);
+            }
+            if (size > 0 && time < times[size - 1]) {
+                sorted = false;
+            }
+            times[size] = time;
+            lats[size] = lat;
+            lons[size] = lon;
+            params[size] = param;
+            values[size] = value;
+            size++;
+        }
+
+        ObservationIndex createIndex(Map<String, String> properties, String[] paramNames) {
+            if (sorted) {
+                return new ObservationIndex(Collections.unmodifiableMap(properties), paramNames,
+                                            Arrays.copyOf(times, size), Arrays.copyOf(lats, size),
+                                            Arrays.copyOf(lons, size), Arrays.copyOf(params, size),
+                                            Arrays.copyOf(values, size));
+            }
+            final int[] order = IntStream.range(0, size).boxed()
+                    .sorted(Comparator.comparingLong(i -> times[i]))
+                    .mapToInt(Integer::intValue).toArray();
+            final long[] sortedTimes = new long[size];
+            final double[] sortedLats = new double[size];
+            final double[] sortedLons = new double[size];
+            final int[] sortedParams = new int[size];
+            final double[] sortedValues = new double[size];
+            for (int i = 0; i < size; i++) {
+                final int k = order[i];
+                sortedTimes[i] = times[k];
+                sortedLats[i] = lats[k];
+                sortedLons[i] = lons[k];
+                sortedParams[i] = params[k];
+                sortedValues[i] = values[k];
+            }
+            return new ObservationIndex(Collections.unmodifiableMap(properties), paramNames,
+                                        sortedTimes, sortedLats, sortedLons, sortedParams, sortedValues);
+        }
+    }
+}
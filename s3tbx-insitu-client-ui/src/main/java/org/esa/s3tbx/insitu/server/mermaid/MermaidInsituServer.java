@@ -45,8 +45,12 @@ public class MermaidInsituServer implements InsituServer {
         HttpURLConnection conn = null;
         try {
             conn = establishConnection(url);
-            BufferedReader br = getContentReader(conn);
-            return gson.fromJson(br, MermaidResponse.class);
+            try (BufferedReader br = getContentReader(conn)) {
+                // the response is deserialised while it is read from the connection
+                return gson.fromJson(br, MermaidResponse.class);
+            } catch (IOException e) {
+                throw new InsituServerException("Not able to read content delivered by server", e);
+            }
         } finally {
            if (conn != null) {
                conn.disconnect();
@@ -1,6 +1,7 @@
 package org.esa.s3tbx.insitu.ui;
 
 import com.bc.ceres.core.ProgressMonitor;
+import org.esa.s3tbx.insitu.server.CachingInsituServer;
 import org.esa.s3tbx.insitu.server.InsituDataset;
 import org.esa.s3tbx.insitu.server.InsituParameter;
 import org.esa.s3tbx.insitu.server.InsituQuery;
@@ -34,8 +35,11 @@ import java.util.Calendar;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
 class InsituClientModel {
 
@@ -62,7 +66,9 @@ class InsituClientModel {
     private double minLat;
     private double maxLat;
 
-    private InsituServer selectedServer;
+    private CachingInsituServer selectedServer;
+    // corner coordinates of the products, the geo-coding is only evaluated once per product
+    private final Map<Product, GeoPos[]> productCorners;
     private final PMListener productManagerListener;
     private final PropertyChangeSupport changeSupport;
 
@@ -91,6 +97,7 @@ class InsituClientModel {
         for (Product product : products) {
             productListModel.addElement(product);
         }
+        productCorners = new ConcurrentHashMap<>();
         productManagerListener = new PMListener(productManager);
         productManager.addListener(productManagerListener);
         TimeSpan timeSpan = TimeSpan.create(Collections.emptyList());
@@ -158,6 +165,23 @@ class InsituClientModel {
         return Utils.getSelectedItems(productListModel, productSelectionModel);
     }
 
+    /**
+     * @return the server created for the selected server SPI, answering repeated queries from a cache,
+     * or {@code null} if none has been created yet
+     */
+    public InsituServer getSelectedServer() {
+        return selectedServer;
+    }
+
+    /**
+     * Discards the responses kept for the selected server, so that following queries reflect its current data.
+     */
+    public void clearServerCache() {
+        if (selectedServer != null) {
+            selectedServer.clear();
+        }
+    }
+
     public Date getStartDate() {
         return startDate;
     }
@@ -297,7 +321,7 @@ class InsituClientModel {
                 // selection changed if both indices are -1
                 final InsituServerSpi insituServerSpi = getSelectedServerSpi();
                 try {
-                    selectedServer = insituServerSpi.createServer();
+                    selectedServer = new CachingInsituServer(insituServerSpi.createServer());
                     updateDatasetModel(selectedServer);
                     updateParameterModel(selectedServer);
                 } catch (Exception e) {
@@ -389,6 +413,7 @@ class InsituClientModel {
             final Product product = event.getProduct();
             final int productIndex = productListModel.indexOf(product);
             productListModel.remove(productIndex);
+            productCorners.remove(product);
         }
     }
 
@@ -411,7 +436,8 @@ class InsituClientModel {
 
                 TimeSpan timeSpan = TimeSpan.create(products);
                 pm.worked(1);
-                MinMaxGeoCoordinates minMaxGeoCoordinates = MinMaxGeoCoordinates.create(products);
+                MinMaxGeoCoordinates minMaxGeoCoordinates = MinMaxGeoCoordinates.create(
+                        products, product -> productCorners.computeIfAbsent(product, MinMaxGeoCoordinates::createCornerCoordinates));
                 pm.worked(1);
 
                 setStartDate(timeSpan.getStartDate());
@@ -453,6 +479,10 @@ class InsituClientModel {
         }
 
         public static MinMaxGeoCoordinates create(List<Product> products) {
+            return create(products, MinMaxGeoCoordinates::createCornerCoordinates);
+        }
+
+        static MinMaxGeoCoordinates create(List<Product> products, Function<Product, GeoPos[]> cornerProvider) {
             MinMaxGeoCoordinates coordinates = new MinMaxGeoCoordinates();
             coordinates.minLat = 90.0;
             coordinates.maxLat = -90.0;
@@ -460,7 +490,7 @@ class InsituClientModel {
             coordinates.maxLon = -180.0;
             for (Product product : products) {
                 if (product.getSceneGeoCoding() != null) {
-                    final GeoPos[] corners = createCornerCoordinates(product);
+                    final GeoPos[] corners = cornerProvider.apply(product);
                     for (GeoPos corner : corners) {
                         coordinates.minLat = Math.min(coordinates.minLat, corner.getLat());
                         coordinates.maxLat = Math.max(coordinates.maxLat, corner.getLat());
@@ -116,7 +116,7 @@ public class InsituClientTopComponent extends TopComponent implements HelpCtx.Pr
         final JPanel contentPanel = new JPanel(layout);
         refreshButton = ToolButtonFactory.createButton(TangoIcons.actions_view_refresh(TangoIcons.Res.R22), false);
         refreshButton.setName("refreshButton");
-        refreshButton.addActionListener(new ServerButtonActionListener(() -> createObservationQuery().countOnly(true),
+        refreshButton.addActionListener(new ServerButtonActionListener(this::createRefreshQuery,
                                                                        response -> setNumObs(response.getObservationCount())));
 
         contentPanel.add(refreshButton);
@@ -203,7 +203,17 @@ public class InsituClientTopComponent extends TopComponent implements HelpCtx.Pr
         return query;
     }
 
+    private InsituQuery createRefreshQuery() {
+        // the data of the server may have changed since the last query, e.g. the files of a local server
+        insituModel.clearServerCache();
+        return createObservationQuery().countOnly(true);
+    }
+
     private InsituServer getServer() {
+        InsituServer selectedServer = insituModel.getSelectedServer();
+        if (selectedServer != null) {
+            return selectedServer;
+        }
         try {
             InsituServerSpi serverSpi = insituModel.getSelectedServerSpi();
             return serverSpi.createServer();
@@ -0,0 +1,97 @@
+package org.esa.s3tbx.insitu.server;
+
+import org.junit.Test;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class CachingInsituServerTest {
+
+    @Test
+    public void testResponsesAreCached() throws Exception {
+        final CountingServer countingServer = new CountingServer();
+        final CachingInsituServer server = new CachingInsituServer(countingServer, 2);
+
+        final InsituResponse response = server.query(createQuery(1.0));
+        assertSame(response, server.query(createQuery(1.0)));
+        assertEquals(1, countingServer.queryCount);
+
+        server.query(createQuery(2.0));
+        server.query(createQuery(3.0));
+        assertEquals(3, countingServer.queryCount);
+        // the eldest response has been removed
+        server.query(createQuery(1.0));
+        assertEquals(4, countingServer.queryCount);
+
+        server.clear();
+        server.query(createQuery(1.0));
+        assertEquals(5, countingServer.queryCount);
+    }
+
+    @Test
+    public void testCountOnlyQueriesAreNotCached() throws Exception {
+        final CountingServer countingServer = new CountingServer();
+        final CachingInsituServer server = new CachingInsituServer(countingServer, 2);
+
+        assertEquals(1, server.query(createQuery(1.0).countOnly(true)).getObservationCount());
+        // e.g. the data of the server has changed
+        assertEquals(2, server.query(createQuery(1.0).countOnly(true)).getObservationCount());
+        assertEquals(2, countingServer.queryCount);
+    }
+
+    @Test
+    public void testCreateKey() {
+        final InsituQuery query = createQuery(1.0);
+        assertEquals(CachingInsituServer.createKey(query), CachingInsituServer.createKey(createQuery(1.0)));
+        assertNotEquals(CachingInsituServer.createKey(query), CachingInsituServer.createKey(query.limit(10)));
+        assertNotEquals(CachingInsituServer.createKey(createQuery(1.0)),
+                        CachingInsituServer.createKey(createQuery(1.0).param(new String[]{"chl"})));
+    }
+
+    private static InsituQuery createQuery(double latMin) {
+        return new InsituQuery().subject(InsituQuery.SUBJECT.OBSERVATIONS).latMin(latMin).startDate(new Date(1000L));
+    }
+
+    private static class CountingServer implements InsituServer {
+
+        private int queryCount;
+
+        @Override
+        public String getName() {
+            return "Counting";
+        }
+
+        @Override
+        public InsituResponse query(InsituQuery query) {
+            final int observationCount = ++queryCount;
+            return new InsituResponse() {
+                @Override
+                public STATUS_CODE getStatus() {
+                    return STATUS_CODE.OK;
+                }
+
+                @Override
+                public List<String> getFailureReasons() {
+                    return null;
+                }
+
+                @Override
+                public long getObservationCount() {
+                    return observationCount;
+                }
+
+                @Override
+                public List<? extends InsituParameter> getParameters() {
+                    return null;
+                }
+
+                @Override
+                public List<? extends InsituDataset> getDatasets() {
+                    return null;
+                }
+            };
+        }
+    }
+}
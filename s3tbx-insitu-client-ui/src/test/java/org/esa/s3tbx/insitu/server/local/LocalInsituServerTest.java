@@ -0,0 +1,141 @@
+package org.esa.s3tbx.insitu.server.local;
+
+import org.esa.s3tbx.insitu.server.InsituDataset;
+import org.esa.s3tbx.insitu.server.InsituObservation;
+import org.esa.s3tbx.insitu.server.InsituParameter;
+import org.esa.s3tbx.insitu.server.InsituQuery;
+import org.esa.s3tbx.insitu.server.InsituResponse;
+import org.esa.snap.core.util.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TimeZone;
+
+import static org.junit.Assert.*;
+
+public class LocalInsituServerTest {
+
+    private Path storeDir;
+    private LocalInsituServer server;
+    private SimpleDateFormat dateFormat;
+
+    @Before
+    public void setUp() throws Exception {
+        storeDir = Files.createTempDirectory("insitu");
+        Files.write(storeDir.resolve("BOUSSOLE.csv"), Arrays.asList(
+                "# pi=Jane Doe",
+                "# policy=Free for scientific use",
+                "# param.es_412.unit=mW/(m^2*nm)",
+                "date,lat,lon,param,value",
+                "2003-09-23 10:15:35,43.367,7.9,es_412,748.97",
+                "2003-09-21 10:15:35,43.367,7.9,es_412,700.5",
+                "2003-09-23 10:15:35,43.367,7.9,chl,0.23",
+                "2003-10-02 11:00:00,43.4,7.85,es_412,650.0"
+        ), StandardCharsets.UTF_8);
+        Files.write(storeDir.resolve("AAOT.csv"), Arrays.asList(
+                "# name=AAOT",
+                "lat,lon,date,param,value",
+                "45.314,12.508,2003-09-22 09:30:00,chl,1.2",
+                "45.314,12.508,2003-09-25 09:30:00,chl,1.4"
+        ), StandardCharsets.UTF_8);
+        server = new LocalInsituServer(storeDir);
+        dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+        dateFormat.setTimeZone(TimeZone.getTimeZone("UTC"));
+    }
+
+    @After
+    public void tearDown() {
+        FileUtils.deleteTree(storeDir.toFile());
+    }
+
+    @Test
+    public void testQueryDatasets() throws Exception {
+        final InsituResponse response = server.query(new InsituQuery().subject(InsituQuery.SUBJECT.DATASETS));
+
+        assertEquals(InsituResponse.STATUS_CODE.OK, response.getStatus());
+        final List<? extends InsituDataset> datasets = response.getDatasets();
+        assertEquals(2, datasets.size());
+        assertEquals("AAOT", datasets.get(0).getName());
+        assertEquals("BOUSSOLE", datasets.get(1).getName());
+        assertEquals("Jane Doe", datasets.get(1).getPi());
+        assertEquals("Free for scientific use", datasets.get(1).getPolicy());
+    }
+
+    @Test
+    public void testQueryParameters() throws Exception {
+        InsituQuery query = new InsituQuery().subject(InsituQuery.SUBJECT.PARAMETERS);
+        List<? extends InsituParameter> parameters = server.query(query).getParameters();
+        assertEquals(2, parameters.size());
+        assertEquals("chl", parameters.get(0).getName());
+        assertEquals("es_412", parameters.get(1).getName());
+        assertEquals("mW/(m^2*nm)", parameters.get(1).getUnit());
+
+        parameters = server.query(query.datasets(new String[]{"AAOT"})).getParameters();
+        assertEquals(1, parameters.size());
+        assertEquals("chl", parameters.get(0).getName());
+    }
+
+    @Test
+    public void testQueryObservations() throws Exception {
+        final InsituQuery query = new InsituQuery().subject(InsituQuery.SUBJECT.OBSERVATIONS);
+        query.startDate(dateFormat.parse("2003-09-22 00:00:00")).stopDate(dateFormat.parse("2003-09-30 00:00:00"));
+        query.latMin(40.0).latMax(50.0).lonMin(5.0).lonMax(10.0);
+        query.param(new String[]{"es_412", "chl"});
+
+        final InsituResponse response = server.query(query);
+        assertEquals(2, response.getObservationCount());
+        final List<? extends InsituDataset> datasets = response.getDatasets();
+        assertEquals(1, datasets.size());
+        final List<? extends InsituObservation> observations = datasets.get(0).getObservations();
+        assertEquals(2, observations.size());
+        assertEquals(dateFormat.parse("2003-09-23 10:15:35"), observations.get(0).getDate());
+        assertEquals(43.367, observations.get(0).getLat(), 1.0e-6);
+        assertEquals(7.9, observations.get(0).getLon(), 1.0e-6);
+    }
+
+    @Test
+    public void testQueryObservations_paged() throws Exception {
+        final InsituQuery query = new InsituQuery().subject(InsituQuery.SUBJECT.OBSERVATIONS).param(new String[]{"chl"});
+
+        InsituResponse response = server.query(query.countOnly(true));
+        assertEquals(3, response.getObservationCount());
+        assertTrue(response.getDatasets().isEmpty());
+
+        response = server.query(query.countOnly(false).shift(1).limit(1));
+        assertEquals(3, response.getObservationCount());
+        assertEquals(1, response.getDatasets().size());
+        assertEquals("AAOT", response.getDatasets().get(0).getName());
+        assertEquals(1.4, response.getDatasets().get(0).getObservations().get(0).getValue(), 1.0e-6);
+
+        response = server.query(query.shift(2).limit(5));
+        assertEquals(1, response.getDatasets().size());
+        assertEquals("BOUSSOLE", response.getDatasets().get(0).getName());
+        assertEquals(0.23, response.getDatasets().get(0).getObservations().get(0).getValue(), 1.0e-6);
+    }
+
+    @Test
+    public void testModifiedFileIsIndexedAgain() throws Exception {
+        final InsituQuery query = new InsituQuery().subject(InsituQuery.SUBJECT.OBSERVATIONS).datasets(new String[]{"AAOT"});
+        assertEquals(2, server.query(query).getObservationCount());
+
+        Files.write(storeDir.resolve("AAOT.csv"), Arrays.asList(
+                "date,lat,lon,param,value",
+                "2003-09-22 09:30:00,45.314,12.508,chl,1.2"
+        ), StandardCharsets.UTF_8);
+        assertEquals(1, server.query(query).getObservationCount());
+    }
+
+    @Test
+    public void testMissingStoreDir() throws Exception {
+        final LocalInsituServer emptyServer = new LocalInsituServer(storeDir.resolve("notExisting"));
+        final InsituResponse response = emptyServer.query(new InsituQuery().subject(InsituQuery.SUBJECT.DATASETS));
+        assertTrue(response.getDatasets().isEmpty());
+    }
+}
@@ -32,7 +32,7 @@ class CloudAlgorithm {
     private static final String PARAM_2_KEY = "param_2";
     private static final String VALID_KEY = "validExpression";
 
-    private JnnNet neuralNet;
+    private ThreadLocal<JnnNet> neuralNet;
     private String validExpression;
     private double param1;
     private double param2;
@@ -66,7 +66,14 @@ class CloudAlgorithm {
 
     private void loadNeuralNet(File neuralNetFile) throws IOException, JnnException {
         Jnn.setOptimizing(true);
-        neuralNet = Jnn.readNna(neuralNetFile);
+        final JnnNet net = Jnn.readNna(neuralNetFile);
+        // the net keeps intermediate results, hence every thread uses its own copy
+        neuralNet = new ThreadLocal<JnnNet>() {
+            @Override
+            protected JnnNet initialValue() {
+                return net.clone();
+            }
+        };
 
         final Logger logger = SystemUtils.LOG;
         logger.info("Using JNN Neural Net Library, version " + Jnn.VERSION_STRING);
@@ -100,7 +107,7 @@ class CloudAlgorithm {
     protected double computeCloud(final double[] cloudIn) {
         final double[] output = new double[1];
 
-        neuralNet.process(cloudIn, output);
+        neuralNet.get().process(cloudIn, output);
         return output[0];
     }
 
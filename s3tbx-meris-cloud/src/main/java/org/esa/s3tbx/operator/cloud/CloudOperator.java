@@ -19,6 +19,7 @@ import com.bc.ceres.core.ProgressMonitor;
 import org.esa.snap.core.datamodel.Band;
 import org.esa.snap.core.datamodel.Product;
 import org.esa.snap.core.datamodel.ProductData;
+import org.esa.snap.core.datamodel.RasterDataNode;
 import org.esa.snap.core.gpf.Operator;
 import org.esa.snap.core.gpf.OperatorException;
 import org.esa.snap.core.gpf.OperatorSpi;
@@ -57,7 +58,9 @@ public class CloudOperator extends Operator {
     private Product targetProduct;
 
     private CloudPN cloudNode;
-    private Product tempCloudProduct;
+    private Band cloudBand;
+    private Band cloudFlagBand;
+    private ThreadLocal<CloudPN.Frame> frames;
 
     @Override
     public void initialize() {
@@ -99,17 +102,50 @@ public class CloudOperator extends Operator {
         }
     }
 
+    /**
+     * Computes the cloud probability directly from the source tiles. Tiles are computed concurrently, each thread
+     * copies the source samples into its own frame buffers and reuses them and its neural nets for all its tiles.
+     */
     @Override
     public void computeTileStack(Map<Band, Tile> targetTiles, Rectangle targetRectangle, ProgressMonitor pm) throws OperatorException {
-        for (Map.Entry<Band, Tile> entry : targetTiles.entrySet()) {
-            checkForCancellation();
-            Band targetBand = entry.getKey();
-            Tile targetTile = entry.getValue();
-            Band sourceBand = tempCloudProduct.getBand(targetBand.getName());
-            Rectangle targetRect = targetTile.getRectangle();
-            ProductData rawSamples = getSourceTile(sourceBand, targetRect).getRawSamples();
-            targetTile.setRawSamples(rawSamples);
+        checkForCancellation();
+        final CloudPN.Frame frame = frames.get();
+        try {
+            cloudNode.readFrame(new CloudPN.RasterReader() {
+                @Override
+                public float[] readFloat(RasterDataNode raster, Rectangle rectangle, float[] buffer) {
+                    final Tile tile = getSourceTile(raster, rectangle);
+                    int i = 0;
+                    for (int y = rectangle.y; y < rectangle.y + rectangle.height; y++) {
+                        for (int x = rectangle.x; x < rectangle.x + rectangle.width; x++) {
+                            buffer[i++] = tile.getSampleFloat(x, y);
+                        }
+                    }
+                    return buffer;
+                }
+
+                @Override
+                public int[] readInt(RasterDataNode raster, Rectangle rectangle, int[] buffer) {
+                    final Tile tile = getSourceTile(raster, rectangle);
+                    int i = 0;
+                    for (int y = rectangle.y; y < rectangle.y + rectangle.height; y++) {
+                        for (int x = rectangle.x; x < rectangle.x + rectangle.width; x++) {
+                            buffer[i++] = tile.getSampleInt(x, y);
+                        }
+                    }
+                    return buffer;
+                }
+            }, targetRectangle, frame);
+        } catch (IOException e) {
+            throw new OperatorException(e);
         }
+        final int size = targetRectangle.width * targetRectangle.height;
+        final short[] cloudData = new short[size];
+        final byte[] flagData = new byte[size];
+        cloudNode.computeFrame(frame, cloudData, flagData, ProgressMonitor.NULL);
+        checkForCancellation();
+        targetTiles.get(cloudBand).setRawSamples(ProductData.createInstance(cloudData));
+        targetTiles.get(cloudFlagBand).setRawSamples(ProductData.createUnsignedInstance(flagData));
     }
 
     private void initCloudNode() {
@@ -136,8 +172,12 @@ public class CloudOperator extends Operator {
             throw new OperatorException("Product type '" + l1bProduct.getProductType() + "' is not supported." +
                     "It must be a MERIS Level 1b product.");
         }
-        tempCloudProduct = cloudNode.readProductNodes(l1bProduct, null);
+        // binds the source product to the cloud node
+        cloudNode.readProductNodes(l1bProduct, null);
         targetProduct = cloudNode.createTargetProductImpl();
+        cloudBand = targetProduct.getBand(CloudPN.CLOUD_PROP_BAND);
+        cloudFlagBand = targetProduct.getBand(CloudPN.CLOUD_FLAG_BAND);
+        frames = ThreadLocal.withInitial(CloudPN.Frame::new);
 
         ProductUtils.copyFlagBands(l1bProduct, targetProduct, true);
         ProductUtils.copyTiePointGrids(l1bProduct, targetProduct);
@@ -98,6 +98,7 @@ class CloudPN extends ProcessingNode {
     private MultiLevelImage validLandImage;
     private MultiLevelImage validOceanImage;
     private MultiLevelImage landImage;
+    private Frame frame;
 
     public CloudPN(String auxdataDir) {
         super();
@@ -228,7 +229,7 @@ class CloudPN extends ProcessingNode {
                          (float) (0.5 + 0.5 * Math.sin(a + bf1 * Math.PI)));
     }
 
-    private void ensureCentralWavelengthIsSet() {
+    private synchronized void ensureCentralWavelengthIsSet() {
         if (centralWavelength == null) {
             centralWavelength = centralWavelengthProvider.getCentralWavelength(getSourceProduct().getProductType());
         }
@@ -236,79 +237,94 @@ class CloudPN extends ProcessingNode {
 
     @Override
     protected void processFrame(int frameX, int frameY, int frameW, int frameH, ProgressMonitor pm) throws IOException {
-        ensureCentralWavelengthIsSet();
-        final int frameSize = frameW * frameH;
-        final int numBands = radianceBands.length;
-        final double[] cloudIn = new double[15];
-
-        float[] szaScanLine;
-        float[] saaScanLine;
-        float[] vzaScanLine;
-        float[] vaaScanLine;
-        float[] pressScanLine;
-        float[] altitudeScanLine;
-        int[] detectorScanLine;
-        float[][] radianceScanLine;
-        int[] validLandScanLine;
-        int[] validOceanScanLine;
-        int[] landScanLine;
-
-        szaScanLine = new float[frameSize];
-        saaScanLine = new float[frameSize];
-        vzaScanLine = new float[frameSize];
-        vaaScanLine = new float[frameSize];
-        pressScanLine = new float[frameSize];
-        altitudeScanLine = new float[frameSize];
-        detectorScanLine = new int[frameSize];
-        radianceScanLine = new float[numBands][frameSize];
-        validLandScanLine = new int[frameSize];
-        validOceanScanLine = new int[frameSize];
-        landScanLine = new int[frameSize];
-
-        pm.beginTask("Processing frame...", 9+radianceBands.length + frameSize);
+        if (frame == null) {
+            frame = new Frame();
+        }
+        pm.beginTask("Processing frame...", 2);
         try {
-            szaGrid.readPixels(frameX, frameY, frameW, frameH, szaScanLine, SubProgressMonitor.create(pm, 1));
-            saaGrid.readPixels(frameX, frameY, frameW, frameH, saaScanLine, SubProgressMonitor.create(pm, 1));
-            vzaGrid.readPixels(frameX, frameY, frameW, frameH, vzaScanLine, SubProgressMonitor.create(pm, 1));
-            vaaGrid.readPixels(frameX, frameY, frameW, frameH, vaaScanLine, SubProgressMonitor.create(pm, 1));
-            pressGrid.readPixels(frameX, frameY, frameW, frameH, pressScanLine, SubProgressMonitor.create(pm, 1));
-            altitude.readPixels(frameX, frameY, frameW, frameH, altitudeScanLine, SubProgressMonitor.create(pm, 1));
-
-
-            ProgressMonitor subPM = SubProgressMonitor.create(pm, 1);
-            try {
-                subPM.beginTask("Reading radiance bands...", radianceBands.length);
-                for (int i = 0; i < radianceBands.length; i++) {
-                    final Band radianceBand = radianceBands[i];
-                    radianceBand.readPixels(frameX, frameY, frameW, frameH, radianceScanLine[i],
-                                            SubProgressMonitor.create(pm, 1));
+            final Rectangle rectangle = new Rectangle(frameX, frameY, frameW, frameH);
+            readFrame(new RasterReader() {
+                @Override
+                public float[] readFloat(RasterDataNode raster, Rectangle rectangle, float[] buffer) throws IOException {
+                    return raster.readPixels(rectangle.x, rectangle.y, rectangle.width, rectangle.height, buffer);
                 }
-            } finally {
-                subPM.done();
-            }
-            detectorBand.readPixels(frameX, frameY, frameW, frameH, detectorScanLine, SubProgressMonitor.create(pm, 1));
 
-            validLandScanLine = validLandImage.getData(new Rectangle(frameX, frameY, frameW, frameH)).getSamples(frameX, frameY, frameW, frameH, 0, validLandScanLine);
-            pm.worked(1);
-//            getSourceProduct().readBitmask(frameX, frameY, frameW, frameH, validLandTerm, validLandScanLine,
-//                                           SubProgressMonitor.create(pm, 1));
-            validOceanScanLine = validOceanImage.getData(new Rectangle(frameX, frameY, frameW, frameH)).getSamples(frameX, frameY, frameW, frameH, 0, validOceanScanLine);
-            pm.worked(1);
-//            getSourceProduct().readBitmask(frameX, frameY, frameW, frameH, validOceanTerm, validOceanScanLine,
-//                                           SubProgressMonitor.create(pm, 1));
-            landScanLine = landImage.getData(new Rectangle(frameX, frameY, frameW, frameH)).getSamples(frameX, frameY, frameW, frameH, 0, landScanLine);
+                @Override
+                public int[] readInt(RasterDataNode raster, Rectangle rectangle, int[] buffer) throws IOException {
+                    return raster.readPixels(rectangle.x, rectangle.y, rectangle.width, rectangle.height, buffer);
+                }
+            }, rectangle, frame);
             pm.worked(1);
-//            getSourceProduct().readBitmask(frameX, frameY, frameW, frameH, landTerm, landScanLine,
-//                                           SubProgressMonitor.create(pm, 1));
 
-            ProductData data = getFrameData(cloudBand);
             //noinspection MismatchedReadAndWriteOfArray
-            short[] cloudScanLine = (short[]) data.getElems();
-
-            ProductData flagData = getFrameData(cloudFlagBand);
+            short[] cloudScanLine = (short[]) getFrameData(cloudBand).getElems();
             //noinspection MismatchedReadAndWriteOfArray
-            byte[] flagScanLine = (byte[]) flagData.getElems();
+            byte[] flagScanLine = (byte[]) getFrameData(cloudFlagBand).getElems();
+            computeFrame(frame, cloudScanLine, flagScanLine, SubProgressMonitor.create(pm, 1));
+        } finally {
+            pm.done();
+        }
+    }
+
+    /**
+     * Reads the input data of the given rectangle into the buffers of the frame.
+     *
+     * @param reader    reads the samples of a raster
+     * @param rectangle the rectangle
+     * @param frame     receives the input data
+     * @throws IOException if the data could not be read
+     */
+    void readFrame(RasterReader reader, Rectangle rectangle, Frame frame) throws IOException {
+        final int frameSize = rectangle.width * rectangle.height;
+        frame.ensureSize(frameSize, radianceBands.length);
+        frame.sza = reader.readFloat(szaGrid, rectangle, frame.sza);
+        frame.saa = reader.readFloat(saaGrid, rectangle, frame.saa);
+        frame.vza = reader.readFloat(vzaGrid, rectangle, frame.vza);
+        frame.vaa = reader.readFloat(vaaGrid, rectangle, frame.vaa);
+        frame.press = reader.readFloat(pressGrid, rectangle, frame.press);
+        frame.altitude = reader.readFloat(altitude, rectangle, frame.altitude);
+        for (int i = 0; i < radianceBands.length; i++) {
+            frame.radiance[i] = reader.readFloat(radianceBands[i], rectangle, frame.radiance[i]);
+        }
+        frame.detector = reader.readInt(detectorBand, rectangle, frame.detector);
+        frame.validLand = readMask(validLandImage, rectangle, frame.validLand);
+        frame.validOcean = readMask(validOceanImage, rectangle, frame.validOcean);
+        frame.land = readMask(landImage, rectangle, frame.land);
+        frame.size = frameSize;
+    }
+
+    private static int[] readMask(MultiLevelImage maskImage, Rectangle rectangle, int[] buffer) {
+        return maskImage.getData(rectangle).getSamples(rectangle.x, rectangle.y, rectangle.width, rectangle.height, 0,
+                                                       buffer);
+    }
 
+    /**
+     * Computes the cloud probability and the cloud flags of a frame. This method can be called by several threads
+     * at once, as long as every thread uses its own frame.
+     *
+     * @param frame         the input data
+     * @param cloudScanLine receives the scaled cloud probability
+     * @param flagScanLine  receives the cloud flags
+     * @param pm            the progress monitor
+     */
+    void computeFrame(Frame frame, short[] cloudScanLine, byte[] flagScanLine, ProgressMonitor pm) {
+        ensureCentralWavelengthIsSet();
+        final int frameSize = frame.size;
+        final double[] cloudIn = frame.cloudIn;
+        final float[] szaScanLine = frame.sza;
+        final float[] saaScanLine = frame.saa;
+        final float[] vzaScanLine = frame.vza;
+        final float[] vaaScanLine = frame.vaa;
+        final float[] pressScanLine = frame.press;
+        final float[] altitudeScanLine = frame.altitude;
+        final int[] detectorScanLine = frame.detector;
+        final float[][] radianceScanLine = frame.radiance;
+        final int[] validLandScanLine = frame.validLand;
+        final int[] validOceanScanLine = frame.validOcean;
+        final int[] landScanLine = frame.land;
+
+        pm.beginTask("Processing frame...", frameSize);
+        try {
             for (int i = 0; i < frameSize; i++) {
                 if (pm.isCanceled()) {
                     break;
@@ -436,4 +452,50 @@ class CloudPN extends ProcessingNode {
         List<String> tiePointNameList = Arrays.asList(getSourceProduct().getTiePointGridNames());
         return tiePointNameList.contains(name);
     }
+
+    /**
+     * Reads the samples of a raster. Implementations may return a new array instead of filling the given buffer.
+     */
+    interface RasterReader {
+
+        float[] readFloat(RasterDataNode raster, Rectangle rectangle, float[] buffer) throws IOException;
+
+        int[] readInt(RasterDataNode raster, Rectangle rectangle, int[] buffer) throws IOException;
+    }
+
+    /**
+     * The input data of a frame. The buffers are reused for subsequent frames of the same or a smaller size.
+     */
+    static final class Frame {
+
+        private int size;
+        private float[] sza;
+        private float[] saa;
+        private float[] vza;
+        private float[] vaa;
+        private float[] press;
+        private float[] altitude;
+        private int[] detector;
+        private float[][] radiance;
+        private int[] validLand;
+        private int[] validOcean;
+        private int[] land;
+        private final double[] cloudIn = new double[15];
+
+        private void ensureSize(int frameSize, int numBands) {
+            if (sza == null || sza.length < frameSize) {
+                sza = new float[frameSize];
+                saa = new float[frameSize];
+                vza = new float[frameSize];
+                vaa = new float[frameSize];
+                press = new float[frameSize];
+                altitude = new float[frameSize];
+                detector = new int[frameSize];
+                radiance = new float[numBands][frameSize];
+                validLand = new int[frameSize];
+                validOcean = new int[frameSize];
+                land = new int[frameSize];
+            }
+        }
+    }
 }
@@ -16,7 +16,14 @@
 
 package org.esa.s3tbx.operator.cloud;
 
+import com.bc.ceres.core.ProgressMonitor;
+import org.esa.snap.core.datamodel.Band;
+import org.esa.snap.core.datamodel.FlagCoding;
+import org.esa.snap.core.datamodel.Product;
+import org.esa.snap.core.datamodel.ProductData;
+import org.esa.snap.core.datamodel.TiePointGrid;
 import org.esa.snap.core.util.math.MathUtils;
+import org.esa.snap.dataio.envisat.EnvisatConstants;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -28,6 +35,12 @@ import static org.junit.Assert.*;
 
 public class CloudPNTest {
 
+    private static final int WIDTH = 37;
+    private static final int HEIGHT = 23;
+    private static final int SUBSAMPLING = 4;
+    private static final int FLAG_LAND_OCEAN = 16;
+    private static final int FLAG_INVALID = 128;
+
     private CloudPN cloudPn;
 
     @Before
@@ -58,4 +71,108 @@ public class CloudPNTest {
         double i = cloudPn.calculateI(radiance, sunSpectralFlux, sunZenith);
         assertEquals("calculated i", (radiance / (sunSpectralFlux * Math.cos(sunZenith * MathUtils.DTOR))), i, 0.00001);
     }
+
+    @Test
+    public void testOperatorEqualsProcessFrame() throws Exception {
+        final Product source = createMerisL1bProduct();
+
+        // legacy path, the whole scene is a single frame and the geometry is read by TiePointGrid.readPixels
+        final Product legacyProduct = cloudPn.readProductNodes(source, null);
+        cloudPn.startProcessing();
+        final Band legacyCloudBand = legacyProduct.getBand(CloudPN.CLOUD_PROP_BAND);
+        final Band legacyFlagBand = legacyProduct.getBand(CloudPN.CLOUD_FLAG_BAND);
+        final ProductData legacyCloud = legacyCloudBand.createCompatibleProductData(WIDTH * HEIGHT);
+        final ProductData legacyFlags = legacyFlagBand.createCompatibleProductData(WIDTH * HEIGHT);
+        cloudPn.readBandRasterData(legacyCloudBand, 0, 0, WIDTH, HEIGHT, legacyCloud, ProgressMonitor.NULL);
+        cloudPn.readBandRasterData(legacyFlagBand, 0, 0, WIDTH, HEIGHT, legacyFlags, ProgressMonitor.NULL);
+
+        // GPF path, the geometry of every tile is read from the source tiles of the tie-point grids
+        final CloudOperator operator = new CloudOperator();
+        operator.setSourceProduct(source);
+        final Product target = operator.getTargetProduct();
+        operator.execute(ProgressMonitor.NULL);
+        final int[] cloud = readSamples(target.getBand(CloudPN.CLOUD_PROP_BAND));
+        final int[] flags = readSamples(target.getBand(CloudPN.CLOUD_FLAG_BAND));
+
+        int validCount = 0;
+        int invalidCount = 0;
+        for (int i = 0; i < WIDTH * HEIGHT; i++) {
+            assertEquals("cloud_prob at pixel " + i, legacyCloud.getElemIntAt(i), cloud[i]);
+            assertEquals("cloud_flag at pixel " + i, legacyFlags.getElemIntAt(i), flags[i]);
+            if (cloud[i] == -1) {
+                invalidCount++;
+            } else {
+                validCount++;
+            }
+        }
+        assertTrue(validCount > 0);
+        assertTrue(invalidCount > 0);
+    }
+
+    private static int[] readSamples(Band band) {
+        return band.getSourceImage().getData().getSamples(0, 0, WIDTH, HEIGHT, 0, new int[WIDTH * HEIGHT]);
+    }
+
+    // a MERIS RR scene with land and ocean pixels, some of them invalid, and tiles smaller than the scene
+    private static Product createMerisL1bProduct() {
+        final Product product = new Product("MER_RR_test", "MER_RR__1P", WIDTH, HEIGHT);
+        product.setPreferredTileSize(16, 8);
+        final String[] radianceNames = EnvisatConstants.MERIS_L1B_SPECTRAL_BAND_NAMES;
+        for (int b = 0; b < radianceNames.length; b++) {
+            final Band band = product.addBand(radianceNames[b], ProductData.TYPE_FLOAT32);
+            band.setSpectralBandIndex(b);
+            band.setSolarFlux(1800.0f - 60.0f * b);
+            final float[] data = new float[WIDTH * HEIGHT];
+            for (int y = 0; y < HEIGHT; y++) {
+                for (int x = 0; x < WIDTH; x++) {
+                    data[y * WIDTH + x] = (float) ((90.0 - 4.0 * b) * (1.0 + 0.4 * Math.sin(0.3 * x + 0.2 * y + b)));
+                }
+            }
+            band.setRasterData(ProductData.createInstance(data));
+        }
+
+        final Band detectorBand = product.addBand(EnvisatConstants.MERIS_DETECTOR_INDEX_DS_NAME, ProductData.TYPE_INT16);
+        final short[] detectors = new short[WIDTH * HEIGHT];
+        final byte[] l1Flags = new byte[WIDTH * HEIGHT];
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                detectors[y * WIDTH + x] = (short) ((x * 25 + y * 3) % 925);
+                l1Flags[y * WIDTH + x] = (byte) ((x > WIDTH / 2 ? FLAG_LAND_OCEAN : 0) |
+                                                 ((x + y) % 11 == 0 ? FLAG_INVALID : 0));
+            }
+        }
+        detectorBand.setRasterData(ProductData.createInstance(detectors));
+
+        final FlagCoding flagCoding = new FlagCoding(EnvisatConstants.MERIS_L1B_FLAGS_DS_NAME);
+        flagCoding.addFlag("LAND_OCEAN", FLAG_LAND_OCEAN, null);
+        flagCoding.addFlag("INVALID", FLAG_INVALID, null);
+        product.getFlagCodingGroup().add(flagCoding);
+        final Band flagBand = product.addBand(EnvisatConstants.MERIS_L1B_FLAGS_DS_NAME, ProductData.TYPE_UINT8);
+        flagBand.setSampleCoding(flagCoding);
+        flagBand.setRasterData(ProductData.createUnsignedInstance(l1Flags));
+
+        addTiePointGrid(product, EnvisatConstants.MERIS_SUN_ZENITH_DS_NAME, 35.0, 0.3, 0.5);
+        addTiePointGrid(product, EnvisatConstants.MERIS_SUN_AZIMUTH_DS_NAME, 140.0, 0.8, -0.4);
+        addTiePointGrid(product, EnvisatConstants.MERIS_VIEW_ZENITH_DS_NAME, 2.0, 1.1, 0.1);
+        addTiePointGrid(product, EnvisatConstants.MERIS_VIEW_AZIMUTH_DS_NAME, 100.0, -1.5, 0.6);
+        addTiePointGrid(product, CloudPN.ATM_PRESS, 1005.0, 0.4, -0.7);
+        // the altitude crosses the land/ocean threshold of -50 m
+        addTiePointGrid(product, EnvisatConstants.MERIS_DEM_ALTITUDE_DS_NAME, -400.0, 30.0, 4.0);
+        return product;
+    }
+
+    private static void addTiePointGrid(Product product, String name, double offset, double slopeX, double slopeY) {
+        final int gridWidth = (WIDTH - 1) / SUBSAMPLING + 2;
+        final int gridHeight = (HEIGHT - 1) / SUBSAMPLING + 2;
+        final float[] data = new float[gridWidth * gridHeight];
+        for (int j = 0; j < gridHeight; j++) {
+            for (int i = 0; i < gridWidth; i++) {
+                // non-linear, so that the interpolation between the tie points matters
+                data[j * gridWidth + i] = (float) (offset + slopeX * i * SUBSAMPLING + slopeY * j * SUBSAMPLING +
+                                                   0.05 * i * j * SUBSAMPLING);
+            }
+        }
+        product.addTiePointGrid(new TiePointGrid(name, gridWidth, gridHeight, 0.5, 0.5, SUBSAMPLING, SUBSAMPLING,
+                                                 data));
+    }
 }
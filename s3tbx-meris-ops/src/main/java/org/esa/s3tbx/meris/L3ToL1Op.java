@@ -19,10 +19,7 @@ import com.bc.ceres.core.ProgressMonitor;
 import org.esa.snap.core.datamodel.Band;
 import org.esa.snap.core.datamodel.FlagCoding;
 import org.esa.snap.core.datamodel.GeoCoding;
-import org.esa.snap.core.datamodel.GeoPos;
-import org.esa.snap.core.datamodel.PixelPos;
 import org.esa.snap.core.datamodel.Product;
-import org.esa.snap.core.dataop.resamp.Resampling;
 import org.esa.snap.core.gpf.OperatorException;
 import org.esa.snap.core.gpf.OperatorSpi;
 import org.esa.snap.core.gpf.Tile;
@@ -34,10 +31,15 @@ import org.esa.snap.core.util.ProductUtils;
 import org.esa.snap.core.util.StringUtils;
 
 import java.awt.Rectangle;
+import java.util.Arrays;
+import java.util.Map;
 
 @OperatorMetadata(alias = "L3ToL1", internal = true)
 public class L3ToL1Op extends MerisBasisOp {
 
+    private static final int MAPPING_GRID_STEP = 8;
+    private static final double MAPPING_MAX_ERROR = 0.1;
+
     private GeoCoding l3GeoCoding;
     private GeoCoding l1GeoCoding;
 
@@ -78,103 +80,70 @@ public class L3ToL1Op extends MerisBasisOp {
     }
 
     @Override
-    public void computeTile(Band band, Tile targetTile, ProgressMonitor pm) throws OperatorException {
-
-        Rectangle rectangle = targetTile.getRectangle();
-        Band srcBand = l3Product.getBand(band.getName());
-
-        PixelPos l1PixelPos = new PixelPos();
-        PixelPos l3PixelPos = new PixelPos();
-        GeoPos geoPos = new GeoPos();
-
-        Rectangle l3Rect = findL3Rectangle(rectangle, srcBand);
-        Tile srcTile = getSourceTile(srcBand, l3Rect);
-
-        Tile maskTile = null;
-        boolean useMask = false;
-        if (maskProduct != null && StringUtils.isNotNullAndNotEmpty(maskBand)) {
-            maskTile = getSourceTile(maskProduct.getBand(maskBand), rectangle);
-            useMask = true;
-        }
-        final Resampling resampling = Resampling.BILINEAR_INTERPOLATION;
-        final Resampling.Index resamplingIndex = resampling.createIndex();
-        final TileBasedResamplingRaster resamplingRaster = new TileBasedResamplingRaster(srcTile);
-
-        pm.beginTask("compute", rectangle.height);
+    public void computeTileStack(Map<Band, Tile> targetTiles, Rectangle rectangle, ProgressMonitor pm) throws OperatorException {
+        pm.beginTask("compute", targetTiles.size() + 1);
         try {
-            for (int y = rectangle.y; y < rectangle.y + rectangle.height; y++) {
-                l1PixelPos.y = y;
-                for (int x = rectangle.x; x < rectangle.x + rectangle.width; x++) {
-                    if (!useMask || maskTile.getSampleBoolean(x, y)) {
-                        l1PixelPos.x = x;
-                        l1GeoCoding.getGeoPos(l1PixelPos, geoPos);
-                        l3GeoCoding.getPixelPos(geoPos, l3PixelPos);
-
-                        resampling.computeIndex(l3PixelPos.x, l3PixelPos.y,
-                                                l3Product.getSceneRasterWidth(), l3Product.getSceneRasterHeight(),
-                                                resamplingIndex);
-                        double sample = resampling.resample(resamplingRaster, resamplingIndex);
-                        targetTile.setSample(x, y, sample);
+            final PixelMapping pixelMapping = PixelMapping.create(l1GeoCoding, l3GeoCoding, rectangle,
+                                                                  MAPPING_GRID_STEP, MAPPING_MAX_ERROR);
+            pm.worked(1);
+            final Rectangle l3Rect = findL3Rectangle(pixelMapping);
+
+            boolean[] valid = null;
+            if (maskProduct != null && StringUtils.isNotNullAndNotEmpty(maskBand)) {
+                final Tile maskTile = getSourceTile(maskProduct.getBand(maskBand), rectangle);
+                valid = new boolean[rectangle.width * rectangle.height];
+                int index = 0;
+                for (int y = rectangle.y; y < rectangle.y + rectangle.height; y++) {
+                    for (int x = rectangle.x; x < rectangle.x + rectangle.width; x++) {
+                        valid[index++] = maskTile.getSampleBoolean(x, y);
                     }
                 }
+            }
+
+            final int l3Width = l3Product.getSceneRasterWidth();
+            final int l3Height = l3Product.getSceneRasterHeight();
+            final double[] samples = new double[rectangle.width * rectangle.height];
+            for (Map.Entry<Band, Tile> entry : targetTiles.entrySet()) {
                 checkForCancellation();
+                final Band targetBand = entry.getKey();
+                if (l3Rect.isEmpty()) {
+                    // no pixel of the tile can be mapped into the L3 product
+                    Arrays.fill(samples, Double.NaN);
+                } else {
+                    final Tile srcTile = getSourceTile(l3Product.getBand(targetBand.getName()), l3Rect);
+                    pixelMapping.resampleBilinear(srcTile.getSamplesDouble(), l3Rect, l3Width, l3Height, samples);
+                }
+
+                // NaN values and unmapped pixels are written as no-data, if the band uses it
+                final double noDataValue = targetBand.isNoDataValueUsed() ?
+                                           targetBand.getGeophysicalNoDataValue() : Double.NaN;
+                final Tile targetTile = entry.getValue();
+                int index = 0;
+                for (int y = rectangle.y; y < rectangle.y + rectangle.height; y++) {
+                    for (int x = rectangle.x; x < rectangle.x + rectangle.width; x++, index++) {
+                        if (valid == null || valid[index]) {
+                            final double sample = samples[index];
+                            targetTile.setSample(x, y, Double.isNaN(sample) ? noDataValue : sample);
+                        }
+                    }
+                }
                 pm.worked(1);
             }
-        } catch (Exception e) {
-            throw new OperatorException(e);
         } finally {
             pm.done();
         }
     }
 
-    private Rectangle findL3Rectangle(Rectangle l1Rectangle, Band srcBand) {
-        PixelPos bottomLeft = new PixelPos(l1Rectangle.x, l1Rectangle.y);
-        PixelPos l3PixelPos = l3GeoCoding.getPixelPos(l1GeoCoding.getGeoPos(bottomLeft, null), null);
-        Rectangle l3Rectangle = new Rectangle((int)Math.round(l3PixelPos.x), (int)Math.round(l3PixelPos.y), 1, 1);
-
-        PixelPos bottomRight = new PixelPos(l1Rectangle.x + l1Rectangle.width, l1Rectangle.y);
-        l3PixelPos = l3GeoCoding.getPixelPos(l1GeoCoding.getGeoPos(bottomRight, null), l3PixelPos);
-        l3Rectangle.add(l3PixelPos.x, l3PixelPos.y);
-
-        PixelPos topRight = new PixelPos(l1Rectangle.x + l1Rectangle.width, l1Rectangle.y + l1Rectangle.height);
-        l3PixelPos = l3GeoCoding.getPixelPos(l1GeoCoding.getGeoPos(topRight, null), l3PixelPos);
-        l3Rectangle.add(l3PixelPos.x, l3PixelPos.y);
-
-        PixelPos topLeft = new PixelPos(l1Rectangle.x, l1Rectangle.y + l1Rectangle.height);
-        l3PixelPos = l3GeoCoding.getPixelPos(l1GeoCoding.getGeoPos(topLeft, null), l3PixelPos);
-        l3Rectangle.add(l3PixelPos.x, l3PixelPos.y);
-
+    private Rectangle findL3Rectangle(PixelMapping pixelMapping) {
+        final Rectangle l3Rectangle = pixelMapping.getSourceBounds();
+        if (l3Rectangle == null) {
+            return new Rectangle();
+        }
         l3Rectangle.grow(2, 2);
-        Rectangle sceneRectangle = new Rectangle(srcBand.getRasterWidth(), srcBand.getRasterHeight());
+        Rectangle sceneRectangle = new Rectangle(l3Product.getSceneRasterWidth(), l3Product.getSceneRasterHeight());
         return l3Rectangle.intersection(sceneRectangle);
     }
 
-    private static class TileBasedResamplingRaster implements Resampling.Raster {
-
-        private final Tile tile;
-
-        public TileBasedResamplingRaster(Tile tile) {
-            this.tile = tile;
-        }
-
-        public final int getWidth() {
-            return tile.getWidth();
-        }
-
-        public final int getHeight() {
-            return tile.getHeight();
-        }
-
-        public boolean getSamples(int[] x, int[] y, double[][] samples) {
-            for (int i = 0; i < y.length; i++) {
-                for (int j = 0; j < x.length; j++) {
-                    samples[i][j] = tile.getSampleDouble(x[j], y[i]);
-                }
-            }
-            return true;
-        }
-    }
-
     public static class Spi extends OperatorSpi {
 
         public Spi() {
@@ -28,13 +28,12 @@ import org.esa.snap.core.gpf.annotations.SourceProduct;
 import org.esa.snap.core.gpf.annotations.TargetProduct;
 import org.esa.snap.core.util.ProductUtils;
 
-import javax.imageio.stream.FileImageInputStream;
-import javax.imageio.stream.FileImageOutputStream;
-import javax.imageio.stream.ImageInputStream;
-import javax.imageio.stream.ImageOutputStream;
 import java.awt.Rectangle;
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 
 /**
  * The <code>N1PatcherOp</code> copies an existing N1 file
@@ -113,9 +112,11 @@ public class N1PatcherOp extends MerisBasisOp {
 
     private DatasetDescriptor[] dsDescriptors;
 
-    private ImageInputStream inputStream;
-    private ImageOutputStream outputStream;
+    private FileChannel inputChannel;
+    private FileChannel outputChannel;
     private final Object syncObject = new Object();
+    // buffer for the MDS records of a tile, reused by the computing thread
+    private final ThreadLocal<ByteBuffer> recordBuffer = new ThreadLocal<>();
 
     @SourceProduct(alias = "n1", description = "The N1 file which is used as a template.")
     private Product n1Product;
@@ -159,8 +160,9 @@ public class N1PatcherOp extends MerisBasisOp {
         pm.beginTask("Copy headers", 4);
         try {
             synchronized (syncObject) {
-                inputStream = new FileImageInputStream(n1Product.getFileLocation());
-                outputStream = new FileImageOutputStream(patchedFile);
+                inputChannel = FileChannel.open(n1Product.getFileLocation().toPath(), StandardOpenOption.READ);
+                outputChannel = FileChannel.open(patchedFile.toPath(), StandardOpenOption.CREATE,
+                                                 StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
                 pm.worked(1);
                 byte[] mph = parseMPH();
                 pm.worked(1);
@@ -180,8 +182,7 @@ public class N1PatcherOp extends MerisBasisOp {
         byte[] mph = new byte[MPH_SIZE];
 
         // read complete MPH
-        inputStream.seek(0);
-        inputStream.read(mph);
+        readFully(ByteBuffer.wrap(mph), 0);
 
         num_dsd = Integer.parseInt(new String(mph, MPH_NUM_DSD_OFFSET,
                                               MPH_NUM_DSD_LENGTH));
@@ -196,8 +197,7 @@ public class N1PatcherOp extends MerisBasisOp {
         byte[] sph = new byte[sph_size];
 
         // read complete SPH
-        inputStream.seek(MPH_SIZE);
-        inputStream.read(sph);
+        readFully(ByteBuffer.wrap(sph), MPH_SIZE);
 
         dsDescriptors = new DatasetDescriptor[num_dsd];
 
@@ -232,20 +232,41 @@ public class N1PatcherOp extends MerisBasisOp {
     }
 
     private void copyHeader(byte[] mph, byte[] sph) throws IOException {
-        outputStream.seek(0);
-        outputStream.write(mph);
-        outputStream.write(sph);
+        writeFully(ByteBuffer.wrap(mph), 0);
+        writeFully(ByteBuffer.wrap(sph), MPH_SIZE);
 
         for (DatasetDescriptor descriptor : dsDescriptors) {
-            byte[] buf = new byte[descriptor.dsSize];
-
             if (descriptor.dsName == null
                 || !descriptor.dsName.startsWith("Radiance")) {
-                inputStream.seek(descriptor.dsOffset);
-                inputStream.read(buf);
-                outputStream.seek(descriptor.dsOffset);
-                outputStream.write(buf);
+                long position = descriptor.dsOffset;
+                long remaining = descriptor.dsSize;
+                while (remaining > 0) {
+                    long transferred = inputChannel.transferTo(position, remaining,
+                                                               outputChannel.position(position));
+                    if (transferred <= 0) {
+                        throw new IOException("Unexpected end of file in dataset '" + descriptor.dsName + "'");
+                    }
+                    position += transferred;
+                    remaining -= transferred;
+                }
+            }
+        }
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = inputChannel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("Unexpected end of file: " + n1Product.getFileLocation());
             }
+            position += read;
+        }
+    }
+
+    // positional writes do not change the channel position, so independent tiles can be written concurrently
+    private void writeFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += outputChannel.write(buffer, position);
         }
     }
 
@@ -269,53 +290,18 @@ public class N1PatcherOp extends MerisBasisOp {
         pm.beginTask("Patching product...", rectangle.height);
         try {
             Tile srcTile = getSourceTile(sourceProduct.getBand(band.getName()), rectangle);
-            for (int y = rectangle.y; y < rectangle.y + rectangle.height; y++) {
-                for (int x = rectangle.x; x < rectangle.x + rectangle.width; x++) {
-                    targetTile.setSample(x, y, srcTile.getSampleDouble(x, y));
+            targetTile.setSamples(srcTile.getSamplesDouble());
+            if (band.getName().startsWith("radiance")) {
+                DatasetDescriptor descriptor = getDatasetDescriptorForBand(band);
+                if (descriptor != null) {
+                    short[] data = (short[]) srcTile.getRawSamples().getElems();
+                    patchRecords(descriptor, rectangle, data, 2, true, pm);
                 }
-            }
-            synchronized (syncObject) {
-                if (band.getName().startsWith("radiance")) {
-                    DatasetDescriptor descriptor = getDatasetDescriptorForBand(band);
-                    if (descriptor != null) {
-                        short[] data = (short[]) srcTile.getRawSamples().getElems();
-
-                        byte[] buf = new byte[rectangle.height * descriptor.dsrSize];
-                        final long dsrOffset = descriptor.dsOffset + rectangle.y * descriptor.dsrSize;
-                        inputStream.seek(dsrOffset);
-                        inputStream.read(buf);
-                        outputStream.seek(dsrOffset);
-                        for (int y = 0; y < rectangle.height; y++) {
-                            outputStream.write(buf, y * descriptor.dsrSize, DSR_HEADER_SIZE);
-                            outputStream.skipBytes(
-                                    (targetProduct.getSceneRasterWidth() - rectangle.width - rectangle.x) * 2);
-                            for (int x = rectangle.width - 1; x >= 0; x--) {
-                                outputStream.writeShort(data[x + y * rectangle.width]);
-                            }
-                            outputStream.skipBytes((rectangle.x) * 2);
-                            checkForCancellation();
-                            pm.worked(1);
-                        }
-                    }
-                } else if ("l1_flags".equals(band.getName())) {
-                    DatasetDescriptor descriptor = getDatasetDescriptorForFlagBand();
-                    if (descriptor != null) {
-                        byte[] data = (byte[]) srcTile.getRawSamples().getElems();
-
-                        final long dsrOffset = descriptor.dsOffset + rectangle.y * descriptor.dsrSize;
-                        outputStream.seek(dsrOffset);
-                        for (int y = 0; y < rectangle.height; y++) {
-                            outputStream.skipBytes(DSR_HEADER_SIZE);
-                            outputStream.skipBytes(targetProduct.getSceneRasterWidth() - rectangle.width - rectangle.x);
-                            for (int x = rectangle.width - 1; x >= 0; x--) {
-                                outputStream.writeByte(data[x + y * rectangle.width]);
-                            }
-                            outputStream.skipBytes(rectangle.x);
-                            outputStream.skipBytes(targetProduct.getSceneRasterWidth() * 2);
-                            checkForCancellation();
-                            pm.worked(1);
-                        }
-                    }
+            } else if ("l1_flags".equals(band.getName())) {
+                DatasetDescriptor descriptor = getDatasetDescriptorForFlagBand();
+                if (descriptor != null) {
+                    byte[] data = (byte[]) srcTile.getRawSamples().getElems();
+                    patchRecords(descriptor, rectangle, data, 1, false, pm);
                 }
             }
         } catch (IOException e) {
@@ -325,6 +311,75 @@ public class N1PatcherOp extends MerisBasisOp {
         }
     }
 
+    /**
+     * Writes the samples of a tile into the records of a measurement dataset. The records of the tile lines are read
+     * from the original file into a buffer, the samples are put in at their (mirrored) positions in N1 big endian
+     * layout, and the buffer is written back. If the tile covers whole records they are written at once, otherwise
+     * only the sample range (and for radiances the record header) of each record is written.
+     *
+     * @param data        the raw tile samples, either {@code short[]} or {@code byte[]}
+     * @param sampleSize  the size of a sample in bytes
+     * @param writeHeader whether the record headers have to be written
+     */
+    private void patchRecords(DatasetDescriptor descriptor, Rectangle rectangle, Object data, int sampleSize,
+                              boolean writeHeader, ProgressMonitor pm) throws IOException {
+        final int sceneWidth = targetProduct.getSceneRasterWidth();
+        final int dsrSize = descriptor.dsrSize;
+        final long dsrOffset = descriptor.dsOffset + (long) rectangle.y * dsrSize;
+        final ByteBuffer buffer = getRecordBuffer(rectangle.height * dsrSize);
+        readFully(buffer, dsrOffset);
+
+        // pixels are stored mirrored in x direction
+        final int sampleOffset = DSR_HEADER_SIZE + (sceneWidth - rectangle.width - rectangle.x) * sampleSize;
+        for (int y = 0; y < rectangle.height; y++) {
+            int position = y * dsrSize + sampleOffset;
+            final int lineOffset = y * rectangle.width;
+            if (sampleSize == 2) {
+                final short[] shorts = (short[]) data;
+                for (int x = rectangle.width - 1; x >= 0; x--) {
+                    buffer.putShort(position, shorts[lineOffset + x]);
+                    position += 2;
+                }
+            } else {
+                final byte[] bytes = (byte[]) data;
+                for (int x = rectangle.width - 1; x >= 0; x--) {
+                    buffer.put(position, bytes[lineOffset + x]);
+                    position++;
+                }
+            }
+        }
+
+        if (rectangle.x == 0 && rectangle.width == sceneWidth) {
+            buffer.clear().limit(rectangle.height * dsrSize);
+            writeFully(buffer, dsrOffset);
+            checkForCancellation();
+            pm.worked(rectangle.height);
+            return;
+        }
+        for (int y = 0; y < rectangle.height; y++) {
+            final int recordStart = y * dsrSize;
+            if (writeHeader) {
+                buffer.clear().position(recordStart).limit(recordStart + DSR_HEADER_SIZE);
+                writeFully(buffer, dsrOffset + recordStart);
+            }
+            final int sampleStart = recordStart + sampleOffset;
+            buffer.clear().position(sampleStart).limit(sampleStart + rectangle.width * sampleSize);
+            writeFully(buffer, dsrOffset + sampleStart);
+            checkForCancellation();
+            pm.worked(1);
+        }
+    }
+
+    private ByteBuffer getRecordBuffer(int size) {
+        ByteBuffer buffer = recordBuffer.get();
+        if (buffer == null || buffer.capacity() < size) {
+            buffer = ByteBuffer.allocate(size);
+            recordBuffer.set(buffer);
+        }
+        buffer.clear().limit(size);
+        return buffer;
+    }
+
     private DatasetDescriptor getDatasetDescriptorForFlagBand() {
         for (DatasetDescriptor dsDescriptor : dsDescriptors) {
             final String dsName = dsDescriptor.dsName;
@@ -356,8 +411,12 @@ public class N1PatcherOp extends MerisBasisOp {
         try {
             synchronized (syncObject) {
                 targetProduct.closeIO();
-                inputStream.close();
-                outputStream.close();
+                if (inputChannel != null) {
+                    inputChannel.close();
+                }
+                if (outputChannel != null) {
+                    outputChannel.close();
+                }
             }
         } catch (IOException e) {
             e.printStackTrace();
@@ -0,0 +1,271 @@
+/*
+ * Copyright (C) 2010 Brockmann Consult GmbH (info@brockmann-consult.de)
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+package org.esa.s3tbx.meris;
+
+import org.esa.snap.core.datamodel.GeoCoding;
+import org.esa.snap.core.datamodel.GeoPos;
+import org.esa.snap.core.datamodel.PixelPos;
+
+import java.awt.Rectangle;
+
+/**
+ * The pixel positions in a source product for every pixel of a target rectangle.
+ * <p>
+ * The mapping is computed exactly (target geo-coding to geo-position to source geo-coding) on a sparse grid only.
+ * The positions in between are bilinearly interpolated. For each grid cell the interpolation is verified at the
+ * cell centre; cells where the interpolation error exceeds the given bound, or where a corner could not be mapped,
+ * are computed exactly pixel by pixel. The mapping does not depend on the band and can be shared by all bands of a
+ * tile.
+ * <p>
+ * Target pixels are mapped at their integer pixel coordinates, as the operators of this module always did. Pixels which
+ * cannot be mapped have {@code NaN} source coordinates.
+ */
+class PixelMapping {
+
+    private final double[] sourceX;
+    private final double[] sourceY;
+    private final Rectangle sourceBounds;
+
+    private PixelMapping(double[] sourceX, double[] sourceY) {
+        this.sourceX = sourceX;
+        this.sourceY = sourceY;
+        this.sourceBounds = computeSourceBounds(sourceX, sourceY);
+    }
+
+    /**
+     * Computes the mapping for the given target rectangle.
+     *
+     * @param targetGeoCoding the geo-coding of the product the rectangle refers to
+     * @param sourceGeoCoding the geo-coding of the product to map into
+     * @param rectangle       the target rectangle
+     * @param gridStep        the step size of the exactly computed grid in pixels
+     * @param maxError        the maximum accepted interpolation error in source pixels
+     * @return the pixel mapping
+     */
+    static PixelMapping create(GeoCoding targetGeoCoding, GeoCoding sourceGeoCoding, Rectangle rectangle,
+                               int gridStep, double maxError) {
+        final int width = rectangle.width;
+        final int height = rectangle.height;
+        final double[] sourceX = new double[width * height];
+        final double[] sourceY = new double[width * height];
+        final Mapper mapper = new Mapper(targetGeoCoding, sourceGeoCoding);
+
+        final int numGridX = (width - 1) / gridStep + 2;
+        final int numGridY = (height - 1) / gridStep + 2;
+        final int[] gridX = new int[numGridX];
+        final int[] gridY = new int[numGridY];
+        for (int i = 0; i < numGridX; i++) {
+            gridX[i] = Math.min(i * gridStep, width - 1);
+        }
+        for (int j = 0; j < numGridY; j++) {
+            gridY[j] = Math.min(j * gridStep, height - 1);
+        }
+        final double[][] nodeX = new double[numGridY][numGridX];
+        final double[][] nodeY = new double[numGridY][numGridX];
+        for (int j = 0; j < numGridY; j++) {
+            for (int i = 0; i < numGridX; i++) {
+                mapper.map(rectangle.x + gridX[i], rectangle.y + gridY[j]);
+                nodeX[j][i] = mapper.x;
+                nodeY[j][i] = mapper.y;
+            }
+        }
+
+        for (int j = 0; j < numGridY - 1; j++) {
+            final int y0 = gridY[j];
+            final int y1 = gridY[j + 1];
+            for (int i = 0; i < numGridX - 1; i++) {
+                final int x0 = gridX[i];
+                final int x1 = gridX[i + 1];
+                final boolean interpolate = isInterpolationValid(mapper, rectangle, nodeX, nodeY, i, j, x0, x1, y0, y1,
+                                                                 maxError);
+                // the last row and column of a cell are shared with the next cell, the last cell includes them
+                final int yEnd = j == numGridY - 2 ? y1 : y1 - 1;
+                final int xEnd = i == numGridX - 2 ? x1 : x1 - 1;
+                for (int y = y0; y <= yEnd; y++) {
+                    final double wy = y1 > y0 ? (y - y0) / (double) (y1 - y0) : 0.0;
+                    for (int x = x0; x <= xEnd; x++) {
+                        final int index = y * width + x;
+                        if (interpolate) {
+                            final double wx = x1 > x0 ? (x - x0) / (double) (x1 - x0) : 0.0;
+                            sourceX[index] = bilinear(nodeX, i, j, wx, wy);
+                            sourceY[index] = bilinear(nodeY, i, j, wx, wy);
+                        } else {
+                            mapper.map(rectangle.x + x, rectangle.y + y);
+                            sourceX[index] = mapper.x;
+                            sourceY[index] = mapper.y;
+                        }
+                    }
+                }
+            }
+        }
+        return new PixelMapping(sourceX, sourceY);
+    }
+
+    /**
+     * @return the bounding rectangle of all mapped source positions, or {@code null} if no pixel could be mapped
+     */
+    Rectangle getSourceBounds() {
+        return sourceBounds != null ? new Rectangle(sourceBounds) : null;
+    }
+
+    /**
+     * Resamples the given source data bilinearly (sample values at pixel centres) at the mapped positions.
+     *
+     * @param sourceData      the source samples, line by line, covering {@code sourceRectangle}
+     * @param sourceRectangle the rectangle covered by {@code sourceData}
+     * @param sceneWidth      the width of the source scene
+     * @param sceneHeight     the height of the source scene
+     * @param targetData      receives the resampled values, {@code NaN} where a pixel could not be mapped
+     */
+    void resampleBilinear(double[] sourceData, Rectangle sourceRectangle, int sceneWidth, int sceneHeight,
+                          double[] targetData) {
+        final int minX = sourceRectangle.x;
+        final int minY = sourceRectangle.y;
+        final int maxX = Math.min(sourceRectangle.x + sourceRectangle.width, sceneWidth) - 1;
+        final int maxY = Math.min(sourceRectangle.y + sourceRectangle.height, sceneHeight) - 1;
+        final int stride = sourceRectangle.width;
+        for (int index = 0; index < targetData.length; index++) {
+            final double x = sourceX[index];
+            final double y = sourceY[index];
+            if (Double.isNaN(x) || Double.isNaN(y)) {
+                targetData[index] = Double.NaN;
+                continue;
+            }
+            final int i0 = (int) Math.floor(x);
+            final int j0 = (int) Math.floor(y);
+            final double di = x - (i0 + 0.5);
+            final double dj = y - (j0 + 0.5);
+            final int iLow;
+            final int iHigh;
+            final double ki;
+            if (di >= 0) {
+                iLow = crop(i0, minX, maxX);
+                iHigh = crop(i0 + 1, minX, maxX);
+                ki = di;
+            } else {
+                iLow = crop(i0 - 1, minX, maxX);
+                iHigh = crop(i0, minX, maxX);
+                ki = di + 1;
+            }
+            final int jLow;
+            final int jHigh;
+            final double kj;
+            if (dj >= 0) {
+                jLow = crop(j0, minY, maxY);
+                jHigh = crop(j0 + 1, minY, maxY);
+                kj = dj;
+            } else {
+                jLow = crop(j0 - 1, minY, maxY);
+                jHigh = crop(j0, minY, maxY);
+                kj = dj + 1;
+            }
+            final int rowLow = (jLow - minY) * stride;
+            final int rowHigh = (jHigh - minY) * stride;
+            final double v00 = sourceData[rowLow + iLow - minX];
+            final double v01 = sourceData[rowLow + iHigh - minX];
+            final double v10 = sourceData[rowHigh + iLow - minX];
+            final double v11 = sourceData[rowHigh + iHigh - minX];
+            targetData[index] = v00 + ki * (v01 - v00) + kj * (v10 - v00) + ki * kj * (v11 - v10 - v01 + v00);
+        }
+    }
+
+    private static boolean isInterpolationValid(Mapper mapper, Rectangle rectangle, double[][] nodeX, double[][] nodeY,
+                                                int i, int j, int x0, int x1, int y0, int y1, double maxError) {
+        for (int dj = 0; dj <= 1; dj++) {
+            for (int di = 0; di <= 1; di++) {
+                if (Double.isNaN(nodeX[j + dj][i + di]) || Double.isNaN(nodeY[j + dj][i + di])) {
+                    return false;
+                }
+            }
+        }
+        if (x1 - x0 <= 1 && y1 - y0 <= 1) {
+            return true;
+        }
+        final int xc = (x0 + x1) / 2;
+        final int yc = (y0 + y1) / 2;
+        final double wx = x1 > x0 ? (xc - x0) / (double) (x1 - x0) : 0.0;
+        final double wy = y1 > y0 ? (yc - y0) / (double) (y1 - y0) : 0.0;
+        mapper.map(rectangle.x + xc, rectangle.y + yc);
+        return Math.abs(mapper.x - bilinear(nodeX, i, j, wx, wy)) <= maxError &&
+               Math.abs(mapper.y - bilinear(nodeY, i, j, wx, wy)) <= maxError;
+    }
+
+    private static double bilinear(double[][] nodes, int i, int j, double wx, double wy) {
+        final double top = nodes[j][i] + wx * (nodes[j][i + 1] - nodes[j][i]);
+        final double bottom = nodes[j + 1][i] + wx * (nodes[j + 1][i + 1] - nodes[j + 1][i]);
+        return top + wy * (bottom - top);
+    }
+
+    private static int crop(int value, int min, int max) {
+        return value < min ? min : value > max ? max : value;
+    }
+
+    private static Rectangle computeSourceBounds(double[] sourceX, double[] sourceY) {
+        double minX = Double.POSITIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < sourceX.length; i++) {
+            final double x = sourceX[i];
+            final double y = sourceY[i];
+            if (!Double.isNaN(x) && !Double.isNaN(y)) {
+                minX = Math.min(minX, x);
+                minY = Math.min(minY, y);
+                maxX = Math.max(maxX, x);
+                maxY = Math.max(maxY, y);
+            }
+        }
+        if (minX > maxX) {
+            return null;
+        }
+        final int x0 = (int) Math.floor(minX);
+        final int y0 = (int) Math.floor(minY);
+        return new Rectangle(x0, y0, (int) Math.floor(maxX) - x0 + 1, (int) Math.floor(maxY) - y0 + 1);
+    }
+
+    private static class Mapper {
+
+        private final GeoCoding targetGeoCoding;
+        private final GeoCoding sourceGeoCoding;
+        private final PixelPos targetPixelPos = new PixelPos();
+        private final PixelPos sourcePixelPos = new PixelPos();
+        private final GeoPos geoPos = new GeoPos();
+        private double x;
+        private double y;
+
+        private Mapper(GeoCoding targetGeoCoding, GeoCoding sourceGeoCoding) {
+            this.targetGeoCoding = targetGeoCoding;
+            this.sourceGeoCoding = sourceGeoCoding;
+        }
+
+        private void map(int targetX, int targetY) {
+            targetPixelPos.setLocation(targetX, targetY);
+            targetGeoCoding.getGeoPos(targetPixelPos, geoPos);
+            if (geoPos.isValid()) {
+                sourceGeoCoding.getPixelPos(geoPos, sourcePixelPos);
+            } else {
+                sourcePixelPos.setInvalid();
+            }
+            if (sourcePixelPos.isValid()) {
+                x = sourcePixelPos.x;
+                y = sourcePixelPos.y;
+            } else {
+                x = Double.NaN;
+                y = Double.NaN;
+            }
+        }
+    }
+}
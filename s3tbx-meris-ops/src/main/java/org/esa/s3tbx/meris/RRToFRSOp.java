@@ -32,6 +32,7 @@ import org.esa.snap.core.gpf.annotations.TargetProduct;
 import org.esa.snap.core.util.ProductUtils;
 
 import java.awt.Rectangle;
+import java.util.Map;
 
 @OperatorMetadata(alias = "RRToFRS", internal = true)
 public class RRToFRSOp extends Operator {
@@ -98,45 +99,42 @@ public class RRToFRSOp extends Operator {
     }
 
     @Override
-    public void computeTile(Band band, Tile targetTile, ProgressMonitor pm) throws OperatorException {
-
-        Rectangle frsRectangle = targetTile.getRectangle();
-        Band rrSrcBand = rrProduct.getBand(band.getName());
-        pm.beginTask("compute", frsRectangle.height);
+    public void computeTileStack(Map<Band, Tile> targetTiles, Rectangle frsRectangle, ProgressMonitor pm) throws OperatorException {
+        pm.beginTask("compute", targetTiles.size());
 
         PixelPos rrPixelPos = getRrPixelPos(frsRectangle.x, frsRectangle.y);
         final int xStart = (int)Math.round(rrPixelPos.x);
         final int yStart = (int)Math.round(rrPixelPos.y);
         Rectangle rrRectangle = new Rectangle(xStart, yStart, frsRectangle.width / 4, frsRectangle.height / 4);
         rrRectangle.grow(4, 4);
-        Rectangle sceneRectangle = new Rectangle(rrSrcBand.getRasterWidth(), rrSrcBand.getRasterHeight());
+        Rectangle sceneRectangle = new Rectangle(rrProduct.getSceneRasterWidth(), rrProduct.getSceneRasterHeight());
         rrRectangle = rrRectangle.intersection(sceneRectangle);
 
-        Tile srcTile = getSourceTile(rrSrcBand, rrRectangle);
+        // the offsets of each FRS column and line into the RR source data are the same for all bands
+        final int[] columnOffsets = new int[frsRectangle.width];
+        for (int ix = 0; ix < frsRectangle.width; ix++) {
+            final int rrX = Math.min(xStart + ix / 4, rrRectangle.x + rrRectangle.width - 1);
+            columnOffsets[ix] = rrX - rrRectangle.x;
+        }
+        final int[] lineOffsets = new int[frsRectangle.height];
+        for (int iy = 0; iy < frsRectangle.height; iy++) {
+            final int rrY = Math.min(yStart + iy / 4, rrRectangle.y + rrRectangle.height - 1);
+            lineOffsets[iy] = (rrY - rrRectangle.y) * rrRectangle.width;
+        }
 
         try {
-            int rrY = yStart;
-            int iy = 0;
-            for (int y = frsRectangle.y; y < frsRectangle.y + frsRectangle.height; y++) {
-                int rrX = xStart;
-                int ix = 0;
-                for (int x = frsRectangle.x; x < frsRectangle.x + frsRectangle.width; x++) {
-                    double d = srcTile.getSampleDouble(rrX, rrY);
-                    targetTile.setSample(x, y, d);
-                    if (ix < 3) {
-                        ix++;
-                    } else {
-                        ix = 0;
-                        rrX++;
+            for (Map.Entry<Band, Tile> entry : targetTiles.entrySet()) {
+                checkForCancellation();
+                final Band rrSrcBand = rrProduct.getBand(entry.getKey().getName());
+                final double[] rrSamples = getSourceTile(rrSrcBand, rrRectangle).getSamplesDouble();
+                final Tile targetTile = entry.getValue();
+                for (int iy = 0; iy < frsRectangle.height; iy++) {
+                    final int lineOffset = lineOffsets[iy];
+                    final int y = frsRectangle.y + iy;
+                    for (int ix = 0; ix < frsRectangle.width; ix++) {
+                        targetTile.setSample(frsRectangle.x + ix, y, rrSamples[lineOffset + columnOffsets[ix]]);
                     }
                 }
-                if (iy < 3) {
-                    iy++;
-                } else {
-                    iy = 0;
-                    rrY++;
-                }
-                checkForCancellation();
                 pm.worked(1);
             }
         } finally {
@@ -0,0 +1,72 @@
+package org.esa.s3tbx.meris;
+
+import org.esa.snap.core.datamodel.Band;
+import org.esa.snap.core.datamodel.CrsGeoCoding;
+import org.esa.snap.core.datamodel.Product;
+import org.esa.snap.core.datamodel.ProductData;
+import org.geotools.referencing.crs.DefaultGeographicCRS;
+import org.junit.Test;
+
+import java.awt.image.Raster;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class L3ToL1OpTest {
+
+    private static final int WIDTH = 20;
+    private static final int HEIGHT = 12;
+
+    @Test
+    public void testNaNIsWrittenAsNoData() throws Exception {
+        final Product l1Product = new Product("l1", "MER_RR__1P", WIDTH, HEIGHT);
+        l1Product.setSceneGeoCoding(new CrsGeoCoding(DefaultGeographicCRS.WGS84, WIDTH, HEIGHT,
+                                                     10.0, 50.0, 0.01, 0.01));
+
+        // the L3 product has the same grid, its left half is NaN
+        final Product l3Product = new Product("l3", "L3", WIDTH, HEIGHT);
+        l3Product.setSceneGeoCoding(new CrsGeoCoding(DefaultGeographicCRS.WGS84, WIDTH, HEIGHT,
+                                                     10.0, 50.0, 0.01, 0.01));
+        addBand(l3Product, "chl");
+        final Band tsm = addBand(l3Product, "tsm");
+        tsm.setNoDataValue(-999.0);
+        tsm.setNoDataValueUsed(true);
+
+        final L3ToL1Op op = new L3ToL1Op();
+        op.setSourceProduct("l1", l1Product);
+        op.setSourceProduct("l3", l3Product);
+        final Product target = op.getTargetProduct();
+
+        final Raster chl = target.getBand("chl").getSourceImage().getData();
+        final Raster tsmData = target.getBand("tsm").getSourceImage().getData();
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                if (x < WIDTH / 2) {
+                    assertTrue("chl at " + x + "," + y, Float.isNaN(chl.getSampleFloat(x, y, 0)));
+                    assertEquals("tsm at " + x + "," + y, -999.0f, tsmData.getSampleFloat(x, y, 0), 0.0f);
+                } else if (x > WIDTH / 2 && y > 0) {
+                    // the target pixel corner is resampled between the centres of the surrounding L3 pixels
+                    final float expected = value(x, y) - 0.375f;
+                    assertEquals("chl at " + x + "," + y, expected, chl.getSampleFloat(x, y, 0), 1.0e-4f);
+                    assertEquals("tsm at " + x + "," + y, expected, tsmData.getSampleFloat(x, y, 0), 1.0e-4f);
+                }
+            }
+        }
+    }
+
+    private static Band addBand(Product product, String name) {
+        final float[] data = new float[WIDTH * HEIGHT];
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                data[y * WIDTH + x] = x < WIDTH / 2 ? Float.NaN : value(x, y);
+            }
+        }
+        final Band band = product.addBand(name, ProductData.TYPE_FLOAT32);
+        band.setRasterData(ProductData.createInstance(data));
+        return band;
+    }
+
+    private static float value(int x, int y) {
+        return 1.0f + 0.5f * x + 0.25f * y;
+    }
+}
@@ -0,0 +1,214 @@
+package org.esa.s3tbx.meris;
+
+import org.esa.snap.core.datamodel.Band;
+import org.esa.snap.core.datamodel.FlagCoding;
+import org.esa.snap.core.datamodel.Product;
+import org.esa.snap.core.datamodel.ProductData;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.imageio.stream.FileImageInputStream;
+import javax.imageio.stream.FileImageOutputStream;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Dimension;
+import java.awt.Rectangle;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class N1PatcherOpTest {
+
+    private static final int WIDTH = 10;
+    private static final int HEIGHT = 6;
+
+    private static final int MPH_SIZE = 1247;
+    private static final int DSD_SIZE = 280;
+    private static final int SPH_SIZE = 100 + 3 * DSD_SIZE;
+    private static final int DSR_HEADER_SIZE = 13;
+
+    private static final int ADS_OFFSET = MPH_SIZE + SPH_SIZE;
+    private static final int ADS_SIZE = 50;
+    private static final int RADIANCE_OFFSET = ADS_OFFSET + ADS_SIZE;
+    private static final int RADIANCE_DSR_SIZE = DSR_HEADER_SIZE + 2 * WIDTH;
+    private static final int FLAGS_OFFSET = RADIANCE_OFFSET + HEIGHT * RADIANCE_DSR_SIZE;
+    private static final int FLAGS_DSR_SIZE = DSR_HEADER_SIZE + 3 * WIDTH;
+    private static final int FILE_SIZE = FLAGS_OFFSET + HEIGHT * FLAGS_DSR_SIZE;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testPatchedFileEqualsStreamOutput_fullWidthTiles() throws Exception {
+        assertPatchedFileEqualsStreamOutput(new Dimension(WIDTH, 4));
+    }
+
+    @Test
+    public void testPatchedFileEqualsStreamOutput_partialWidthTiles() throws Exception {
+        assertPatchedFileEqualsStreamOutput(new Dimension(4, 4));
+    }
+
+    private void assertPatchedFileEqualsStreamOutput(Dimension tileSize) throws Exception {
+        final File n1File = temporaryFolder.newFile("original.N1");
+        Files.write(n1File.toPath(), createN1File());
+
+        final Random random = new Random(36);
+        final short[] radiance = new short[WIDTH * HEIGHT];
+        final byte[] flags = new byte[WIDTH * HEIGHT];
+        for (int i = 0; i < radiance.length; i++) {
+            radiance[i] = (short) random.nextInt(65536);
+            flags[i] = (byte) random.nextInt(256);
+        }
+
+        final Product n1Product = createProduct("n1", new short[WIDTH * HEIGHT], new byte[WIDTH * HEIGHT]);
+        n1Product.setFileLocation(n1File);
+        n1Product.setPreferredTileSize(tileSize);
+        final Product sourceProduct = createProduct("input", radiance, flags);
+        sourceProduct.setPreferredTileSize(tileSize);
+
+        final File patchedFile = new File(temporaryFolder.getRoot(), "patched.N1");
+        final N1PatcherOp op = new N1PatcherOp();
+        op.setParameterDefaultValues();
+        op.setParameter("patchedFile", patchedFile);
+        op.setSourceProduct("n1", n1Product);
+        op.setSourceProduct("input", sourceProduct);
+        final Product targetProduct = op.getTargetProduct();
+        final Dimension targetTileSize = targetProduct.getPreferredTileSize();
+        try {
+            targetProduct.getBand("radiance_1").getSourceImage().getData();
+            targetProduct.getBand("l1_flags").getSourceImage().getData();
+        } finally {
+            op.dispose();
+        }
+
+        final File expectedFile = new File(temporaryFolder.getRoot(), "expected.N1");
+        writeWithStreams(n1File, expectedFile, targetTileSize, radiance, flags);
+
+        final byte[] expected = Files.readAllBytes(expectedFile.toPath());
+        final byte[] actual = Files.readAllBytes(patchedFile.toPath());
+        assertEquals(FILE_SIZE, actual.length);
+        assertArrayEquals(expected, actual);
+    }
+
+    // the former implementation of the patcher, writing the tiles one after the other to an image output stream
+    private static void writeWithStreams(File n1File, File patchedFile, Dimension tileSize,
+                                         short[] radiance, byte[] flags) throws IOException {
+        try (ImageInputStream inputStream = new FileImageInputStream(n1File);
+             ImageOutputStream outputStream = new FileImageOutputStream(patchedFile)) {
+            final byte[] header = new byte[MPH_SIZE + SPH_SIZE];
+            inputStream.seek(0);
+            inputStream.read(header);
+            outputStream.seek(0);
+            outputStream.write(header);
+            copyDataset(inputStream, outputStream, ADS_OFFSET, ADS_SIZE);
+            copyDataset(inputStream, outputStream, FLAGS_OFFSET, HEIGHT * FLAGS_DSR_SIZE);
+
+            for (int tileY = 0; tileY < HEIGHT; tileY += tileSize.height) {
+                for (int tileX = 0; tileX < WIDTH; tileX += tileSize.width) {
+                    final Rectangle rectangle = new Rectangle(tileX, tileY,
+                                                              Math.min(tileSize.width, WIDTH - tileX),
+                                                              Math.min(tileSize.height, HEIGHT - tileY));
+                    final short[] radianceTile = new short[rectangle.width * rectangle.height];
+                    final byte[] flagsTile = new byte[rectangle.width * rectangle.height];
+                    for (int y = 0; y < rectangle.height; y++) {
+                        for (int x = 0; x < rectangle.width; x++) {
+                            final int index = (rectangle.y + y) * WIDTH + rectangle.x + x;
+                            radianceTile[y * rectangle.width + x] = radiance[index];
+                            flagsTile[y * rectangle.width + x] = flags[index];
+                        }
+                    }
+
+                    byte[] buf = new byte[rectangle.height * RADIANCE_DSR_SIZE];
+                    long dsrOffset = RADIANCE_OFFSET + rectangle.y * RADIANCE_DSR_SIZE;
+                    inputStream.seek(dsrOffset);
+                    inputStream.read(buf);
+                    outputStream.seek(dsrOffset);
+                    for (int y = 0; y < rectangle.height; y++) {
+                        outputStream.write(buf, y * RADIANCE_DSR_SIZE, DSR_HEADER_SIZE);
+                        outputStream.skipBytes((WIDTH - rectangle.width - rectangle.x) * 2);
+                        for (int x = rectangle.width - 1; x >= 0; x--) {
+                            outputStream.writeShort(radianceTile[x + y * rectangle.width]);
+                        }
+                        outputStream.skipBytes((rectangle.x) * 2);
+                    }
+
+                    dsrOffset = FLAGS_OFFSET + rectangle.y * FLAGS_DSR_SIZE;
+                    outputStream.seek(dsrOffset);
+                    for (int y = 0; y < rectangle.height; y++) {
+                        outputStream.skipBytes(DSR_HEADER_SIZE);
+                        outputStream.skipBytes(WIDTH - rectangle.width - rectangle.x);
+                        for (int x = rectangle.width - 1; x >= 0; x--) {
+                            outputStream.writeByte(flagsTile[x + y * rectangle.width]);
+                        }
+                        outputStream.skipBytes(rectangle.x);
+                        outputStream.skipBytes(WIDTH * 2);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void copyDataset(ImageInputStream inputStream, ImageOutputStream outputStream,
+                                    long offset, int size) throws IOException {
+        final byte[] buf = new byte[size];
+        inputStream.seek(offset);
+        inputStream.read(buf);
+        outputStream.seek(offset);
+        outputStream.write(buf);
+    }
+
+    private static Product createProduct(String name, short[] radiance, byte[] flags) {
+        final Product product = new Product(name, "MER_RR__1P", WIDTH, HEIGHT);
+        final Band radianceBand = product.addBand("radiance_1", ProductData.TYPE_UINT16);
+        radianceBand.setRasterData(ProductData.createInstance(ProductData.TYPE_UINT16, radiance));
+        final FlagCoding flagCoding = new FlagCoding("l1_flags");
+        flagCoding.addFlag("INVALID", 0x80, "invalid pixel");
+        product.getFlagCodingGroup().add(flagCoding);
+        final Band flagBand = product.addBand("l1_flags", ProductData.TYPE_UINT8);
+        flagBand.setSampleCoding(flagCoding);
+        flagBand.setRasterData(ProductData.createInstance(ProductData.TYPE_UINT8, flags));
+        return product;
+    }
+
+    // an N1 file with the headers parsed by the patcher, an ADS, a radiance and a flags MDS of random content
+    private static byte[] createN1File() {
+        final byte[] file = new byte[FILE_SIZE];
+        new Random(1).nextBytes(file);
+        Arrays.fill(file, 0, ADS_OFFSET, (byte) ' ');
+        putString(file, 0, "PRODUCT=\"MER_RR__1PTEST.N1\"");
+        putString(file, 1114, String.format("%010d", SPH_SIZE));
+        putString(file, 1141, String.format("%010d", 3));
+        putString(file, 1162, String.format("%010d", DSD_SIZE));
+
+        int dsdOffset = MPH_SIZE + SPH_SIZE - 3 * DSD_SIZE;
+        putDsd(file, dsdOffset, "Quality ADS", 'A', ADS_OFFSET, ADS_SIZE, 1, ADS_SIZE);
+        dsdOffset += DSD_SIZE;
+        putDsd(file, dsdOffset, "Radiance MDS(1)", 'M', RADIANCE_OFFSET, HEIGHT * RADIANCE_DSR_SIZE, HEIGHT,
+               RADIANCE_DSR_SIZE);
+        dsdOffset += DSD_SIZE;
+        putDsd(file, dsdOffset, "Flags MDS(1)", 'M', FLAGS_OFFSET, HEIGHT * FLAGS_DSR_SIZE, HEIGHT, FLAGS_DSR_SIZE);
+        return file;
+    }
+
+    private static void putDsd(byte[] file, int offset, String name, char type, long dsOffset, int dsSize,
+                               int numDsr, int dsrSize) {
+        putString(file, offset, "DS_NAME=\"" + String.format("%-28s", name) + "\"");
+        putString(file, offset + 39, "DS_TYPE=" + type);
+        putString(file, offset + 123, "DS_OFFSET=" + String.format("%+021d", dsOffset));
+        putString(file, offset + 162, "DS_SIZE=" + String.format("%+021d", dsSize));
+        putString(file, offset + 199, "NUM_DSR=" + String.format("%+011d", numDsr));
+        putString(file, offset + 219, "DSR_SIZE=" + String.format("%+011d", dsrSize));
+    }
+
+    private static void putString(byte[] file, int offset, String value) {
+        final byte[] bytes = value.getBytes(StandardCharsets.US_ASCII);
+        System.arraycopy(bytes, 0, file, offset, bytes.length);
+    }
+}
@@ -0,0 +1,87 @@
+package org.esa.s3tbx.meris;
+
+import org.esa.snap.core.datamodel.CrsGeoCoding;
+import org.esa.snap.core.datamodel.GeoCoding;
+import org.esa.snap.core.datamodel.GeoPos;
+import org.esa.snap.core.datamodel.PixelPos;
+import org.geotools.referencing.CRS;
+import org.geotools.referencing.crs.DefaultGeographicCRS;
+import org.junit.Test;
+
+import java.awt.Rectangle;
+
+import static org.junit.Assert.assertEquals;
+
+public class PixelMappingTest {
+
+    private static final String UTM_32N_WKT =
+            "PROJCS[\"WGS 84 / UTM zone 32N\"," +
+            "GEOGCS[\"WGS 84\",DATUM[\"WGS_1984\",SPHEROID[\"WGS 84\",6378137,298.257223563]]," +
+            "PRIMEM[\"Greenwich\",0],UNIT[\"degree\",0.0174532925199433]]," +
+            "PROJECTION[\"Transverse_Mercator\"]," +
+            "PARAMETER[\"latitude_of_origin\",0],PARAMETER[\"central_meridian\",9]," +
+            "PARAMETER[\"scale_factor\",0.9996],PARAMETER[\"false_easting\",500000]," +
+            "PARAMETER[\"false_northing\",0],UNIT[\"metre\",1]]";
+
+    @Test
+    public void testAffineMappingIsExact() throws Exception {
+        final GeoCoding targetGeoCoding = new CrsGeoCoding(DefaultGeographicCRS.WGS84, 40, 30, 10.0, 50.0, 0.01, 0.01);
+        final GeoCoding sourceGeoCoding = new CrsGeoCoding(DefaultGeographicCRS.WGS84, 100, 100, 9.9, 50.1, 0.005, 0.005);
+
+        assertMapping(targetGeoCoding, sourceGeoCoding, 100, 100, new Rectangle(0, 0, 40, 30), 1.0e-6);
+    }
+
+    @Test
+    public void testProjectedMappingIsWithinMaxError() throws Exception {
+        final GeoCoding targetGeoCoding = new CrsGeoCoding(DefaultGeographicCRS.WGS84, 40, 30, 10.0, 50.0, 0.01, 0.01);
+        final GeoCoding sourceGeoCoding = new CrsGeoCoding(CRS.parseWKT(UTM_32N_WKT), 300, 400,
+                                                           540000.0, 5580000.0, 300.0, 300.0);
+
+        // the rectangle is not aligned to the grid step and its last cells are smaller
+        assertMapping(targetGeoCoding, sourceGeoCoding, 300, 400, new Rectangle(3, 2, 33, 25), 0.01);
+    }
+
+    private static void assertMapping(GeoCoding targetGeoCoding, GeoCoding sourceGeoCoding,
+                                      int sourceWidth, int sourceHeight, Rectangle rectangle, double maxError) {
+        final PixelMapping mapping = PixelMapping.create(targetGeoCoding, sourceGeoCoding, rectangle, 8, maxError);
+
+        // bilinear resampling of the source pixel coordinates yields the mapped positions
+        final Rectangle sourceRectangle = new Rectangle(0, 0, sourceWidth, sourceHeight);
+        final double[] sourceXData = new double[sourceWidth * sourceHeight];
+        final double[] sourceYData = new double[sourceWidth * sourceHeight];
+        for (int y = 0; y < sourceHeight; y++) {
+            for (int x = 0; x < sourceWidth; x++) {
+                sourceXData[y * sourceWidth + x] = x + 0.5;
+                sourceYData[y * sourceWidth + x] = y + 0.5;
+            }
+        }
+        final double[] mappedX = new double[rectangle.width * rectangle.height];
+        final double[] mappedY = new double[rectangle.width * rectangle.height];
+        mapping.resampleBilinear(sourceXData, sourceRectangle, sourceWidth, sourceHeight, mappedX);
+        mapping.resampleBilinear(sourceYData, sourceRectangle, sourceWidth, sourceHeight, mappedY);
+
+        double minX = Double.POSITIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        int index = 0;
+        for (int y = rectangle.y; y < rectangle.y + rectangle.height; y++) {
+            for (int x = rectangle.x; x < rectangle.x + rectangle.width; x++, index++) {
+                final GeoPos geoPos = targetGeoCoding.getGeoPos(new PixelPos(x, y), null);
+                final PixelPos expected = sourceGeoCoding.getPixelPos(geoPos, null);
+                assertEquals("x at " + x + "," + y, expected.x, mappedX[index], maxError);
+                assertEquals("y at " + x + "," + y, expected.y, mappedY[index], maxError);
+                minX = Math.min(minX, mappedX[index]);
+                minY = Math.min(minY, mappedY[index]);
+                maxX = Math.max(maxX, mappedX[index]);
+                maxY = Math.max(maxY, mappedY[index]);
+            }
+        }
+
+        final Rectangle sourceBounds = mapping.getSourceBounds();
+        assertEquals((int) Math.floor(minX), sourceBounds.x);
+        assertEquals((int) Math.floor(minY), sourceBounds.y);
+        assertEquals((int) Math.floor(maxX), sourceBounds.x + sourceBounds.width - 1);
+        assertEquals((int) Math.floor(maxY), sourceBounds.y + sourceBounds.height - 1);
+    }
+}
@@ -26,27 +26,23 @@ import org.esa.s3tbx.meris.radiometry.smilecorr.SmileCorrectionAuxdata;
 import org.esa.snap.core.datamodel.Band;
 import org.esa.snap.core.datamodel.Product;
 import org.esa.snap.core.datamodel.ProductData;
+import org.esa.snap.core.gpf.Operator;
 import org.esa.snap.core.gpf.OperatorException;
 import org.esa.snap.core.gpf.OperatorSpi;
+import org.esa.snap.core.gpf.Tile;
 import org.esa.snap.core.gpf.annotations.OperatorMetadata;
 import org.esa.snap.core.gpf.annotations.Parameter;
 import org.esa.snap.core.gpf.annotations.SourceProduct;
-import org.esa.snap.core.gpf.pointop.ProductConfigurer;
-import org.esa.snap.core.gpf.pointop.Sample;
-import org.esa.snap.core.gpf.pointop.SampleOperator;
-import org.esa.snap.core.gpf.pointop.SourceSampleConfigurer;
-import org.esa.snap.core.gpf.pointop.TargetSampleConfigurer;
-import org.esa.snap.core.gpf.pointop.WritableSample;
 import org.esa.snap.core.util.ProductUtils;
 import org.esa.snap.core.util.math.RsMathUtils;
 
+import java.awt.Rectangle;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Map;
-import java.util.TreeMap;
 
 import static org.esa.snap.dataio.envisat.EnvisatConstants.*;
 
@@ -77,7 +73,7 @@ import static org.esa.snap.dataio.envisat.EnvisatConstants.*;
         copyright = "(c) 2015 by Brockmann Consult",
         category = "Optical/Preprocessing",
         version = "1.2")
-public class MerisRadiometryCorrectionOp extends SampleOperator {
+public class MerisRadiometryCorrectionOp extends Operator {
 
     private static final String UNIT_DL = "dl";
     private static final double RAW_SATURATION_THRESHOLD = 65435.0;
@@ -148,77 +144,41 @@ public class MerisRadiometryCorrectionOp extends SampleOperator {
     private transient EqualizationAlgorithm equalizationAlgorithm;
     private transient SmileCorrectionAlgorithm smileCorrAlgorithm;
 
-    private transient int detectorIndexSampleIndex;
-    private transient int sunZenithAngleSampleIndex;
-    private transient int flagBandIndex;
-    private transient int currentPixel = 0;
-    private Map<Integer, Double> bandIndexToMaxValueMap;
+    private transient Band[] sourceRadianceBands;
+    private transient Band[] targetRadianceBands;
+    private transient double[] saturationThresholds;
+    private transient double[] maxValues;
+    private transient float[] solarFluxes;
 
     @Override
-    protected void prepareInputs() throws OperatorException {
-        super.prepareInputs();
+    public void initialize() throws OperatorException {
         validateSourceProduct();
-    }
-
-    @Override
-    protected void configureSourceSamples(SourceSampleConfigurer sampleConfigurer) {
-        int i = -1;
-        // define samples corresponding to spectral bands, using the spectral band index as sample index
-        for (final Band band : getSourceProduct().getBands()) {
-            final int spectralBandIndex = band.getSpectralBandIndex();
-            if (spectralBandIndex != -1) {
-                sampleConfigurer.defineSample(spectralBandIndex, band.getName());
-                if (spectralBandIndex > i) {
-                    i = spectralBandIndex;
-                }
-            }
-        }
-        detectorIndexSampleIndex = i + 1;
-        if (doCalibration || doSmile || doEqualization) {
-            sampleConfigurer.defineSample(detectorIndexSampleIndex, MERIS_DETECTOR_INDEX_DS_NAME);
-        }
-        sunZenithAngleSampleIndex = i + 2;
-        if (doRadToRefl) {
-            sampleConfigurer.defineSample(sunZenithAngleSampleIndex, MERIS_SUN_ZENITH_DS_NAME);
-        }
-        flagBandIndex = i + 3;
-        if (doSmile) {
-            sampleConfigurer.defineSample(flagBandIndex, MERIS_L1B_FLAGS_DS_NAME);
-        }
-    }
 
-    @Override
-    protected void configureTargetSamples(TargetSampleConfigurer sampleConfigurer) {
-        // define samples corresponding to spectral bands, using the spectral band index as sample index
-        for (final Band band : getTargetProduct().getBands()) { // pitfall: using targetProduct field here throws NPE
-            final int spectralBandIndex = band.getSpectralBandIndex();
-            if (spectralBandIndex != -1) {
-                sampleConfigurer.defineSample(spectralBandIndex, band.getName());
-            }
-        }
-    }
-
-    @Override
-    protected void configureTargetProduct(ProductConfigurer productConfigurer) {
-        productConfigurer.copyMetadata();
-        productConfigurer.copyTimeCoding();
-
-        Product targetProduct = productConfigurer.getTargetProduct();
-        targetProduct.setName(getSourceProduct().getName());
+        final Product targetProduct = new Product(sourceProduct.getName(), sourceProduct.getProductType(),
+                                                  sourceProduct.getSceneRasterWidth(), sourceProduct.getSceneRasterHeight());
+        ProductUtils.copyMetadata(sourceProduct, targetProduct);
+        targetProduct.setStartTime(sourceProduct.getStartTime());
+        targetProduct.setEndTime(sourceProduct.getEndTime());
         if (doRadToRefl) {
-            targetProduct.setProductType(String.format("%s_REFL", getSourceProduct().getProductType()));
+            targetProduct.setProductType(String.format("%s_REFL", sourceProduct.getProductType()));
             targetProduct.setAutoGrouping("reflec");
         } else {
-            targetProduct.setProductType(getSourceProduct().getProductType());
             targetProduct.setAutoGrouping("radiance");
         }
         targetProduct.setDescription("MERIS L1b Radiometric Correction");
 
-        bandIndexToMaxValueMap = new TreeMap<>();
-        Band[] bands = getSourceProduct().getBands();
-        int bandIndex = 0;
-        for (Band sourceBand : bands) {
-            if (sourceBand.getSpectralBandIndex() != -1) {
+        int numSpectralBands = 0;
+        for (Band sourceBand : sourceProduct.getBands()) {
+            numSpectralBands = Math.max(numSpectralBands, sourceBand.getSpectralBandIndex() + 1);
+        }
+        sourceRadianceBands = new Band[numSpectralBands];
+        targetRadianceBands = new Band[numSpectralBands];
+        saturationThresholds = new double[numSpectralBands];
+        maxValues = new double[numSpectralBands];
+        solarFluxes = new float[numSpectralBands];
+        for (Band sourceBand : sourceProduct.getBands()) {
+            final int spectralBandIndex = sourceBand.getSpectralBandIndex();
+            if (spectralBandIndex != -1) {
                 final String targetBandName;
                 final String targetBandDescription;
                 final int dataType;
@@ -243,65 +203,100 @@ public class MerisRadiometryCorrectionOp extends SampleOperator {
                 final Band targetBand = targetProduct.addBand(targetBandName, dataType);
                 targetBand.setScalingFactor(scalingFactor);
                 targetBand.setScalingOffset(scalingOffset);
-                bandIndexToMaxValueMap.put(bandIndex++, targetBand.scale(0xFFFF));
                 targetBand.setDescription(targetBandDescription);
                 targetBand.setUnit(unit);
                 targetBand.setValidPixelExpression(sourceBand.getValidPixelExpression());
                 ProductUtils.copySpectralBandProperties(sourceBand, targetBand);
+
+                sourceRadianceBands[spectralBandIndex] = sourceBand;
+                targetRadianceBands[spectralBandIndex] = targetBand;
+                saturationThresholds[spectralBandIndex] = sourceBand.scale(RAW_SATURATION_THRESHOLD);
+                maxValues[spectralBandIndex] = targetBand.scale(0xFFFF);
+                solarFluxes[spectralBandIndex] = sourceBand.getSolarFlux();
             }
         }
 
-        productConfigurer.copyTiePointGrids(); // fixme: always need to copy tie-points before copying geo-coding (nf)
-        productConfigurer.copyGeoCoding();
+        ProductUtils.copyTiePointGrids(sourceProduct, targetProduct); // fixme: always need to copy tie-points before copying geo-coding (nf)
+        ProductUtils.copyGeoCoding(sourceProduct, targetProduct);
 
         // copy all source bands yet ignored
-        for (final Band sourceBand : getSourceProduct().getBands()) {
+        ProductUtils.copyFlagBands(sourceProduct, targetProduct, true);
+        for (final Band sourceBand : sourceProduct.getBands()) {
             if (sourceBand.getSpectralBandIndex() == -1 && !targetProduct.containsBand(sourceBand.getName())) {
-                productConfigurer.copyBands(sourceBand.getName());
+                ProductUtils.copyBand(sourceBand.getName(), sourceProduct, targetProduct, true);
             }
         }
-        productConfigurer.copyMasks();
+        ProductUtils.copyMasks(sourceProduct, targetProduct);
+        setTargetProduct(targetProduct);
     }
 
     @Override
-    protected void computeSample(int x, int y, Sample[] sourceSamples, WritableSample targetSample) {
-        checkCancellation();
-
-        final int bandIndex = targetSample.getIndex();
-        final Sample sourceRadiance = sourceSamples[bandIndex];
-        int detectorIndex = -1;
-        if (doCalibration || doSmile || doEqualization) {
-            detectorIndex = sourceSamples[detectorIndexSampleIndex].getInt();
-        }
-        double value = sourceRadiance.getDouble();
-        boolean isValidDetectorIndex = detectorIndex >= 0;
-        if (doCalibration && isValidDetectorIndex && value < sourceRadiance.getNode().scale(RAW_SATURATION_THRESHOLD)) {
-            value = calibrationAlgorithm.calibrate(bandIndex, detectorIndex, value);
-        }
-        if (doSmile) {
-            final Sample flagSample = sourceSamples[flagBandIndex];
-            final boolean invalid = flagSample.getBit(INVALID_BIT_INDEX);
-            if (!invalid && detectorIndex != -1) {
-                final boolean land = flagSample.getBit(LAND_BIT_INDEX);
-                double[] sourceValues = new double[15];
-                for (int i = 0; i < sourceValues.length; i++) {
-                    sourceValues[i] = sourceSamples[i].getDouble();
-                }
-                value = smileCorrAlgorithm.correct(bandIndex, detectorIndex, sourceValues, land);
+    public void computeTileStack(Map<Band, Tile> targetTiles, Rectangle targetRectangle, ProgressMonitor pm) throws OperatorException {
+        final int numBands = sourceRadianceBands.length;
+        final boolean needsDetectorIndex = doCalibration || doSmile || doEqualization;
+
+        final Tile detectorIndexTile = needsDetectorIndex ? getSourceTile(sourceProduct.getBand(MERIS_DETECTOR_INDEX_DS_NAME), targetRectangle) : null;
+        final Tile flagTile = doSmile ? getSourceTile(sourceProduct.getBand(MERIS_L1B_FLAGS_DS_NAME), targetRectangle) : null;
+        final Tile sunZenithTile = doRadToRefl ? getSourceTile(sourceProduct.getRasterDataNode(MERIS_SUN_ZENITH_DS_NAME), targetRectangle) : null;
+        final Tile[] radianceTiles = new Tile[numBands];
+        final Tile[] targetBandTiles = new Tile[numBands];
+        for (int b = 0; b < numBands; b++) {
+            if (sourceRadianceBands[b] != null) {
+                radianceTiles[b] = getSourceTile(sourceRadianceBands[b], targetRectangle);
+            }
+            if (targetRadianceBands[b] != null) {
+                targetBandTiles[b] = targetTiles.get(targetRadianceBands[b]);
             }
-        }
-        if (doRadToRefl) {
-            final float solarFlux = ((Band) sourceRadiance.getNode()).getSolarFlux();
-            final float sunZenithSample = sourceSamples[sunZenithAngleSampleIndex].getFloat();
-            value = RsMathUtils.radianceToReflectance((float) value, sunZenithSample, solarFlux);
-        }
-        if (doEqualization && isValidDetectorIndex) {
-            value = equalizationAlgorithm.performEqualization(value, bandIndex, detectorIndex);
         }
 
-        final double croppedValue = Math.min(bandIndexToMaxValueMap.get(bandIndex), value);
-        targetSample.set(croppedValue);
+        final double[][] gainRatios = doCalibration ? calibrationAlgorithm.getGainRatios() : null;
+        final double[][] equalizationFactors = doEqualization ? equalizationAlgorithm.getEqualizationFactors() : null;
+        // the spectrum of a pixel is read once and shared by all target bands
+        final double[] radiances = new double[numBands];
 
+        for (int y = targetRectangle.y; y < targetRectangle.y + targetRectangle.height; y++) {
+            checkForCancellation();
+            for (int x = targetRectangle.x; x < targetRectangle.x + targetRectangle.width; x++) {
+                int detectorIndex = -1;
+                if (needsDetectorIndex) {
+                    detectorIndex = detectorIndexTile.getSampleInt(x, y);
+                }
+                final boolean isValidDetectorIndex = detectorIndex >= 0;
+                for (int b = 0; b < numBands; b++) {
+                    if (radianceTiles[b] != null) {
+                        radiances[b] = radianceTiles[b].getSampleDouble(x, y);
+                    }
+                }
+                boolean correctSmile = false;
+                boolean land = false;
+                if (doSmile) {
+                    correctSmile = !flagTile.getSampleBit(x, y, INVALID_BIT_INDEX) && detectorIndex != -1;
+                    land = flagTile.getSampleBit(x, y, LAND_BIT_INDEX);
+                }
+                final float sunZenith = doRadToRefl ? sunZenithTile.getSampleFloat(x, y) : 0.0f;
+
+                for (int b = 0; b < numBands; b++) {
+                    final Tile targetTile = targetBandTiles[b];
+                    if (targetTile == null) {
+                        continue;
+                    }
+                    double value = radiances[b];
+                    if (doCalibration && isValidDetectorIndex && value < saturationThresholds[b]) {
+                        value = gainRatios[b][detectorIndex] * value;
+                    }
+                    if (correctSmile) {
+                        value = smileCorrAlgorithm.correct(b, detectorIndex, radiances, land);
+                    }
+                    if (doRadToRefl) {
+                        value = RsMathUtils.radianceToReflectance((float) value, sunZenith, solarFluxes[b]);
+                    }
+                    if (doEqualization && isValidDetectorIndex && detectorIndex < equalizationFactors[b].length) {
+                        value = EqualizationAlgorithm.equalize(value, equalizationFactors[b][detectorIndex]);
+                    }
+                    targetTile.setSample(x, y, Math.min(maxValues[b], value));
+                }
+            }
+        }
     }
 
     @Override
@@ -409,14 +404,6 @@ public class MerisRadiometryCorrectionOp extends SampleOperator {
         }
     }
 
-    private void checkCancellation() {
-        if (currentPixel % 1000 == 0) {
-            checkForCancellation();
-            currentPixel = 0;
-        }
-        currentPixel++;
-    }
-
     public static class Spi extends OperatorSpi {
 
         public Spi() {
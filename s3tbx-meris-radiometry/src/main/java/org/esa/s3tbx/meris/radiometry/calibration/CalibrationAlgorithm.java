@@ -21,6 +21,7 @@ public class CalibrationAlgorithm {
 
     private final double[][] oldGains;
     private final double[][] newGains;
+    private final double[][] gainRatios;
 
     public CalibrationAlgorithm(Resolution resolution, double cntJD,
                                 InputStream sourceRacStream, InputStream targetRacStream) throws IOException {
@@ -32,10 +33,24 @@ public class CalibrationAlgorithm {
 
         initGains(new MemoryCacheImageInputStream(sourceRacStream), oldGains);
         initGains(new MemoryCacheImageInputStream(targetRacStream), newGains);
+
+        gainRatios = new double[B][resolution.getPixelCount()];
+        for (int b = 0; b < B; b++) {
+            for (int i = 0; i < resolution.getPixelCount(); i++) {
+                gainRatios[b][i] = newGains[b][i] / oldGains[b][i];
+            }
+        }
     }
 
     public double calibrate(int bandIndex, int detectorIndex, double radiance) {
-        return newGains[bandIndex][detectorIndex] / oldGains[bandIndex][detectorIndex] * radiance;
+        return gainRatios[bandIndex][detectorIndex] * radiance;
+    }
+
+    /**
+     * @return the ratios of new to old gains as {@code [band][detector]} table. Must not be modified.
+     */
+    public double[][] getGainRatios() {
+        return gainRatios;
     }
 
     private void initGains(ImageInputStream inputStream, double[][] gains) throws IOException {
@@ -34,8 +34,8 @@ import java.util.TimeZone;
 public class EqualizationAlgorithm {
 
 
-    private EqualizationLUT equalizationLUT;
-    private long julianDate;
+    private final long julianDate;
+    private final double[][] equalizationFactors;
 
     public EqualizationAlgorithm(Product product, ReprocessingVersion version) {
         this(product.getStartTime(), createLut(getReprocessingVersion(product, version), isFullResolution(product)));
@@ -49,7 +49,18 @@ public class EqualizationAlgorithm {
                                              calendar.get(Calendar.DAY_OF_MONTH));
         julianDate = productJulianDate - toJulianDay(2002, 4, 1);
 
-        this.equalizationLUT = equalizationLUT;
+        // the factors only depend on band, detector and date, so they are computed once for the whole product
+        equalizationFactors = new double[equalizationLUT.getBandCount()][];
+        for (int bandIndex = 0; bandIndex < equalizationFactors.length; bandIndex++) {
+            final int detectorCount = equalizationLUT.getDetectorCount(bandIndex);
+            equalizationFactors[bandIndex] = new double[detectorCount];
+            for (int detectorIndex = 0; detectorIndex < detectorCount; detectorIndex++) {
+                final double[] coefficients = equalizationLUT.getCoefficients(bandIndex, detectorIndex);
+                equalizationFactors[bandIndex][detectorIndex] = coefficients[0] +
+                                                                coefficients[1] * julianDate +
+                                                                coefficients[2] * julianDate * julianDate;
+            }
+        }
     }
 
     long getJulianDate() {
@@ -70,15 +81,32 @@ public class EqualizationAlgorithm {
     public double performEqualization(double value, int spectralIndex, int detectorIndex) {
         Assert.argument(spectralIndex >= 0 && spectralIndex <= 14, "spectralIndex < 0 && spectralIndex > 14");
         Assert.argument(detectorIndex >= 0, "detectorIndex < 0");
-        final double[] coefficients = equalizationLUT.getCoefficients(spectralIndex, detectorIndex);
-        double cEq = coefficients[0] +
-                     coefficients[1] * julianDate +
-                     coefficients[2] * julianDate * julianDate;
-        if (cEq == 0.0) {
+        return equalize(value, equalizationFactors[spectralIndex][detectorIndex]);
+    }
+
+    /**
+     * Returns the equalisation factors for all bands and detectors as a {@code [band][detector]} table.
+     * The values can be applied with {@link #equalize(double, double)}. The returned array must not be modified.
+     *
+     * @return the equalisation factors
+     */
+    public double[][] getEqualizationFactors() {
+        return equalizationFactors;
+    }
+
+    /**
+     * Applies the given equalisation factor to the given <code>value</code>.
+     *
+     * @param value             the value to be equalized
+     * @param equalizationFactor the factor for the band and detector the value is from
+     *
+     * @return the equalized value
+     */
+    public static double equalize(double value, double equalizationFactor) {
+        if (equalizationFactor == 0.0) {
             return value;
         }
-        return value / cEq;
-
+        return value / equalizationFactor;
     }
 
     private static boolean isFullResolution(Product product) {
@@ -21,27 +21,24 @@ import org.esa.snap.core.util.io.CsvReader;
 import java.io.IOException;
 import java.io.Reader;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 class EqualizationLUT {
 
-    private List<Map<Integer, double[]>> coefficientsMapList;
+    private final double[][][] coefficients;
 
     EqualizationLUT(Reader[] bandCoefficientReaders) throws IOException {
-        coefficientsMapList = new ArrayList<>(bandCoefficientReaders.length);
-        for (Reader bandCoefficientReader : bandCoefficientReaders) {
-            final HashMap<Integer, double[]> coefMap = new HashMap<>();
-            try (CsvReader csvReader = new CsvReader(bandCoefficientReader, new char[]{' '})) {
+        coefficients = new double[bandCoefficientReaders.length][][];
+        for (int bandIndex = 0; bandIndex < bandCoefficientReaders.length; bandIndex++) {
+            final List<double[]> detectorCoefficients = new ArrayList<>();
+            try (CsvReader csvReader = new CsvReader(bandCoefficientReaders[bandIndex], new char[]{' '})) {
                 double[] coefs = csvReader.readDoubleRecord();
                 while (coefs != null) {
-                    coefMap.put(csvReader.getLineNumber() - 1, coefs);
+                    detectorCoefficients.add(coefs);
                     coefs = csvReader.readDoubleRecord();
                 }
             }
-            coefficientsMapList.add(coefMap);
-
+            coefficients[bandIndex] = detectorCoefficients.toArray(new double[detectorCoefficients.size()][]);
         }
     }
 
@@ -49,7 +46,18 @@ class EqualizationLUT {
     // the given detectorIndex.
     // bandIndex and detectorIndex are zero-based
     double[] getCoefficients(int bandIndex, int detectorIndex) {
-        final Map<Integer, double[]> coefMap = coefficientsMapList.get(bandIndex);
-        return coefMap.get(detectorIndex);
+        final double[][] bandCoefficients = coefficients[bandIndex];
+        if (detectorIndex < 0 || detectorIndex >= bandCoefficients.length) {
+            return null;
+        }
+        return bandCoefficients[detectorIndex];
+    }
+
+    int getBandCount() {
+        return coefficients.length;
+    }
+
+    int getDetectorCount(int bandIndex) {
+        return coefficients[bandIndex].length;
     }
 }
@@ -53,6 +53,26 @@ public class EqualizationAlgorithmTest {
     }
 
 
+    @Test
+    public void testEqualizationFactors() throws Exception {
+        ProductData.UTC utc = ProductData.UTC.create(new Date(), 0);
+        Reader[] readers = new Reader[]{
+                new StringReader("1.0 2.0 3.0\n4.0 5.0 6.0\n0.0 0.0 0.0"),
+                new StringReader("0.1 0.2 0.3")
+        };
+
+        EqualizationAlgorithm algorithm = new EqualizationAlgorithm(utc, new EqualizationLUT(readers));
+        long date = algorithm.getJulianDate();
+        double[][] factors = algorithm.getEqualizationFactors();
+        assertEquals(2, factors.length);
+        assertEquals(3, factors[0].length);
+        assertEquals(1, factors[1].length);
+        assertEquals(4.0 + 5.0 * date + 6.0 * date * date, factors[0][1], 1.0e-6);
+        assertEquals(algorithm.performEqualization(100.0, 1, 0), EqualizationAlgorithm.equalize(100.0, factors[1][0]), 0.0);
+        // a zero factor leaves the value unchanged
+        assertEquals(100.0, EqualizationAlgorithm.equalize(100.0, factors[0][2]), 0.0);
+    }
+
     @Test
     public void testGetJulianDate() throws ParseException, IOException {
         ProductData.UTC utc = ProductData.UTC.parse("12-10-2006", "dd-MM-yyyy");
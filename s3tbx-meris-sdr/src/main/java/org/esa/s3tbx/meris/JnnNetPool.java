@@ -0,0 +1,154 @@
+/*
+ * Copyright (C) 2012 Brockmann Consult GmbH (info@brockmann-consult.de)
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+
+package org.esa.s3tbx.meris;
+
+import com.bc.jnn.Jnn;
+import com.bc.jnn.JnnException;
+import com.bc.jnn.JnnNet;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Evaluates a JNN neural net concurrently.
+ * <p>
+ * A net file is read only once per process. The loaded net is kept as an immutable prototype which is never
+ * evaluated itself. As a {@link JnnNet} keeps its activations within its layers, every thread evaluates its own copy
+ * of the prototype, which is created on the first use of the thread and reused afterwards. Hence no net is copied per
+ * tile or per pixel.
+ * <p>
+ * At most {@link #MAX_CACHED_NETS} nets are kept, the least recently used one is dropped first. When a net file has
+ * been modified, the pool of its former content is dropped.
+ */
+public final class JnnNetPool {
+
+    static final int MAX_CACHED_NETS = 32;
+
+    // package local for testing purposes
+    static final Map<String, JnnNetPool> POOLS = Collections.synchronizedMap(
+            new LinkedHashMap<String, JnnNetPool>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, JnnNetPool> eldest) {
+                    return size() > MAX_CACHED_NETS;
+                }
+            });
+
+    private final ThreadLocal<JnnNet> nets;
+
+    /**
+     * Creates a pool for the given net. The net must not be used by the caller afterwards.
+     *
+     * @param prototype the neural net
+     */
+    public JnnNetPool(final JnnNet prototype) {
+        if (prototype == null) {
+            throw new IllegalArgumentException("prototype == null");
+        }
+        nets = new ThreadLocal<JnnNet>() {
+            @Override
+            protected JnnNet initialValue() {
+                return prototype.clone();
+            }
+        };
+    }
+
+    /**
+     * Returns the pool of the net stored in the given file. A modified file is read again.
+     *
+     * @param file the net file
+     * @return the pool shared by all users of the net
+     * @throws IOException if the file could not be read
+     */
+    public static JnnNetPool forFile(File file) throws IOException {
+        final String pathKey = "file:" + file.getAbsolutePath() + ':';
+        final String key = pathKey + file.lastModified() + ':' + file.length();
+        JnnNetPool pool = POOLS.get(key);
+        if (pool == null) {
+            synchronized (POOLS) {
+                POOLS.keySet().removeIf(k -> k.startsWith(pathKey) && !k.equals(key));
+            }
+            pool = register(key, new FileReader(file));
+        }
+        return pool;
+    }
+
+    /**
+     * Returns the pool of the net stored as resource.
+     *
+     * @param resourceClass the class used to load the resource
+     * @param resourceName  the name of the resource, relative to the package of the class
+     * @return the pool shared by all users of the net
+     * @throws IOException if the resource could not be read
+     */
+    public static JnnNetPool forResource(Class<?> resourceClass, String resourceName) throws IOException {
+        final String key = "resource:" + resourceClass.getName() + ':' + resourceName;
+        JnnNetPool pool = POOLS.get(key);
+        if (pool == null) {
+            final InputStream stream = resourceClass.getResourceAsStream(resourceName);
+            if (stream == null) {
+                throw new IOException("Resource not found: " + resourceName);
+            }
+            pool = register(key, new InputStreamReader(stream));
+        }
+        return pool;
+    }
+
+    /**
+     * Returns the net of the calling thread. It must not be passed to other threads.
+     *
+     * @return the net of the calling thread
+     */
+    public JnnNet get() {
+        return nets.get();
+    }
+
+    /**
+     * Evaluates the net for one pixel.
+     *
+     * @param input  the input vector
+     * @param output the output vector
+     */
+    public void process(double[] input, double[] output) {
+        nets.get().process(input, output);
+    }
+
+    private static JnnNetPool register(String key, Reader reader) throws IOException {
+        final JnnNet net;
+        try (Reader r = reader) {
+            net = readNna(r);
+        }
+        final JnnNetPool pool = new JnnNetPool(net);
+        final JnnNetPool previous = POOLS.putIfAbsent(key, pool);
+        return previous != null ? previous : pool;
+    }
+
+    private static JnnNet readNna(Reader reader) throws IOException {
+        try {
+            Jnn.setOptimizing(true);
+            return Jnn.readNna(reader);
+        } catch (JnnException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+}
@@ -16,9 +16,7 @@
  */
 package org.esa.s3tbx.meris.cloud;
 
-import com.bc.jnn.Jnn;
-import com.bc.jnn.JnnException;
-import com.bc.jnn.JnnNet;
+import org.esa.s3tbx.meris.JnnNetPool;
 
 import java.io.File;
 import java.io.FileInputStream;
@@ -33,17 +31,17 @@ import java.util.Properties;
  * @version $Revision: 1.2 $ $Date: 2007/04/25 14:15:31 $
  */
 @SuppressWarnings("JavaDoc")
-public class CloudAlgorithm implements Cloneable {
+public class CloudAlgorithm {
     private static final String PARAM_1_KEY = "param_1";
     private static final String PARAM_2_KEY = "param_2";
     private static final String VALID_KEY = "validExpression";
 
-    private JnnNet neuralNet;
+    private final JnnNetPool neuralNet;
     private String validExpression;
     private double param1;
     private double param2;
-    private double[] minInputValuesNN = new double[15];
-    private double[] maxInputValuesNN = new double[15];
+    private final double[] minInputValuesNN = new double[15];
+    private final double[] maxInputValuesNN = new double[15];
 
     public CloudAlgorithm(File auxDataDir, String configName) throws IOException {
         final File propertiesFile = new File(auxDataDir, configName);
@@ -60,24 +58,12 @@ public class CloudAlgorithm implements Cloneable {
         final String neuralNetName = properties.getProperty("neural_net");
         final File neuralNetFile = new File(auxDataDir, neuralNetName);
         try {
-            loadNeuralNet(neuralNetFile);
+            neuralNet = JnnNetPool.forFile(neuralNetFile);
         } catch (Exception e) {
             throw new IOException("Failed to load neural net " + neuralNetName + ":\n" + e.getMessage());
         }
     }
 
-    private void loadNeuralNet(File neuralNetFile) throws IOException, JnnException {
-        Jnn.setOptimizing(true);
-        neuralNet = Jnn.readNna(neuralNetFile);
-
-        // OLD Beam:
-//        final Logger logger = BeamLogManager.getSystemLogger();
-//        logger.info("Using JNN Neural Net Library, version " + Jnn.VERSION_STRING);
-//        logger.info(neuralNetFile + " loaded");
-        // Snap: todo
-
-    }
-
     /**
      * Computes the cloudProbability for one pixel
      * using the given array as input for the neural net.
@@ -122,22 +108,4 @@ public class CloudAlgorithm implements Cloneable {
         }
         return 1.0 / (1.0 + Math.exp(a));
     }
-
-    @Override
-    protected CloudAlgorithm clone() throws CloneNotSupportedException {
-        try {
-            CloudAlgorithm clone = (CloudAlgorithm) super.clone();
-            clone.neuralNet = neuralNet.clone();
-            clone.validExpression = validExpression;
-            clone.param1 = param1;
-            clone.param2 = param2;
-            clone.minInputValuesNN = minInputValuesNN.clone();
-            System.arraycopy(minInputValuesNN, 0, clone.minInputValuesNN, 0, minInputValuesNN.length);
-            clone.maxInputValuesNN = maxInputValuesNN.clone();
-            System.arraycopy(maxInputValuesNN, 0, clone.maxInputValuesNN, 0, maxInputValuesNN.length);
-            return clone;
-        } catch (CloneNotSupportedException e) {
-            throw new IllegalStateException(e);
-        }
-    }
 }
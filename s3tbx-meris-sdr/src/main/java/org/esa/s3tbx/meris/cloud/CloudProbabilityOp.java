@@ -307,15 +307,6 @@ public class CloudProbabilityOp extends MerisBasisOp {
 			//targets
             Tile cloudTile = targetTiles.get(cloudBand);
             Tile flagTile = targetTiles.get(cloudFlagBand);
-            CloudAlgorithm cloneLandAlgo = null;
-            CloudAlgorithm cloneOceanAlgo = null;
-            try {
-                cloneLandAlgo = landAlgo.clone();
-                cloneOceanAlgo = oceanAlgo.clone();
-            } catch (CloneNotSupportedException e) {
-                throw new OperatorException(e.getMessage());
-            }
-
             final double[] cloudIn = new double[15];
 			for (int y = rectangle.y; y < rectangle.y + rectangle.height; y++) {
 				for (int x = rectangle.x; x < rectangle.x + rectangle.width; x++) {
@@ -364,9 +355,9 @@ public class CloudProbabilityOp extends MerisBasisOp {
 
 						double cloudProbability = 0;
 						if (isValidLand.getSampleBoolean(x, y)) {
-							cloudProbability = cloneLandAlgo.computeCloudProbability(cloudIn);
+							cloudProbability = landAlgo.computeCloudProbability(cloudIn);
 						} else if (isValidOcean.getSampleBoolean(x, y)) {
-							cloudProbability = cloneOceanAlgo.computeCloudProbability(cloudIn);
+							cloudProbability = oceanAlgo.computeCloudProbability(cloudIn);
 						}
 
 						if (cloudProbability > 0.8) {
@@ -17,9 +17,8 @@
 package org.esa.s3tbx.meris.cloud;
 
 import com.bc.ceres.core.ProgressMonitor;
-import com.bc.jnn.Jnn;
-import com.bc.jnn.JnnException;
 import com.bc.jnn.JnnNet;
+import org.esa.s3tbx.meris.JnnNetPool;
 import org.esa.s3tbx.meris.MerisBasisOp;
 import org.esa.s3tbx.meris.l2auxdata.Constants;
 import org.esa.s3tbx.meris.l2auxdata.L2AuxData;
@@ -80,8 +79,8 @@ public class CloudTopPressureOp extends MerisBasisOp {
 
     private L2AuxData auxData;
     private L2CloudAuxData cloudAuxData;
-    private ThreadLocal<JnnNet> waterNet;
-    private ThreadLocal<JnnNet> landNet;
+    private JnnNetPool waterNet;
+    private JnnNetPool landNet;
 
     private Band invalidBand;
     private RasterDataNode szaNode;
@@ -132,23 +131,9 @@ public class CloudTopPressureOp extends MerisBasisOp {
         }
     }
 
-    private void loadNeuralNet() throws IOException, JnnException {
-        final InputStream neuralNetLandIS = getClass().getResourceAsStream("ctp_NN_1.nna");
-        final InputStream neuralNetWaterIS = getClass().getResourceAsStream("ctp_NN_2.nna");
-        final JnnNet neuralNetLand = readNeuralNetFromStream(neuralNetLandIS);
-        final JnnNet neuralNetWater = readNeuralNetFromStream(neuralNetWaterIS);
-        landNet = new ThreadLocal<JnnNet>() {
-            @Override
-            protected JnnNet initialValue() {
-                return neuralNetLand.clone();
-            }
-        };
-        waterNet = new ThreadLocal<JnnNet>() {
-            @Override
-            protected JnnNet initialValue() {
-                return neuralNetWater.clone();
-            }
-        };
+    private void loadNeuralNet() throws IOException {
+        landNet = JnnNetPool.forResource(getClass(), "ctp_NN_1.nna");
+        waterNet = JnnNetPool.forResource(getClass(), "ctp_NN_2.nna");
     }
 
     private void createTargetProduct() throws OperatorException {
@@ -307,25 +292,6 @@ public class CloudTopPressureOp extends MerisBasisOp {
         }
     }
 
-    private JnnNet readNeuralNetFromFile(File nnFile) throws IOException, JnnException {
-        final InputStreamReader reader = new FileReader(nnFile);
-        return getJnnNet(reader);
-    }
-
-    private JnnNet readNeuralNetFromStream(InputStream neuralNetStream) throws IOException, JnnException {
-        final InputStreamReader reader = new InputStreamReader(neuralNetStream);
-        return getJnnNet(reader);
-    }
-
-    private JnnNet getJnnNet(InputStreamReader reader) throws IOException, JnnException {
-        try {
-            Jnn.setOptimizing(true);
-            return Jnn.readNna(reader);
-        } finally {
-            reader.close();
-        }
-    }
-
     public static class Spi extends OperatorSpi {
 
         public Spi() {
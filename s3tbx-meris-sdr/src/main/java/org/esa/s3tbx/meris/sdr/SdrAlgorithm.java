@@ -7,14 +7,17 @@
 package org.esa.s3tbx.meris.sdr;
 
 import com.bc.jnn.JnnNet;
+import org.esa.s3tbx.meris.JnnNetPool;
 import org.esa.snap.core.util.math.MathUtils;
 
 /**
  * Implements an algorithm for the surface directional reflectance based
  * on a neural network (multi layer perceptron).
+ * <p/>
+ * An instance can be used by several threads concurrently.
  */
-public final class SdrAlgorithm implements Cloneable {
-    public final JnnNet _neuralNet;
+public final class SdrAlgorithm {
+    private final JnnNetPool neuralNets;
 
     /**
      * Constructs a new algorithm instance.
@@ -25,7 +28,19 @@ public final class SdrAlgorithm implements Cloneable {
         if (neuralNet == null) {
             throw new IllegalArgumentException("neuralNet == null");
         }
-        _neuralNet = neuralNet;
+        neuralNets = new JnnNetPool(neuralNet);
+    }
+
+    /**
+     * Constructs a new algorithm instance.
+     *
+     * @param neuralNets the pool of the neural network
+     */
+    public SdrAlgorithm(JnnNetPool neuralNets) {
+        if (neuralNets == null) {
+            throw new IllegalArgumentException("neuralNets == null");
+        }
+        this.neuralNets = neuralNets;
     }
 
     /**
@@ -88,11 +103,6 @@ public final class SdrAlgorithm implements Cloneable {
      * @param outputVector the output vector as a <code>double[1]</code> containing the surface directional reflectance.
      */
     public void computeSdr(final double[] inputVector, final double[] outputVector) {
-        _neuralNet.process(inputVector, outputVector);
-    }
-
-    @Override
-    protected SdrAlgorithm clone() {
-        return new SdrAlgorithm(_neuralNet.clone());
+        neuralNets.process(inputVector, outputVector);
     }
 }
@@ -2,10 +2,8 @@ package org.esa.s3tbx.meris.sdr;
 
 import com.bc.ceres.core.ProgressMonitor;
 import com.bc.ceres.core.SubProgressMonitor;
-import com.bc.jnn.Jnn;
-import com.bc.jnn.JnnException;
-import com.bc.jnn.JnnNet;
 import org.esa.s3tbx.meris.AlbedoUtils;
+import org.esa.s3tbx.meris.JnnNetPool;
 import org.esa.s3tbx.meris.MerisBasisOp;
 import org.esa.snap.core.datamodel.*;
 import org.esa.snap.core.gpf.OperatorException;
@@ -24,9 +22,7 @@ import org.esa.snap.dataio.envisat.EnvisatConstants;
 
 import java.awt.*;
 import java.io.File;
-import java.io.FileReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.nio.file.Path;
 import java.util.Map;
 
@@ -160,72 +156,63 @@ public class SdrOp extends MerisBasisOp {
             }
             Tile sdrFlag = targetTiles.get(sdrFlagBand);
 
-            SdrAlgorithm clonedAlgorithm = algorithm.clone();
-
             final double[] sdrAlgoInput = new double[9];
             final double[] sdrAlgoOutput = new double[1];
             for (int y = rectangle.y; y < rectangle.y + rectangle.height; y++) {
-				for (int x = rectangle.x; x < rectangle.x+rectangle.width; x++) {
-	                if (isValidPixel.getSampleBoolean(x, y)) {
-	                    double t_sza = sza.getSampleDouble(x, y) * MathUtils.DTOR;
-	                    double t_vza = vza.getSampleDouble(x, y) * MathUtils.DTOR;
-	                    double ada = AlbedoUtils.computeAzimuthDifference(vaa.getSampleDouble(x, y), saa.getSampleDouble(x, y)) * MathUtils.DTOR;
-                        double mueSun = Math.cos(t_sza);
-	                    double geomX = Math.sin(t_vza) * Math.cos(ada);
-	                    double geomY = Math.sin(t_vza) * Math.sin(ada);
-	                    double geomZ = Math.cos(t_vza);
-
-	                    double t_sdr;
-	                    short sdrFlags = 0;
-	                    for (int bandId = 0; bandId < reflectanceBands.length; bandId++) {
-	                        final Band reflInputBand = reflectanceBands[bandId];
-                            double rhoNorm = reflectance[bandId].getSampleDouble(x, y) / Math.PI;
-                            double wavelength = reflInputBand.getSpectralWavelength();
-                            sdrAlgoInput[0] = rhoNorm;
-	                        sdrAlgoInput[1] = wavelength;
-	                        sdrAlgoInput[2] = mueSun;
-	                        sdrAlgoInput[3] = geomX;
-	                        sdrAlgoInput[4] = geomY;
-	                        sdrAlgoInput[5] = geomZ;
-	                        sdrAlgoInput[6] = aot470.getSampleDouble(x, y);
-	                        sdrAlgoInput[7] = 0; // aot 660; usage discontinued
-	                        if (ang != null) {
-	                        	sdrAlgoInput[8] = ang.getSampleDouble(x, y);
-	                        } else {
-	                        	sdrAlgoInput[8] = angValue;
-	                        }
-                            clonedAlgorithm.computeSdr(sdrAlgoInput, sdrAlgoOutput);
-	                        t_sdr = sdrAlgoOutput[0];
-	                        if (Double.isInfinite(t_sdr) || Double.isNaN(t_sdr)) {
-	                            t_sdr = 0.0;
-	                            sdrFlags |= 1 << (reflInputBand.getSpectralBandIndex() + 1);
-	                        } else if (t_sdr < 0.0) {
-	                            t_sdr = 0.0;
-	                            sdrFlags |= 1 << (reflInputBand.getSpectralBandIndex() + 1);
-	                        } else if (t_sdr > 1.0) {
-	                            t_sdr = 1.0;
-	                            sdrFlags |= 1 << (reflInputBand.getSpectralBandIndex() + 1);
-	                        }
-	                        sdr[bandId].setSample(x, y, (float) t_sdr);
-	                    }
-	                    // Combine SDR-Flags to single INVALID Flag
-	                    sdrFlags |= (sdrFlags == 0 ? 0 : 1); 
-	                    sdrFlag.setSample(x, y, sdrFlags);
-	                } else {
-	                    for (int j = 0; j < reflectanceBands.length; j++) {
-	                        sdr[j].setSample(x, y, -1);
-	                    }
-	                    sdrFlag.setSample(x, y, SDR_INVALID_FLAG_VALUE);
-	                }
-				}
-			}
-			pm.worked(1);
+                for (int x = rectangle.x; x < rectangle.x + rectangle.width; x++) {
+                    if (isValidPixel.getSampleBoolean(x, y)) {
+                        double t_sza = sza.getSampleDouble(x, y) * MathUtils.DTOR;
+                        double t_vza = vza.getSampleDouble(x, y) * MathUtils.DTOR;
+                        double ada = AlbedoUtils.computeAzimuthDifference(vaa.getSampleDouble(x, y), saa.getSampleDouble(x, y)) * MathUtils.DTOR;
+                        sdrAlgoInput[2] = Math.cos(t_sza);
+                        sdrAlgoInput[3] = Math.sin(t_vza) * Math.cos(ada);
+                        sdrAlgoInput[4] = Math.sin(t_vza) * Math.sin(ada);
+                        sdrAlgoInput[5] = Math.cos(t_vza);
+                        sdrAlgoInput[6] = aot470.getSampleDouble(x, y);
+                        sdrAlgoInput[7] = 0; // aot 660; usage discontinued
+                        if (ang != null) {
+                            sdrAlgoInput[8] = ang.getSampleDouble(x, y);
+                        } else {
+                            sdrAlgoInput[8] = angValue;
+                        }
+
+                        short sdrFlags = 0;
+                        for (int bandId = 0; bandId < reflectanceBands.length; bandId++) {
+                            final Band reflInputBand = reflectanceBands[bandId];
+                            sdrAlgoInput[0] = reflectance[bandId].getSampleDouble(x, y) / Math.PI;
+                            sdrAlgoInput[1] = reflInputBand.getSpectralWavelength();
+                            algorithm.computeSdr(sdrAlgoInput, sdrAlgoOutput);
+                            double t_sdr = sdrAlgoOutput[0];
+                            if (Double.isInfinite(t_sdr) || Double.isNaN(t_sdr)) {
+                                t_sdr = 0.0;
+                                sdrFlags |= 1 << (reflInputBand.getSpectralBandIndex() + 1);
+                            } else if (t_sdr < 0.0) {
+                                t_sdr = 0.0;
+                                sdrFlags |= 1 << (reflInputBand.getSpectralBandIndex() + 1);
+                            } else if (t_sdr > 1.0) {
+                                t_sdr = 1.0;
+                                sdrFlags |= 1 << (reflInputBand.getSpectralBandIndex() + 1);
+                            }
+                            sdr[bandId].setSample(x, y, (float) t_sdr);
+                        }
+                        // Combine SDR-Flags to single INVALID Flag
+                        sdrFlags |= (sdrFlags == 0 ? 0 : 1);
+                        sdrFlag.setSample(x, y, sdrFlags);
+                    } else {
+                        for (int j = 0; j < reflectanceBands.length; j++) {
+                            sdr[j].setSample(x, y, -1);
+                        }
+                        sdrFlag.setSample(x, y, SDR_INVALID_FLAG_VALUE);
+                    }
+                }
+                pm.worked(1);
+            }
         } finally {
             pm.done();
         }
     }
 
-    private void loadNeuralNet(ProgressMonitor pm) throws IOException, JnnException {
+    private void loadNeuralNet(ProgressMonitor pm) throws IOException {
         // OLD Beam:
 //        String auxdataSrcPath = "auxdata/sdr";
 //        final String auxdataDestPath = ".beam/" +
@@ -243,12 +230,7 @@ public class SdrOp extends MerisBasisOp {
         new ResourceInstaller(sourcePath, auxdataDirPath).install(".*", new SubProgressMonitor(pm, 100));
 
         File nnFile = new File(auxdataTargetDir, neuralNetFile);
-        final JnnNet neuralNet;
-        try (InputStreamReader reader = new FileReader(nnFile)) {
-            Jnn.setOptimizing(true);
-            neuralNet = Jnn.readNna(reader);
-        }
-        algorithm = new SdrAlgorithm(neuralNet);
+        algorithm = new SdrAlgorithm(JnnNetPool.forFile(nnFile));
     }
 
 
@@ -0,0 +1,85 @@
+package org.esa.s3tbx.meris;
+
+import com.bc.jnn.JnnNet;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+public class JnnNetPoolTest {
+
+    private static final String NEURAL_NET_RESOURCE_PATH = "sdr/run05_100.nna";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testNetIsSharedWithinProcess() throws IOException {
+        final JnnNetPool pool1 = JnnNetPool.forResource(JnnNetPoolTest.class, NEURAL_NET_RESOURCE_PATH);
+        final JnnNetPool pool2 = JnnNetPool.forResource(JnnNetPoolTest.class, NEURAL_NET_RESOURCE_PATH);
+        assertSame(pool1, pool2);
+    }
+
+    @Test(expected = IOException.class)
+    public void testMissingResource() throws IOException {
+        JnnNetPool.forResource(JnnNetPoolTest.class, "missing.nna");
+    }
+
+    @Test
+    public void testEveryThreadUsesItsOwnNet() throws Exception {
+        final JnnNetPool pool = JnnNetPool.forResource(JnnNetPoolTest.class, NEURAL_NET_RESOURCE_PATH);
+        assertSame(pool.get(), pool.get());
+
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final Future<JnnNet> otherNet = executor.submit(new Callable<JnnNet>() {
+                @Override
+                public JnnNet call() {
+                    return pool.get();
+                }
+            });
+            assertNotSame(pool.get(), otherNet.get());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testModifiedFileReplacesFormerPool() throws IOException {
+        final File file = temporaryFolder.newFile("net.nna");
+        try (InputStream stream = JnnNetPoolTest.class.getResourceAsStream(NEURAL_NET_RESOURCE_PATH)) {
+            Files.copy(stream, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        final JnnNetPool pool1 = JnnNetPool.forFile(file);
+        assertSame(pool1, JnnNetPool.forFile(file));
+
+        assertTrue(file.setLastModified(file.lastModified() - 10000));
+        final JnnNetPool pool2 = JnnNetPool.forFile(file);
+        assertNotSame(pool1, pool2);
+        assertFalse(JnnNetPool.POOLS.containsValue(pool1));
+        assertTrue(JnnNetPool.POOLS.containsValue(pool2));
+    }
+
+    @Test
+    public void testNumberOfPoolsIsBounded() throws IOException {
+        for (int i = 0; i <= JnnNetPool.MAX_CACHED_NETS; i++) {
+            final File file = temporaryFolder.newFile("net" + i + ".nna");
+            try (InputStream stream = JnnNetPoolTest.class.getResourceAsStream(NEURAL_NET_RESOURCE_PATH)) {
+                Files.copy(stream, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+            JnnNetPool.forFile(file);
+        }
+        assertEquals(JnnNetPool.MAX_CACHED_NETS, JnnNetPool.POOLS.size());
+    }
+}
@@ -267,13 +267,47 @@ public final class SmacAlgorithm {
                              float[] r_surfRecycle) {
         // array to be returned
         float[] r_return;
-        double us, invUs, us2, uv, invUv, usTimesuv, invUsTimesUv;
-        double dphi, Peq, m, s, cksi, ksiD;
+
+        // try to reuse the recyle array to prevent memory waste. We can reuse if
+        // a) it's present and
+        // b) has the same size as the input vector
+        if ((r_surfRecycle == null) || (r_surfRecycle.length != r_toa.length)) {
+            r_return = new float[r_toa.length];
+        } else {
+            r_return = r_surfRecycle;
+        }
+
+        final Terms terms = new Terms(r_toa.length);
+        terms.compute(sza, saa, vza, vaa, airPressure, process, 0, r_toa.length);
+        run(terms, taup550, uh2o, uo3, process, invalid, r_toa, r_return, 0, r_toa.length);
+        return r_return;
+    }
+
+    /**
+     * Performs the SMAC algorithm for a run of pixels whose band independent terms have already been computed.
+     * The same <code>Terms</code> can be used for all bands sharing the geometry and the air pressure.
+     *
+     * @param terms   the band independent terms of the pixels, element <code>i</code> belongs to array index
+     *                <code>offset + i</code>
+     * @param taup550 array of aerosol optical thickness at 550nm
+     * @param uh2o    array of water vapour concentrations
+     * @param uo3     array of ozone concentrations
+     * @param process boolean array indicating whether a pixel has to be processed or not
+     * @param invalid the value set for invalid pixels, i.e. the ones excluded by the process parameter
+     * @param r_toa   array of top of atmosphere reflectances to be corrected
+     * @param r_surf  array receiving the corrected surface reflectances
+     * @param offset  the array index of the first pixel
+     * @param length  the number of pixels
+     */
+    public final void run(Terms terms, float[] taup550, float[] uh2o, float[] uo3, boolean[] process, float invalid,
+                          float[] r_toa, float[] r_surf, int offset, int length) {
+        double us, invUs, us2, uv, invUsTimesUv;
+        double Peq, m, s, cksi, ksiD;
         double taup, tautot, Res_6s;
         double uo2, uco2, uch4, uno2, uco;
         double to3, th2o, to2, tco2, tch4, tno2, tco;
         double ttetas, ttetav;
-        double ray_phase, ray_ref, taurz, Res_ray;
+        double ray_ref, taurz, Res_ray;
         double aer_phase, aer_ref, Res_aer;
         double atm_ref, tg;
         double d, del, dp, e, f, ss;
@@ -283,40 +317,26 @@ public final class SmacAlgorithm {
         double aa1, aa2, aa3;
         double temp;
 
-        // try to reuse the recyle array to prevent memory waste. We can reuse if
-        // a) it's present and
-        // b) has the same size as the input vector
-        if ((r_surfRecycle == null) || (r_surfRecycle.length != r_toa.length)) {
-            r_return = new float[r_toa.length];
-        } else {
-            r_return = r_surfRecycle;
-        }
-
         // loop over vectors
         // -----------------
-        int n;
-        for (n = 0; n < r_toa.length; n++) {
+        for (int i = 0; i < length; i++) {
+            final int n = offset + i;
             // check for process flag. If set to false we must set the default value for
             // invalid pixels and process the next pixel
             if (!process[n]) {
-                r_return[n] = invalid;
+                r_surf[n] = invalid;
                 continue;
             }
             // parameter setup
-            us = Math.cos(sza[n] * _cdr);
-            invUs = 1.0 / us;
-            us2 = us * us;
-
-            uv = Math.cos(vza[n] * _cdr);
-            invUv = 1.0 / uv;
-            usTimesuv = us * uv;
-            invUsTimesUv = 1.0 / usTimesuv;
-
-            dphi = (saa[n] - vaa[n]) * _cdr;
-            Peq = airPressure[n] * _invMaxPressure;
-
-            /*------ 1) air mass */
-            m = invUs + invUv;
+            us = terms.us[i];
+            invUs = terms.invUs[i];
+            us2 = terms.us2[i];
+            uv = terms.uv[i];
+            invUsTimesUv = terms.invUsTimesUv[i];
+            Peq = terms.peq[i];
+            m = terms.m[i];
+            cksi = terms.cksi[i];
+            ksiD = terms.ksiD[i];
 
             /*------ 2) aerosol optical depth in the spectral band, taup  */
             taup = _A0taup + _A1taup * taup550[n];
@@ -380,28 +400,17 @@ public final class SmacAlgorithm {
             /* downward */
             ttetas = _a0T + _a1T * taup550[n] * invUs + temp / (1.0 + us);
             /* upward   */
-            ttetav = _a0T + _a1T * taup550[n] * invUv + temp / (1.0 + uv);
+            ttetav = _a0T + _a1T * taup550[n] * terms.invUv[i] + temp / (1.0 + uv);
 
             /*------ 6) spherical albedo of the atmosphere */
             s = _a0s * Peq + _a3s + _a1s * taup550[n] + _a2s * taup550[n] * taup550[n];
 
-            /*------ 7) scattering angle cosine */
-            cksi = -(usTimesuv + (Math.sqrt(1.0 - us2) * Math.sqrt(1.0 - uv * uv) * Math.cos(dphi)));
-            if (cksi < -1) {
-                cksi = -1.0;
-            }
-
-            /*------ 8) scattering angle in degree */
-            ksiD = _crd * Math.acos(cksi);
-
             /*------ 9) rayleigh atmospheric reflectance */
-            /* pour 6s on a delta = 0.0279 */
-            ray_phase = 0.7190443 * (1.0 + (cksi * cksi)) + 0.0412742;
             taurz = _taur * Peq;
-            ray_ref = (taurz * ray_phase) * _oneQuarter * invUsTimesUv;
+            ray_ref = (taurz * terms.rayPhase[i]) * _oneQuarter * invUsTimesUv;
 
             /*-----------------Residu Rayleigh ---------*/
-            temp = taurz * ray_phase * invUsTimesUv;
+            temp = taurz * terms.rayPhase[i] * invUsTimesUv;
             Res_ray = _resr1 + _resr2 * temp + _resr3 * temp * temp;
 
             /*------ 10) aerosol atmospheric reflectance */
@@ -433,7 +442,7 @@ public final class SmacAlgorithm {
             temp = _ak * uv;
             aa1 = uv / (1.0 + temp);
             aa2 = uv / (1.0 - temp);
-            aa3 = usTimesuv / (us + uv);
+            aa3 = terms.aa3[i];
 
             aer_ref = x * aa1 * (1.0 - Math.exp(-taup / aa1));
             aer_ref += y * aa2 * (1.0 - Math.exp(-taup / aa2));
@@ -461,9 +470,104 @@ public final class SmacAlgorithm {
             /*------------------------ */
             temp = r_toa[n] - (atm_ref * tg);
             temp = temp / ((tg * ttetas * ttetav) + (temp * s));
-            r_return[n] = (float) temp;
+            r_surf[n] = (float) temp;
         }
+    }
 
-        return r_return;
+    /**
+     * The terms of the SMAC algorithm which depend on the geometry and the air pressure only, but not on the
+     * spectral band. They are computed once for a run of pixels and then shared by all bands.
+     * Instances are not thread safe.
+     */
+    public static final class Terms {
+
+        private final double[] us;
+        private final double[] invUs;
+        private final double[] us2;
+        private final double[] uv;
+        private final double[] invUv;
+        private final double[] invUsTimesUv;
+        private final double[] peq;
+        private final double[] m;
+        private final double[] cksi;
+        private final double[] ksiD;
+        private final double[] rayPhase;
+        private final double[] aa3;
+
+        /**
+         * Creates the terms for at most <code>capacity</code> pixels.
+         *
+         * @param capacity the maximum number of pixels
+         */
+        public Terms(int capacity) {
+            us = new double[capacity];
+            invUs = new double[capacity];
+            us2 = new double[capacity];
+            uv = new double[capacity];
+            invUv = new double[capacity];
+            invUsTimesUv = new double[capacity];
+            peq = new double[capacity];
+            m = new double[capacity];
+            cksi = new double[capacity];
+            ksiD = new double[capacity];
+            rayPhase = new double[capacity];
+            aa3 = new double[capacity];
+        }
+
+        /**
+         * Computes the terms for the pixels <code>offset</code> to <code>offset + length - 1</code> of the given
+         * arrays. Pixels not to be processed are skipped.
+         *
+         * @param sza         array of sun zenith angles in decimal degrees
+         * @param saa         array of sun azimuth angles in decimal degrees
+         * @param vza         array of view zenith angles in decimal degrees
+         * @param vaa         array of view azimuth angles in decimal degrees
+         * @param airPressure array of air pressure in hPa
+         * @param process     boolean array indicating whether a pixel has to be processed or not
+         * @param offset      the array index of the first pixel
+         * @param length      the number of pixels
+         */
+        public void compute(float[] sza, float[] saa, float[] vza, float[] vaa, float[] airPressure,
+                            boolean[] process, int offset, int length) {
+            Guardian.assertTrue("length <= capacity", length <= us.length);
+            for (int i = 0; i < length; i++) {
+                final int n = offset + i;
+                if (!process[n]) {
+                    continue;
+                }
+                final double cosSza = Math.cos(sza[n] * _cdr);
+                final double cosVza = Math.cos(vza[n] * _cdr);
+                final double cosSzaSquare = cosSza * cosSza;
+                final double usTimesuv = cosSza * cosVza;
+                us[i] = cosSza;
+                invUs[i] = 1.0 / cosSza;
+                us2[i] = cosSzaSquare;
+                uv[i] = cosVza;
+                invUv[i] = 1.0 / cosVza;
+                invUsTimesUv[i] = 1.0 / usTimesuv;
+
+                final double dphi = (saa[n] - vaa[n]) * _cdr;
+                peq[i] = airPressure[n] * _invMaxPressure;
+
+                /*------ 1) air mass */
+                m[i] = invUs[i] + invUv[i];
+
+                /*------ 7) scattering angle cosine */
+                double cosKsi = -(usTimesuv + (Math.sqrt(1.0 - cosSzaSquare) * Math.sqrt(1.0 - cosVza * cosVza) * Math.cos(dphi)));
+                if (cosKsi < -1) {
+                    cosKsi = -1.0;
+                }
+                cksi[i] = cosKsi;
+
+                /*------ 8) scattering angle in degree */
+                ksiD[i] = _crd * Math.acos(cosKsi);
+
+                /*------ 9) rayleigh phase function */
+                /* pour 6s on a delta = 0.0279 */
+                rayPhase[i] = 0.7190443 * (1.0 + (cosKsi * cosKsi)) + 0.0412742;
+
+                aa3[i] = usTimesuv / (cosSza + cosVza);
+            }
+        }
     }
 }
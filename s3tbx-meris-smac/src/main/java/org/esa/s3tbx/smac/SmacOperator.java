@@ -21,6 +21,7 @@ import com.bc.ceres.core.SubProgressMonitor;
 import org.esa.snap.core.datamodel.Band;
 import org.esa.snap.core.datamodel.Mask;
 import org.esa.snap.core.datamodel.Product;
+import org.esa.snap.core.datamodel.ProductData;
 import org.esa.snap.core.datamodel.TiePointGrid;
 import org.esa.snap.core.gpf.Operator;
 import org.esa.snap.core.gpf.OperatorException;
@@ -46,9 +47,11 @@ import java.net.URISyntaxException;
 import java.net.URL;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -89,13 +92,15 @@ public class SmacOperator extends Operator {
     private static final String SMAC_MASK = "smac_mask";
     private static final String SMAC_MASK_FORWARD = "smac_mask_forward";
 
+    private static final Map<String, SensorCoefficientFile> COEFFICIENT_FILES = new ConcurrentHashMap<>();
+
     private final List<Band> inputBandList;
     private final Logger logger;
     private String sensorType;
 
     private Path auxdataInstallDir;
     private Map<String, String> bandNameMapping;
-    private HashMap<String, SmacSensorCoefficients> coefficients;
+    private Map<String, SmacAlgorithm> algorithms;
 
     private TiePointGrid szaBand;
     private TiePointGrid saaBand;
@@ -156,7 +161,7 @@ public class SmacOperator extends Operator {
         inputBandList = new ArrayList<>();
         logger = getLogger();
         bandNameMapping = new HashMap<>();
-        coefficients = new HashMap<>();
+        algorithms = new HashMap<>();
     }
 
     @Override
@@ -175,67 +180,70 @@ public class SmacOperator extends Operator {
     @Override
     public void computeTileStack(Map<Band, Tile> targetTiles, Rectangle targetRectangle, ProgressMonitor pm) throws OperatorException {
         // here goes the allocation of data that is constant for the targetRectangle
-
-        // initialize vectors and other data
-        // ---------------------------------
-        int width = targetRectangle.width;
-        int height = targetRectangle.height;
-        int x = targetRectangle.x;
-        int y = targetRectangle.y;
-
-        SourceData sourceData = new SourceData();
-        sourceData.taup550 = new float[width * height];
-        sourceData.process = new boolean[width * height];
-        sourceData.uh2o = new float[width * height];
-        sourceData.uo3 = new float[width * height];
-        sourceData.press = new float[width * height];
-        sourceData.toa = new float[width * height];
-
-        for (int i = 0; i < width * height; i++) {
-            sourceData.taup550[i] = tauAero550;
-            sourceData.uh2o[i] = uH2o;
-            sourceData.uo3[i] = uO3;
-            sourceData.press[i] = surfPress;
-            sourceData.process[i] = true;
-        }
-
-        sourceData.sza = getSourceTile(szaBand, targetRectangle).getSamplesFloat();
-        sourceData.saa = getSourceTile(saaBand, targetRectangle).getSamplesFloat();
-        sourceData.vza = getSourceTile(vzaBand, targetRectangle).getSamplesFloat();
-        sourceData.vaa = getSourceTile(vaaBand, targetRectangle).getSamplesFloat();
-        if (ObjectUtils.equalObjects(sensorType, SensorCoefficientManager.AATSR_NAME)) {
-            sourceData.szaFwd = getSourceTile(szaFwdBand, targetRectangle).getSamplesFloat();
-            sourceData.saaFwd = getSourceTile(saaFwdBand, targetRectangle).getSamplesFloat();
-            sourceData.vzaFwd = getSourceTile(vzaFwdBand, targetRectangle).getSamplesFloat();
-            sourceData.vaaFwd = getSourceTile(vaaFwdBand, targetRectangle).getSamplesFloat();
-        } else if (useMerisADS) {
-            sourceData.uh2o = getSourceTile(wvBand, targetRectangle).getSamplesFloat();
-            sourceData.uo3 = getSourceTile(o3Band, targetRectangle).getSamplesFloat();
-            sourceData.press = getSourceTile(pressBand, targetRectangle).getSamplesFloat();
-            sourceData.elev = getSourceTile(elevBand, targetRectangle).getSamplesFloat();
+        // the band independent inputs and terms are computed once per tile and shared by all bands
+        // -----------------------------------------------------------------------------------------
+        final int numPixels = targetRectangle.width * targetRectangle.height;
+        final boolean isAatsr = ObjectUtils.equalObjects(sensorType, SensorCoefficientManager.AATSR_NAME);
+
+        final float[] taup550 = createFilledArray(numPixels, tauAero550);
+        final float[] uh2o;
+        final float[] uo3;
+        final float[] press;
+        if (!isAatsr && useMerisADS) {
+            press = RsMathUtils.simpleBarometric(getSourceTile(pressBand, targetRectangle).getSamplesFloat(),
+                                                 getSourceTile(elevBand, targetRectangle).getSamplesFloat(), null);
+            uo3 = dobsonToCmAtm(getSourceTile(o3Band, targetRectangle).getSamplesFloat());
+            uh2o = relativeHumidityTogcm2(getSourceTile(wvBand, targetRectangle).getSamplesFloat());
+        } else {
+            press = createFilledArray(numPixels, surfPress);
+            uo3 = createFilledArray(numPixels, uO3);
+            uh2o = createFilledArray(numPixels, uH2o);
         }
 
+        final float[] sza = getSourceTile(szaBand, targetRectangle).getSamplesFloat();
+        final List<BandData> nadirBands = new ArrayList<>();
+        final List<BandData> forwardBands = new ArrayList<>();
         for (Map.Entry<Band, Tile> bandTileEntry : targetTiles.entrySet()) {
             Band sourceBand = sourceProduct.getBand(revertMerisBandName(bandTileEntry.getKey().getName(), bandNameMapping));
+            SmacAlgorithm algorithm = getAlgorithm(sourceBand.getName());
+            if (algorithm == null) {
+                continue;
+            }
             sourceBand.setValidPixelExpression(""); // necessary in order to mimic the processor behavior
-            Tile sourceTile = getSourceTile(sourceBand, targetRectangle);
-            sourceData.toa = sourceTile.getSamplesFloat();
-            Tile targetTile = bandTileEntry.getValue();
-            try {
-                if (ObjectUtils.equalObjects(sensorType, SensorCoefficientManager.MERIS_NAME)) {
-                    if (useMerisADS) {
-                        processMerisWithADS(sourceBand, sourceData, targetTile, targetRectangle, new SmacAlgorithm());
-                    } else {
-                        processMeris(sourceBand, sourceData, targetTile, targetRectangle, new SmacAlgorithm());
-                    }
-                } else if (ObjectUtils.equalObjects(sensorType, SensorCoefficientManager.AATSR_NAME)) {
-                    processAatsr(sourceBand.getName(), sourceData, targetTile, targetRectangle, new SmacAlgorithm());
+            float[] toa = getSourceTile(sourceBand, targetRectangle).getSamplesFloat();
+            if (isAatsr) {
+                BandData bandData = new BandData(algorithm, toa, bandTileEntry.getValue());
+                if (sourceBand.getName().contains("fward")) {
+                    forwardBands.add(bandData);
+                } else {
+                    nadirBands.add(bandData);
                 }
-            } catch (IOException e) {
-                logger.severe("An error occurred during processing: ");
-                logger.severe(e.getMessage());
+            } else {
+                toa = RsMathUtils.radianceToReflectance(toa, sza, sourceBand.getSolarFlux(), null);
+                nadirBands.add(new BandData(algorithm, toa, bandTileEntry.getValue()));
+            }
+        }
+
+        // AATSR provides sun and view elevation angles which must be converted to zenith angles
+        if (!nadirBands.isEmpty()) {
+            float[] saa = getSourceTile(saaBand, targetRectangle).getSamplesFloat();
+            float[] vza = getSourceTile(vzaBand, targetRectangle).getSamplesFloat();
+            float[] vaa = getSourceTile(vaaBand, targetRectangle).getSamplesFloat();
+            if (isAatsr) {
+                processView(RsMathUtils.elevationToZenith(sza, null), saa, RsMathUtils.elevationToZenith(vza, null), vaa,
+                            smacMask, taup550, uh2o, uo3, press, nadirBands, targetRectangle);
+            } else {
+                processView(sza, saa, vza, vaa, smacMask, taup550, uh2o, uo3, press, nadirBands, targetRectangle);
             }
         }
+        if (!forwardBands.isEmpty()) {
+            float[] szaFwd = getSourceTile(szaFwdBand, targetRectangle).getSamplesFloat();
+            float[] saaFwd = getSourceTile(saaFwdBand, targetRectangle).getSamplesFloat();
+            float[] vzaFwd = getSourceTile(vzaFwdBand, targetRectangle).getSamplesFloat();
+            float[] vaaFwd = getSourceTile(vaaFwdBand, targetRectangle).getSamplesFloat();
+            processView(RsMathUtils.elevationToZenith(szaFwd, null), saaFwd, RsMathUtils.elevationToZenith(vzaFwd, null), vaaFwd,
+                        smacMaskForward, taup550, uh2o, uo3, press, forwardBands, targetRectangle);
+        }
     }
 
     // package private for testing reasons only
@@ -564,134 +572,73 @@ public class SmacOperator extends Operator {
         return targetBandName;
     }
 
-    private void processMerisWithADS(Band spectralBand, SourceData sourceData, Tile targetTile, Rectangle targetRectangle, SmacAlgorithm algorithm) throws IOException {
-        if (!setBandCoefficients(spectralBand.getName(), algorithm)) {
-            logger.severe(String.format("Sensor coefficient file for spectral band '%s' not found!", spectralBand.getName()));
-            return;
-        }
-
-        float[] toa = RsMathUtils.radianceToReflectance(sourceData.toa, sourceData.sza, spectralBand.getSolarFlux(), null);
-        float[] press = RsMathUtils.simpleBarometric(sourceData.press, sourceData.elev, null);
-        float[] uo3 = dobsonToCmAtm(sourceData.uo3);
-        float[] uh2o = relativeHumidityTogcm2(sourceData.uh2o);
-
-        int i = 0;
-        for (int absY = targetRectangle.y; absY < targetRectangle.y + targetRectangle.height; absY++) {
+    // Corrects all bands of one view. The band independent terms are computed line by line and then applied to
+    // every band, the results are written into the target tiles.
+    private void processView(float[] sza, float[] saa, float[] vza, float[] vaa, Mask mask,
+                             float[] taup550, float[] uh2o, float[] uo3, float[] press,
+                             List<BandData> bands, Rectangle targetRectangle) {
+        final int width = targetRectangle.width;
+        final int height = targetRectangle.height;
+        final int[] maskSamples = mask.getSourceImage().getData(targetRectangle).getSamples(targetRectangle.x, targetRectangle.y,
+                                                                                             width, height, 0, (int[]) null);
+        final boolean[] process = new boolean[maskSamples.length];
+        for (int i = 0; i < maskSamples.length; i++) {
+            process[i] = maskSamples[i] != 0;
+        }
+
+        final SmacAlgorithm.Terms terms = new SmacAlgorithm.Terms(width);
+        for (int y = 0; y < height; y++) {
             checkForCancellation();
-            for (int absX = targetRectangle.x; absX < targetRectangle.x + targetRectangle.width; absX++) {
-                sourceData.process[i] = smacMask.getSampleInt(absX, absY) != 0;
-                i++;
+            final int offset = y * width;
+            terms.compute(sza, saa, vza, vaa, press, process, offset, width);
+            for (BandData band : bands) {
+                band.algorithm.run(terms, taup550, uh2o, uo3, process, invalidPixel, band.toa, band.surf, offset, width);
             }
         }
-
-        float[] toa_corr = new float[toa.length];
-        toa_corr = algorithm.run(sourceData.sza, sourceData.saa, sourceData.vza, sourceData.vaa, sourceData.taup550,
-                                 uh2o, uo3, press, sourceData.process, invalidPixel,
-                                 toa, toa_corr);
-
-        targetTile.setSamples(toa_corr);
-    }
-
-    // Processes MERIS data.
-    private void processMeris(Band spectralBand, SourceData sourceData, Tile targetTile, Rectangle targetRectangle, SmacAlgorithm algorithm) throws IOException {
-        if (!setBandCoefficients(spectralBand.getName(), algorithm)) {
-            logger.severe(String.format("Sensor coefficient file for spectral band '%s' not found!", spectralBand.getName()));
-            return;
+        for (BandData band : bands) {
+            band.writeTargetTile();
         }
-
-        float[] reflectances = RsMathUtils.radianceToReflectance(sourceData.toa, sourceData.sza, spectralBand.getSolarFlux(), null);
-
-        int i = 0;
-        for (int absY = targetRectangle.y; absY < targetRectangle.y + targetRectangle.height; absY++) {
-            checkForCancellation();
-            for (int absX = targetRectangle.x; absX < targetRectangle.x + targetRectangle.width; absX++) {
-                sourceData.process[i] = smacMask.getSampleInt(absX, absY) != 0;
-                i++;
-            }
-        }
-
-        float[] toa_corr = new float[reflectances.length];
-        toa_corr = algorithm.run(sourceData.sza, sourceData.saa, sourceData.vza, sourceData.vaa, sourceData.taup550,
-                                 sourceData.uh2o, sourceData.uo3, sourceData.press, sourceData.process, invalidPixel,
-                                 reflectances, toa_corr);
-
-        targetTile.setSamples(toa_corr);
     }
 
-    // Processes a single AATSR band.
-    private void processAatsr(String bandName, SourceData sourceData, Tile targetTile, Rectangle targetRectangle, SmacAlgorithm algorithm) throws IOException {
-        if (!setBandCoefficients(bandName, algorithm)) {
-            logger.severe("Sensor coefficient file for spectral band '" + bandName +
-                          "' not found!");
-            return;
-        }
-
-        boolean isForwardBand = bandName.contains("fward");
-
-        // set the tie point bands and mask according to input band view
-        // and scale sun and view elevation to zenith angles
-        Mask localMask;
-        float[] vza;
-        float[] sza;
-        if (isForwardBand) {
-            vza = RsMathUtils.elevationToZenith(sourceData.vzaFwd, null);
-            sza = RsMathUtils.elevationToZenith(sourceData.szaFwd, null);
-            localMask = smacMaskForward;
-        } else {
-            vza = RsMathUtils.elevationToZenith(sourceData.vza, null);
-            sza = RsMathUtils.elevationToZenith(sourceData.sza, null);
-            localMask = smacMask;
+    private synchronized SmacAlgorithm getAlgorithm(String bandName) {
+        // a band without coefficients is remembered as well, so that the coefficients are looked up only once
+        if (!algorithms.containsKey(bandName)) {
+            algorithms.put(bandName, createAlgorithm(bandName));
         }
-
-        int i = 0;
-        for (int absY = targetRectangle.y; absY < targetRectangle.y + targetRectangle.height; absY++) {
-            checkForCancellation();
-            for (int absX = targetRectangle.x; absX < targetRectangle.x + targetRectangle.width; absX++) {
-                sourceData.process[i] = localMask.getSampleInt(absX, absY) != 0;
-                i++;
-            }
-        }
-
-        float[] toa_corr = new float[sourceData.toa.length];
-        toa_corr = algorithm.run(sourceData.sza, sourceData.saa, vza, sza, sourceData.taup550,
-                                 sourceData.uh2o, sourceData.uo3, sourceData.press, sourceData.process, invalidPixel,
-                                 sourceData.toa, toa_corr);
-
-        targetTile.setSamples(toa_corr);
+        return algorithms.get(bandName);
     }
 
-    private boolean setBandCoefficients(String bandName, SmacAlgorithm algorithm) {
-        if (coefficients.containsKey(bandName)) {
-            algorithm.setSensorCoefficients(coefficients.get(bandName));
-            return true;
-        }
-        URL url;
-        SensorCoefficientFile coeff = new SensorCoefficientFile();
-        boolean handleError = false;
-        boolean success = false;
-
+    private SmacAlgorithm createAlgorithm(String bandName) {
         try {
-
-            url = getSensorCoefficientManager().getCoefficientFile(sensorType, bandName, aerosolType);
-            if (url == null) {
-                handleError = true;
-            } else {
-                coeff.readFile(new File(url.toURI()).getAbsolutePath());
-                logger.info("Loaded sensor coefficient file " + url.getFile());
-                algorithm.setSensorCoefficients(coeff);
-                coefficients.put(bandName, coeff);
-                success = true;
+            SensorCoefficientManager coefficientManager = getSensorCoefficientManager();
+            URL url = coefficientManager != null ? coefficientManager.getCoefficientFile(sensorType, bandName, aerosolType) : null;
+            if (url != null) {
+                SmacAlgorithm algorithm = new SmacAlgorithm();
+                algorithm.setSensorCoefficients(readCoefficientFile(new File(url.toURI())));
+                return algorithm;
             }
         } catch (IOException | URISyntaxException e) {
-            handleError = true;
             logger.severe(e.getMessage());
         }
+        logger.severe(String.format("Sensor coefficient file for spectral band '%s' not found!", bandName));
+        return null;
+    }
 
-        if (handleError) {
-            logger.severe("Unable to load sensor coefficients for band " + bandName);
+    // The parsed coefficient files are shared by all operator instances. They are never modified after reading.
+    private SensorCoefficientFile readCoefficientFile(File file) throws IOException {
+        final String key = file.getAbsolutePath() + '@' + file.lastModified();
+        SensorCoefficientFile coefficientFile = COEFFICIENT_FILES.get(key);
+        if (coefficientFile == null) {
+            coefficientFile = new SensorCoefficientFile();
+            coefficientFile.readFile(file.getAbsolutePath());
+            final SensorCoefficientFile previous = COEFFICIENT_FILES.putIfAbsent(key, coefficientFile);
+            if (previous != null) {
+                coefficientFile = previous;
+            } else {
+                logger.info("Loaded sensor coefficient file " + file.getAbsolutePath());
+            }
         }
-
-        return success;
+        return coefficientFile;
     }
 
     private SensorCoefficientManager getSensorCoefficientManager() {
@@ -736,22 +683,41 @@ public class SmacOperator extends Operator {
 
     }
 
-    private class SourceData {
-
-        float[] sza;
-        float[] saa;
-        float[] vza;
-        float[] vaa;
-        float[] szaFwd;
-        float[] saaFwd;
-        float[] vzaFwd;
-        float[] vaaFwd;
-        float[] uh2o;
-        float[] uo3;
-        float[] press;
-        float[] elev;
-        float[] taup550;
-        boolean[] process;
-        float[] toa;
+    private static float[] createFilledArray(int length, float value) {
+        final float[] array = new float[length];
+        Arrays.fill(array, value);
+        return array;
+    }
+
+    private static class BandData {
+
+        private final SmacAlgorithm algorithm;
+        private final float[] toa;
+        private final float[] surf;
+        private final Tile targetTile;
+        private final ProductData rawSamples;
+
+        private BandData(SmacAlgorithm algorithm, float[] toa, Tile targetTile) {
+            this.algorithm = algorithm;
+            this.toa = toa;
+            this.targetTile = targetTile;
+            // the target bands are not scaled, so the results can be written directly into the raw float buffer
+            ProductData samples = targetTile.getRawSamples();
+            if (samples.getElems() instanceof float[] && samples.getNumElems() == toa.length) {
+                rawSamples = samples;
+                surf = (float[]) samples.getElems();
+            } else {
+                rawSamples = null;
+                surf = new float[toa.length];
+            }
+        }
+
+        private void writeTargetTile() {
+            if (rawSamples != null) {
+                targetTile.setRawSamples(rawSamples);
+            } else {
+                targetTile.setSamples(surf);
+            }
+        }
     }
 }
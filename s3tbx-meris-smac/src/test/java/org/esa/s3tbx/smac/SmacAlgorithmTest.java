@@ -18,6 +18,7 @@ package org.esa.s3tbx.smac;
 
 import org.junit.Test;
 
+import java.io.File;
 import java.io.IOException;
 
 import static org.junit.Assert.*;
@@ -242,4 +243,49 @@ public class SmacAlgorithmTest {
         }
     }
 
+    @Test
+    public void testRunWithSharedTerms() throws Exception {
+        final int width = 4;
+        final int height = 3;
+        final int size = width * height;
+        float[] sza = new float[size];
+        float[] saa = new float[size];
+        float[] vza = new float[size];
+        float[] vaa = new float[size];
+        float[] taup550 = new float[size];
+        float[] uh2o = new float[size];
+        float[] uo3 = new float[size];
+        float[] pressure = new float[size];
+        float[] toa = new float[size];
+        boolean[] process = new boolean[size];
+        for (int n = 0; n < size; n++) {
+            sza[n] = _defSza + n;
+            saa[n] = _defSaa + 2 * n;
+            vza[n] = _defVza + 0.5f * n;
+            vaa[n] = _defVaa - n;
+            taup550[n] = _defTaup550;
+            uh2o[n] = _defUh2o;
+            uo3[n] = _defUo3;
+            pressure[n] = _defPressure + n;
+            toa[n] = _defToa + 0.01f * n;
+            process[n] = n != 5;
+        }
+
+        SmacAlgorithm smac = new SmacAlgorithm();
+        SensorCoefficientFile file = new SensorCoefficientFile();
+        file.readFile(new File(SmacAlgorithm.class.getResource("/auxdata/coef_MERIS9_CONT.dat").toURI()).getAbsolutePath());
+        smac.setSensorCoefficients(file);
+
+        // the array run() computes the terms of all pixels at once, the reference values are checked by testRun()
+        float[] expected = smac.run(sza, saa, vza, vaa, taup550, uh2o, uo3, pressure, process, -1.0f, toa, null);
+
+        float[] actual = new float[size];
+        SmacAlgorithm.Terms terms = new SmacAlgorithm.Terms(width);
+        for (int y = 0; y < height; y++) {
+            terms.compute(sza, saa, vza, vaa, pressure, process, y * width, width);
+            smac.run(terms, taup550, uh2o, uo3, process, -1.0f, toa, actual, y * width, width);
+        }
+        assertArrayEquals(expected, actual, 0.0f);
+        assertEquals(-1.0f, actual[5], 0.0f);
+    }
 }
@@ -18,7 +18,9 @@ package org.esa.s3tbx.smac;
 
 import com.bc.ceres.core.ProgressMonitor;
 import org.esa.snap.core.dataio.ProductIO;
+import org.esa.snap.core.datamodel.Band;
 import org.esa.snap.core.datamodel.Product;
+import org.esa.snap.core.datamodel.RasterDataNode;
 import org.esa.snap.core.gpf.GPF;
 import org.esa.snap.test.LongTestRunner;
 import org.junit.Test;
@@ -335,6 +337,60 @@ public class SmacOperatorTest {
         assertThat(run2Values, is(equalTo(expected)));
     }
 
+    @Test
+    public void testOperatorOnSampleProduct_AATSR_viewGeometry() throws IOException, URISyntaxException {
+        HashMap<String, Object> params = new HashMap<>();
+        params.put("tauAero550", "0.2");
+        params.put("uH2o", "3.0");
+        params.put("uO3", "0.15");
+        params.put("surfPress", "1013.0");
+        params.put("maskExpression", "true");
+        params.put("maskExpressionForward", "true");
+        params.put("bandNames", new String[]{"reflec_nadir_0870", "reflec_fward_0870"});
+
+        final Product product = ProductIO.readProduct(getProductPathAatsr());
+        try {
+            final Product smacResult = createOp(params, product).getTargetProduct();
+            final SmacAlgorithm algorithm = new SmacAlgorithm();
+            final SensorCoefficientFile coefficients = new SensorCoefficientFile();
+            coefficients.readFile(new File(SmacAlgorithm.class.getResource("/auxdata/coef_ATSR2_865_CONT.dat").toURI()).getAbsolutePath());
+            algorithm.setSensorCoefficients(coefficients);
+
+            // each view is corrected with its own sun and view angles, the elevations are converted to zenith angles
+            final int width = product.getSceneRasterWidth();
+            final int height = product.getSceneRasterHeight();
+            final int[][] pixels = {{0, 0}, {width / 3, height / 2}, {width - 1, height - 1}};
+            for (String view : new String[]{"nadir", "fward"}) {
+                final String bandName = "reflec_" + view + "_0870";
+                final Band targetBand = smacResult.getBand(bandName);
+                for (int[] pixel : pixels) {
+                    final int x = pixel[0];
+                    final int y = pixel[1];
+                    final float sza = 90.0f - getPixelFloat(product, "sun_elev_" + view, x, y);
+                    final float saa = getPixelFloat(product, "sun_azimuth_" + view, x, y);
+                    final float vza = 90.0f - getPixelFloat(product, "view_elev_" + view, x, y);
+                    final float vaa = getPixelFloat(product, "view_azimuth_" + view, x, y);
+                    final float toa = getPixelFloat(product, bandName, x, y);
+                    final float[] expected = algorithm.run(new float[]{sza}, new float[]{saa}, new float[]{vza},
+                                                           new float[]{vaa}, new float[]{0.2f}, new float[]{3.0f},
+                                                           new float[]{0.15f}, new float[]{1013.0f},
+                                                           new boolean[]{true}, 0.0f, new float[]{toa}, null);
+                    assertEquals(bandName + " at " + x + "," + y, expected[0], getPixelFloat(targetBand, x, y), 1.0e-6f);
+                }
+            }
+        } finally {
+            product.dispose();
+        }
+    }
+
+    private static float getPixelFloat(Product product, String rasterName, int x, int y) throws IOException {
+        return getPixelFloat(product.getRasterDataNode(rasterName), x, y);
+    }
+
+    private static float getPixelFloat(RasterDataNode raster, int x, int y) throws IOException {
+        return raster.readPixels(x, y, 1, 1, (float[]) null)[0];
+    }
+
     private SmacOperator createOp(HashMap<String, Object> params, Product product) {
         final SmacOperator smacOperator = new SmacOperator();
         smacOperator.setParameterDefaultValues();
@@ -1,5 +1,6 @@
 package org.esa.s3tbx.mphchl;
 
+import org.esa.s3tbx.commons.ValidPixelMask;
 import org.esa.snap.core.datamodel.Band;
 import org.esa.snap.core.datamodel.FlagCoding;
 import org.esa.snap.core.datamodel.Product;
@@ -10,14 +11,9 @@ import org.esa.snap.core.gpf.annotations.OperatorMetadata;
 import org.esa.snap.core.gpf.annotations.Parameter;
 import org.esa.snap.core.gpf.annotations.SourceProduct;
 import org.esa.snap.core.gpf.pointop.*;
-import org.esa.snap.core.image.ResolutionLevel;
-import org.esa.snap.core.image.VirtualBandOpImage;
 import org.esa.snap.core.util.ProductUtils;
-import org.esa.snap.core.util.StringUtils;
 import org.esa.snap.core.util.converters.BooleanExpressionConverter;
 
-import java.awt.*;
-
 @OperatorMetadata(alias = "MphChlBasis",
         version = "1.0",
         internal = true,
@@ -49,7 +45,7 @@ public class MphChlBasisOp extends PixelOperator {
 
     float[] sensorWvls;
 
-    VirtualBandOpImage invalidOpImage;
+    ValidPixelMask validPixelMask;
 
     double ratioP;
     double ratioC;
@@ -114,27 +110,11 @@ public class MphChlBasisOp extends PixelOperator {
 
     @Override
     protected void prepareInputs() throws OperatorException {
-
-        if (StringUtils.isNullOrEmpty(validPixelExpression)) {
-            return;
-        }
-
-        if (!sourceProduct.isCompatibleBandArithmeticExpression(validPixelExpression)) {
-            final String message = String.format("The given expression '%s' is not compatible with the source product.", validPixelExpression);
-            throw new OperatorException(message);
-        }
-
-        invalidOpImage = VirtualBandOpImage.builder(validPixelExpression, sourceProduct)
-                .dataType(ProductData.TYPE_FLOAT32)
-                .fillValue(0.0f)
-                .tileSize(sourceProduct.getPreferredTileSize())
-                .mask(false)
-                .level(ResolutionLevel.MAXRES)
-                .create();
+        validPixelMask = ValidPixelMask.create(validPixelExpression, sourceProduct);
     }
 
     boolean isSampleValid(int x, int y) {
-        return invalidOpImage == null || invalidOpImage.getData(new Rectangle(x, y, 1, 1)).getSample(x, y, 0) != 0;
+        return validPixelMask == null || validPixelMask.isValid(x, y);
     }
 
     public static class Spi extends OperatorSpi {
@@ -18,18 +18,46 @@
 
 package org.esa.s3tbx.olci.radiometry.operator;
 
+import com.bc.ceres.core.ProgressMonitor;
+import org.esa.s3tbx.olci.radiometry.Sensor;
+import org.esa.s3tbx.olci.radiometry.gasabsorption.GaseousAbsorptionAux;
+import org.esa.s3tbx.olci.radiometry.rayleigh.RayleighAux;
+import org.esa.s3tbx.olci.radiometry.rayleigh.RayleighConstants;
+import org.esa.s3tbx.olci.radiometry.rayleigh.RayleighCorrAlgorithm;
+import org.esa.s3tbx.olci.radiometry.smilecorr.SmileCorrectionAlgorithm;
+import org.esa.s3tbx.olci.radiometry.smilecorr.SmileCorrectionAuxdata;
+import org.esa.s3tbx.olci.radiometry.smilecorr.SmileCorrectionOp;
+import org.esa.s3tbx.olci.radiometry.smilecorr.SmileCorrectionUtils;
 import org.esa.snap.core.datamodel.Band;
+import org.esa.snap.core.datamodel.Mask;
 import org.esa.snap.core.datamodel.Product;
+import org.esa.snap.core.datamodel.ProductData;
 import org.esa.snap.core.gpf.GPF;
 import org.esa.snap.core.gpf.Operator;
 import org.esa.snap.core.gpf.OperatorException;
+import org.esa.snap.core.gpf.OperatorSpi;
+import org.esa.snap.core.gpf.Tile;
 import org.esa.snap.core.gpf.annotations.OperatorMetadata;
+import org.esa.snap.core.gpf.annotations.Parameter;
 import org.esa.snap.core.gpf.annotations.SourceProduct;
+import org.esa.snap.core.util.BitSetter;
 import org.esa.snap.core.util.ProductUtils;
+import org.esa.snap.core.util.math.RsMathUtils;
+import org.json.simple.parser.ParseException;
 
+import java.awt.Color;
+import java.awt.Rectangle;
+import java.io.IOException;
 import java.util.HashMap;
+import java.util.Map;
 
 /**
+ * Performs the OLCI radiometric correction chain (smile correction, gaseous absorption correction and
+ * Rayleigh correction) in a single pass. The results are the same as those of chaining {@code SmileCorrection.Olci},
+ * {@code GaseousAbsorption} and {@code RayleighCorrection}, but the geometry and auxiliary tiles are fetched
+ * once per target rectangle and shared by all stages and bands, and intermediate results are only kept
+ * for the current tile. Intermediate bands are only written if requested.
+ *
  * @author muhammad.bc.
  */
 @OperatorMetadata(alias = "OLCI.Radiomerty",
@@ -37,34 +65,378 @@ import java.util.HashMap;
         authors = " Marco Peters ,Muhammad Bala (Brockmann Consult)",
         copyright = "(c) 2015 by Brockmann Consult",
         category = "Optical/Preprocessing",
-        version = "1.2")
+        version = "1.3")
 
 public class Radiometry extends Operator {
-    @SourceProduct
+
+    private static final String RBRR_BAND_PATTERN = "rBRR_%02d";
+    private static final String RTOA_NG_BAND_PATTERN = "rtoa_ng_%02d";
+    private static final String GAS_BAND_PATTERN = "gaseous_absorp_%02d";
+    private static final String LAMBDA0_BAND_PATTERN = "lambda0_band_%d";
+    private static final String SOLAR_FLUX_BAND_PATTERN = "solar_flux_band_%d";
+    private static final String TP_LATITUDE = "TP_latitude";
+    private static final String TP_LONGITUDE = "TP_longitude";
+    private static final int WV_709_FOR_GASEOUS_ABSORPTION_CALCULATION = 709;
+
+    @SourceProduct(label = "OLCI L1b product")
     public Product sourceProduct;
-    private Product targetProduct;
 
+    @Parameter(defaultValue = "false", label = "Write smile corrected radiance bands")
+    private boolean outputSmileCorrectedRadiance;
+
+    @Parameter(defaultValue = "false", label = "Write gaseous transmission bands")
+    private boolean outputGaseousTransmission;
+
+    @Parameter(defaultValue = "false", label = "Write gaseous absorption corrected TOA reflectance bands")
+    private boolean outputRtoaNg;
+
+    private Sensor sensor;
+    private int numBands;
+    private SmileCorrectionAuxdata smileAuxdata;
+    private RayleighCorrAlgorithm smileRayleighAlgorithm;
+    private RayleighCorrAlgorithm rayleighAlgorithm;
+    private double[] absorpOzone;
+    private double[] smileCrossSectionSigma;
+    private double[] crossSectionSigma;
+    private boolean[] rayleighForSmileRequired;
+    private boolean smileRayleighRequired;
+    private boolean waterMaskRequired;
+    private Mask waterMask;
+
+    private Band[] radianceBands;
+    private Band[] smileBands;
+    private Band[] rtoaNgBands;
+    private Band[] rBrrBands;
 
     @Override
     public void initialize() throws OperatorException {
-        targetProduct = new Product(sourceProduct.getName(), sourceProduct.getProductType(),
-                                    sourceProduct.getSceneRasterWidth(), sourceProduct.getSceneRasterHeight());
-        for (Band band : sourceProduct.getBands()) {
-            final Band targetBand = targetProduct.addBand(band.getName(), band.getDataType());
-            ProductUtils.copyRasterDataNodeProperties(band, targetBand);
+        sensor = SmileCorrectionUtils.getSensorType(sourceProduct);
+        if (!Sensor.OLCI.equals(sensor)) {
+            throw new OperatorException("The sensor type is not supported with this operator.");
+        }
+        numBands = sensor.getNumBands();
+        smileAuxdata = new SmileCorrectionAuxdata(sensor);
+
+        Product targetProduct = new Product(sourceProduct.getName(), sourceProduct.getProductType(),
+                                            sourceProduct.getSceneRasterWidth(), sourceProduct.getSceneRasterHeight());
+        Product gasProduct = null;
+        if (outputGaseousTransmission) {
+            // the gaseous transmission only depends on the geometry, it does not take part in the chain
+            gasProduct = GPF.createProduct("GaseousAbsorption", new HashMap<>(), sourceProduct);
+        }
+        radianceBands = new Band[numBands];
+        smileBands = new Band[numBands];
+        rtoaNgBands = new Band[numBands];
+        rBrrBands = new Band[numBands];
+        for (int i = 0; i < numBands; i++) {
+            radianceBands[i] = sourceProduct.getBand(String.format(sensor.getNameFormat(), i + 1));
+            if (outputSmileCorrectedRadiance) {
+                smileBands[i] = addTargetBand(targetProduct, String.format(sensor.getNameFormat(), i + 1), radianceBands[i], Double.NaN);
+            }
+            if (gasProduct != null) {
+                ProductUtils.copyBand(String.format(GAS_BAND_PATTERN, i + 1), gasProduct, targetProduct, true);
+            }
+            if (outputRtoaNg) {
+                rtoaNgBands[i] = addTargetBand(targetProduct, String.format(RTOA_NG_BAND_PATTERN, i + 1), radianceBands[i],
+                                               RayleighConstants.INVALID_VALUE);
+            }
+            rBrrBands[i] = addTargetBand(targetProduct, String.format(RBRR_BAND_PATTERN, i + 1), radianceBands[i],
+                                        RayleighConstants.INVALID_VALUE);
         }
 
         ProductUtils.copyMetadata(sourceProduct, targetProduct);
         ProductUtils.copyMasks(sourceProduct, targetProduct);
         ProductUtils.copyFlagBands(sourceProduct, targetProduct, true);
         ProductUtils.copyGeoCoding(sourceProduct, targetProduct);
-        targetProduct.setAutoGrouping(sourceProduct.getAutoGrouping());
+        targetProduct.setAutoGrouping("Oa:gaseous_absorp:rtoa_ng:rBRR");
         setTargetProduct(targetProduct);
+    }
+
+    @Override
+    public void doExecute(ProgressMonitor pm) throws OperatorException {
+        pm.beginTask("Initializing auxiliary data", 4);
+        try {
+            // the smile correction computes its Rayleigh reflectances with the cross sections of the band wavelengths
+            smileRayleighAlgorithm = new RayleighCorrAlgorithm(sensor.getNameFormat(), numBands);
+            rayleighAlgorithm = new RayleighCorrAlgorithm(sensor);
+            pm.worked(1);
+            absorpOzone = GaseousAbsorptionAux.getInstance().absorptionOzone(sensor.getName());
+            pm.worked(1);
+            smileCrossSectionSigma = smileRayleighAlgorithm.getCrossSectionSigma(sourceProduct, numBands, sensor.getNameFormat());
+            crossSectionSigma = rayleighAlgorithm.getCrossSectionSigma(sourceProduct, numBands, sensor.getNameFormat());
+            RayleighAux.initDefaultAuxiliary();
+            pm.worked(1);
+            rayleighForSmileRequired = new boolean[numBands];
+            for (int i = 0; i < numBands; i++) {
+                boolean correctWater = smileAuxdata.getWaterRefCorrectionSwitches()[i];
+                boolean correctLand = smileAuxdata.getLandRefCorrectionSwitches()[i];
+                if ((correctWater || correctLand) && hasWaterNeighbours(i)) {
+                    rayleighForSmileRequired[i] = true;
+                    rayleighForSmileRequired[smileAuxdata.getWaterLowerBands()[i] - 1] = true;
+                    rayleighForSmileRequired[smileAuxdata.getWaterUpperBands()[i] - 1] = true;
+                    smileRayleighRequired = true;
+                }
+                if (correctWater != correctLand) {
+                    waterMaskRequired = true;
+                }
+            }
+            if (waterMaskRequired) {
+                waterMask = Mask.BandMathsType.create("__water_mask", null,
+                                                      sourceProduct.getSceneRasterWidth(),
+                                                      sourceProduct.getSceneRasterHeight(),
+                                                      SmileCorrectionOp.WATER_EXPRESSION,
+                                                      Color.GREEN, 0.0);
+                waterMask.setOwner(sourceProduct);
+            }
+            pm.worked(1);
+        } catch (IOException | ParseException e) {
+            throw new OperatorException("Could not initialize default auxiliary data", e);
+        } finally {
+            pm.done();
+        }
+    }
+
+    @Override
+    public void computeTileStack(Map<Band, Tile> targetTiles, Rectangle targetRectangle, ProgressMonitor pm) throws OperatorException {
+        checkForCancellation();
+        final int length = targetRectangle.width * targetRectangle.height;
+
+        // shared inputs, fetched once for all stages and bands
+        RayleighAux rayleighAux = createAuxiliary(targetRectangle);
+        float[] szas = toFloat(rayleighAux.getSunZenithAngles());
+        int[] qualityFlags = getSourceTile(sourceProduct.getBand(sensor.getL1bFlagsName()), targetRectangle).getSamplesInt();
+        boolean[] water = waterMaskRequired ? getWaterMask(targetRectangle) : null;
+
+        float[][] radiances = new float[numBands][];
+        float[][] solarFluxes = new float[numBands][];
+        float[][] lambdas = new float[numBands][];
+        for (int i = 0; i < numBands; i++) {
+            radiances[i] = getSourceTile(radianceBands[i], targetRectangle).getSamplesFloat();
+            solarFluxes[i] = getSourceTile(sourceProduct.getBand(String.format(SOLAR_FLUX_BAND_PATTERN, i + 1)), targetRectangle).getSamplesFloat();
+            lambdas[i] = getSourceTile(sourceProduct.getBand(String.format(LAMBDA0_BAND_PATTERN, i + 1)), targetRectangle).getSamplesFloat();
+        }
+        checkForCancellation();
+
+        // step 1: smile correction
+        float[][] smileReflectances = new float[numBands][];
+        for (int i = 0; i < numBands; i++) {
+            smileReflectances[i] = convertRadToRefl(radiances[i], solarFluxes[i], szas);
+        }
+        float[][] rayleighReflectances = new float[numBands][];
+        if (smileRayleighRequired) {
+            // the same auxiliary data as used by SmileCorrection.Olci
+            setSmileAuxiliary(rayleighAux, targetRectangle);
+            for (int i = 0; i < numBands; i++) {
+                if (rayleighForSmileRequired[i]) {
+                    double[] taur = smileRayleighAlgorithm.getRayleighThickness(rayleighAux, smileCrossSectionSigma, i + 1, null);
+                    double[] corrOzone = smileRayleighAlgorithm.getCorrOzone(toDouble(smileReflectances[i]), absorpOzone[i],
+                                                                             rayleighAux.getTotalOzones(),
+                                                                             rayleighAux.getCosSZARads(), rayleighAux.getCosOZARads());
+                    rayleighReflectances[i] = toFloat(smileRayleighAlgorithm.getRhoBrr(rayleighAux, taur, corrOzone));
+                }
+            }
+        }
+        float[][] smileRadiances = new float[numBands][];
+        float[][] smileSolarFluxes = new float[numBands][];
+        for (int i = 0; i < numBands; i++) {
+            smileRadiances[i] = radiances[i];
+            smileSolarFluxes[i] = solarFluxes[i];
+            if (smileAuxdata.getWaterRefCorrectionSwitches()[i]) {
+                smileRadiances[i] = correctSmile(i, smileAuxdata.getWaterLowerBands()[i] - 1, smileAuxdata.getWaterUpperBands()[i] - 1,
+                                                 solarFluxes[i], radiances, smileReflectances, rayleighReflectances,
+                                                 solarFluxes, lambdas, szas);
+            } else if (smileAuxdata.getLandRefCorrectionSwitches()[i]) {
+                // like SmileCorrection.Olci, the land correction takes the solar flux of the upper band for the source band
+                int upperIndex = smileAuxdata.getLandUpperBands()[i] - 1;
+                smileRadiances[i] = correctSmile(i, smileAuxdata.getLandLowerBands()[i] - 1, upperIndex,
+                                                 solarFluxes[upperIndex], radiances, smileReflectances, rayleighReflectances,
+                                                 solarFluxes, lambdas, szas);
+            }
+            if (smileAuxdata.getWaterRefCorrectionSwitches()[i] || smileAuxdata.getLandRefCorrectionSwitches()[i]) {
+                smileSolarFluxes[i] = correctSolarFlux(i, solarFluxes[i], lambdas[i], water);
+            }
+            if (smileBands[i] != null) {
+                targetTiles.get(smileBands[i]).setSamples(smileRadiances[i]);
+            }
+        }
+        checkForCancellation();
+
+        // step 2 and 3: gaseous absorption and Rayleigh correction on the smile corrected radiances,
+        // with the same auxiliary data as used by RayleighCorrection
+        setRayleighAuxiliary(rayleighAux, targetRectangle);
+        for (int i = 0; i < numBands; i++) {
+            double[] reflectance = new double[length];
+            for (int j = 0; j < length; j++) {
+                reflectance[j] = RsMathUtils.radianceToReflectance(smileRadiances[i][j], szas[j], smileSolarFluxes[i][j]);
+            }
+            if (Math.ceil(radianceBands[i].getSpectralWavelength()) == WV_709_FOR_GASEOUS_ABSORPTION_CALCULATION) {
+                int[] bounds = sensor.getBounds();
+                reflectance = rayleighAlgorithm.waterVaporCorrection709(reflectance, toDouble(smileRadiances[bounds[1] - 1]),
+                                                                        toDouble(smileRadiances[bounds[0] - 1]));
+            }
+            double[] corrOzoneRefl = rayleighAlgorithm.getCorrOzone(reflectance, absorpOzone[i], rayleighAux.getTotalOzones(),
+                                                                    rayleighAux.getCosOZARads(), rayleighAux.getCosSZARads());
+            if (rtoaNgBands[i] != null) {
+                setTargetSamples(targetTiles.get(rtoaNgBands[i]), qualityFlags, corrOzoneRefl.clone());
+            }
+            double[] taur = rayleighAlgorithm.getRayleighThickness(rayleighAux, crossSectionSigma, i + 1, null);
+            double[] rBrr = rayleighAlgorithm.getRhoBrr(rayleighAux, taur, corrOzoneRefl);
+            setTargetSamples(targetTiles.get(rBrrBands[i]), qualityFlags, rBrr);
+            checkForCancellation();
+        }
+    }
+
+    private float[] correctSmile(int bandIndex, int lowerIndex, int upperIndex, float[] sourceFlux, float[][] radiances,
+                                 float[][] reflectances, float[][] rayleighReflectances, float[][] solarFluxes,
+                                 float[][] lambdas, float[] szas) {
+        if (lowerIndex < 0 || upperIndex < 0) {
+            return radiances[bandIndex];
+        }
+        // like SmileCorrection.Olci, the Rayleigh reflectances are added whenever water neighbours are defined
+        boolean addRayleigh = hasWaterNeighbours(bandIndex);
+        int lowerWaterIndex = smileAuxdata.getWaterLowerBands()[bandIndex] - 1;
+        int upperWaterIndex = smileAuxdata.getWaterUpperBands()[bandIndex] - 1;
+        float refCentralWaveLength = smileAuxdata.getRefCentralWaveLengths()[bandIndex];
+        float[] sourceRefl = reflectances[bandIndex];
+        if (sourceFlux != solarFluxes[bandIndex]) {
+            sourceRefl = convertRadToRefl(radiances[bandIndex], sourceFlux, szas);
+        }
+        float[] lowerRefl = reflectances[lowerIndex];
+        float[] upperRefl = reflectances[upperIndex];
+        float[] sourceLambda = lambdas[bandIndex];
+        int length = radiances[bandIndex].length;
+
+        float[] correctedRadiance = new float[length];
+        for (int j = 0; j < length; j++) {
+            float source = sourceRefl[j];
+            float lower = lowerRefl[j];
+            float upper = upperRefl[j];
+            if (addRayleigh) {
+                source += rayleighReflectances[bandIndex][j];
+                lower += rayleighReflectances[lowerWaterIndex][j];
+                upper += rayleighReflectances[upperWaterIndex][j];
+            }
+            float correctedReflectance = SmileCorrectionAlgorithm.correctWithReflectance(source, lower, upper, sourceLambda[j],
+                                                                                         lambdas[lowerIndex][j], lambdas[upperIndex][j],
+                                                                                         refCentralWaveLength);
+            float shiftedFlux = shiftSolarIrradiance(sourceFlux[j], sourceLambda[j], refCentralWaveLength);
+            correctedRadiance[j] = RsMathUtils.reflectanceToRadiance(correctedReflectance, szas[j], shiftedFlux);
+        }
+        return correctedRadiance;
+    }
+
+    private float[] correctSolarFlux(int bandIndex, float[] solarFlux, float[] lambda, boolean[] water) {
+        boolean correctWater = smileAuxdata.getWaterRefCorrectionSwitches()[bandIndex];
+        boolean correctLand = smileAuxdata.getLandRefCorrectionSwitches()[bandIndex];
+        float refCentralWaveLength = smileAuxdata.getRefCentralWaveLengths()[bandIndex];
+        float[] correctedFlux = new float[solarFlux.length];
+        for (int j = 0; j < solarFlux.length; j++) {
+            boolean correct = correctWater == correctLand ? correctWater : water[j] ? correctWater : correctLand;
+            correctedFlux[j] = correct ? shiftSolarIrradiance(solarFlux[j], lambda[j], refCentralWaveLength) : solarFlux[j];
+        }
+        return correctedFlux;
+    }
+
+    private boolean[] getWaterMask(Rectangle rectangle) {
+        Tile waterMaskTile = getSourceTile(waterMask, rectangle);
+        boolean[] water = new boolean[rectangle.width * rectangle.height];
+        int index = 0;
+        for (int y = rectangle.y; y < rectangle.y + rectangle.height; y++) {
+            for (int x = rectangle.x; x < rectangle.x + rectangle.width; x++) {
+                water[index++] = waterMaskTile.getSampleBoolean(x, y);
+            }
+        }
+        return water;
+    }
+
+    private void setTargetSamples(Tile targetTile, int[] qualityFlags, double[] targetData) {
+        for (int i = 0; i < targetData.length; i++) {
+            if (BitSetter.isFlagSet(qualityFlags[i], sensor.getInvalidBit())) {
+                targetData[i] = RayleighConstants.INVALID_VALUE;
+            }
+        }
+        targetTile.setSamples(targetData);
+    }
+
+    private RayleighAux createAuxiliary(Rectangle rectangle) {
+        RayleighAux rayleighAux = new RayleighAux();
+        rayleighAux.setSunZenithAngles(getSourceTile(sourceProduct.getRasterDataNode(sensor.getSzaName()), rectangle));
+        rayleighAux.setViewZenithAngles(getSourceTile(sourceProduct.getRasterDataNode(sensor.getVzaName()), rectangle));
+        rayleighAux.setSunAzimuthAngles(getSourceTile(sourceProduct.getRasterDataNode(sensor.getSaaName()), rectangle));
+        rayleighAux.setViewAzimuthAngles(getSourceTile(sourceProduct.getRasterDataNode(sensor.getVaaName()), rectangle));
+        rayleighAux.setSeaLevels(getSourceTile(sourceProduct.getRasterDataNode(sensor.getSlpName()), rectangle));
+        return rayleighAux;
+    }
+
+    private void setSmileAuxiliary(RayleighAux rayleighAux, Rectangle rectangle) {
+        rayleighAux.setTotalOzones(getSourceTile(sourceProduct.getRasterDataNode(sensor.getOzoneName()), rectangle));
+        rayleighAux.setAltitudes(getSourceTile(sourceProduct.getRasterDataNode(sensor.getAltName()), rectangle));
+        rayleighAux.setLatitudes(getSourceTile(sourceProduct.getRasterDataNode(sensor.getLatName()), rectangle));
+        rayleighAux.setLongitude(getSourceTile(sourceProduct.getRasterDataNode(sensor.getLonName()), rectangle));
+    }
+
+    private void setRayleighAuxiliary(RayleighAux rayleighAux, Rectangle rectangle) {
+        rayleighAux.setOlciTotalOzones(getSourceTile(sourceProduct.getRasterDataNode(sensor.getOzoneName()), rectangle));
+        if (sourceProduct.getRasterDataNode(TP_LATITUDE) != null) {
+            rayleighAux.setLatitudes(getSourceTile(sourceProduct.getRasterDataNode(TP_LATITUDE), rectangle));
+        } else {
+            rayleighAux.setLatitudes(getSourceTile(sourceProduct.getRasterDataNode(sensor.getLatName()), rectangle));
+        }
+        if (sourceProduct.getRasterDataNode(TP_LONGITUDE) != null) {
+            rayleighAux.setLongitude(getSourceTile(sourceProduct.getRasterDataNode(TP_LONGITUDE), rectangle));
+        } else {
+            rayleighAux.setLongitude(getSourceTile(sourceProduct.getRasterDataNode(sensor.getLonName()), rectangle));
+        }
+        // the altitudes are taken from the DEM
+        rayleighAux.setAltitudes((double[]) null);
+    }
+
+    private boolean hasWaterNeighbours(int bandIndex) {
+        return smileAuxdata.getWaterLowerBands()[bandIndex] > 0 && smileAuxdata.getWaterUpperBands()[bandIndex] > 0;
+    }
+
+    private Band addTargetBand(Product targetProduct, String bandName, Band sourceBand, double noDataValue) {
+        Band targetBand = targetProduct.addBand(bandName, ProductData.TYPE_FLOAT32);
+        ProductUtils.copySpectralBandProperties(sourceBand, targetBand);
+        targetBand.setNoDataValueUsed(true);
+        targetBand.setNoDataValue(noDataValue);
+        return targetBand;
+    }
+
+    private static float shiftSolarIrradiance(float solarIrradiance, float sourceTargetLambda, float refCentralWaveLength) {
+        // derivative of the solar irradiance polynomial, see SmileCorrectionOp
+        double m = 1.164760657E-9 * Math.pow(sourceTargetLambda, 4) - 3.553263318E-6 * Math.pow(sourceTargetLambda, 3) + 0.004024637931 * Math.pow(
+                sourceTargetLambda, 2) - 2.003025166 * sourceTargetLambda + 366.3249385;
+        return (float) (solarIrradiance + m * (refCentralWaveLength - sourceTargetLambda));
+    }
 
+    private static float[] convertRadToRefl(float[] radiance, float[] solarIrradiance, float[] sza) {
+        float[] reflectance = new float[radiance.length];
+        for (int i = 0; i < radiance.length; i++) {
+            reflectance[i] = RsMathUtils.radianceToReflectance(radiance[i], sza[i], solarIrradiance[i]);
+        }
+        return reflectance;
+    }
+
+    private static double[] toDouble(float[] values) {
+        double[] result = new double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            result[i] = values[i];
+        }
+        return result;
     }
 
-    private Product getSmileProduct(Product sourceProduct) {
-        HashMap<String, Object> parameters = new HashMap<>();
-        return GPF.createProduct("SmileCorrection.Olci", parameters, sourceProduct);
+    private static float[] toFloat(double[] values) {
+        float[] result = new float[values.length];
+        for (int i = 0; i < values.length; i++) {
+            result[i] = (float) values[i];
+        }
+        return result;
+    }
+
+    public static class Spi extends OperatorSpi {
+        public Spi() {
+            super(Radiometry.class);
+        }
     }
 }
@@ -32,7 +32,7 @@ public class RayleighCorrAlgorithm {
     }
 
     //todo mba/* write test
-    double[] waterVaporCorrection709(double[] reflectances, double[] bWVRefTile, double[] bWVTile) {
+    public double[] waterVaporCorrection709(double[] reflectances, double[] bWVRefTile, double[] bWVTile) {
         double[] H2O_COR_POLY = new double[]{0.3832989, 1.6527957, -1.5635101, 0.5311913};  // Polynomial coefficients for WV transmission @ 709nm
         // in order to optimise performance we do:
         // trans709 = H2O_COR_POLY[0] + (H2O_COR_POLY[1] + (H2O_COR_POLY[2] + H2O_COR_POLY[3] * X2) * X2) * X2
@@ -49,7 +49,7 @@ public class RayleighCorrAlgorithm {
         return reflectances;
     }
 
-    double[] getCrossSectionSigma(Product sourceProduct, int numBands, String getBandNamePattern) {
+    public double[] getCrossSectionSigma(Product sourceProduct, int numBands, String getBandNamePattern) {
         if (sensor != null && sensor == Sensor.S2_MSI) {
             // use 'true' instead of central wavelengths instead
             // CB/GK 20170721, following https://earth.esa.int/documents/247904/685211/Sentinel-2+MSI+Spectral+Responses/
@@ -136,7 +136,7 @@ public class RayleighCorrAlgorithm {
         return sigma;
     }
 
-    double[] getCorrOzone(double[] rho_ng_ref, double absorpO, double[] ozones, double[] cosOZARads,
+    public double[] getCorrOzone(double[] rho_ng_ref, double absorpO, double[] ozones, double[] cosOZARads,
                           double[] cosSZARads) {
         double[] ozoneCorrRefl = new double[rho_ng_ref.length];
         for (int i = 0; i < rho_ng_ref.length; i++) {
@@ -160,7 +160,7 @@ public class RayleighCorrAlgorithm {
         return rho_ng / trans_ozone12;
     }
 
-    double[] getRhoBrr(RayleighAux rayleighAux, double[] rayleighOpticalThickness, double[] corrOzoneRefl) {
+    public double[] getRhoBrr(RayleighAux rayleighAux, double[] rayleighOpticalThickness, double[] corrOzoneRefl) {
         final double[] airMasses = rayleighAux.getAirMass();
         final double[] aziDiffs = rayleighAux.getAziDifferent();
         final double[] cosSZARads = rayleighAux.getCosSZARads();
@@ -343,7 +343,7 @@ public class RayleighCorrAlgorithm {
     }
 
 
-    double[] getRayleighThickness(RayleighAux rayleighAux,
+    public double[] getRayleighThickness(RayleighAux rayleighAux,
                                   double[] crossSectionSigma,
                                   int sourceBandIndex,
                                   String targetBandName) {
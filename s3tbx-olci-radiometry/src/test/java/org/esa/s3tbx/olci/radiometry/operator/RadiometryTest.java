@@ -0,0 +1,147 @@
+package org.esa.s3tbx.olci.radiometry.operator;
+
+import org.esa.snap.core.datamodel.Band;
+import org.esa.snap.core.datamodel.FlagCoding;
+import org.esa.snap.core.datamodel.Product;
+import org.esa.snap.core.datamodel.ProductData;
+import org.esa.snap.core.datamodel.TiePointGrid;
+import org.esa.snap.core.gpf.GPF;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.awt.Color;
+import java.util.HashMap;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Compares the fused OLCI radiometry with the chain of the separate operators.
+ */
+public class RadiometryTest {
+
+    private static final int WIDTH = 6;
+    private static final int HEIGHT = 4;
+    private static final int NUM_BANDS = 21;
+    private static final int LAND_FLAG = 1 << 31;
+    private static final int INVALID_FLAG = 1 << 25;
+    private static final float[] WAVELENGTHS = {
+            400.0f, 412.5f, 442.5f, 490.0f, 510.0f, 560.0f, 620.0f, 665.0f, 673.75f, 681.25f, 708.75f,
+            753.75f, 761.25f, 764.375f, 767.5f, 778.75f, 865.0f, 885.0f, 900.0f, 940.0f, 1020.0f
+    };
+    private static final float[] SOLAR_FLUXES = {
+            1513.6257f, 1708.0474f, 1889.9923f, 1936.2612f, 1919.6490f, 1796.8542f, 1649.1400f, 1530.1553f, 1494.7185f,
+            1468.8616f, 1403.1105f, 1266.3196f, 1247.4586f, 1238.9945f, 1229.7690f, 1173.4987f, 959.71075f, 930.86300f,
+            895.76700f, 826.40735f, 699.70306f
+    };
+
+    @BeforeClass
+    public static void setUpClass() {
+        GPF.getDefaultInstance().getOperatorSpiRegistry().loadOperatorSpis();
+    }
+
+    @Test
+    public void testFusedResultEqualsOperatorChain() {
+        Product source = createOlciProduct();
+
+        HashMap<String, Object> fusedParameters = new HashMap<>();
+        fusedParameters.put("outputSmileCorrectedRadiance", true);
+        fusedParameters.put("outputGaseousTransmission", true);
+        fusedParameters.put("outputRtoaNg", true);
+        Product fused = GPF.createProduct("OLCI.Radiomerty", fusedParameters, source);
+
+        Product smile = GPF.createProduct("SmileCorrection.Olci", new HashMap<>(), source);
+        Product gas = GPF.createProduct("GaseousAbsorption", new HashMap<>(), smile);
+        HashMap<String, Object> rayleighParameters = new HashMap<>();
+        String[] radianceNames = new String[NUM_BANDS];
+        for (int i = 0; i < NUM_BANDS; i++) {
+            radianceNames[i] = String.format("Oa%02d_radiance", i + 1);
+        }
+        rayleighParameters.put("sourceBandNames", radianceNames);
+        rayleighParameters.put("computeRtoaNg", true);
+        Product rayleigh = GPF.createProduct("RayleighCorrection", rayleighParameters, smile);
+
+        for (int i = 1; i <= NUM_BANDS; i++) {
+            assertBandEquals(smile, fused, String.format("Oa%02d_radiance", i));
+            assertBandEquals(gas, fused, String.format("gaseous_absorp_%02d", i));
+            assertBandEquals(rayleigh, fused, String.format("rtoa_ng_%02d", i));
+            assertBandEquals(rayleigh, fused, String.format("rBRR_%02d", i));
+        }
+    }
+
+    private static void assertBandEquals(Product expectedProduct, Product actualProduct, String bandName) {
+        float[] expected = readPixels(expectedProduct.getBand(bandName));
+        float[] actual = readPixels(actualProduct.getBand(bandName));
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(bandName + " at pixel " + i, expected[i], actual[i], Math.abs(expected[i]) * 1.0e-6);
+        }
+    }
+
+    private static float[] readPixels(Band band) {
+        return band.getSourceImage().getData().getSamples(0, 0, WIDTH, HEIGHT, 0, new float[WIDTH * HEIGHT]);
+    }
+
+    private static Product createOlciProduct() {
+        Product product = new Product("olci", "OL_1_EFR", WIDTH, HEIGHT);
+        for (int i = 0; i < NUM_BANDS; i++) {
+            final int bandIndex = i;
+            Band radiance = addBand(product, String.format("Oa%02d_radiance", i + 1),
+                                    (x, y) -> 40.0f + 20.0f * (float) Math.sin(0.7 * x + 1.3 * y + bandIndex));
+            radiance.setSpectralWavelength(WAVELENGTHS[i]);
+            radiance.setSpectralBandIndex(i);
+            addBand(product, String.format("lambda0_band_%d", i + 1),
+                    (x, y) -> WAVELENGTHS[bandIndex] + 0.4f * (float) Math.cos(0.9 * x - 0.4 * y + bandIndex));
+            addBand(product, String.format("solar_flux_band_%d", i + 1),
+                    (x, y) -> SOLAR_FLUXES[bandIndex] + 3.0f * (float) Math.sin(0.3 * x + 0.8 * y - bandIndex));
+        }
+        addBand(product, "altitude", (x, y) -> 10.0f * x + 25.0f * y);
+        addBand(product, "latitude", (x, y) -> 45.0f + 0.01f * y);
+        addBand(product, "longitude", (x, y) -> 10.0f + 0.01f * x);
+        addTiePointGrid(product, "SZA", (x, y) -> 35.0f + 1.5f * x + 0.5f * y);
+        addTiePointGrid(product, "OZA", (x, y) -> 5.0f + 4.0f * x + 0.2f * y);
+        addTiePointGrid(product, "SAA", (x, y) -> 120.0f + 0.5f * x + 0.3f * y);
+        addTiePointGrid(product, "OAA", (x, y) -> 100.0f - 0.7f * x + 0.1f * y);
+        addTiePointGrid(product, "sea_level_pressure", (x, y) -> 1005.0f + x + 2.0f * y);
+        addTiePointGrid(product, "total_ozone", (x, y) -> 0.0065f + 0.0001f * x - 0.00005f * y);
+
+        Band qualityFlags = product.addBand("quality_flags", ProductData.TYPE_INT32);
+        int[] flags = new int[WIDTH * HEIGHT];
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                flags[y * WIDTH + x] = ((x + y) % 3 == 0 ? LAND_FLAG : 0) | (x == 5 && y == 3 ? INVALID_FLAG : 0);
+            }
+        }
+        qualityFlags.setRasterData(ProductData.createInstance(flags));
+        FlagCoding flagCoding = new FlagCoding("quality_flags");
+        flagCoding.addFlag("land", LAND_FLAG, null);
+        flagCoding.addFlag("invalid", INVALID_FLAG, null);
+        product.getFlagCodingGroup().add(flagCoding);
+        qualityFlags.setSampleCoding(flagCoding);
+        product.addMask("quality_flags_land", "quality_flags.land", null, Color.GREEN, 0.5);
+        return product;
+    }
+
+    private static Band addBand(Product product, String name, Function function) {
+        Band band = product.addBand(name, ProductData.TYPE_FLOAT32);
+        band.setRasterData(ProductData.createInstance(createData(function)));
+        return band;
+    }
+
+    private static void addTiePointGrid(Product product, String name, Function function) {
+        product.addTiePointGrid(new TiePointGrid(name, WIDTH, HEIGHT, 0.5, 0.5, 1.0, 1.0, createData(function)));
+    }
+
+    private static float[] createData(Function function) {
+        float[] data = new float[WIDTH * HEIGHT];
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                data[y * WIDTH + x] = function.value(x, y);
+            }
+        }
+        return data;
+    }
+
+    private interface Function {
+
+        float value(int x, int y);
+    }
+}
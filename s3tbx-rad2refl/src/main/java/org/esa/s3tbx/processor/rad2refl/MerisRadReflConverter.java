@@ -24,4 +24,14 @@ public class MerisRadReflConverter implements RadReflConverter {
         }
     }
 
+    @Override
+    public void computeGeometryFactors(float[] sza, double[] geometryFactors) {
+        RadReflConversion.computeGeometryFactors(conversionMode.equals("RAD_TO_REFL"), sza, geometryFactors);
+    }
+
+    @Override
+    public void convert(float[] spectralValues, double[] geometryFactors, float[] solarFluxes) {
+        RadReflConversion.convert(conversionMode.equals("RAD_TO_REFL"), spectralValues, geometryFactors, solarFluxes);
+    }
+
 }
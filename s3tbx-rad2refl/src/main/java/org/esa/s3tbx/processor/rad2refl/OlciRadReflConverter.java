@@ -23,4 +23,14 @@ public class OlciRadReflConverter implements RadReflConverter {
             return RsMathUtils.reflectanceToRadiance(spectralInputValue, sza, solarFlux);
         }
     }
+
+    @Override
+    public void computeGeometryFactors(float[] sza, double[] geometryFactors) {
+        RadReflConversion.computeGeometryFactors(conversionMode.equals("RAD_TO_REFL"), sza, geometryFactors);
+    }
+
+    @Override
+    public void convert(float[] spectralValues, double[] geometryFactors, float[] solarFluxes) {
+        RadReflConversion.convert(conversionMode.equals("RAD_TO_REFL"), spectralValues, geometryFactors, solarFluxes);
+    }
 }
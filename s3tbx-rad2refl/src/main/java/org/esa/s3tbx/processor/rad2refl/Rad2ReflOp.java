@@ -80,18 +80,21 @@ public class Rad2ReflOp extends Operator {
 
     private RadReflConverter converter;
 
-    private transient int currentPixel = 0;
     private String spectralInputBandPrefix;
     private Product targetProduct;
     private Rad2ReflAuxdata rad2ReflAuxdata;
 
     private String[] spectralInputBandNames;
     private String[] spectralOutputBandNames;
+    private Band[] spectralInputBands;
+    private Band[] spectralOutputBands;
 
     private VirtualBandOpImage invalidImage;
     private VirtualBandOpImage[] slstrInvalidImages;
 
-    private Map<String, Float> slstrSolarFluxMap;
+    private float[] slstrSolarFluxes;
+    // 0 for nadir view, 1 for oblique view
+    private int[] slstrSzaIndices;
 
 
     @Override
@@ -111,9 +114,19 @@ public class Rad2ReflOp extends Operator {
             setupInvalidImage(Sensor.OLCI.getInvalidPixelExpression());
             converter = new OlciRadReflConverter(conversionMode);
         } else if (sensor == Sensor.SLSTR_500m) {
-            slstrSolarFluxMap = SlstrRadReflConverter.getSolarFluxMapFromQualityMetadata(sourceProduct,
-                                                                                         spectralInputBandNames,
-                                                                                         isRadToReflMode());
+            final Map<String, Float> slstrSolarFluxMap =
+                    SlstrRadReflConverter.getSolarFluxMapFromQualityMetadata(sourceProduct, spectralInputBandNames,
+                                                                             isRadToReflMode());
+            slstrSolarFluxes = new float[spectralInputBandNames.length];
+            slstrSzaIndices = new int[spectralInputBandNames.length];
+            for (int i = 0; i < spectralInputBandNames.length; i++) {
+                final Float solarFlux = slstrSolarFluxMap.get(spectralInputBandNames[i]);
+                if (solarFlux == null) {
+                    throw new OperatorException("No solar flux available for band '" + spectralInputBandNames[i] + "'.");
+                }
+                slstrSolarFluxes[i] = solarFlux;
+                slstrSzaIndices[i] = spectralInputBandNames[i].endsWith("o") ? 1 : 0;
+            }
             slstrInvalidImages = SlstrRadReflConverter.
                     createInvalidImages(sourceProduct, spectralInputBandNames, isRadToReflMode());
             converter = new SlstrRadReflConverter(conversionMode);
@@ -123,6 +136,12 @@ public class Rad2ReflOp extends Operator {
         }
         Product targetProduct = createTargetProduct();
         setTargetProduct(targetProduct);
+        spectralInputBands = new Band[spectralInputBandNames.length];
+        spectralOutputBands = new Band[spectralOutputBandNames.length];
+        for (int i = 0; i < spectralInputBandNames.length; i++) {
+            spectralInputBands[i] = sourceProduct.getBand(spectralInputBandNames[i]);
+            spectralOutputBands[i] = targetProduct.getBand(spectralOutputBandNames[i]);
+        }
     }
 
     private void setInputAndOutputBands() {
@@ -146,76 +165,68 @@ public class Rad2ReflOp extends Operator {
     }
 
     @Override
-    public void computeTile(Band targetBand, Tile targetTile, ProgressMonitor pm) throws OperatorException {
-        checkCancellation();
-        int bandIndex = -1;
-        for (int i = 0; i < spectralOutputBandNames.length; i++) {
-            if (spectralOutputBandNames[i].equals(targetBand.getName())) {
-                bandIndex = i;
-            }
+    public void computeTileStack(Map<Band, Tile> targetTiles, Rectangle rectangle, ProgressMonitor pm) throws OperatorException {
+        final int numPixels = rectangle.width * rectangle.height;
+
+        // the geometry and the validity are shared by all spectral bands
+        final Tile[] szaTiles = getSzaSourceTiles(rectangle);
+        final double[][] geometryFactors = new double[szaTiles.length][numPixels];
+        for (int i = 0; i < szaTiles.length; i++) {
+            converter.computeGeometryFactors(szaTiles[i].getSamplesFloat(), geometryFactors[i]);
+        }
+        int[] invalid = null;
+        if (invalidImage != null) {
+            invalid = getInvalidSamples(invalidImage, rectangle);
+        }
+        int[] detectorIndices = null;
+        if (sensor == Sensor.MERIS) {
+            detectorIndices = getSourceTile(sourceProduct.getBand(MERIS_DETECTOR_INDEX_DS_NAME), rectangle).getSamplesInt();
         }
 
-        if (bandIndex >= 0) {
-            final Rectangle rectangle = targetTile.getRectangle();
-
-            Raster isInvalid;
-            if (sensor == Sensor.SLSTR_500m) {
-                isInvalid = slstrInvalidImages[bandIndex].getData(rectangle);
-            } else {
-                isInvalid = invalidImage.getData(rectangle);
+        final float[] solarFluxes = new float[numPixels];
+        for (int bandIndex = 0; bandIndex < spectralOutputBands.length; bandIndex++) {
+            final Tile targetTile = targetTiles.get(spectralOutputBands[bandIndex]);
+            if (targetTile == null) {
+                continue;
             }
+            checkForCancellation();
+            final Band spectralBandToConvert = spectralInputBands[bandIndex];
+            final float[] spectralValues = getSourceTile(spectralBandToConvert, rectangle).getSamplesFloat();
 
-            final Band spectralBandToConvert = sourceProduct.getBand(spectralInputBandNames[bandIndex]);
-            final Tile[] szaTiles = getSzaSourceTiles(rectangle);
-            final Tile spectralBandToConvertTile = getSourceTile(spectralBandToConvert, rectangle);
-
-            Tile detectorIndexTile = null;
-            if (sensor == Sensor.MERIS) {
-                detectorIndexTile = getSourceTile(sourceProduct.getBand(MERIS_DETECTOR_INDEX_DS_NAME), rectangle);
-            }
-            Tile solarFluxTile = null;
+            double[] bandGeometryFactors = geometryFactors[0];
+            int[] bandInvalid = invalid;
             if (sensor == Sensor.OLCI) {
-                solarFluxTile = getSourceTile(sourceProduct.getBand(sensor.getSolarFluxBandNames()[bandIndex]), rectangle);
+                final Band solarFluxBand = sourceProduct.getBand(sensor.getSolarFluxBandNames()[bandIndex]);
+                final float[] fluxes = getSourceTile(solarFluxBand, rectangle).getSamplesFloat();
+                System.arraycopy(fluxes, 0, solarFluxes, 0, numPixels);
+            } else if (sensor == Sensor.MERIS) {
+                final double[][] detectorFluxes = rad2ReflAuxdata.getDetectorSunSpectralFluxes();
+                final float bandSolarFlux = spectralBandToConvert.getSolarFlux();
+                for (int i = 0; i < numPixels; i++) {
+                    final int detectorIndex = detectorIndices[i];
+                    solarFluxes[i] = detectorIndex >= 0 ? (float) detectorFluxes[detectorIndex][bandIndex] : bandSolarFlux;
+                }
+            } else {
+                Arrays.fill(solarFluxes, slstrSolarFluxes[bandIndex]);
+                bandGeometryFactors = geometryFactors[slstrSzaIndices[bandIndex]];
+                bandInvalid = getInvalidSamples(slstrInvalidImages[bandIndex], rectangle);
             }
 
-            for (int y = rectangle.y; y < rectangle.y + rectangle.height; y++) {
-                checkForCancellation();
-                for (int x = rectangle.x; x < rectangle.x + rectangle.width; x++) {
-                    if (isInvalid.getSample(x, y, 0) != 0) {
-                        targetTile.setSample(x, y, Rad2ReflConstants.RAD_TO_REFL_NODATA);
-                    } else {
-                        float solarFlux = Float.NaN;
-                        float sza = Float.NaN;
-                        if (solarFluxTile != null && sensor == Sensor.OLCI) {
-                            solarFlux = solarFluxTile.getSampleFloat(x, y);
-                            sza = szaTiles[0].getSampleFloat(x, y);
-                        } else if (detectorIndexTile != null && sensor == Sensor.MERIS) {
-                            final int detectorIndex = detectorIndexTile.getSampleInt(x, y);
-                            if (detectorIndex >= 0) {
-                                solarFlux = (float) rad2ReflAuxdata.getDetectorSunSpectralFluxes()[detectorIndex][bandIndex];
-                            } else {
-                                solarFlux = spectralBandToConvert.getSolarFlux();
-                            }
-                            sza = szaTiles[0].getSampleFloat(x, y);
-                        } else if (sensor == Sensor.SLSTR_500m) {
-                            solarFlux = slstrSolarFluxMap.get(spectralBandToConvert.getName());
-                            if (spectralBandToConvert.getName().endsWith("o")) {
-                                sza = szaTiles[1].getSampleFloat(x, y);
-                            } else {
-                                sza = szaTiles[0].getSampleFloat(x, y);
-                            }
-                        }
-
-                        final float spectralValueToConvert = spectralBandToConvertTile.getSampleFloat(x, y);
-                        final float spectralValueConverted = converter.convert(spectralValueToConvert, sza, solarFlux);
-                        targetTile.setSample(x, y, Float.isNaN(spectralValueConverted) ?
-                                Rad2ReflConstants.RAD_TO_REFL_NODATA : spectralValueConverted);
-                    }
+            converter.convert(spectralValues, bandGeometryFactors, solarFluxes);
+            for (int i = 0; i < numPixels; i++) {
+                if (bandInvalid[i] != 0 || Float.isNaN(spectralValues[i])) {
+                    spectralValues[i] = Rad2ReflConstants.RAD_TO_REFL_NODATA;
                 }
             }
+            targetTile.setSamples(spectralValues);
         }
     }
 
+    private static int[] getInvalidSamples(VirtualBandOpImage image, Rectangle rectangle) {
+        final Raster isInvalid = image.getData(rectangle);
+        return isInvalid.getSamples(rectangle.x, rectangle.y, rectangle.width, rectangle.height, 0, (int[]) null);
+    }
+
     private boolean productHasAllSpectralBands(String[] spectralInputBandNames) {
         // check if input product contains all expected spectral bands
         List<String> allBandsName = Arrays.asList(sourceProduct.getBandNames());
@@ -343,14 +354,6 @@ public class Rad2ReflOp extends Operator {
         return conversionMode.equals("RAD_TO_REFL");
     }
 
-    private void checkCancellation() {
-        if (currentPixel % 1000 == 0) {
-            checkForCancellation();
-            currentPixel = 0;
-        }
-        currentPixel++;
-    }
-
     public static class Spi extends OperatorSpi {
 
         public Spi() {
@@ -0,0 +1,35 @@
+package org.esa.s3tbx.processor.rad2refl;
+
+import org.esa.snap.core.util.math.MathUtils;
+
+/**
+ * The conversion of all pixels of a tile, shared by the sensor-dependent converters.
+ * <p>
+ * The radiance to reflectance conversion {@code rad * PI / (solarFlux * cos(sza))} is split into the factor
+ * {@code PI / cos(sza)}, which is computed once per tile, and the division by the solar flux of the band. The
+ * reflectance to radiance conversion is split accordingly.
+ */
+class RadReflConversion {
+
+    private RadReflConversion() {
+    }
+
+    static void computeGeometryFactors(boolean radToRefl, float[] sza, double[] geometryFactors) {
+        for (int i = 0; i < sza.length; i++) {
+            final double cosSza = Math.cos(sza[i] * MathUtils.DTOR);
+            geometryFactors[i] = radToRefl ? Math.PI / cosSza : cosSza / Math.PI;
+        }
+    }
+
+    static void convert(boolean radToRefl, float[] spectralValues, double[] geometryFactors, float[] solarFluxes) {
+        if (radToRefl) {
+            for (int i = 0; i < spectralValues.length; i++) {
+                spectralValues[i] = (float) (spectralValues[i] * geometryFactors[i] / solarFluxes[i]);
+            }
+        } else {
+            for (int i = 0; i < spectralValues.length; i++) {
+                spectralValues[i] = (float) (spectralValues[i] * geometryFactors[i] * solarFluxes[i]);
+            }
+        }
+    }
+}
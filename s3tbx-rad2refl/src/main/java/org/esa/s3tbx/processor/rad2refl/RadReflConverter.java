@@ -8,4 +8,22 @@ package org.esa.s3tbx.processor.rad2refl;
 public interface RadReflConverter {
 
     float convert(float spectralInputValue, float sza, float solarFlux);
+
+    /**
+     * Computes the part of the conversion which only depends on the sun zenith angle, so it can be shared by all
+     * spectral bands of a tile.
+     *
+     * @param sza             the sun zenith angles in degree
+     * @param geometryFactors the factors, one per sun zenith angle
+     */
+    void computeGeometryFactors(float[] sza, double[] geometryFactors);
+
+    /**
+     * Converts the spectral values of one band of a tile.
+     *
+     * @param spectralValues  the values to convert, replaced by the converted values
+     * @param geometryFactors the factors computed by {@link #computeGeometryFactors(float[], double[])}
+     * @param solarFluxes     the solar flux of each value
+     */
+    void convert(float[] spectralValues, double[] geometryFactors, float[] solarFluxes);
 }
@@ -33,6 +33,16 @@ public class SlstrRadReflConverter implements RadReflConverter {
         }
     }
 
+    @Override
+    public void computeGeometryFactors(float[] sza, double[] geometryFactors) {
+        RadReflConversion.computeGeometryFactors(conversionMode.equals("RAD_TO_REFL"), sza, geometryFactors);
+    }
+
+    @Override
+    public void convert(float[] spectralValues, double[] geometryFactors, float[] solarFluxes) {
+        RadReflConversion.convert(conversionMode.equals("RAD_TO_REFL"), spectralValues, geometryFactors, solarFluxes);
+    }
+
     static Map<String, Float> getSolarFluxMapFromQualityMetadata(Product sourceProduct,
                                                                  String[] spectralInputBandNames,
                                                                  boolean radToReflMode) {
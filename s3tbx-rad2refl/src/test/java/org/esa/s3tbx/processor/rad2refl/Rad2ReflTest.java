@@ -15,8 +15,14 @@
  */
 package org.esa.s3tbx.processor.rad2refl;
 
+import org.esa.snap.core.datamodel.Band;
+import org.esa.snap.core.datamodel.FlagCoding;
+import org.esa.snap.core.datamodel.Product;
+import org.esa.snap.core.datamodel.ProductData;
+import org.esa.snap.dataio.envisat.EnvisatConstants;
 import org.junit.Test;
 
+import java.awt.image.Raster;
 import java.io.IOException;
 
 import static org.junit.Assert.assertEquals;
@@ -52,5 +58,132 @@ public class Rad2ReflTest {
         }
 
     }
-}
 
+    @Test
+    public void testTileConversionEqualsPixelConversion() {
+        final float[] sza = {0.0f, 23.5f, 45.0f, 71.2f};
+        final float[] solarFluxes = {1714.9f, 1879.8f, 1929.3f, 1804.1f};
+        final float[] radiances = {87.3f, 64.1f, 35.9f, 12.4f};
+        for (String mode : new String[]{"RAD_TO_REFL", "REFL_TO_RAD"}) {
+            final RadReflConverter converter = new OlciRadReflConverter(mode);
+            final float[] expected = new float[radiances.length];
+            for (int i = 0; i < radiances.length; i++) {
+                expected[i] = converter.convert(radiances[i], sza[i], solarFluxes[i]);
+            }
+            final double[] geometryFactors = new double[sza.length];
+            converter.computeGeometryFactors(sza, geometryFactors);
+            final float[] actual = radiances.clone();
+            converter.convert(actual, geometryFactors, solarFluxes);
+            for (int i = 0; i < expected.length; i++) {
+                assertEquals(expected[i], actual[i], Math.abs(expected[i]) * 1.0e-6);
+            }
+        }
+    }
+
+    @Test
+    public void testComputeTileStackSlstr() {
+        final int width = 3;
+        final int height = 2;
+        final Product product = new Product("slstr", "SL_1_RBT", width, height);
+        final float[] radiance = {40.0f, 55.0f, 70.0f, 85.0f, 100.0f, 115.0f};
+        addFloatBand(product, "S1_radiance_an", radiance);
+        addFloatBand(product, "S1_radiance_ao", radiance);
+        final float[] szaNadir = {10.0f, 20.0f, 30.0f, 40.0f, 50.0f, 60.0f};
+        final float[] szaOblique = {65.0f, 55.0f, 45.0f, 35.0f, 25.0f, 15.0f};
+        addFloatBand(product, "solar_zenith_tn", szaNadir);
+        addFloatBand(product, "solar_zenith_to", szaOblique);
+        // the second pixel of the nadir view is saturated
+        addSlstrExceptionBand(product, "S1_exception_an", new byte[]{0, 2, 0, 0, 0, 0});
+        addSlstrExceptionBand(product, "S1_exception_ao", new byte[6]);
+
+        final Rad2ReflOp op = new Rad2ReflOp();
+        op.setParameterDefaultValues();
+        op.setParameter("sensor", Sensor.SLSTR_500m);
+        op.setSourceProduct(product);
+        final Product target = op.getTargetProduct();
+        final Raster nadir = target.getBand("S1_reflectance_an").getGeophysicalImage().getData();
+        final Raster oblique = target.getBand("S1_reflectance_ao").getGeophysicalImage().getData();
+
+        // without quality metadata the default solar flux of S1 is used
+        final float solarFlux = Sensor.SLSTR_500m.getSolarFluxesDefault()[0];
+        for (int i = 0; i < radiance.length; i++) {
+            final int x = i % width;
+            final int y = i / width;
+            final float expectedNadir = i == 1 ? Rad2ReflConstants.RAD_TO_REFL_NODATA
+                                               : reflectance(radiance[i], szaNadir[i], solarFlux);
+            assertEquals(expectedNadir, nadir.getSampleFloat(x, y, 0), 1.0e-4);
+            // the oblique view uses the oblique sun zenith angle
+            assertEquals(reflectance(radiance[i], szaOblique[i], solarFlux), oblique.getSampleFloat(x, y, 0), 1.0e-4);
+        }
+    }
+
+    @Test
+    public void testComputeTileStackMeris() throws IOException {
+        final int width = 2;
+        final int height = 2;
+        final Product product = new Product("meris", "MER_RR__1P", width, height);
+        final float[] radiance = {80.0f, 65.0f, 50.0f, 35.0f};
+        final String[] radianceBandNames = EnvisatConstants.MERIS_L1B_SPECTRAL_BAND_NAMES;
+        for (int b = 0; b < radianceBandNames.length; b++) {
+            final Band band = addFloatBand(product, radianceBandNames[b], radiance);
+            band.setSpectralBandIndex(b);
+            band.setSolarFlux(1500.0f + b);
+        }
+        final float[] sza = {25.0f, 35.0f, 45.0f, 55.0f};
+        addFloatBand(product, "sun_zenith", sza);
+        // the third pixel has no detector index
+        final short[] detectorIndices = {12, 376, -1, 525};
+        final Band detectorBand = product.addBand(EnvisatConstants.MERIS_DETECTOR_INDEX_DS_NAME, ProductData.TYPE_INT16);
+        detectorBand.setRasterData(ProductData.createInstance(detectorIndices));
+        // the last pixel is invalid
+        final FlagCoding flagCoding = new FlagCoding("l1_flags");
+        flagCoding.addFlag("INVALID", 0x80, "invalid pixel");
+        product.getFlagCodingGroup().add(flagCoding);
+        final Band flagBand = product.addBand("l1_flags", ProductData.TYPE_UINT8);
+        flagBand.setSampleCoding(flagCoding);
+        flagBand.setRasterData(ProductData.createInstance(ProductData.TYPE_UINT8, new byte[]{0, 0, 0, (byte) 0x80}));
+
+        final Rad2ReflOp op = new Rad2ReflOp();
+        op.setParameterDefaultValues();
+        op.setParameter("sensor", Sensor.MERIS);
+        op.setSourceProduct(product);
+        final Product target = op.getTargetProduct();
+
+        final double[][] detectorFluxes = Rad2ReflAuxdata.loadMERISAuxdata("MER_RR").getDetectorSunSpectralFluxes();
+        for (int b = 0; b < radianceBandNames.length; b++) {
+            final Raster reflectance = target.getBand("reflectance_" + (b + 1)).getGeophysicalImage().getData();
+            for (int i = 0; i < radiance.length; i++) {
+                final float expected;
+                if (i == 3) {
+                    expected = Rad2ReflConstants.RAD_TO_REFL_NODATA;
+                } else if (detectorIndices[i] < 0) {
+                    expected = reflectance(radiance[i], sza[i], 1500.0f + b);
+                } else {
+                    expected = reflectance(radiance[i], sza[i], (float) detectorFluxes[detectorIndices[i]][b]);
+                }
+                assertEquals(expected, reflectance.getSampleFloat(i % width, i / width, 0), 1.0e-4);
+            }
+        }
+    }
+
+    private static float reflectance(float radiance, float sza, float solarFlux) {
+        return (float) (radiance * Math.PI / (solarFlux * Math.cos(Math.toRadians(sza))));
+    }
+
+    private static Band addFloatBand(Product product, String name, float[] data) {
+        final Band band = product.addBand(name, ProductData.TYPE_FLOAT32);
+        band.setRasterData(ProductData.createInstance(data));
+        return band;
+    }
+
+    private static void addSlstrExceptionBand(Product product, String name, byte[] data) {
+        final FlagCoding flagCoding = new FlagCoding(name);
+        flagCoding.addFlag("unfilled_pixel", 1, "unfilled pixel");
+        flagCoding.addFlag("saturation", 2, "saturated pixel");
+        flagCoding.addFlag("invalid_radiance", 4, "invalid radiance");
+        product.getFlagCodingGroup().add(flagCoding);
+        final Band band = product.addBand(name, ProductData.TYPE_UINT8);
+        band.setSampleCoding(flagCoding);
+        band.setRasterData(ProductData.createInstance(ProductData.TYPE_UINT8, data));
+    }
+}
@@ -17,4 +17,18 @@ package org.esa.s3tbx.dataio.s3;/*
 public interface LonLatFunction {
 
     public double getValue(double lon, double lat);
+
+    /**
+     * Computes the function values for several positions at once, e.g. for all pixels of a tile.
+     *
+     * @param lons   the longitudes
+     * @param lats   the latitudes
+     * @param values the function values computed
+     * @param count  the number of positions
+     */
+    default void getValues(double[] lons, double[] lats, double[] values, int count) {
+        for (int i = 0; i < count; i++) {
+            values[i] = getValue(lons[i], lats[i]);
+        }
+    }
 }
@@ -39,93 +39,57 @@ final class LonLatFunctionOpImage extends PointOpImage {
         final int lonDataType = sources[0].getSampleModel().getDataType();
         final int latDataType = sources[1].getSampleModel().getDataType();
         final int targetDataType = target.getSampleModel().getDataType();
+        if (!isFloatOrDouble(targetDataType) || !isFloatOrDouble(lonDataType) || !isFloatOrDouble(latDataType)) {
+            return;
+        }
         final PixelAccessor lonAcc = new PixelAccessor(getSourceImage(0));
         final PixelAccessor latAcc = new PixelAccessor(getSourceImage(1));
         final PixelAccessor targetAcc = new PixelAccessor(this);
-        final UnpackedImageData lonPixels;
-        final UnpackedImageData latPixels;
-        final UnpackedImageData targetPixels;
-
-        lonPixels = lonAcc.getPixels(sources[0], targetRectangle, lonDataType, false);
-        latPixels = latAcc.getPixels(sources[1], targetRectangle, lonDataType, false);
-        targetPixels = targetAcc.getPixels(target, targetRectangle, targetDataType, true);
-
-        if (lonDataType == DataBuffer.TYPE_FLOAT && latDataType == DataBuffer.TYPE_FLOAT) {
-            if (targetDataType == DataBuffer.TYPE_FLOAT) {
-                ff(lonPixels, latPixels, targetPixels, targetRectangle);
-            } else if (targetDataType == DataBuffer.TYPE_DOUBLE) {
-                fd(lonPixels, latPixels, targetPixels, targetRectangle);
+        final UnpackedImageData lonPixels = lonAcc.getPixels(sources[0], targetRectangle, lonDataType, false);
+        final UnpackedImageData latPixels = latAcc.getPixels(sources[1], targetRectangle, latDataType, false);
+        final UnpackedImageData targetPixels = targetAcc.getPixels(target, targetRectangle, targetDataType, true);
+
+        // the function is evaluated for all valid pixels of the tile at once
+        final int pixelCount = targetRectangle.width * targetRectangle.height;
+        final double[] lons = new double[pixelCount];
+        final double[] lats = new double[pixelCount];
+        final int[] targetOffsets = new int[pixelCount];
+        final int count = collectPositions(lonPixels, latPixels, targetPixels, targetRectangle, lons, lats,
+                                           targetOffsets);
+        final double[] values = new double[count];
+        function.getValues(lons, lats, values, count);
+
+        if (targetDataType == DataBuffer.TYPE_FLOAT) {
+            final float[] targetData = targetPixels.getFloatData(0);
+            for (int i = 0; i < count; i++) {
+                targetData[targetOffsets[i]] = (float) values[i];
             }
-        } else if (lonDataType == DataBuffer.TYPE_DOUBLE && latDataType == DataBuffer.TYPE_DOUBLE) {
-            if (targetDataType == DataBuffer.TYPE_FLOAT) {
-                df(lonPixels, latPixels, targetPixels, targetRectangle);
-            } else if (targetDataType == DataBuffer.TYPE_DOUBLE) {
-                dd(lonPixels, latPixels, targetPixels, targetRectangle);
+        } else {
+            final double[] targetData = targetPixels.getDoubleData(0);
+            for (int i = 0; i < count; i++) {
+                targetData[targetOffsets[i]] = values[i];
             }
         }
 
         targetAcc.setPixels(targetPixels);
     }
 
-    private void dd(UnpackedImageData lonPixels, UnpackedImageData latPixels, UnpackedImageData targetPixels,
-                    Rectangle targetRectangle) {
-        final int lonLineStride = lonPixels.lineStride;
-        final int latLineStride = lonPixels.lineStride;
-        final int lonPixelStride = lonPixels.pixelStride;
-        final int latPixelStride = lonPixels.pixelStride;
-        final double[] lonData = lonPixels.getDoubleData(0);
-        final double[] latData = latPixels.getDoubleData(0);
-
-        final int targetLineStride = targetPixels.lineStride;
-        final int targetPixelStride = targetPixels.pixelStride;
-        @SuppressWarnings("MismatchedReadAndWriteOfArray")
-        final double[] targetData = targetPixels.getDoubleData(0);
-
-        final int w = targetRectangle.width;
-        final int h = targetRectangle.height;
-
-        int lonLineOffset = lonPixels.bandOffsets[0];
-        int latLineOffset = latPixels.bandOffsets[0];
-        int targetLineOffset = targetPixels.bandOffsets[0];
-
-        for (int y = 0; y < h; y++) {
-            int lonPixelOffset = lonLineOffset;
-            int latPixelOffset = latLineOffset;
-            lonLineOffset += lonLineStride;
-            latLineOffset += latLineStride;
-
-            int targetPixelOffset = targetLineOffset;
-            targetLineOffset += targetLineStride;
-
-            for (int x = 0; x < w; x++) {
-                final double lon = lonData[lonPixelOffset];
-                if (lon >= -180.0 && lon <= 180.0) {
-                    final double lat = latData[latPixelOffset];
-                    if (lat >= -90.0 && lat <= 90.0) {
-                        targetData[targetPixelOffset] = function.getValue(lon, lat);
-                    }
-                }
-
-                lonPixelOffset += lonPixelStride;
-                latPixelOffset += latPixelStride;
-                targetPixelOffset += targetPixelStride;
-            }
-        }
+    private static boolean isFloatOrDouble(int dataType) {
+        return dataType == DataBuffer.TYPE_FLOAT || dataType == DataBuffer.TYPE_DOUBLE;
     }
 
-    private void df(UnpackedImageData lonPixels, UnpackedImageData latPixels, UnpackedImageData targetPixels,
-                    Rectangle targetRectangle) {
-        final int lonLineStride = lonPixels.lineStride;
-        final int latLineStride = lonPixels.lineStride;
-        final int lonPixelStride = lonPixels.pixelStride;
-        final int latPixelStride = lonPixels.pixelStride;
-        final double[] lonData = lonPixels.getDoubleData(0);
-        final double[] latData = latPixels.getDoubleData(0);
-
-        final int targetLineStride = targetPixels.lineStride;
-        final int targetPixelStride = targetPixels.pixelStride;
-        @SuppressWarnings("MismatchedReadAndWriteOfArray")
-        final float[] targetData = targetPixels.getFloatData(0);
+    /**
+     * Collects the pixels with valid longitude and latitude.
+     *
+     * @return the number of pixels collected
+     */
+    private static int collectPositions(UnpackedImageData lonPixels, UnpackedImageData latPixels,
+                                        UnpackedImageData targetPixels, Rectangle targetRectangle,
+                                        double[] lons, double[] lats, int[] targetOffsets) {
+        final float[] lonFloats = lonPixels.type == DataBuffer.TYPE_FLOAT ? lonPixels.getFloatData(0) : null;
+        final float[] latFloats = latPixels.type == DataBuffer.TYPE_FLOAT ? latPixels.getFloatData(0) : null;
+        final double[] lonDoubles = lonFloats == null ? lonPixels.getDoubleData(0) : null;
+        final double[] latDoubles = latFloats == null ? latPixels.getDoubleData(0) : null;
 
         final int w = targetRectangle.width;
         final int h = targetRectangle.height;
@@ -134,120 +98,32 @@ final class LonLatFunctionOpImage extends PointOpImage {
         int latLineOffset = latPixels.bandOffsets[0];
         int targetLineOffset = targetPixels.bandOffsets[0];
 
+        int count = 0;
         for (int y = 0; y < h; y++) {
             int lonPixelOffset = lonLineOffset;
             int latPixelOffset = latLineOffset;
-            lonLineOffset += lonLineStride;
-            latLineOffset += latLineStride;
-
             int targetPixelOffset = targetLineOffset;
-            targetLineOffset += targetLineStride;
+            lonLineOffset += lonPixels.lineStride;
+            latLineOffset += latPixels.lineStride;
+            targetLineOffset += targetPixels.lineStride;
 
             for (int x = 0; x < w; x++) {
-                final double lon = lonData[lonPixelOffset];
+                final double lon = lonFloats != null ? lonFloats[lonPixelOffset] : lonDoubles[lonPixelOffset];
                 if (lon >= -180.0 && lon <= 180.0) {
-                    final double lat = latData[latPixelOffset];
+                    final double lat = latFloats != null ? latFloats[latPixelOffset] : latDoubles[latPixelOffset];
                     if (lat >= -90.0 && lat <= 90.0) {
-                        targetData[targetPixelOffset] = (float) function.getValue(lon, lat);
-                    }
-                }
-
-                lonPixelOffset += lonPixelStride;
-                latPixelOffset += latPixelStride;
-                targetPixelOffset += targetPixelStride;
-            }
-        }
-    }
-
-    private void fd(UnpackedImageData lonPixels, UnpackedImageData latPixels, UnpackedImageData targetPixels,
-                    Rectangle targetRectangle) {
-        final int lonLineStride = lonPixels.lineStride;
-        final int latLineStride = lonPixels.lineStride;
-        final int lonPixelStride = lonPixels.pixelStride;
-        final int latPixelStride = lonPixels.pixelStride;
-        final float[] lonData = lonPixels.getFloatData(0);
-        final float[] latData = latPixels.getFloatData(0);
-
-        final int targetLineStride = targetPixels.lineStride;
-        final int targetPixelStride = targetPixels.pixelStride;
-        @SuppressWarnings("MismatchedReadAndWriteOfArray")
-        final double[] targetData = targetPixels.getDoubleData(0);
-
-        final int w = targetRectangle.width;
-        final int h = targetRectangle.height;
-
-        int lonLineOffset = lonPixels.bandOffsets[0];
-        int latLineOffset = latPixels.bandOffsets[0];
-        int targetLineOffset = targetPixels.bandOffsets[0];
-
-        for (int y = 0; y < h; y++) {
-            int lonPixelOffset = lonLineOffset;
-            int latPixelOffset = latLineOffset;
-            lonLineOffset += lonLineStride;
-            latLineOffset += latLineStride;
-
-            int targetPixelOffset = targetLineOffset;
-            targetLineOffset += targetLineStride;
-
-            for (int x = 0; x < w; x++) {
-                final float lon = lonData[lonPixelOffset];
-                if (lon >= -180.0f && lon <= 180.0f) {
-                    final float lat = latData[latPixelOffset];
-                    if (lat >= -90.0f && lat <= 90.0f) {
-                        targetData[targetPixelOffset] = function.getValue(lon, lat);
-                    }
-                }
-
-                lonPixelOffset += lonPixelStride;
-                latPixelOffset += latPixelStride;
-                targetPixelOffset += targetPixelStride;
-            }
-        }
-    }
-
-    private void ff(UnpackedImageData lonPixels, UnpackedImageData latPixels, UnpackedImageData targetPixels,
-                    Rectangle targetRectangle) {
-        final int lonLineStride = lonPixels.lineStride;
-        final int latLineStride = lonPixels.lineStride;
-        final int lonPixelStride = lonPixels.pixelStride;
-        final int latPixelStride = lonPixels.pixelStride;
-        final float[] lonData = lonPixels.getFloatData(0);
-        final float[] latData = latPixels.getFloatData(0);
-
-        final int targetLineStride = targetPixels.lineStride;
-        final int targetPixelStride = targetPixels.pixelStride;
-        @SuppressWarnings("MismatchedReadAndWriteOfArray")
-        final float[] targetData = targetPixels.getFloatData(0);
-
-        final int w = targetRectangle.width;
-        final int h = targetRectangle.height;
-
-        int lonLineOffset = lonPixels.bandOffsets[0];
-        int latLineOffset = latPixels.bandOffsets[0];
-        int targetLineOffset = targetPixels.bandOffsets[0];
-
-        for (int y = 0; y < h; y++) {
-            int lonPixelOffset = lonLineOffset;
-            int latPixelOffset = latLineOffset;
-            lonLineOffset += lonLineStride;
-            latLineOffset += latLineStride;
-
-            int targetPixelOffset = targetLineOffset;
-            targetLineOffset += targetLineStride;
-
-            for (int x = 0; x < w; x++) {
-                final float lon = lonData[lonPixelOffset];
-                if (lon >= -180.0f && lon <= 180.0f) {
-                    final float lat = latData[latPixelOffset];
-                    if (lat >= -90.0f && lat <= 90.0f) {
-                        targetData[targetPixelOffset] = (float) function.getValue(lon, lat);
+                        lons[count] = lon;
+                        lats[count] = lat;
+                        targetOffsets[count] = targetPixelOffset;
+                        count++;
                     }
                 }
 
-                lonPixelOffset += lonPixelStride;
-                latPixelOffset += latPixelStride;
-                targetPixelOffset += targetPixelStride;
+                lonPixelOffset += lonPixels.pixelStride;
+                latPixelOffset += latPixels.pixelStride;
+                targetPixelOffset += targetPixels.pixelStride;
             }
         }
+        return count;
     }
 }
@@ -4,6 +4,7 @@ import com.bc.ceres.glevel.MultiLevelImage;
 import org.esa.s3tbx.dataio.s3.AbstractProductFactory;
 import org.esa.s3tbx.dataio.s3.Manifest;
 import org.esa.s3tbx.dataio.s3.Sentinel3ProductReader;
+import org.esa.s3tbx.dataio.s3.util.CompactPixelGeoCoding;
 import org.esa.s3tbx.dataio.s3.util.S3NetcdfReader;
 import org.esa.s3tbx.dataio.s3.util.S3NetcdfReaderFactory;
 import org.esa.snap.core.dataio.geocoding.ComponentFactory;
@@ -54,6 +55,7 @@ public abstract class OlciProductFactory extends AbstractProductFactory {
     final static String SYSPROP_OLCI_PIXEL_CODING_FORWARD = "s3tbx.reader.olci.pixelGeoCoding.forward";
     final static String SYSPROP_OLCI_PIXEL_CODING_INVERSE = "s3tbx.reader.olci.pixelGeoCoding.inverse";
     final static String SYSPROP_OLCI_TIE_POINT_CODING_FORWARD = "s3tbx.reader.olci.tiePointGeoCoding.forward";
+    final static String SYSPROP_OLCI_PIXEL_CODING_COMPACT = "s3tbx.reader.olci.pixelGeoCoding.compact";
 
     OlciProductFactory(Sentinel3ProductReader productReader) {
         super(productReader);
@@ -128,12 +130,18 @@ public abstract class OlciProductFactory extends AbstractProductFactory {
             return;
         }
 
+        final double resolutionInKilometers = getResolutionInKm(targetProduct.getProductType());
+        if (Config.instance("s3tbx").preferences().getBoolean(SYSPROP_OLCI_PIXEL_CODING_COMPACT, false)) {
+            targetProduct.setSceneGeoCoding(new CompactPixelGeoCoding(lonBand, latBand, resolutionInKilometers,
+                                                                      targetProduct.getName()));
+            return;
+        }
+
         final double[] longitudes = RasterUtils.loadDataScaled(lonBand);
         lonBand.unloadRasterData();
         final double[] latitudes = RasterUtils.loadDataScaled(latBand);
         latBand.unloadRasterData();
 
-        final double resolutionInKilometers = getResolutionInKm(targetProduct.getProductType());
         final GeoRaster geoRaster = new GeoRaster(longitudes, latitudes, lonVariableName, latVariableName,
                                                   lonBand.getRasterWidth(), lonBand.getRasterHeight(), resolutionInKilometers);
 
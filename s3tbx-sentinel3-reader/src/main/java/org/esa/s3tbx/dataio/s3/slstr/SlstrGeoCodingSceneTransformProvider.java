@@ -51,20 +51,52 @@ class SlstrGeoCodingSceneTransformProvider implements SceneTransformProvider {
     private abstract class SlstrSceneTransform extends AbstractTransform2D {
 
         protected Point2D transform(Point2D ptSrc, Point2D ptDst, GeoCoding from, GeoCoding to) throws TransformException {
-            if (!from.canGetGeoPos() || !to.canGetPixelPos()) {
+            final double[] pts = {ptSrc.getX(), ptSrc.getY()};
+            transform(pts, 0, pts, 0, 1, from, to);
+            if (Double.isNaN(pts[0]) || Double.isNaN(pts[1])) {
                 throw new TransformException("Cannot transform");
             }
-            PixelPos pixelPos = new PixelPos(ptSrc.getX(), ptSrc.getY());
-            final GeoPos geoPos = from.getGeoPos(pixelPos, new GeoPos());
-            pixelPos = to.getPixelPos(geoPos, pixelPos);
-            if (Double.isNaN(geoPos.getLat()) || Double.isNaN(geoPos.getLon()) ||
-                    Double.isNaN(pixelPos.getX()) || Double.isNaN(pixelPos.getY())) {
-                throw new TransformException("Cannot transform");
+            if (ptDst == null) {
+                ptDst = new Point2D.Double();
             }
-            ptDst.setLocation(pixelPos.getX(), pixelPos.getY());
+            ptDst.setLocation(pts[0], pts[1]);
             return ptDst;
         }
 
+        /*
+         * Transforms all points at once, reusing the position objects. Points which cannot be transformed are set to
+         * NaN instead of causing an exception.
+         */
+        protected void transform(double[] srcPts, int srcOff, double[] dstPts, int dstOff, int numPts,
+                                 GeoCoding from, GeoCoding to) {
+            final boolean canTransform = from.canGetGeoPos() && to.canGetPixelPos();
+            final PixelPos pixelPos = new PixelPos();
+            final GeoPos geoPos = new GeoPos();
+            int step = 2;
+            if (srcPts == dstPts && srcOff < dstOff && srcOff + 2 * numPts > dstOff) {
+                srcOff += 2 * (numPts - 1);
+                dstOff += 2 * (numPts - 1);
+                step = -2;
+            }
+            for (int i = 0; i < numPts; i++, srcOff += step, dstOff += step) {
+                double x = Double.NaN;
+                double y = Double.NaN;
+                if (canTransform) {
+                    pixelPos.setLocation(srcPts[srcOff], srcPts[srcOff + 1]);
+                    from.getGeoPos(pixelPos, geoPos);
+                    if (!Double.isNaN(geoPos.getLat()) && !Double.isNaN(geoPos.getLon())) {
+                        to.getPixelPos(geoPos, pixelPos);
+                        if (!Double.isNaN(pixelPos.getX()) && !Double.isNaN(pixelPos.getY())) {
+                            x = pixelPos.getX();
+                            y = pixelPos.getY();
+                        }
+                    }
+                }
+                dstPts[dstOff] = x;
+                dstPts[dstOff + 1] = y;
+            }
+        }
+
         GeoCoding getModelGeoCoding() {
             return modelGeoCoding;
         }
@@ -82,6 +114,11 @@ class SlstrGeoCodingSceneTransformProvider implements SceneTransformProvider {
             return transform(ptSrc, ptDst, modelGeoCoding, sceneGeoCoding);
         }
 
+        @Override
+        public void transform(double[] srcPts, int srcOff, double[] dstPts, int dstOff, int numPts) {
+            transform(srcPts, srcOff, dstPts, dstOff, numPts, modelGeoCoding, sceneGeoCoding);
+        }
+
         @Override
         public MathTransform2D inverse() throws NoninvertibleTransformException {
             return sceneToModelTransform;
@@ -113,6 +150,11 @@ class SlstrGeoCodingSceneTransformProvider implements SceneTransformProvider {
             return transform(ptSrc, ptDst, sceneGeoCoding, modelGeoCoding);
         }
 
+        @Override
+        public void transform(double[] srcPts, int srcOff, double[] dstPts, int dstOff, int numPts) {
+            transform(srcPts, srcOff, dstPts, dstOff, numPts, sceneGeoCoding, modelGeoCoding);
+        }
+
         @Override
         public MathTransform2D inverse() throws NoninvertibleTransformException {
             return modelToSceneTransform;
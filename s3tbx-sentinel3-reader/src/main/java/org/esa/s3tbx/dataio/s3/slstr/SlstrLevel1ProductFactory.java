@@ -19,6 +19,7 @@ import com.bc.ceres.glevel.support.DefaultMultiLevelModel;
 import com.bc.ceres.glevel.support.DefaultMultiLevelSource;
 import org.esa.s3tbx.dataio.s3.Manifest;
 import org.esa.s3tbx.dataio.s3.Sentinel3ProductReader;
+import org.esa.s3tbx.dataio.s3.util.CompactPixelGeoCoding;
 import org.esa.snap.core.dataio.geocoding.ComponentFactory;
 import org.esa.snap.core.dataio.geocoding.ComponentGeoCoding;
 import org.esa.snap.core.dataio.geocoding.ForwardCoding;
@@ -69,6 +70,7 @@ public class SlstrLevel1ProductFactory extends SlstrProductFactory {
     public final static String SLSTR_L1B_USE_PIXELGEOCODINGS = "s3tbx.reader.slstrl1b.pixelGeoCodings";
     private final static String SLSTR_L1B_PIXEL_GEOCODING_FORWARD = "s3tbx.reader.slstrl1b.pixelGeoCodings.forward";
     private final static String SLSTR_L1B_PIXEL_GEOCODING_INVERSE = "s3tbx.reader.slstrl1b.pixelGeoCodings.inverse";
+    private final static String SLSTR_L1B_PIXEL_GEOCODING_COMPACT = "s3tbx.reader.slstrl1b.pixelGeoCodings.compact";
     public final static String SLSTR_L1B_LOAD_ORPHAN_PIXELS = "s3tbx.reader.slstrl1b.loadOrphanPixels";
     public final static String SLSTR_L1B_CUSTOM_CALIBRATION = "s3tbx.reader.slstrl1b.applyCustomCalibration";
     public final static String SLSTR_L1B_S3MPC_CALIBRATION = "s3tbx.reader.slstrl1b.applyS3MPCCalibration";
@@ -618,19 +620,25 @@ public class SlstrLevel1ProductFactory extends SlstrProductFactory {
                 return null;
             }
 
+            final double resolutionInKm = getResolutionInKm(nameEnd);
+            final Preferences preferences = Config.instance("s3tbx").preferences();
+            if (preferences.getBoolean(SLSTR_L1B_PIXEL_GEOCODING_COMPACT, false)) {
+                final GeoCoding geoCoding = new CompactPixelGeoCoding(lonBand, latBand, resolutionInKm,
+                                                                      product.getName() + "_" + nameEnd);
+                geoCodingMap.put(nameEnd, geoCoding);
+                return geoCoding;
+            }
+
             final double[] longitudes = RasterUtils.loadDataScaled(lonBand);
             lonBand.unloadRasterData();
             final double[] latitudes = RasterUtils.loadDataScaled(latBand);
             latBand.unloadRasterData();
 
-            final double resolutionInKm = getResolutionInKm(nameEnd);
-
             final int width = lonBand.getRasterWidth();
             final int height = lonBand.getRasterHeight();
             final GeoRaster geoRaster = new GeoRaster(longitudes, latitudes, lonVarName, latVarName,
                                                       width, height, resolutionInKm);
 
-            final Preferences preferences = Config.instance("s3tbx").preferences();
             final String fwdKey = preferences.get(SLSTR_L1B_PIXEL_GEOCODING_FORWARD, PixelForward.KEY);
             final String invKey = preferences.get(SLSTR_L1B_PIXEL_GEOCODING_INVERSE, PixelQuadTreeInverse.KEY);
 
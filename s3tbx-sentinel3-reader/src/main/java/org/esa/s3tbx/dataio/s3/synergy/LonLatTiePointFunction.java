@@ -16,74 +16,245 @@ package org.esa.s3tbx.dataio.s3.synergy;
  */
 
 import org.esa.s3tbx.dataio.s3.LonLatFunction;
-import org.esa.snap.core.util.math.DistanceMeasure;
-
-import java.util.Arrays;
-import java.util.Comparator;
 
+/**
+ * Approximates a function given at scattered tie points by means of a spatial index.
+ * <p>
+ * The tie points are indexed by their unit vectors in a static k-d tree. Hence the neighbours of a position are found
+ * in logarithmic time, and distances are chord distances on the sphere, which are valid across the anti-meridian and
+ * close to the poles. The function value is either the value of the nearest tie point or the inverse distance
+ * weighted mean of the values of the {@link #NEIGHBOUR_COUNT} nearest tie points. Both reproduce the tie point values
+ * at the tie point positions.
+ */
 final class LonLatTiePointFunction implements LonLatFunction {
 
-    private final double[][] data;
-    private final Comparator<double[]> comparator = new Comparator<double[]>() {
-        @Override
-        public int compare(double[] o1, double[] o2) {
-            return Double.compare(o1[1], o2[1]);
+    enum Interpolation {
+        NEAREST,
+        INVERSE_DISTANCE
+    }
+
+    static final int NEIGHBOUR_COUNT = 4;
+
+    private static final int LEAF_SIZE = 8;
+
+    private final Interpolation interpolation;
+    // interleaved unit vector coordinates, values and split axes of the tie points, in tree order
+    private final double[] points;
+    private final double[] values;
+    private final byte[] splitAxes;
+
+    LonLatTiePointFunction(double[] lonData, double[] latData, double[] functionData) {
+        this(lonData, latData, functionData, Interpolation.INVERSE_DISTANCE);
+    }
+
+    LonLatTiePointFunction(double[] lonData, double[] latData, double[] functionData, Interpolation interpolation) {
+        this.interpolation = interpolation;
+
+        int count = 0;
+        for (int i = 0; i < lonData.length; i++) {
+            if (isValidPosition(lonData[i], latData[i])) {
+                count++;
+            }
+        }
+        final int[] order = new int[count];
+        final double[][] coordinates = new double[3][lonData.length];
+        for (int i = 0, k = 0; i < lonData.length; i++) {
+            if (isValidPosition(lonData[i], latData[i])) {
+                final double lam = Math.toRadians(lonData[i]);
+                final double phi = Math.toRadians(latData[i]);
+                coordinates[0][i] = Math.cos(phi) * Math.cos(lam);
+                coordinates[1][i] = Math.cos(phi) * Math.sin(lam);
+                coordinates[2][i] = Math.sin(phi);
+                order[k++] = i;
+            }
         }
-    };
-    private final int pixelCount;
-
-    LonLatTiePointFunction(double[] lonData, double[] latData, double[] functionData, int pixelCount) {
-        this.pixelCount = pixelCount;
-        data = new double[lonData.length][3];
-        for (int i = 0; i < data.length; i++) {
-            data[i][0] = lonData[i];
-            data[i][1] = latData[i];
-            data[i][2] = functionData[i];
+
+        splitAxes = new byte[count];
+        build(order, coordinates, 0, count);
+
+        points = new double[3 * count];
+        values = new double[count];
+        for (int k = 0; k < count; k++) {
+            points[3 * k] = coordinates[0][order[k]];
+            points[3 * k + 1] = coordinates[1][order[k]];
+            points[3 * k + 2] = coordinates[2][order[k]];
+            values[k] = functionData[order[k]];
         }
-        Arrays.sort(data, comparator);
     }
 
     @Override
     public double getValue(double lon, double lat) {
-        // TODO - this algorithm does not work in general
+        return getValue(lon, lat, new Neighbours());
+    }
 
-        final int index = Math.abs(Arrays.binarySearch(data, new double[]{0.0, lat, 0.0}, comparator));
-        final DistanceMeasure distanceCalculator = new DC(lon, lat);
-        final int minIndex = Math.max(0, index - pixelCount - 2);
-        final int maxIndex = Math.min(data.length, index + pixelCount + 2);
+    @Override
+    public void getValues(double[] lons, double[] lats, double[] values, int count) {
+        final Neighbours neighbours = new Neighbours();
+        for (int i = 0; i < count; i++) {
+            values[i] = getValue(lons[i], lats[i], neighbours);
+        }
+    }
 
-        double value = Double.NaN;
-        double minDistance = Double.MAX_VALUE;
+    private double getValue(double lon, double lat, Neighbours neighbours) {
+        if (values.length == 0 || !isValidPosition(lon, lat)) {
+            return Double.NaN;
+        }
+        final double lam = Math.toRadians(lon);
+        final double phi = Math.toRadians(lat);
+        neighbours.reset(Math.cos(phi) * Math.cos(lam), Math.cos(phi) * Math.sin(lam), Math.sin(phi),
+                         interpolation == Interpolation.NEAREST ? 1 : NEIGHBOUR_COUNT);
+        search(neighbours, 0, values.length);
 
-        for (int k = minIndex; k < maxIndex; k++) {
-            final double[] point = data[k];
-            final double distance = distanceCalculator.distance(point[0], point[1]);
+        if (interpolation == Interpolation.NEAREST || neighbours.distances[0] == 0.0) {
+            return values[neighbours.indexes[0]];
+        }
+        double weightSum = 0.0;
+        double valueSum = 0.0;
+        for (int n = 0; n < neighbours.size; n++) {
+            final double value = values[neighbours.indexes[n]];
+            if (!Double.isNaN(value)) {
+                final double weight = 1.0 / neighbours.distances[n];
+                weightSum += weight;
+                valueSum += weight * value;
+            }
+        }
+        return weightSum > 0.0 ? valueSum / weightSum : Double.NaN;
+    }
 
-            if (distance < minDistance) {
-                minDistance = distance;
-                value = point[2];
+    private void search(Neighbours neighbours, int lo, int hi) {
+        if (hi - lo <= LEAF_SIZE) {
+            for (int k = lo; k < hi; k++) {
+                neighbours.offer(k, distance(neighbours, k));
             }
+            return;
         }
+        final int mid = (lo + hi) >>> 1;
+        neighbours.offer(mid, distance(neighbours, mid));
+        final int axis = splitAxes[mid];
+        final double coordinate = axis == 0 ? neighbours.x : axis == 1 ? neighbours.y : neighbours.z;
+        final double delta = coordinate - points[3 * mid + axis];
+        if (delta < 0.0) {
+            search(neighbours, lo, mid);
+            if (delta * delta < neighbours.getMaxDistance()) {
+                search(neighbours, mid + 1, hi);
+            }
+        } else {
+            search(neighbours, mid + 1, hi);
+            if (delta * delta < neighbours.getMaxDistance()) {
+                search(neighbours, lo, mid);
+            }
+        }
+    }
 
-        return value;
+    // squared chord distance
+    private double distance(Neighbours neighbours, int k) {
+        final double dx = neighbours.x - points[3 * k];
+        final double dy = neighbours.y - points[3 * k + 1];
+        final double dz = neighbours.z - points[3 * k + 2];
+        return dx * dx + dy * dy + dz * dz;
     }
 
-    private static final class DC implements DistanceMeasure {
+    private void build(int[] order, double[][] coordinates, int lo, int hi) {
+        if (hi - lo <= LEAF_SIZE) {
+            return;
+        }
+        final int axis = getWidestAxis(order, coordinates, lo, hi);
+        final int mid = (lo + hi) >>> 1;
+        select(order, coordinates[axis], lo, hi - 1, mid);
+        splitAxes[mid] = (byte) axis;
+        build(order, coordinates, lo, mid);
+        build(order, coordinates, mid + 1, hi);
+    }
 
-        private final double lon;
-        private final double si;
-        private final double co;
+    private static int getWidestAxis(int[] order, double[][] coordinates, int lo, int hi) {
+        int widestAxis = 0;
+        double maxExtent = -1.0;
+        for (int axis = 0; axis < 3; axis++) {
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+            for (int k = lo; k < hi; k++) {
+                final double c = coordinates[axis][order[k]];
+                min = Math.min(min, c);
+                max = Math.max(max, c);
+            }
+            if (max - min > maxExtent) {
+                maxExtent = max - min;
+                widestAxis = axis;
+            }
+        }
+        return widestAxis;
+    }
 
-        private DC(double lon, double lat) {
-            this.lon = lon;
-            this.si = Math.sin(Math.toRadians(lat));
-            this.co = Math.cos(Math.toRadians(lat));
+    // partially sorts order[lo..hi] such that order[n] is at its sorted position
+    private static void select(int[] order, double[] c, int lo, int hi, int n) {
+        while (hi > lo) {
+            final double pivot = c[order[(lo + hi) >>> 1]];
+            int i = lo;
+            int j = hi;
+            while (i <= j) {
+                while (c[order[i]] < pivot) {
+                    i++;
+                }
+                while (c[order[j]] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    final int t = order[i];
+                    order[i] = order[j];
+                    order[j] = t;
+                    i++;
+                    j--;
+                }
+            }
+            if (n <= j) {
+                hi = j;
+            } else if (n >= i) {
+                lo = i;
+            } else {
+                return;
+            }
         }
+    }
+
+    private static boolean isValidPosition(double lon, double lat) {
+        return !Double.isNaN(lon) && !Double.isInfinite(lon) && lat >= -90.0 && lat <= 90.0;
+    }
 
-        @Override
-        public double distance(double lon, double lat) {
-            final double phi = Math.toRadians(lat);
-            return -(si * Math.sin(phi) + co * Math.cos(phi) * Math.cos(Math.toRadians(lon - this.lon)));
+    // the nearest tie points found so far, ordered by distance
+    private static final class Neighbours {
+
+        private final int[] indexes = new int[NEIGHBOUR_COUNT];
+        private final double[] distances = new double[NEIGHBOUR_COUNT];
+        private double x;
+        private double y;
+        private double z;
+        private int capacity;
+        private int size;
+
+        void reset(double x, double y, double z, int capacity) {
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            this.capacity = capacity;
+            size = 0;
+        }
+
+        double getMaxDistance() {
+            return size < capacity ? Double.POSITIVE_INFINITY : distances[size - 1];
+        }
+
+        void offer(int index, double distance) {
+            if (size == capacity && distance >= distances[size - 1]) {
+                return;
+            }
+            int n = size < capacity ? size++ : size - 1;
+            while (n > 0 && distances[n - 1] > distance) {
+                indexes[n] = indexes[n - 1];
+                distances[n] = distances[n - 1];
+                n--;
+            }
+            indexes[n] = index;
+            distances[n] = distance;
         }
     }
 }
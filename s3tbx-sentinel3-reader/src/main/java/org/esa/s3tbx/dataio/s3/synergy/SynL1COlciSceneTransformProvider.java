@@ -20,8 +20,67 @@ class SynL1COlciSceneTransformProvider implements SceneTransformProvider {
     private final SynL1COlciSceneToModelTransform sceneToModelTransform;
 
     SynL1COlciSceneTransformProvider(Band columnMisregistrationBand, Band rowMisregistrationBand) {
-        modelToSceneTransform = new SynL1COlciModelToSceneTransform(columnMisregistrationBand, rowMisregistrationBand);
-        sceneToModelTransform = new SynL1COlciSceneToModelTransform(columnMisregistrationBand, rowMisregistrationBand);
+        final int[] columnMisregistration = readMisregistration(columnMisregistrationBand);
+        final int[] rowMisregistration = readMisregistration(rowMisregistrationBand);
+        modelToSceneTransform = new SynL1COlciModelToSceneTransform(columnMisregistrationBand, rowMisregistrationBand,
+                                                                    columnMisregistration, rowMisregistration);
+        sceneToModelTransform = new SynL1COlciSceneToModelTransform(columnMisregistration, rowMisregistration);
+    }
+
+    private static int[] readMisregistration(Band misregistrationBand) {
+        final int[] misregistration = new int[misregistrationBand.getRasterWidth()];
+        try {
+            misregistrationBand.readPixels(0, 0, misregistrationBand.getRasterWidth(), 1, misregistration);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return misregistration;
+    }
+
+    /*
+     * Transforms all points of the given arrays with the given per-column offsets. Points which cannot be transformed
+     * are set to NaN.
+     */
+    private static void transform(double[] srcPts, int srcOff, double[] dstPts, int dstOff, int numPts,
+                                  int[] columnOffsets, int[] rowOffsets) {
+        int step = 2;
+        if (srcPts == dstPts && srcOff < dstOff && srcOff + 2 * numPts > dstOff) {
+            // overlapping arrays, transform backwards so that no source point is overwritten before it is read
+            srcOff += 2 * (numPts - 1);
+            dstOff += 2 * (numPts - 1);
+            step = -2;
+        }
+        for (int i = 0; i < numPts; i++, srcOff += step, dstOff += step) {
+            final double srcPtX = srcPts[srcOff];
+            final double srcPtY = srcPts[srcOff + 1];
+            double x = Double.NaN;
+            double y = Double.NaN;
+            if (srcPtX >= 0 && srcPtX < columnOffsets.length && !Double.isNaN(srcPtY)) {
+                final int column = (int) srcPtX;
+                x = srcPtX + columnOffsets[column];
+                y = srcPtY + rowOffsets[column];
+                if (x < 0 || y < 0) {
+                    x = Double.NaN;
+                    y = Double.NaN;
+                }
+            }
+            dstPts[dstOff] = x;
+            dstPts[dstOff + 1] = y;
+        }
+    }
+
+    private static Point2D transform(Point2D ptSrc, Point2D ptDst, int[] columnOffsets, int[] rowOffsets)
+            throws TransformException {
+        final double[] pts = {ptSrc.getX(), ptSrc.getY()};
+        transform(pts, 0, pts, 0, 1, columnOffsets, rowOffsets);
+        if (Double.isNaN(pts[0])) {
+            throw new TransformException("Could not transform");
+        }
+        if (ptDst == null) {
+            ptDst = new Point2D.Double();
+        }
+        ptDst.setLocation(pts[0], pts[1]);
+        return ptDst;
     }
 
     @Override
@@ -38,32 +97,26 @@ class SynL1COlciSceneTransformProvider implements SceneTransformProvider {
 
         private final Band columnMisregistrationBand;
         private final Band rowMisregistrationBand;
+        private final int[] columnMisregistration;
+        private final int[] rowMisregistration;
 
-        SynL1COlciModelToSceneTransform(Band columnMisregistrationBand, Band rowMisregistrationBand) {
+        SynL1COlciModelToSceneTransform(Band columnMisregistrationBand, Band rowMisregistrationBand,
+                                        int[] columnMisregistration, int[] rowMisregistration) {
             this.columnMisregistrationBand = columnMisregistrationBand;
             this.rowMisregistrationBand = rowMisregistrationBand;
+            this.columnMisregistration = columnMisregistration;
+            this.rowMisregistration = rowMisregistration;
         }
 
         @Override
         public Point2D transform(Point2D ptSrc, Point2D ptDst) throws TransformException {
-            final double srcPtX = ptSrc.getX();
-            final double srcPtY = ptSrc.getY();
-            if (Double.isNaN(srcPtX) || Double.isNaN(srcPtY) ||
-                    srcPtX < 0 || srcPtX >= columnMisregistrationBand.getRasterWidth()) {
-                throw new TransformException("Could not transform");
-            }
-            final int columnMisregistration = columnMisregistrationBand.getSampleInt((int) srcPtX, 0);
-            final int rowMisregistration = rowMisregistrationBand.getSampleInt((int) srcPtX, 0);
-            double x = srcPtX + columnMisregistration;
-            double y = srcPtY + rowMisregistration;
-            if (x < 0 || y < 0) {
-                throw new TransformException("Could not transform");
-            }
-            if (ptDst == null) {
-                ptDst = new Point2D.Double();
-            }
-            ptDst.setLocation(x, y);
-            return ptDst;
+            return SynL1COlciSceneTransformProvider.transform(ptSrc, ptDst, columnMisregistration, rowMisregistration);
+        }
+
+        @Override
+        public void transform(double[] srcPts, int srcOff, double[] dstPts, int dstOff, int numPts) {
+            SynL1COlciSceneTransformProvider.transform(srcPts, srcOff, dstPts, dstOff, numPts,
+                                                       columnMisregistration, rowMisregistration);
         }
 
         @Override
@@ -96,21 +149,14 @@ class SynL1COlciSceneTransformProvider implements SceneTransformProvider {
 
         private final static int invalid_value = Integer.MIN_VALUE;
 
-        SynL1COlciSceneToModelTransform(Band columnMisregistrationBand, Band rowMisregistrationBand) {
-            columnMisregistration = createMisRegistrationArray(columnMisregistrationBand);
-            rowMisregistration = createMisRegistrationArray(rowMisregistrationBand);
+        SynL1COlciSceneToModelTransform(int[] forwardColumnMisregistration, int[] forwardRowMisregistration) {
+            columnMisregistration = createMisRegistrationArray(forwardColumnMisregistration);
+            rowMisregistration = createMisRegistrationArray(forwardRowMisregistration);
         }
 
-        private int[] createMisRegistrationArray(Band misregistrationBand) {
-            int[] misregistrationArray = new int[misregistrationBand.getRasterWidth()];
+        private int[] createMisRegistrationArray(int[] forwardRegistration) {
+            int[] misregistrationArray = new int[forwardRegistration.length];
             Arrays.fill(misregistrationArray, invalid_value);
-            int[] forwardRegistration = new int[misregistrationArray.length];
-            try {
-                misregistrationBand.readPixels(0, 0, misregistrationBand.getRasterWidth(),
-                                               misregistrationBand.getRasterHeight(), forwardRegistration);
-            } catch (IOException e) {
-                e.printStackTrace();
-            }
             for (int i = 0; i < misregistrationArray.length; i++) {
                 final int columnPosition = i + forwardRegistration[i];
                 if (columnPosition > 0 && columnPosition < misregistrationArray.length) {
@@ -150,22 +196,13 @@ class SynL1COlciSceneTransformProvider implements SceneTransformProvider {
 
         @Override
         public Point2D transform(Point2D ptSrc, Point2D ptDst) throws TransformException {
-            final double srcPtX = ptSrc.getX();
-            final double srcPtY = ptSrc.getY();
-            if (Double.isNaN(srcPtX) || Double.isNaN(srcPtY) ||
-                    srcPtX < 0 || srcPtX >= columnMisregistration.length) {
-                throw new TransformException("Could not transform");
-            }
-            double x = srcPtX + columnMisregistration[(int) srcPtX];
-            double y = srcPtY + rowMisregistration[(int) srcPtX];
-            if (x < 0 || y < 0) {
-                throw new TransformException("Could not transform");
-            }
-            if (ptDst == null) {
-                ptDst = new Point2D.Double();
-            }
-            ptDst.setLocation(x, y);
-            return ptDst;
+            return SynL1COlciSceneTransformProvider.transform(ptSrc, ptDst, columnMisregistration, rowMisregistration);
+        }
+
+        @Override
+        public void transform(double[] srcPts, int srcOff, double[] dstPts, int dstOff, int numPts) {
+            SynL1COlciSceneTransformProvider.transform(srcPts, srcOff, dstPts, dstOff, numPts,
+                                                       columnMisregistration, rowMisregistration);
         }
 
         @Override
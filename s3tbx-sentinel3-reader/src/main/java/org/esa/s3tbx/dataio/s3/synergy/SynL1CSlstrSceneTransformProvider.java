@@ -42,26 +42,46 @@ public class SynL1CSlstrSceneTransformProvider implements SceneTransformProvider
 
         @Override
         public Point2D transform(Point2D ptSrc, Point2D ptDst) throws TransformException {
-            final double srcPtX = ptSrc.getX();
-            final double srcPtY = ptSrc.getY();
-            if (Double.isNaN(srcPtX) || Double.isNaN(srcPtY) || srcPtX < 0 || srcPtX >= colCorrespondenceBand.getRasterWidth() ||
-                    srcPtY < 0 || srcPtY >= colCorrespondenceBand.getRasterHeight()) {
-                throw new TransformException("Could not transform");
-            }
-            final int columnCorrespondence =
-                    colCorrespondenceBand.getSampleInt((int) srcPtX, (int) srcPtY);
-            final int rowCorrespondence =
-                    rowCorrespondenceBand.getSampleInt((int) srcPtX, (int) srcPtY);
-            if (columnCorrespondence < 0 || rowCorrespondence < 0) {
+            final double[] pts = {ptSrc.getX(), ptSrc.getY()};
+            transform(pts, 0, pts, 0, 1);
+            if (Double.isNaN(pts[0])) {
                 throw new TransformException("Could not transform");
             }
             if (ptDst == null) {
                 ptDst = new Point2D.Double();
             }
-            ptDst.setLocation(columnCorrespondence, rowCorrespondence);
+            ptDst.setLocation(pts[0], pts[1]);
             return ptDst;
         }
 
+        @Override
+        public void transform(double[] srcPts, int srcOff, double[] dstPts, int dstOff, int numPts) {
+            final int width = colCorrespondenceBand.getRasterWidth();
+            final int height = colCorrespondenceBand.getRasterHeight();
+            int step = 2;
+            if (srcPts == dstPts && srcOff < dstOff && srcOff + 2 * numPts > dstOff) {
+                srcOff += 2 * (numPts - 1);
+                dstOff += 2 * (numPts - 1);
+                step = -2;
+            }
+            for (int i = 0; i < numPts; i++, srcOff += step, dstOff += step) {
+                final double srcPtX = srcPts[srcOff];
+                final double srcPtY = srcPts[srcOff + 1];
+                double x = Double.NaN;
+                double y = Double.NaN;
+                if (srcPtX >= 0 && srcPtX < width && srcPtY >= 0 && srcPtY < height) {
+                    final int columnCorrespondence = colCorrespondenceBand.getSampleInt((int) srcPtX, (int) srcPtY);
+                    final int rowCorrespondence = rowCorrespondenceBand.getSampleInt((int) srcPtX, (int) srcPtY);
+                    if (columnCorrespondence >= 0 && rowCorrespondence >= 0) {
+                        x = columnCorrespondence;
+                        y = rowCorrespondence;
+                    }
+                }
+                dstPts[dstOff] = x;
+                dstPts[dstOff + 1] = y;
+            }
+        }
+
         @Override
         public MathTransform2D inverse() throws NoninvertibleTransformException {
             throw new NoninvertibleTransformException("Cannot invert transformation");
@@ -127,7 +127,7 @@ public class SynLevel2ProductFactory extends AbstractProductFactory {
 //                                                double[] tpFunctionData, int colCount) {
 //        final LonLatFunction function = new LonLatTiePointFunction(tpLonData,
 //                tpLatData,
-//                tpFunctionData, colCount);
+//                tpFunctionData);
 //        return new DefaultMultiLevelImage(
 //                LonLatMultiLevelSource.create(lonImage, latImage, function, DataBuffer.TYPE_FLOAT));
 //    }
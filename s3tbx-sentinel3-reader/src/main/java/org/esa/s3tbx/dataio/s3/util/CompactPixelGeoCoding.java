@@ -0,0 +1,507 @@
+package org.esa.s3tbx.dataio.s3.util;
+
+import org.esa.snap.core.dataio.ProductSubsetDef;
+import org.esa.snap.core.datamodel.AbstractGeoCoding;
+import org.esa.snap.core.datamodel.Band;
+import org.esa.snap.core.datamodel.GeoCoding;
+import org.esa.snap.core.datamodel.GeoPos;
+import org.esa.snap.core.datamodel.PixelPos;
+import org.esa.snap.core.datamodel.Product;
+import org.esa.snap.core.datamodel.Scene;
+import org.esa.snap.core.dataop.maptransf.Datum;
+import org.esa.snap.core.util.SystemUtils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.logging.Level;
+
+/**
+ * A pixel-based geo-coding which keeps latitudes and longitudes as {@code float} arrays instead of {@code double}
+ * arrays. The geo-location data is read from the latitude and longitude bands on first use only.
+ * <p>
+ * The inverse transformation is accelerated by a regular latitude/longitude grid of bins, each holding the index of one
+ * pixel located within the bin. Starting from this seed pixel, the closest pixel is found by a local descent search.
+ * The bin grid can be written to a cache file, so that it does not need to be rebuilt when the same product is opened
+ * again. Cache files are named after a fingerprint of the geo-location data, which is verified when a file is read,
+ * and the total size of the cache directory is bounded.
+ */
+public class CompactPixelGeoCoding extends AbstractGeoCoding {
+
+    private static final int CACHE_MAGIC = 0x53334749;
+    private static final int CACHE_VERSION = 2;
+    private static final int NO_PIXEL = -1;
+    private static final double KM_PER_DEGREE = 111.32;
+    private static final int MAX_BIN_COUNT = 16 * 1024 * 1024;
+    private static final int SEED_SEARCH_RADIUS = 2;
+    private static final long MAX_CACHE_BYTES = 256L * 1024 * 1024;
+
+    private final Band lonBand;
+    private final Band latBand;
+    private final int width;
+    private final int height;
+    private final double resolutionInKm;
+    private final String cacheKey;
+
+    private volatile GeoData geoData;
+
+    /**
+     * Creates the geo-coding.
+     *
+     * @param lonBand        the band providing the longitudes
+     * @param latBand        the band providing the latitudes
+     * @param resolutionInKm the approximate pixel size in kilometers
+     * @param cacheKey       the prefix of the file name under which the inverse index is cached, usually the product
+     *                       name together with the name of the geo-location grid; if {@code null}, the index is not
+     *                       cached
+     */
+    public CompactPixelGeoCoding(Band lonBand, Band latBand, double resolutionInKm, String cacheKey) {
+        this.lonBand = lonBand;
+        this.latBand = latBand;
+        this.width = lonBand.getRasterWidth();
+        this.height = lonBand.getRasterHeight();
+        this.resolutionInKm = resolutionInKm;
+        this.cacheKey = cacheKey;
+    }
+
+    @Override
+    public boolean isCrossingMeridianAt180() {
+        return getGeoData().seedIndex.isCrossingAntimeridian();
+    }
+
+    @Override
+    public boolean canGetPixelPos() {
+        return true;
+    }
+
+    @Override
+    public boolean canGetGeoPos() {
+        return true;
+    }
+
+    @Override
+    public GeoPos getGeoPos(PixelPos pixelPos, GeoPos geoPos) {
+        if (geoPos == null) {
+            geoPos = new GeoPos();
+        }
+        geoPos.setInvalid();
+        if (pixelPos == null || !pixelPos.isValid()) {
+            return geoPos;
+        }
+        final double x = pixelPos.getX();
+        final double y = pixelPos.getY();
+        if (x < 0 || x >= width || y < 0 || y >= height) {
+            return geoPos;
+        }
+        final GeoData data = getGeoData();
+        final int index = (int) y * width + (int) x;
+        geoPos.setLocation(data.latitudes[index], data.longitudes[index]);
+        return geoPos;
+    }
+
+    @Override
+    public PixelPos getPixelPos(GeoPos geoPos, PixelPos pixelPos) {
+        if (pixelPos == null) {
+            pixelPos = new PixelPos();
+        }
+        pixelPos.setInvalid();
+        if (geoPos == null || !geoPos.isValid()) {
+            return pixelPos;
+        }
+        final GeoData data = getGeoData();
+        final double lat = geoPos.getLat();
+        final double lon = data.seedIndex.normalizeLon(geoPos.getLon());
+        int index = data.seedIndex.findSeed(lat, lon);
+        if (index == NO_PIXEL) {
+            return pixelPos;
+        }
+        final double cosLat = Math.cos(Math.toRadians(lat));
+        double distance = data.distanceSq(index, lat, lon, cosLat);
+        // descend to the closest pixel, the number of steps is bounded by the size of the raster
+        for (int step = 0; step < width + height; step++) {
+            final int x = index % width;
+            final int y = index / width;
+            int bestIndex = index;
+            for (int dy = -1; dy <= 1; dy++) {
+                final int ny = y + dy;
+                if (ny < 0 || ny >= height) {
+                    continue;
+                }
+                for (int dx = -1; dx <= 1; dx++) {
+                    final int nx = x + dx;
+                    if (nx < 0 || nx >= width || (dx == 0 && dy == 0)) {
+                        continue;
+                    }
+                    final int neighbour = ny * width + nx;
+                    final double neighbourDistance = data.distanceSq(neighbour, lat, lon, cosLat);
+                    if (neighbourDistance < distance) {
+                        distance = neighbourDistance;
+                        bestIndex = neighbour;
+                    }
+                }
+            }
+            if (bestIndex == index) {
+                break;
+            }
+            index = bestIndex;
+        }
+        if (distance <= data.maxDistance * data.maxDistance) {
+            pixelPos.setLocation(index % width + 0.5, index / width + 0.5);
+        }
+        return pixelPos;
+    }
+
+    @Override
+    public Datum getDatum() {
+        return Datum.WGS_84;
+    }
+
+    @Override
+    public boolean transferGeoCoding(Scene srcScene, Scene destScene, ProductSubsetDef subsetDef) {
+        final Product destProduct = destScene.getProduct();
+        final Band destLonBand = destProduct.getBand(lonBand.getName());
+        final Band destLatBand = destProduct.getBand(latBand.getName());
+        if (destLonBand == null || destLatBand == null) {
+            return false;
+        }
+        final String destCacheKey = subsetDef == null && destLonBand.getRasterWidth() == width &&
+                                    destLonBand.getRasterHeight() == height ? cacheKey : null;
+        destScene.setGeoCoding(new CompactPixelGeoCoding(destLonBand, destLatBand, resolutionInKm, destCacheKey));
+        return true;
+    }
+
+    @Override
+    public boolean canClone() {
+        return true;
+    }
+
+    @Override
+    public GeoCoding clone() {
+        return new CompactPixelGeoCoding(lonBand, latBand, resolutionInKm, cacheKey);
+    }
+
+    /**
+     * Releases the geo-location data. Lookups running concurrently complete on the data they started with.
+     */
+    @Override
+    public synchronized void dispose() {
+        geoData = null;
+    }
+
+    private GeoData getGeoData() {
+        final GeoData data = geoData;
+        return data != null ? data : initialize();
+    }
+
+    private synchronized GeoData initialize() {
+        if (geoData != null) {
+            return geoData;
+        }
+        final float[] lons = new float[width * height];
+        final float[] lats = new float[width * height];
+        try {
+            lonBand.readPixels(0, 0, width, height, lons);
+            latBand.readPixels(0, 0, width, height, lats);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to read geo-location data", e);
+        }
+        replaceNoData(lonBand, lons);
+        replaceNoData(latBand, lats);
+
+        final double binSize = 2.0 * resolutionInKm / KM_PER_DEGREE;
+        final SeedIndex index;
+        if (cacheKey != null) {
+            final File cacheDir = new File(SystemUtils.getCacheDir(), "s3tbx" + File.separator + "geocoding");
+            index = getCachedSeedIndex(cacheDir, cacheKey, lons, lats, width, height, binSize);
+        } else {
+            index = SeedIndex.create(lons, lats, width, height, binSize);
+        }
+        geoData = new GeoData(lons, lats, index, 1.5 * resolutionInKm / KM_PER_DEGREE);
+        return geoData;
+    }
+
+    /**
+     * Reads the seed index from the cache directory, or creates it and adds it to the cache. The cache file is named
+     * after the key and a fingerprint of the geo-location data, and the fingerprint is verified when the file is read.
+     * After adding a file, the least recently used files are deleted until the cache fits into its size limit.
+     */
+    static SeedIndex getCachedSeedIndex(File cacheDir, String cacheKey, float[] lons, float[] lats,
+                                        int width, int height, double binSize) {
+        final long fingerprint = fingerprint(lons, lats, width, height, binSize);
+        final File cacheFile = new File(cacheDir, String.format("%s-%016x.idx",
+                                                                cacheKey.replaceAll("[^A-Za-z0-9._-]", "_"),
+                                                                fingerprint));
+        if (cacheFile.isFile()) {
+            try {
+                final SeedIndex index = SeedIndex.read(cacheFile, width, height, fingerprint);
+                if (index != null) {
+                    cacheFile.setLastModified(System.currentTimeMillis());
+                    return index;
+                }
+            } catch (IOException e) {
+                SystemUtils.LOG.log(Level.WARNING, "Unable to read geo-coding index cache " + cacheFile, e);
+            }
+        }
+        final SeedIndex index = SeedIndex.create(lons, lats, width, height, binSize);
+        try {
+            index.write(cacheFile, fingerprint);
+            trimCache(cacheDir, cacheFile, MAX_CACHE_BYTES);
+        } catch (IOException e) {
+            SystemUtils.LOG.log(Level.WARNING, "Unable to write geo-coding index cache " + cacheFile, e);
+        }
+        return index;
+    }
+
+    static long fingerprint(float[] lons, float[] lats, int width, int height, double binSize) {
+        // 64-bit FNV-1a over the raw bits of the data and the index parameters
+        long hash = 0xcbf29ce484222325L;
+        hash = (hash ^ width) * 0x100000001b3L;
+        hash = (hash ^ height) * 0x100000001b3L;
+        hash = (hash ^ Double.doubleToLongBits(binSize)) * 0x100000001b3L;
+        for (int i = 0; i < lons.length; i++) {
+            hash = (hash ^ Float.floatToRawIntBits(lons[i])) * 0x100000001b3L;
+            hash = (hash ^ Float.floatToRawIntBits(lats[i])) * 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    static void trimCache(File cacheDir, File keptFile, long maxBytes) {
+        final File[] files = cacheDir.listFiles((dir, name) -> name.endsWith(".idx"));
+        if (files == null) {
+            return;
+        }
+        Arrays.sort(files, Comparator.comparingLong(File::lastModified).reversed());
+        long totalBytes = 0;
+        for (File file : files) {
+            totalBytes += file.length();
+            if (totalBytes > maxBytes && !file.equals(keptFile) && !file.delete()) {
+                SystemUtils.LOG.fine("Unable to delete geo-coding index cache " + file);
+            }
+        }
+    }
+
+    private static void replaceNoData(Band band, float[] data) {
+        if (!band.isNoDataValueUsed()) {
+            return;
+        }
+        final float noDataValue = (float) band.getGeophysicalNoDataValue();
+        for (int i = 0; i < data.length; i++) {
+            if (data[i] == noDataValue) {
+                data[i] = Float.NaN;
+            }
+        }
+    }
+
+    private static class GeoData {
+
+        private final float[] longitudes;
+        private final float[] latitudes;
+        private final SeedIndex seedIndex;
+        private final double maxDistance;
+
+        private GeoData(float[] longitudes, float[] latitudes, SeedIndex seedIndex, double maxDistance) {
+            this.longitudes = longitudes;
+            this.latitudes = latitudes;
+            this.seedIndex = seedIndex;
+            this.maxDistance = maxDistance;
+        }
+
+        private double distanceSq(int index, double lat, double lon, double cosLat) {
+            final double pixelLat = latitudes[index];
+            final double pixelLon = seedIndex.normalizeLon(longitudes[index]);
+            if (Double.isNaN(pixelLat) || Double.isNaN(pixelLon)) {
+                return Double.POSITIVE_INFINITY;
+            }
+            final double dLat = pixelLat - lat;
+            final double dLon = (pixelLon - lon) * cosLat;
+            return dLat * dLat + dLon * dLon;
+        }
+    }
+
+    static class SeedIndex {
+
+        private final int width;
+        private final int height;
+        private final boolean crossingAntimeridian;
+        private final double lonMin;
+        private final double latMin;
+        private final double binSize;
+        private final int binsX;
+        private final int binsY;
+        private final int[] bins;
+
+        SeedIndex(int width, int height, boolean crossingAntimeridian, double lonMin, double latMin, double binSize,
+                  int binsX, int binsY, int[] bins) {
+            this.width = width;
+            this.height = height;
+            this.crossingAntimeridian = crossingAntimeridian;
+            this.lonMin = lonMin;
+            this.latMin = latMin;
+            this.binSize = binSize;
+            this.binsX = binsX;
+            this.binsY = binsY;
+            this.bins = bins;
+        }
+
+        static SeedIndex create(float[] lons, float[] lats, int width, int height, double binSize) {
+            double lonMin = Double.POSITIVE_INFINITY;
+            double lonMax = Double.NEGATIVE_INFINITY;
+            for (float lon : lons) {
+                if (!Float.isNaN(lon)) {
+                    lonMin = Math.min(lonMin, lon);
+                    lonMax = Math.max(lonMax, lon);
+                }
+            }
+            final boolean crossingAntimeridian = lonMax - lonMin > 180.0;
+            lonMin = Double.POSITIVE_INFINITY;
+            lonMax = Double.NEGATIVE_INFINITY;
+            double latMin = Double.POSITIVE_INFINITY;
+            double latMax = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < lons.length; i++) {
+                final double lat = lats[i];
+                final double lon = normalizeLon(lons[i], crossingAntimeridian);
+                if (!Double.isNaN(lat) && !Double.isNaN(lon)) {
+                    lonMin = Math.min(lonMin, lon);
+                    lonMax = Math.max(lonMax, lon);
+                    latMin = Math.min(latMin, lat);
+                    latMax = Math.max(latMax, lat);
+                }
+            }
+            if (lonMin > lonMax) {
+                return new SeedIndex(width, height, false, 0.0, 0.0, 1.0, 0, 0, new int[0]);
+            }
+            int binsX = (int) ((lonMax - lonMin) / binSize) + 1;
+            int binsY = (int) ((latMax - latMin) / binSize) + 1;
+            while ((long) binsX * binsY > MAX_BIN_COUNT) {
+                binSize *= 2;
+                binsX = (int) ((lonMax - lonMin) / binSize) + 1;
+                binsY = (int) ((latMax - latMin) / binSize) + 1;
+            }
+            final int[] bins = new int[binsX * binsY];
+            Arrays.fill(bins, NO_PIXEL);
+            for (int i = 0; i < lons.length; i++) {
+                final double lat = lats[i];
+                final double lon = normalizeLon(lons[i], crossingAntimeridian);
+                if (!Double.isNaN(lat) && !Double.isNaN(lon)) {
+                    final int bin = (int) ((lat - latMin) / binSize) * binsX + (int) ((lon - lonMin) / binSize);
+                    if (bins[bin] == NO_PIXEL) {
+                        bins[bin] = i;
+                    }
+                }
+            }
+            return new SeedIndex(width, height, crossingAntimeridian, lonMin, latMin, binSize, binsX, binsY, bins);
+        }
+
+        /**
+         * Reads an index written by {@link #write(File, long)}.
+         *
+         * @return the index, or {@code null} if the file has been written for other dimensions or other data
+         */
+        static SeedIndex read(File file, int width, int height, long fingerprint) throws IOException {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+                if (in.readInt() != CACHE_MAGIC || in.readInt() != CACHE_VERSION) {
+                    return null;
+                }
+                if (in.readInt() != width || in.readInt() != height || in.readLong() != fingerprint) {
+                    return null;
+                }
+                final boolean crossingAntimeridian = in.readBoolean();
+                final double lonMin = in.readDouble();
+                final double latMin = in.readDouble();
+                final double binSize = in.readDouble();
+                final int binsX = in.readInt();
+                final int binsY = in.readInt();
+                if (binsX < 0 || binsY < 0 || (long) binsX * binsY > MAX_BIN_COUNT) {
+                    return null;
+                }
+                final int[] bins = new int[binsX * binsY];
+                for (int i = 0; i < bins.length; i++) {
+                    final int bin = in.readInt();
+                    if (bin < NO_PIXEL || bin >= width * height) {
+                        return null;
+                    }
+                    bins[i] = bin;
+                }
+                return new SeedIndex(width, height, crossingAntimeridian, lonMin, latMin, binSize, binsX, binsY, bins);
+            }
+        }
+
+        void write(File file, long fingerprint) throws IOException {
+            final File dir = file.getParentFile();
+            if (!dir.isDirectory() && !dir.mkdirs()) {
+                throw new IOException("Unable to create directory " + dir);
+            }
+            // write to a temporary file first, so that concurrent readers never see an incomplete index
+            final File tmpFile = File.createTempFile(file.getName(), ".tmp", dir);
+            try {
+                try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)))) {
+                    out.writeInt(CACHE_MAGIC);
+                    out.writeInt(CACHE_VERSION);
+                    out.writeInt(width);
+                    out.writeInt(height);
+                    out.writeLong(fingerprint);
+                    out.writeBoolean(crossingAntimeridian);
+                    out.writeDouble(lonMin);
+                    out.writeDouble(latMin);
+                    out.writeDouble(binSize);
+                    out.writeInt(binsX);
+                    out.writeInt(binsY);
+                    for (int bin : bins) {
+                        out.writeInt(bin);
+                    }
+                }
+                Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(tmpFile.toPath());
+            }
+        }
+
+        int findSeed(double lat, double lon) {
+            final int binX = (int) Math.floor((lon - lonMin) / binSize);
+            final int binY = (int) Math.floor((lat - latMin) / binSize);
+            for (int radius = 0; radius <= SEED_SEARCH_RADIUS; radius++) {
+                for (int by = binY - radius; by <= binY + radius; by++) {
+                    if (by < 0 || by >= binsY) {
+                        continue;
+                    }
+                    for (int bx = binX - radius; bx <= binX + radius; bx++) {
+                        if (bx < 0 || bx >= binsX ||
+                            Math.max(Math.abs(bx - binX), Math.abs(by - binY)) != radius) {
+                            continue;
+                        }
+                        final int seed = bins[by * binsX + bx];
+                        if (seed != NO_PIXEL) {
+                            return seed;
+                        }
+                    }
+                }
+            }
+            return NO_PIXEL;
+        }
+
+        double normalizeLon(double lon) {
+            return normalizeLon(lon, crossingAntimeridian);
+        }
+
+        private static double normalizeLon(double lon, boolean crossingAntimeridian) {
+            return crossingAntimeridian && lon < 0.0 ? lon + 360.0 : lon;
+        }
+
+        boolean isCrossingAntimeridian() {
+            return crossingAntimeridian;
+        }
+
+        int[] getBins() {
+            return bins;
+        }
+    }
+}
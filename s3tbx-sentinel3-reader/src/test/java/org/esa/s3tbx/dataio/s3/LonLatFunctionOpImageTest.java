@@ -0,0 +1,117 @@
+/*
+ * Copyright (C) 2012 Brockmann Consult GmbH (info@brockmann-consult.de)
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+
+package org.esa.s3tbx.dataio.s3;
+
+import org.esa.snap.core.datamodel.ProductData;
+import org.esa.snap.core.util.ImageUtils;
+import org.esa.snap.core.util.jai.SingleBandedSampleModel;
+import org.junit.Test;
+
+import javax.media.jai.ImageLayout;
+import java.awt.image.DataBuffer;
+import java.awt.image.Raster;
+import java.awt.image.RenderedImage;
+
+import static org.junit.Assert.assertEquals;
+
+public class LonLatFunctionOpImageTest {
+
+    private static final int WIDTH = 21;
+    private static final int HEIGHT = 13;
+    private static final int TILE_SIZE = 8;
+
+    @Test
+    public void testFloatLongitudesAndDoubleLatitudes() {
+        final RenderedImage lonImage = ImageUtils.createRenderedImage(WIDTH, HEIGHT, ProductData.createInstance(lons()));
+        final RenderedImage latImage = ImageUtils.createRenderedImage(WIDTH, HEIGHT, ProductData.createInstance(lats()));
+
+        assertImage(createImage(lonImage, latImage, DataBuffer.TYPE_FLOAT), 1.0e-3);
+        assertImage(createImage(lonImage, latImage, DataBuffer.TYPE_DOUBLE), 1.0e-9);
+    }
+
+    @Test
+    public void testDoubleLongitudesAndFloatLatitudes() {
+        final double[] lons = new double[WIDTH * HEIGHT];
+        final float[] lats = new float[WIDTH * HEIGHT];
+        final float[] floatLons = lons();
+        final double[] doubleLats = lats();
+        for (int i = 0; i < lons.length; i++) {
+            lons[i] = floatLons[i];
+            lats[i] = (float) doubleLats[i];
+        }
+        final RenderedImage lonImage = ImageUtils.createRenderedImage(WIDTH, HEIGHT, ProductData.createInstance(lons));
+        final RenderedImage latImage = ImageUtils.createRenderedImage(WIDTH, HEIGHT, ProductData.createInstance(lats));
+
+        assertImage(createImage(lonImage, latImage, DataBuffer.TYPE_FLOAT), 1.0e-3);
+    }
+
+    private static RenderedImage createImage(RenderedImage lonImage, RenderedImage latImage, int targetDataType) {
+        final ImageLayout imageLayout = new ImageLayout(0, 0, WIDTH, HEIGHT, 0, 0, TILE_SIZE, TILE_SIZE,
+                                                        new SingleBandedSampleModel(targetDataType, TILE_SIZE, TILE_SIZE),
+                                                        null);
+        return new LonLatFunctionOpImage(lonImage, latImage, imageLayout, new LonLatFunction() {
+            @Override
+            public double getValue(double lon, double lat) {
+                return lon + 1000.0 * lat;
+            }
+        });
+    }
+
+    private static void assertImage(RenderedImage image, double tolerance) {
+        final Raster data = image.getData();
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                final double expected = isInvalid(x, y) ? 0.0 : lon(x, y) + 1000.0 * lat(x, y);
+                assertEquals("pixel " + x + "," + y, expected, data.getSampleDouble(x, y, 0), tolerance);
+            }
+        }
+    }
+
+    // longitudes across the anti-meridian, with an invalid position on every line
+    private static float[] lons() {
+        final float[] lons = new float[WIDTH * HEIGHT];
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                lons[y * WIDTH + x] = isInvalid(x, y) ? Float.NaN : (float) lon(x, y);
+            }
+        }
+        return lons;
+    }
+
+    private static double[] lats() {
+        final double[] lats = new double[WIDTH * HEIGHT];
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                lats[y * WIDTH + x] = lat(x, y);
+            }
+        }
+        return lats;
+    }
+
+    private static boolean isInvalid(int x, int y) {
+        return x == 2 * y % WIDTH;
+    }
+
+    private static double lon(int x, int y) {
+        final double lon = 175.0 + 0.5 * x + 0.125 * y;
+        return lon > 180.0 ? lon - 360.0 : lon;
+    }
+
+    private static double lat(int x, int y) {
+        return -20.0 + 0.25 * y - 0.03125 * x;
+    }
+}
@@ -20,6 +20,8 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import ucar.nc2.Variable;
 
+import java.util.Random;
+
 import static org.junit.Assert.assertEquals;
 
 @RunWith(LongTestRunner.class)
@@ -58,9 +60,7 @@ public class LonLatTiePointFunctionTest {
     }
 
     private void testApproximationForVariable(double[] lonData, double[] latData, double[] variableData) {
-        final LonLatFunction function = new LonLatTiePointFunction(lonData,
-                                                                   latData,
-                                                                   variableData, lonData.length);
+        final LonLatFunction function = new LonLatTiePointFunction(lonData, latData, variableData);
 
         for (int i = 0; i < variableData.length; i++) {
             final double lon = lonData[i];
@@ -72,4 +72,89 @@ public class LonLatTiePointFunctionTest {
         }
     }
 
+    @Test
+    public void testNearestNeighbourAcrossAntiMeridianAndPole() {
+        final double[][] grid = createGrid();
+        final LonLatTiePointFunction function = new LonLatTiePointFunction(grid[0], grid[1], grid[2],
+                                                                           LonLatTiePointFunction.Interpolation.NEAREST);
+        final Random random = new Random(27);
+        for (int n = 0; n < 1000; n++) {
+            final double lon = -180.0 + 360.0 * random.nextDouble();
+            final double lat = 60.0 + 30.0 * random.nextDouble();
+
+            assertEquals(bruteForceNearest(grid, lon, lat), function.getValue(lon, lat), 0.0);
+        }
+    }
+
+    @Test
+    public void testInverseDistanceInterpolation() {
+        final double[][] grid = createGrid();
+        final LonLatTiePointFunction function = new LonLatTiePointFunction(grid[0], grid[1], grid[2]);
+
+        for (int i = 0; i < grid[0].length; i++) {
+            assertEquals(grid[2][i], function.getValue(grid[0][i], grid[1][i]), 0.0);
+        }
+        // the value field is smooth, the interpolation of the neighbours is close to it
+        assertEquals(value(179.9, 70.1), function.getValue(179.9, 70.1), 0.05);
+        assertEquals(value(-179.9, 70.1), function.getValue(-179.9, 70.1), 0.05);
+        assertEquals(Double.NaN, function.getValue(Double.NaN, 70.0), 0.0);
+    }
+
+    @Test
+    public void testValuesEqualSingleValues() {
+        final double[][] grid = createGrid();
+        final LonLatTiePointFunction function = new LonLatTiePointFunction(grid[0], grid[1], grid[2]);
+        final Random random = new Random(11);
+        final double[] lons = new double[100];
+        final double[] lats = new double[100];
+        for (int i = 0; i < lons.length; i++) {
+            lons[i] = -180.0 + 360.0 * random.nextDouble();
+            lats[i] = 60.0 + 30.0 * random.nextDouble();
+        }
+        final double[] values = new double[lons.length];
+
+        function.getValues(lons, lats, values, values.length);
+
+        for (int i = 0; i < values.length; i++) {
+            assertEquals(function.getValue(lons[i], lats[i]), values[i], 0.0);
+        }
+    }
+
+    // tie points every 0.5 degrees north of 60N, with longitudes in [-180, 180)
+    private static double[][] createGrid() {
+        final int lonCount = 720;
+        final int latCount = 60;
+        final double[][] grid = new double[3][lonCount * latCount];
+        for (int j = 0; j < latCount; j++) {
+            for (int i = 0; i < lonCount; i++) {
+                final int k = j * lonCount + i;
+                grid[0][k] = -180.0 + 0.5 * i;
+                grid[1][k] = 60.25 + 0.5 * j;
+                grid[2][k] = value(grid[0][k], grid[1][k]);
+            }
+        }
+        return grid;
+    }
+
+    // a smooth function on the sphere
+    private static double value(double lon, double lat) {
+        return Math.cos(Math.toRadians(lat)) * Math.cos(Math.toRadians(lon));
+    }
+
+    private static double bruteForceNearest(double[][] grid, double lon, double lat) {
+        double value = Double.NaN;
+        double maxCos = Double.NEGATIVE_INFINITY;
+        final double phi = Math.toRadians(lat);
+        for (int k = 0; k < grid[0].length; k++) {
+            final double tpPhi = Math.toRadians(grid[1][k]);
+            final double cos = Math.sin(phi) * Math.sin(tpPhi)
+                               + Math.cos(phi) * Math.cos(tpPhi) * Math.cos(Math.toRadians(grid[0][k] - lon));
+            if (cos > maxCos) {
+                maxCos = cos;
+                value = grid[2][k];
+            }
+        }
+        return value;
+    }
+
 }
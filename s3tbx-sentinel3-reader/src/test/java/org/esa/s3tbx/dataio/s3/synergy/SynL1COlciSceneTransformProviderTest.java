@@ -53,6 +53,35 @@ public class SynL1COlciSceneTransformProviderTest {
         assertEquals(13, (int)resultPos.getY());
     }
 
+    @Test
+    public void testGetForward_Bulk() throws Exception {
+        final double[] srcPts = {0, 0, -1, 0, 2, 0, 5, 7, 16, 3, 13, 11};
+        final double[] dstPts = new double[srcPts.length];
+        provider.getModelToSceneTransform().transform(srcPts, 0, dstPts, 0, 6);
+        assertEquals(1.0, dstPts[0]);
+        assertEquals(1.0, dstPts[1]);
+        assertEquals(Double.NaN, dstPts[2]);
+        assertEquals(Double.NaN, dstPts[3]);
+        assertEquals(Double.NaN, dstPts[4]);
+        assertEquals(Double.NaN, dstPts[5]);
+        assertEquals(7.0, dstPts[6]);
+        assertEquals(5.0, dstPts[7]);
+        assertEquals(Double.NaN, dstPts[8]);
+        assertEquals(Double.NaN, dstPts[9]);
+        assertEquals(15.0, dstPts[10]);
+        assertEquals(9.0, dstPts[11]);
+    }
+
+    @Test
+    public void testGetInverse_Bulk() throws Exception {
+        final double[] pts = {1, 1, 0, 0, 15, 15};
+        provider.getSceneToModelTransform().transform(pts, 0, pts, 0, 3);
+        assertEquals(0.0, pts[0]);
+        assertEquals(3.0, pts[1]);
+        assertEquals(14.0, pts[4]);
+        assertEquals(17.0, pts[5]);
+    }
+
     @Test
     public void testGetInverse() throws Exception {
         PixelPos resultPos = new PixelPos();
@@ -0,0 +1,212 @@
+package org.esa.s3tbx.dataio.s3.util;
+
+import org.esa.snap.core.datamodel.Band;
+import org.esa.snap.core.datamodel.GeoPos;
+import org.esa.snap.core.datamodel.PixelPos;
+import org.esa.snap.core.datamodel.Product;
+import org.esa.snap.core.datamodel.ProductData;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+public class CompactPixelGeoCodingTest {
+
+    private static final int WIDTH = 20;
+    private static final int HEIGHT = 10;
+
+    private float[] lons;
+    private float[] lats;
+
+    @Before
+    public void setUp() {
+        lons = new float[WIDTH * HEIGHT];
+        lats = new float[WIDTH * HEIGHT];
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                lons[y * WIDTH + x] = 10.0f + 0.01f * x + 0.002f * y;
+                lats[y * WIDTH + x] = 50.0f - 0.01f * y + 0.001f * x;
+            }
+        }
+    }
+
+    @Test
+    public void testGetGeoPos() {
+        final CompactPixelGeoCoding geoCoding = createGeoCoding(lons, lats);
+
+        final GeoPos geoPos = geoCoding.getGeoPos(new PixelPos(3.5, 4.5), null);
+        assertEquals(lats[4 * WIDTH + 3], geoPos.getLat(), 1e-6);
+        assertEquals(lons[4 * WIDTH + 3], geoPos.getLon(), 1e-6);
+
+        assertFalse(geoCoding.getGeoPos(new PixelPos(-0.5, 4.5), null).isValid());
+        assertFalse(geoCoding.getGeoPos(new PixelPos(3.5, HEIGHT + 0.5), null).isValid());
+    }
+
+    @Test
+    public void testGetPixelPos() {
+        final CompactPixelGeoCoding geoCoding = createGeoCoding(lons, lats);
+
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                final GeoPos geoPos = new GeoPos(lats[y * WIDTH + x], lons[y * WIDTH + x]);
+                final PixelPos pixelPos = geoCoding.getPixelPos(geoPos, null);
+                assertEquals(x + 0.5, pixelPos.getX(), 1e-8);
+                assertEquals(y + 0.5, pixelPos.getY(), 1e-8);
+            }
+        }
+
+        assertFalse(geoCoding.getPixelPos(new GeoPos(50.0, 12.0), null).isValid());
+        assertFalse(geoCoding.getPixelPos(new GeoPos(45.0, 10.0), null).isValid());
+    }
+
+    @Test
+    public void testGetPixelPos_antimeridian() {
+        for (int i = 0; i < lons.length; i++) {
+            lons[i] += 169.9f;
+            if (lons[i] > 180.0f) {
+                lons[i] -= 360.0f;
+            }
+        }
+        final CompactPixelGeoCoding geoCoding = createGeoCoding(lons, lats);
+
+        assertTrue(geoCoding.isCrossingMeridianAt180());
+        final int eastIndex = 2 * WIDTH + 1;
+        final int westIndex = 2 * WIDTH + 18;
+        assertTrue(lons[eastIndex] > 0);
+        assertTrue(lons[westIndex] < 0);
+        PixelPos pixelPos = geoCoding.getPixelPos(new GeoPos(lats[eastIndex], lons[eastIndex]), null);
+        assertEquals(1.5, pixelPos.getX(), 1e-8);
+        assertEquals(2.5, pixelPos.getY(), 1e-8);
+        pixelPos = geoCoding.getPixelPos(new GeoPos(lats[westIndex], lons[westIndex]), null);
+        assertEquals(18.5, pixelPos.getX(), 1e-8);
+        assertEquals(2.5, pixelPos.getY(), 1e-8);
+    }
+
+    @Test
+    public void testSeedIndex_writeAndRead() throws Exception {
+        final CompactPixelGeoCoding.SeedIndex index = CompactPixelGeoCoding.SeedIndex.create(lons, lats, WIDTH, HEIGHT, 0.02);
+        final File file = File.createTempFile("seedIndex", ".idx");
+        try {
+            index.write(file, 42L);
+            final CompactPixelGeoCoding.SeedIndex readIndex = CompactPixelGeoCoding.SeedIndex.read(file, WIDTH, HEIGHT, 42L);
+            assertNotNull(readIndex);
+            assertArrayEquals(index.getBins(), readIndex.getBins());
+            assertEquals(index.findSeed(49.97, 10.1), readIndex.findSeed(49.97, 10.1));
+            assertNull(CompactPixelGeoCoding.SeedIndex.read(file, WIDTH + 1, HEIGHT, 42L));
+            assertNull(CompactPixelGeoCoding.SeedIndex.read(file, WIDTH, HEIGHT, 43L));
+        } finally {
+            assertTrue(file.delete());
+        }
+    }
+
+    @Test
+    public void testCachedSeedIndex_keyedByContent() throws Exception {
+        final File cacheDir = Files.createTempDirectory("geocoding").toFile();
+        try {
+            final CompactPixelGeoCoding.SeedIndex index =
+                    CompactPixelGeoCoding.getCachedSeedIndex(cacheDir, "product", lons, lats, WIDTH, HEIGHT, 0.02);
+            assertEquals(1, listCacheFiles(cacheDir).length);
+            CompactPixelGeoCoding.SeedIndex cachedIndex =
+                    CompactPixelGeoCoding.getCachedSeedIndex(cacheDir, "product", lons, lats, WIDTH, HEIGHT, 0.02);
+            assertArrayEquals(index.getBins(), cachedIndex.getBins());
+            assertEquals(1, listCacheFiles(cacheDir).length);
+
+            // same product name, different geo-location data
+            final float[] shiftedLons = lons.clone();
+            for (int i = 0; i < shiftedLons.length; i++) {
+                shiftedLons[i] += 1.0f;
+            }
+            cachedIndex = CompactPixelGeoCoding.getCachedSeedIndex(cacheDir, "product", shiftedLons, lats,
+                                                                   WIDTH, HEIGHT, 0.02);
+            final CompactPixelGeoCoding.SeedIndex expectedIndex =
+                    CompactPixelGeoCoding.SeedIndex.create(shiftedLons, lats, WIDTH, HEIGHT, 0.02);
+            assertArrayEquals(expectedIndex.getBins(), cachedIndex.getBins());
+            assertEquals(-1, cachedIndex.findSeed(49.97, 10.1));
+            assertEquals(2, listCacheFiles(cacheDir).length);
+        } finally {
+            deleteTree(cacheDir);
+        }
+    }
+
+    @Test
+    public void testTrimCache() throws Exception {
+        final File cacheDir = Files.createTempDirectory("geocoding").toFile();
+        try {
+            final File[] files = new File[4];
+            for (int i = 0; i < files.length; i++) {
+                files[i] = new File(cacheDir, "index" + i + ".idx");
+                Files.write(files[i].toPath(), new byte[100]);
+                assertTrue(files[i].setLastModified(1000000000000L + i * 1000L));
+            }
+
+            CompactPixelGeoCoding.trimCache(cacheDir, files[0], 250);
+
+            // the two most recently used files fit, the kept file stays regardless of its age
+            assertTrue(files[0].exists());
+            assertFalse(files[1].exists());
+            assertTrue(files[2].exists());
+            assertTrue(files[3].exists());
+        } finally {
+            deleteTree(cacheDir);
+        }
+    }
+
+    @Test
+    public void testDisposeDuringLookups() throws Exception {
+        final CompactPixelGeoCoding geoCoding = createGeoCoding(lons, lats);
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<?>> results = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                results.add(executor.submit(() -> {
+                    for (int i = 0; i < 2000; i++) {
+                        final int index = i % lons.length;
+                        final PixelPos pixelPos = geoCoding.getPixelPos(new GeoPos(lats[index], lons[index]), null);
+                        assertEquals(index % WIDTH + 0.5, pixelPos.getX(), 1e-8);
+                        assertEquals(index / WIDTH + 0.5, pixelPos.getY(), 1e-8);
+                    }
+                }));
+            }
+            for (int i = 0; i < 100; i++) {
+                geoCoding.dispose();
+                Thread.yield();
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static File[] listCacheFiles(File cacheDir) {
+        return cacheDir.listFiles((dir, name) -> name.endsWith(".idx"));
+    }
+
+    private static void deleteTree(File dir) {
+        final File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        dir.delete();
+    }
+
+    private static CompactPixelGeoCoding createGeoCoding(float[] lons, float[] lats) {
+        final Product product = new Product("test", "test", WIDTH, HEIGHT);
+        final Band lonBand = product.addBand("longitude", ProductData.TYPE_FLOAT32);
+        lonBand.setRasterData(ProductData.createInstance(lons));
+        final Band latBand = product.addBand("latitude", ProductData.TYPE_FLOAT32);
+        latBand.setRasterData(ProductData.createInstance(lats));
+        return new CompactPixelGeoCoding(lonBand, latBand, 1.1, null);
+    }
+}
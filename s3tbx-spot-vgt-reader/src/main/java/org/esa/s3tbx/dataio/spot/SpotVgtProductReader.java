@@ -20,6 +20,7 @@ import com.bc.ceres.core.Assert;
 import com.bc.ceres.core.ProgressMonitor;
 import com.bc.ceres.core.VirtualDir;
 import org.apache.commons.io.FilenameUtils;
+import org.esa.s3tbx.commons.NetcdfFilePool;
 import org.esa.snap.core.dataio.AbstractProductReader;
 import org.esa.snap.core.datamodel.Band;
 import org.esa.snap.core.datamodel.FlagCoding;
@@ -31,11 +32,12 @@ import org.esa.snap.core.datamodel.ProductData;
 import org.esa.snap.core.util.ImageUtils;
 import org.esa.snap.core.util.jai.JAIUtils;
 import org.esa.snap.dataio.netcdf.util.DataTypeUtils;
-import org.esa.snap.dataio.netcdf.util.NetcdfFileOpener;
 import ucar.ma2.Array;
 import ucar.ma2.DataType;
 import ucar.ma2.InvalidRangeException;
+import ucar.ma2.Section;
 import ucar.nc2.NetcdfFile;
+import ucar.nc2.NetcdfFiles;
 import ucar.nc2.Variable;
 
 import javax.media.jai.BorderExtender;
@@ -51,14 +53,18 @@ import java.awt.Rectangle;
 import java.awt.RenderingHints;
 import java.awt.image.RenderedImage;
 import java.io.File;
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.text.MessageFormat;
+import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.HashMap;
-import java.util.Map;
+import java.util.List;
 import java.util.Properties;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 
 import static org.esa.s3tbx.dataio.spot.SpotVgtProductReaderPlugIn.getBandName;
 import static org.esa.s3tbx.dataio.spot.SpotVgtProductReaderPlugIn.getFileInput;
@@ -74,8 +80,19 @@ import static org.esa.s3tbx.dataio.spot.SpotVgtProductReaderPlugIn.getFileInput;
 public class SpotVgtProductReader extends AbstractProductReader {
 
     private static final String BAND_INFO_PROPERTIES = "band-info.properties";
+    /**
+     * HDF files in a zipped product up to this size are read into memory instead of being extracted to disk.
+     */
+    private static final long MAX_IN_MEMORY_FILE_SIZE = Long.getLong("s3tbx.spotvgt.maxInMemoryFileSize", 128L * 1024 * 1024);
+    /**
+     * The HDF files of a zipped product read into memory add up to this size at most. Further files are extracted.
+     */
+    private static final long MAX_IN_MEMORY_PRODUCT_SIZE = Long.getLong("s3tbx.spotvgt.maxInMemoryProductSize", 256L * 1024 * 1024);
     private HashMap<Band, FileVar> fileVars;
+    private List<NetcdfFilePool> filePools;
     private VirtualDir virtualDir;
+    private ZipFile zipFile;
+    private long inMemorySize;
     private Properties bandInfos;
     private static final String[] PIXEL_DATA_VAR_NAMES = new String[]{
             "PIXEL_DATA",
@@ -103,7 +120,12 @@ public class SpotVgtProductReader extends AbstractProductReader {
     protected Product readProductNodesImpl() throws IOException {
         File inputFile = getFileInput(getInput());
         virtualDir = VirtualDir.create(inputFile);
+        if (virtualDir.isArchive()) {
+            zipFile = new ZipFile(inputFile);
+        }
         fileVars = new HashMap<>(33);
+        filePools = new ArrayList<>(33);
+        inMemorySize = 0;
 
         return isVgtPCollection3Product ? createVgtPCollection3Product(inputFile) : createProduct();
     }
@@ -126,11 +148,13 @@ public class SpotVgtProductReader extends AbstractProductReader {
         String[] logVolFileNames = virtualDir.list(physVolDescriptor.getLogVolDirName());
         for (String logVolFileName : logVolFileNames) {
 
-            if (logVolFileName.endsWith(".hdf") || logVolFileName.endsWith(".HDF")) {
+            if ((logVolFileName.endsWith(".hdf") || logVolFileName.endsWith(".HDF"))
+                && getBandInfo(getBandName(logVolFileName)) != null) {
 
-                File hdfFile = virtualDir.getFile(physVolDescriptor.getLogVolDirName() + "/" + logVolFileName);
-                NetcdfFile netcdfFile = NetcdfFileOpener.open(hdfFile.getPath());
-                setProductRasterData(targetWidth, targetHeight, product, logVolFileName, hdfFile, netcdfFile);
+                FileVar fileVar = openHdfFile(physVolDescriptor.getLogVolDirName() + "/" + logVolFileName);
+                if (fileVar != null) {
+                    setProductRasterData(targetWidth, targetHeight, product, logVolFileName, fileVar);
+                }
             }
         }
 
@@ -169,12 +193,13 @@ public class SpotVgtProductReader extends AbstractProductReader {
         }
 
         for (String productFileName : productFileNames) {
-            if (productFileName.toUpperCase().endsWith(".HDF")) {
+            if (productFileName.toUpperCase().endsWith(".HDF") && getBandInfo(getBandName(productFileName)) != null) {
 
                 final String hdfFilePathInProduct = isZipFile ? productName + "/" + productFileName : productFileName;
-                File hdfFile = virtualDir.getFile(hdfFilePathInProduct);
-                NetcdfFile netcdfFile = NetcdfFileOpener.open(hdfFile.getPath());
-                setProductRasterData(targetWidth, targetHeight, product, productFileName, hdfFile, netcdfFile);
+                FileVar fileVar = openHdfFile(hdfFilePathInProduct);
+                if (fileVar != null) {
+                    setProductRasterData(targetWidth, targetHeight, product, productFileName, fileVar);
+                }
             }
         }
 
@@ -205,47 +230,94 @@ public class SpotVgtProductReader extends AbstractProductReader {
         return product;
     }
 
-    private void setProductRasterData(int targetWidth, int targetHeight, Product product,
-                                      String hdfFileName, File hdfFile, NetcdfFile netcdfFile) throws IOException {
-        if (netcdfFile == null) {
+    /**
+     * Opens an HDF file of the product and finds its pixel data variable.
+     * <p>
+     * Files of zipped products are not extracted if they are small enough and the files in memory stay below
+     * {@link #MAX_IN_MEMORY_PRODUCT_SIZE}. Such a file is read from the zip once to find the variable and is dropped
+     * again; only the name, type and shape of the variable are kept. The file is read into memory again when the
+     * data of its band are read for the first time, so files whose bands are never read do not occupy memory.
+     * Larger files and those beyond the limit are extracted to disk and opened.
+     *
+     * @return the pixel data variable, or {@code null} if the file has none
+     */
+    private FileVar openHdfFile(String hdfFilePath) throws IOException {
+        if (zipFile != null) {
+            ZipEntry zipEntry = zipFile.getEntry(hdfFilePath);
+            if (zipEntry != null && zipEntry.getSize() >= 0 && zipEntry.getSize() <= MAX_IN_MEMORY_FILE_SIZE
+                && inMemorySize + zipEntry.getSize() <= MAX_IN_MEMORY_PRODUCT_SIZE) {
+                Variable variable;
+                try (NetcdfFile netcdfFile = NetcdfFiles.openInMemory(hdfFilePath, readZipEntry(zipFile, zipEntry))) {
+                    variable = findPixelDataVariable(netcdfFile);
+                    if (!isPotentialPixelDataVariable(variable)) {
+                        return null;
+                    }
+                }
+                NetcdfFilePool filePool = new NetcdfFilePool(null, new ZipEntryOpener(zipFile, zipEntry),
+                                                             NetcdfFilePool.DEFAULT_MAX_HANDLES);
+                filePools.add(filePool);
+                inMemorySize += zipEntry.getSize();
+                return new FileVar(filePool, variable);
+            }
+        }
+        File hdfFile = virtualDir.getFile(hdfFilePath);
+        NetcdfFilePool filePool = NetcdfFilePool.forPath(hdfFile.getPath(), NetcdfFilePool.DEFAULT_MAX_HANDLES);
+        if (filePool == null) {
             throw new IOException("Failed to open file " + hdfFile.getPath());
         }
+        filePools.add(filePool);
+        Variable variable = findPixelDataVariable(filePool.getFirstHandle());
+        return isPotentialPixelDataVariable(variable) ? new FileVar(filePool, variable) : null;
+    }
 
-        Variable variable = findPixelDataVariable(netcdfFile);
-        if (isPotentialPixelDataVariable(variable)) {
-            DataType netCdfDataType = variable.getDataType();
-            int bandDataType = convertNetcdfTypeToProductDataType(netCdfDataType, variable.getDataType().isUnsigned());
-            if (bandDataType != ProductData.TYPE_UNDEFINED) {
-                String bandName = getBandName(hdfFileName);
-                BandInfo bandInfo = getBandInfo(bandName);
+    private static byte[] readZipEntry(ZipFile zipFile, ZipEntry zipEntry) throws IOException {
+        byte[] data = new byte[(int) zipEntry.getSize()];
+        try (InputStream inputStream = zipFile.getInputStream(zipEntry)) {
+            int offset = 0;
+            while (offset < data.length) {
+                int count = inputStream.read(data, offset, data.length - offset);
+                if (count < 0) {
+                    throw new EOFException("Unexpected end of zip entry " + zipEntry.getName());
+                }
+                offset += count;
+            }
+        }
+        return data;
+    }
 
-                // Check if we know about this variable (bandInfo != null)
+    private void setProductRasterData(int targetWidth, int targetHeight, Product product,
+                                      String hdfFileName, FileVar fileVar) {
+        int bandDataType = convertNetcdfTypeToProductDataType(fileVar.dataType, fileVar.dataType.isUnsigned());
+        if (bandDataType != ProductData.TYPE_UNDEFINED) {
+            String bandName = getBandName(hdfFileName);
+            BandInfo bandInfo = getBandInfo(bandName);
+
+            // Check if we know about this variable (bandInfo != null)
+            //
+            if (bandInfo != null) {
+                // SPOT VGT P Products contain sub-sampled variables.
+                // Need to check whether source raster resolution is at target raster resolution.
                 //
-                if (bandInfo != null) {
-                    // SPOT VGT P Products contain sub-sampled variables.
-                    // Need to check whether source raster resolution is at target raster resolution.
-                    //
-                    int sourceWidth = variable.getDimension(1).getLength();
-                    int sourceHeight = variable.getDimension(0).getLength();
-                    int sampling = bandInfo.pSampling;
-                    if (sampling == 1 || sourceWidth == targetWidth || sourceHeight == targetHeight) {
-                        // Source raster resolution is at target raster resolution.
-                        addBand(product, bandDataType, bandInfo, netcdfFile, variable);
-                    } else if (sampling > 1 || sourceWidth <= targetWidth || sourceHeight <= targetHeight) {
-                        // Source raster resolution is a sub-sampling.
-                        try {
-                            ProductData data = readData(variable, bandDataType, sourceWidth, sourceHeight);
-                            final Dimension tileSize = product.getPreferredTileSize();
-                            RenderedOp dstImg = createScaledImage(targetWidth, targetHeight, sourceWidth,
-                                                                  sourceHeight, sampling, data, tileSize);
-                            Band band = addBand(product, bandDataType, bandInfo, netcdfFile, variable);
-                            band.setSourceImage(dstImg);
-                        } catch (IOException | InvalidRangeException e) {
-                            // band not added
-                        }
-                    }  // band not added
+                int sourceWidth = fileVar.width;
+                int sourceHeight = fileVar.height;
+                int sampling = bandInfo.pSampling;
+                if (sampling == 1 || sourceWidth == targetWidth || sourceHeight == targetHeight) {
+                    // Source raster resolution is at target raster resolution.
+                    addBand(product, bandDataType, bandInfo, fileVar);
+                } else if (sampling > 1 || sourceWidth <= targetWidth || sourceHeight <= targetHeight) {
+                    // Source raster resolution is a sub-sampling.
+                    try {
+                        ProductData data = readData(fileVar, bandDataType, sourceWidth, sourceHeight);
+                        final Dimension tileSize = product.getPreferredTileSize();
+                        RenderedOp dstImg = createScaledImage(targetWidth, targetHeight, sourceWidth,
+                                                              sourceHeight, sampling, data, tileSize);
+                        Band band = addBand(product, bandDataType, bandInfo, fileVar);
+                        band.setSourceImage(dstImg);
+                    } catch (IOException | InvalidRangeException e) {
+                        // band not added
+                    }
+                }  // band not added
 
-                }
             }
         }
     }
@@ -259,11 +331,10 @@ public class SpotVgtProductReader extends AbstractProductReader {
         return variable != null && variable.getRank() == 2 && variable.getDataType().isNumeric();
     }
 
-    private static ProductData readData(Variable variable, int bandDataType, int rasterWidth, int rasterHeight) throws
-            IOException,
-            InvalidRangeException {
+    private static ProductData readData(FileVar fileVar, int bandDataType,
+                                        int rasterWidth, int rasterHeight) throws IOException, InvalidRangeException {
         ProductData data = ProductData.createInstance(bandDataType, rasterWidth * rasterHeight);
-        read(variable, 0, 0, rasterWidth, rasterHeight, data);
+        read(fileVar, 0, 0, rasterWidth, rasterHeight, data);
         return data;
     }
 
@@ -288,8 +359,7 @@ public class SpotVgtProductReader extends AbstractProductReader {
         return CropDescriptor.create(tempImg, 0f, 0f, (float) targetWidth, (float) targetHeight, null);
     }
 
-    private Band addBand(Product product, int bandDataType, BandInfo bandInfo, NetcdfFile netcdfFile,
-                         Variable variable) {
+    private Band addBand(Product product, int bandDataType, BandInfo bandInfo, FileVar fileVar) {
         Band band = product.addBand(bandInfo.name, bandDataType);
         if (!Boolean.getBoolean("s3tbx.spotvgt.donotapplysolarilluminationfactor") &&
                 product.getName().matches("V.KRNP.*") &&
@@ -305,7 +375,7 @@ public class SpotVgtProductReader extends AbstractProductReader {
         band.setScalingOffset(bandInfo.offsetB);
         band.setUnit(bandInfo.unit);
         band.setDescription(bandInfo.description);
-        fileVars.put(band, new FileVar(netcdfFile, variable));
+        fileVars.put(band, fileVar);
         return band;
     }
 
@@ -345,36 +415,33 @@ public class SpotVgtProductReader extends AbstractProductReader {
         if (fileVar == null) {
             return;
         }
-        final Variable variable = fileVar.var;
-        synchronized (variable) {
-            try {
-                read(variable, targetOffsetX, targetOffsetY, targetWidth, targetHeight, targetBuffer);
-            } catch (InvalidRangeException e) {
-                // ?
-            }
+        // no locking, every concurrent read uses its own file handle of the pool
+        try {
+            read(fileVar, targetOffsetX, targetOffsetY, targetWidth, targetHeight, targetBuffer);
+        } catch (InvalidRangeException e) {
+            // ?
         }
     }
 
-    private static void read(Variable variable,
+    private static void read(FileVar fileVar,
                              int targetOffsetX, int targetOffsetY,
                              int targetWidth, int targetHeight,
                              ProductData targetBuffer) throws IOException, InvalidRangeException {
-        Array array = variable.read(new int[]{targetOffsetY, targetOffsetX},
-                                    new int[]{targetHeight, targetWidth});
+        Array array = fileVar.filePool.read(fileVar.varName, new Section(new int[]{targetOffsetY, targetOffsetX},
+                                                                         new int[]{targetHeight, targetWidth}));
         System.arraycopy(array.getStorage(), 0, targetBuffer.getElems(), 0, targetWidth * targetHeight);
     }
 
     @Override
     public void close() throws IOException {
-        for (Map.Entry<Band, FileVar> entry : fileVars.entrySet()) {
-            NetcdfFile netcdfFile = entry.getValue().file;
-            try {
-                netcdfFile.close();
-            } catch (IOException e) {
-                // ok
-            }
+        for (NetcdfFilePool filePool : filePools) {
+            filePool.close();
         }
+        filePools.clear();
         fileVars.clear();
+        if (zipFile != null) {
+            zipFile.close();
+        }
         virtualDir.close();
         super.close();
     }
@@ -551,14 +618,51 @@ public class SpotVgtProductReader extends AbstractProductReader {
         private final String description;
     }
 
-    private static class FileVar {
+    /**
+     * Opens handles to an HDF file of a zipped product, which is read into memory on the first call only.
+     */
+    private static class ZipEntryOpener implements NetcdfFilePool.Opener {
+
+        private final ZipFile zipFile;
+        private final ZipEntry zipEntry;
+        private byte[] data;
 
-        final NetcdfFile file;
-        final Variable var;
+        private ZipEntryOpener(ZipFile zipFile, ZipEntry zipEntry) {
+            this.zipFile = zipFile;
+            this.zipEntry = zipEntry;
+        }
+
+        @Override
+        public NetcdfFile open() throws IOException {
+            return NetcdfFiles.openInMemory(zipEntry.getName(), getData());
+        }
+
+        private synchronized byte[] getData() throws IOException {
+            if (data == null) {
+                data = readZipEntry(zipFile, zipEntry);
+            }
+            return data;
+        }
+    }
+
+    /**
+     * The pixel data variable of an HDF file. It does not refer to the variable itself, which would keep the
+     * file it has been found in, and its content, from being released.
+     */
+    private static class FileVar {
 
-        private FileVar(NetcdfFile file, Variable var) {
-            this.file = file;
-            this.var = var;
+        final NetcdfFilePool filePool;
+        final String varName;
+        final DataType dataType;
+        final int width;
+        final int height;
+
+        private FileVar(NetcdfFilePool filePool, Variable var) {
+            this.filePool = filePool;
+            this.varName = var.getFullNameEscaped();
+            this.dataType = var.getDataType();
+            this.width = var.getDimension(1).getLength();
+            this.height = var.getDimension(0).getLength();
         }
     }
 
@@ -16,6 +16,7 @@
 
 package gov.nasa.gsfc.seadas.dataio;
 
+import com.bc.ceres.core.ProgressMonitor;
 import org.esa.snap.core.dataio.ProductIOException;
 import org.esa.snap.core.datamodel.Band;
 import org.esa.snap.core.datamodel.GeoCodingFactory;
@@ -24,7 +25,9 @@ import org.esa.snap.core.datamodel.ProductData;
 import ucar.ma2.InvalidRangeException;
 import ucar.nc2.Variable;
 
+import java.io.IOException;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -32,10 +35,36 @@ public class L1ASeawifsFileReader extends SeadasFileReader {
 
     static final int[] SEAWIFS_WVL = new int[]{412, 443, 490, 510, 555, 670, 765, 865};
 
+    private static final int GEOLOCATION_BLOCK_LINES = 64;
+    private static final int MAX_CACHED_GEOLOCATION_BLOCKS = Math.max(8, 2 * Runtime.getRuntime().availableProcessors());
+    private static final int MAX_PENDING_GEOLOCATION_BLOCKS = 32;
+
+    private GeolocationCache geolocationCache;
+    private Band latBand;
+    private Band lonBand;
+
     L1ASeawifsFileReader(SeadasProductReader productReader) {
         super(productReader);
     }
 
+    @Override
+    public void readBandData(Band destBand, int sourceOffsetX, int sourceOffsetY, int sourceWidth, int sourceHeight,
+                             int sourceStepX, int sourceStepY, ProductData destBuffer,
+                             ProgressMonitor pm) throws IOException, InvalidRangeException {
+        if (destBand != latBand && destBand != lonBand) {
+            super.readBandData(destBand, sourceOffsetX, sourceOffsetY, sourceWidth, sourceHeight,
+                               sourceStepX, sourceStepY, destBuffer, pm);
+            return;
+        }
+        pm.beginTask("Computing " + destBand.getName() + "...", sourceHeight);
+        try {
+            geolocationCache.read(destBand == latBand, sourceOffsetX, sourceOffsetY, sourceWidth, sourceHeight,
+                                  sourceStepX, sourceStepY, (float[]) destBuffer.getElems(), pm);
+        } finally {
+            pm.done();
+        }
+    }
+
     @Override
     public Product createProduct() throws ProductIOException {
 
@@ -66,11 +95,11 @@ public class L1ASeawifsFileReader extends SeadasFileReader {
 
         variableMap = addSeawifsBands(product, ncFile.getVariables());
 
-        SeaWiFSL1AGeonav geonavCalculator = new SeaWiFSL1AGeonav(ncFile);
-        float[] latitudes = flatten2DimArray(geonavCalculator.getLatitudes());
-        float[] longitudes = flatten2DimArray(geonavCalculator.getLongitudes());
-        Band latBand = new Band("latitude", ProductData.TYPE_FLOAT32, sceneWidth, sceneHeight);
-        Band lonBand = new Band("longitude", ProductData.TYPE_FLOAT32, sceneWidth, sceneHeight);
+        // the geolocation is computed block by block when the latitude or longitude data is read
+        geolocationCache = new GeolocationCache(new SeaWiFSL1AGeonav(ncFile), GEOLOCATION_BLOCK_LINES,
+                                                MAX_CACHED_GEOLOCATION_BLOCKS, MAX_PENDING_GEOLOCATION_BLOCKS);
+        latBand = new Band("latitude", ProductData.TYPE_FLOAT32, sceneWidth, sceneHeight);
+        lonBand = new Band("longitude", ProductData.TYPE_FLOAT32, sceneWidth, sceneHeight);
         latBand.setNoDataValue(999.0);
         latBand.setNoDataValueUsed(true);
         lonBand.setNoDataValue(999.0);
@@ -78,10 +107,6 @@ public class L1ASeawifsFileReader extends SeadasFileReader {
         product.addBand(latBand);
         product.addBand(lonBand);
 
-        ProductData lats = ProductData.createInstance(latitudes);
-        latBand.setData(lats);
-        ProductData lons = ProductData.createInstance(longitudes);
-        lonBand.setData(lons);
         product.setSceneGeoCoding(GeoCodingFactory.createPixelGeoCoding(latBand, lonBand, null, 10));
         
         addFlagsAndMasks(product);
@@ -141,4 +166,100 @@ public class L1ASeawifsFileReader extends SeadasFileReader {
         return bandToVariableMap;
     }
 
+    /**
+     * The geolocation of the scene, navigated in blocks of scan lines. The latitudes and longitudes of a block are
+     * computed together. A block is kept until both of them have been read, so that reading all latitudes and then
+     * all longitudes, as the pixel geo-coding does, navigates every block once. At most {@code maxPendingBlocks}
+     * blocks wait for their second read, the oldest is dropped and navigated again if it is needed later. Hence a
+     * client reading only one of them does not keep the whole scene in memory. Blocks read completely are kept in a
+     * small LRU cache for the tiles of the same lines. Blocks are computed outside of the lock, so different blocks
+     * are navigated concurrently.
+     */
+    static class GeolocationCache {
+
+        private final SeaWiFSL1AGeonav geonav;
+        private final int blockLines;
+        private final Map<Integer, GeolocationBlock> pendingBlocks;
+        private final Map<Integer, GeolocationBlock> recentBlocks;
+
+        GeolocationCache(SeaWiFSL1AGeonav geonav, int blockLines, final int maxRecentBlocks,
+                         final int maxPendingBlocks) {
+            this.geonav = geonav;
+            this.blockLines = blockLines;
+            pendingBlocks = new LinkedHashMap<Integer, GeolocationBlock>() {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Integer, GeolocationBlock> eldest) {
+                    return size() > maxPendingBlocks;
+                }
+            };
+            recentBlocks = new LinkedHashMap<Integer, GeolocationBlock>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Integer, GeolocationBlock> eldest) {
+                    return size() > maxRecentBlocks;
+                }
+            };
+        }
+
+        void read(boolean latitude, int offsetX, int offsetY, int width, int height, int stepX, int stepY,
+                  float[] dest, ProgressMonitor pm) {
+            final int sceneWidth = geonav.getNumberPixels();
+            GeolocationBlock block = null;
+            int destIndex = 0;
+            for (int y = offsetY; y < offsetY + height; y += stepY) {
+                if (block == null || y >= block.firstLine + blockLines) {
+                    block = getBlock(y / blockLines, latitude);
+                }
+                final float[] values = latitude ? block.latitudes : block.longitudes;
+                final int lineOffset = (y - block.firstLine) * sceneWidth;
+                for (int x = offsetX; x < offsetX + width; x += stepX) {
+                    dest[destIndex++] = values[lineOffset + x];
+                }
+                pm.worked(stepY);
+            }
+        }
+
+        private GeolocationBlock getBlock(int blockIndex, boolean latitude) {
+            synchronized (this) {
+                GeolocationBlock block = pendingBlocks.get(blockIndex);
+                if (block != null) {
+                    if (block.latitudesPending == latitude) {
+                        pendingBlocks.remove(blockIndex);
+                        recentBlocks.put(blockIndex, block);
+                    }
+                    return block;
+                }
+                block = recentBlocks.get(blockIndex);
+                if (block != null) {
+                    return block;
+                }
+            }
+            final int firstLine = blockIndex * blockLines;
+            final int numLines = Math.min(blockLines, geonav.getNumberScanLines() - firstLine);
+            final GeolocationBlock block = new GeolocationBlock(firstLine, numLines * geonav.getNumberPixels(),
+                                                                !latitude);
+            geonav.computeGeolocation(firstLine, numLines, block.latitudes, block.longitudes);
+            synchronized (this) {
+                if (!pendingBlocks.containsKey(blockIndex)) {
+                    pendingBlocks.put(blockIndex, block);
+                }
+            }
+            return block;
+        }
+    }
+
+    private static class GeolocationBlock {
+
+        private final int firstLine;
+        private final float[] latitudes;
+        private final float[] longitudes;
+        // whether the latitudes, or else the longitudes, have not been read yet
+        private final boolean latitudesPending;
+
+        private GeolocationBlock(int firstLine, int size, boolean latitudesPending) {
+            this.firstLine = firstLine;
+            this.latitudesPending = latitudesPending;
+            latitudes = new float[size];
+            longitudes = new float[size];
+        }
+    }
 }
@@ -123,7 +123,7 @@ public class L2DscovrEpicFileReader extends SeadasFileReader {
     }
 
 
-    public synchronized void readBandData(Band destBand, int sourceOffsetX, int sourceOffsetY, int sourceWidth,
+    public void readBandData(Band destBand, int sourceOffsetX, int sourceOffsetY, int sourceWidth,
                                           int sourceHeight, int sourceStepX, int sourceStepY, ProductData destBuffer,
                                           ProgressMonitor pm) throws IOException, InvalidRangeException {
         
@@ -133,12 +133,10 @@ public class L2DscovrEpicFileReader extends SeadasFileReader {
             sourceWidth += widthRemainder;
         }
         
-        start[1] = sourceOffsetY;
-        start[0] = sourceOffsetX;
-        stride[1] = sourceStepY;
-        stride[0] = sourceStepX;
-        count[1] = sourceHeight;
-        count[0] = sourceWidth;
+        // the variables are stored with the x dimension first
+        final int[] start = {sourceOffsetX, sourceOffsetY};
+        final int[] stride = {sourceStepX, sourceStepY};
+        final int[] count = {sourceWidth, sourceHeight};
 
         Object buffer = destBuffer.getElems();
         Variable variable = variableMap.get(destBand);
@@ -150,7 +148,7 @@ public class L2DscovrEpicFileReader extends SeadasFileReader {
             Array array;
             int[] newshape = {sourceHeight, sourceWidth};
 
-            array = variable.read(section);
+            array = readSection(variable, section);
             array = array.transpose(0,1);
 
 
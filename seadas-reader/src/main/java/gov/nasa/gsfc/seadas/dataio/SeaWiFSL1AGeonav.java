@@ -66,25 +66,11 @@ public class SeaWiFSL1AGeonav {
     enum DataType { GAC, LAC }
 
     // The following are input parameters in the Fortran geonav.f function:
-    private float[]   scanPathCoef = new float[6];           // coef in Fortran version
     private int       pixIncr = LAC_PIXEL_INCREMENT;         // ninc in Fortran version
     private int       pixPerScanLine = LAC_PIXELS_PER_SCAN;  // npix in Fortran version
     private int       scanStartPix = LAC_START_SCAN_PIXEL;   // nsta in Fortran version
-    private float[]   orbPos = new float[3];                 // pos in Fortran version
-    private float[][] sensorOrientation = new float[3][3];   // rm in Fortran version
-    private float[]   sunUnitVec = new float[3];             // sun in Fortran version
-
-    // Output parameters in Fortran version, used here to hold single arrays
-    // which get loaded into 2D matrices:
-    private float[] sena = new float[MAX_SEAWIFS_PIXELS];
-    private float[] senz = new float[MAX_SEAWIFS_PIXELS];
-    private float[] sola = new float[MAX_SEAWIFS_PIXELS];
-    private float[] solz = new float[MAX_SEAWIFS_PIXELS];
-    private float[] xlat = new float[MAX_SEAWIFS_PIXELS];
-    private float[] xlon = new float[MAX_SEAWIFS_PIXELS];
 
     // Intermediate values for calculations:
-    private float[]   attAngle = new float[3];
     private double    cosa[] = new double[1285];
     private double    cosl;
     private DataType  dataType;
@@ -93,7 +79,13 @@ public class SeaWiFSL1AGeonav {
     private double    sina[] = new double[MAX_SEAWIFS_PIXELS];
     private double    sinl;
 
-    // Final values for "output":
+    // Navigation data of all scan lines, read once:
+    private ArrayFloat orbitData;
+    private ArrayFloat sensorData;
+    private ArrayFloat sunData;
+    private ArrayFloat scanTrackEllipseCoefData;
+
+    // Final values for "output", only computed when requested:
     private float[][] latitudes;
     private float[][] longitudes;
     private float[][] sensorAzimuths;
@@ -103,6 +95,10 @@ public class SeaWiFSL1AGeonav {
 
     private NetcdfFile ncFile;
 
+    /**
+     * Reads the navigation data of the scan lines. The geolocation itself is computed on demand, either for blocks of
+     * scan lines by {@link #computeGeolocation(int, int, float[], float[])}, or for the whole scene by the getters.
+     */
     public SeaWiFSL1AGeonav(NetcdfFile netcdfFile) {
         ncFile = netcdfFile;
 
@@ -114,13 +110,6 @@ public class SeaWiFSL1AGeonav {
 
         numScanLines = determineNumberScanLines(ncFile);
 
-        latitudes = new float[numScanLines][pixPerScanLine];
-        longitudes = new float[numScanLines][pixPerScanLine];
-        sensorAzimuths = new float[numScanLines][pixPerScanLine];
-        sensorZeniths = new float[numScanLines][pixPerScanLine];
-        solarAzimuths = new float[numScanLines][pixPerScanLine];
-        solarZeniths = new float[numScanLines][pixPerScanLine];
-
         /* The sensorOffsetMatrix values were copied from the navctl.dat file.
          * According to email from F. Patt, the values never changed during the
          * SeaWiFS mission, thus they are hard-coded here.
@@ -142,14 +131,11 @@ public class SeaWiFSL1AGeonav {
 
         //Group rootGroup = ncFile.getRootGroup();
         Group navGroup = ncFile.findGroup("Navigation");
-        Group scanLineAttrGroup = ncFile.findGroup("Scan-Line_Attributes");
 
-        ArrayFloat orbitData = readNetcdfDataArray("orb_vec", navGroup);
-        ArrayFloat sensorData = readNetcdfDataArray("sen_mat", navGroup);
-        ArrayFloat sunData = readNetcdfDataArray("sun_ref", navGroup);
-        ArrayFloat attAngleData = readNetcdfDataArray("att_ang", navGroup);
-        ArrayFloat scanTrackEllipseCoefData = readNetcdfDataArray("scan_ell", navGroup);
-        ArrayFloat tiltData = readNetcdfDataArray("tilt", scanLineAttrGroup);
+        orbitData = readNetcdfDataArray("orb_vec", navGroup);
+        sensorData = readNetcdfDataArray("sen_mat", navGroup);
+        sunData = readNetcdfDataArray("sun_ref", navGroup);
+        scanTrackEllipseCoefData = readNetcdfDataArray("scan_ell", navGroup);
 
         //  Compute elevation (out-of-plane) angle
         elev = SINC * 1.2;
@@ -159,33 +145,71 @@ public class SeaWiFSL1AGeonav {
             sina[i] = Math.sin((i - 642) * SINC) * cosl;
             cosa[i] = Math.cos((i - 642) * SINC) * cosl;
         }
+    }
+
+    /**
+     * Computes latitudes and longitudes of a block of scan lines. The method is thread safe, blocks can be computed
+     * concurrently.
+     *
+     * @param firstLine  the first scan line of the block
+     * @param numLines   the number of scan lines
+     * @param latitudes  receives the latitudes, line by line, {@code numLines * getNumberPixels()} values
+     * @param longitudes receives the longitudes, line by line, {@code numLines * getNumberPixels()} values
+     */
+    public void computeGeolocation(int firstLine, int numLines, float[] latitudes, float[] longitudes) {
+        final ScanLine scanLine = new ScanLine();
+        for (int i = 0; i < numLines; i++) {
+            computeScanLine(firstLine + i, scanLine);
+            System.arraycopy(scanLine.xlat, 0, latitudes, i * pixPerScanLine, pixPerScanLine);
+            System.arraycopy(scanLine.xlon, 0, longitudes, i * pixPerScanLine, pixPerScanLine);
+        }
+    }
+
+    /**
+     * Computes the geolocation and the angles of all scan lines, as the constructor used to do.
+     *
+     * @deprecated the getters compute the scan lines on demand, use {@link #computeGeolocation} for blocks of lines
+     */
+    @Deprecated
+    public void doComputations() {
+        computeAllScanLines();
+    }
 
+    private synchronized void computeAllScanLines() {
+        if (latitudes != null) {
+            return;
+        }
+        final float[][] lats = new float[numScanLines][pixPerScanLine];
+        final float[][] lons = new float[numScanLines][pixPerScanLine];
+        sensorAzimuths = new float[numScanLines][pixPerScanLine];
+        sensorZeniths = new float[numScanLines][pixPerScanLine];
+        solarAzimuths = new float[numScanLines][pixPerScanLine];
+        solarZeniths = new float[numScanLines][pixPerScanLine];
+        final ScanLine scanLine = new ScanLine();
         for (int line = 0; line < numScanLines; line ++) {
-            attAngle = populateVector(attAngleData, 3, line);
-
-            orbPos = populateVector(orbitData, 3, line);
-            sensorOrientation[0][0] = sensorData.getFloat(line * 9);
-            sensorOrientation[0][1] = sensorData.getFloat(line * 9 + 1);
-            sensorOrientation[0][2] = sensorData.getFloat(line * 9 + 2);
-            sensorOrientation[1][0] = sensorData.getFloat(line * 9 + 3);
-            sensorOrientation[1][1] = sensorData.getFloat(line * 9 + 4);
-            sensorOrientation[1][2] = sensorData.getFloat(line * 9 + 5);
-            sensorOrientation[2][0] = sensorData.getFloat(line * 9 + 6);
-            sensorOrientation[2][1] = sensorData.getFloat(line * 9 + 7);
-            sensorOrientation[2][2] = sensorData.getFloat(line * 9 + 8);
-            float tilt = tiltData.getFloat(line);
-//            float[][] attXfm = computeTransformMatrix(tilt);
-            scanPathCoef = populateVector(scanTrackEllipseCoefData, 6, line);
-            sunUnitVec = populateVector(sunData, 3, line);
-
-            doComputations();
-            System.arraycopy(xlat, 0, latitudes[line], 0, pixPerScanLine);
-            System.arraycopy(xlon, 0, longitudes[line], 0, pixPerScanLine);
-            System.arraycopy(sena, 0, sensorAzimuths[line], 0, pixPerScanLine);
-            System.arraycopy(senz, 0, sensorZeniths[line], 0, pixPerScanLine);
-            System.arraycopy(sola, 0, solarAzimuths[line], 0, pixPerScanLine);
-            System.arraycopy(solz, 0, solarZeniths[line], 0, pixPerScanLine);
+            computeScanLine(line, scanLine);
+            System.arraycopy(scanLine.xlat, 0, lats[line], 0, pixPerScanLine);
+            System.arraycopy(scanLine.xlon, 0, lons[line], 0, pixPerScanLine);
+            System.arraycopy(scanLine.sena, 0, sensorAzimuths[line], 0, pixPerScanLine);
+            System.arraycopy(scanLine.senz, 0, sensorZeniths[line], 0, pixPerScanLine);
+            System.arraycopy(scanLine.sola, 0, solarAzimuths[line], 0, pixPerScanLine);
+            System.arraycopy(scanLine.solz, 0, solarZeniths[line], 0, pixPerScanLine);
+        }
+        longitudes = lons;
+        latitudes = lats;
+    }
+
+    private void computeScanLine(int line, ScanLine scanLine) {
+        populateVector(orbitData, 3, line, scanLine.orbPos);
+        for (int i = 0; i < 3; i++) {
+            for (int j = 0; j < 3; j++) {
+                scanLine.sensorOrientation[i][j] = sensorData.getFloat(line * 9 + i * 3 + j);
+            }
         }
+        populateVector(scanTrackEllipseCoefData, 6, line, scanLine.scanPathCoef);
+        populateVector(sunData, 3, line, scanLine.sunUnitVec);
+
+        doComputations(scanLine);
     }
 
     private float [] computeEastVector(float[] up, float upxy) {
@@ -339,7 +363,7 @@ public class SeaWiFSL1AGeonav {
         return (float) (DEGREES_PER_RADIAN * Math.atan2(Math.sqrt(sunn * sunn + sune * sune), sunv));
     }
 
-    private float[][] computeTransformMatrix(float tilt) {
+    private float[][] computeTransformMatrix(float tilt, float[][] sensorOrientation, float[] attAngle) {
         /**
          * Compute the ECEF-to-orbital tranformation matrix using the
          * sensor transformation matrix.  Corresponds to the get_xfm
@@ -422,7 +446,18 @@ public class SeaWiFSL1AGeonav {
         return ncFile.findGlobalAttribute("LAC_Pixel_Start_Number").getNumericValue().intValue();
     }
 
-    public void doComputations() {
+    private void doComputations(ScanLine scanLine) {
+        final float[] scanPathCoef = scanLine.scanPathCoef;
+        final float[] orbPos = scanLine.orbPos;
+        final float[][] sensorOrientation = scanLine.sensorOrientation;
+        final float[] sunUnitVec = scanLine.sunUnitVec;
+        final float[] xlat = scanLine.xlat;
+        final float[] xlon = scanLine.xlon;
+        final float[] solz = scanLine.solz;
+        final float[] sola = scanLine.sola;
+        final float[] senz = scanLine.senz;
+        final float[] sena = scanLine.sena;
+
         float[]  ea = new float[3];
         float[]  geovec = new float[3];
         float[]  no = new float[3];
@@ -517,10 +552,12 @@ public class SeaWiFSL1AGeonav {
     }
 
     public float[][] getLatitudes() {
-            return latitudes;
+        computeAllScanLines();
+        return latitudes;
     }
 
     public float[][] getLongitudes() {
+        computeAllScanLines();
         return longitudes;
     }
 
@@ -529,18 +566,22 @@ public class SeaWiFSL1AGeonav {
     }
 
     public float[][] getSensorAzimuths() {
+        computeAllScanLines();
         return sensorAzimuths;
     }
 
     public float[][] getSensorZeniths() {
+        computeAllScanLines();
         return sensorZeniths;
     }
 
     public float[][] getSolarAzimuths() {
+        computeAllScanLines();
         return solarAzimuths;
     }
 
     public float[][] getSolarZeniths() {
+        computeAllScanLines();
         return solarZeniths;
     }
 
@@ -568,12 +609,10 @@ public class SeaWiFSL1AGeonav {
         return p;
     }
 
-    private float[] populateVector(ArrayFloat sourceData, int size, int lineNum) {
-        float[] newVect = new float[size];
+    private void populateVector(ArrayFloat sourceData, int size, int lineNum, float[] vector) {
         for(int i = 0; i < size; i ++) {
-            newVect[i] = sourceData.getFloat(size * lineNum + i);
+            vector[i] = sourceData.getFloat(size * lineNum + i);
         }
-        return newVect;
     }
 
     private ArrayFloat readNetcdfDataArray(String varName, Group group) {
@@ -636,4 +675,18 @@ public class SeaWiFSL1AGeonav {
         return transpose;
     }
 
+    // Navigation input and results of a single scan line, every thread uses its own instance.
+    private static final class ScanLine {
+        private final float[]   scanPathCoef = new float[6];           // coef in Fortran version
+        private final float[]   orbPos = new float[3];                 // pos in Fortran version
+        private final float[][] sensorOrientation = new float[3][3];   // rm in Fortran version
+        private final float[]   sunUnitVec = new float[3];             // sun in Fortran version
+
+        private final float[] sena = new float[MAX_SEAWIFS_PIXELS];
+        private final float[] senz = new float[MAX_SEAWIFS_PIXELS];
+        private final float[] sola = new float[MAX_SEAWIFS_PIXELS];
+        private final float[] solz = new float[MAX_SEAWIFS_PIXELS];
+        private final float[] xlat = new float[MAX_SEAWIFS_PIXELS];
+        private final float[] xlon = new float[MAX_SEAWIFS_PIXELS];
+    }
 }
@@ -16,6 +16,7 @@
 package gov.nasa.gsfc.seadas.dataio;
 
 import com.bc.ceres.core.ProgressMonitor;
+import org.esa.s3tbx.commons.NetcdfFilePool;
 import org.esa.snap.core.dataio.ProductIOException;
 import org.esa.snap.core.datamodel.Band;
 import org.esa.snap.core.datamodel.FlagCoding;
@@ -25,6 +26,7 @@ import org.esa.snap.core.datamodel.MetadataElement;
 import org.esa.snap.core.datamodel.Product;
 import org.esa.snap.core.datamodel.ProductData;
 import org.esa.snap.core.util.io.CsvReader;
+import org.esa.snap.dataio.netcdf.util.NetcdfFileOpener;
 import ucar.ma2.Array;
 import ucar.ma2.DataType;
 import ucar.ma2.InvalidRangeException;
@@ -39,6 +41,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.text.ParseException;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
@@ -55,15 +58,16 @@ public abstract class SeadasFileReader {
     protected Map<Band, Variable> variableMap;
     protected NetcdfFile ncFile;
     protected SeadasProductReader productReader;
-    protected int[] start = new int[2];
-    protected int[] stride = new int[2];
-    protected int[] count = new int[2];
     protected String sensor = null;
 
     protected int leadLineSkip = 0;
     protected int tailLineSkip = 0;
 
+    private NetcdfFilePool filePool;
+    private boolean filePoolClosed;
+
     private static final String FLAG_MASKS = "flag_masks";
+    private static final int PREFERRED_TILE_SIZE = 512;
     private static final String FLAG_MEANINGS = "flag_meanings";
 
     protected static final SkipBadNav LAT_SKIP_BAD_NAV = new SkipBadNav() {
@@ -82,7 +86,11 @@ public abstract class SeadasFileReader {
 
     public abstract Product createProduct() throws IOException;
 
-    public synchronized void readBandData(Band destBand, int sourceOffsetX, int sourceOffsetY, int sourceWidth,
+    /**
+     * Reads the data of a band region. The method may be called concurrently, each call reads through a handle of its
+     * own, so tiles of different bands and non-overlapping tiles of the same band are read in parallel.
+     */
+    public void readBandData(Band destBand, int sourceOffsetX, int sourceOffsetY, int sourceWidth,
             int sourceHeight, int sourceStepX, int sourceStepY, ProductData destBuffer,
             ProgressMonitor pm) throws IOException, InvalidRangeException {
 
@@ -93,53 +101,168 @@ public abstract class SeadasFileReader {
             sourceOffsetX = destBand.getRasterWidth() - (sourceOffsetX + sourceWidth);
         }
         sourceOffsetY += leadLineSkip;
+        final int destWidth = sourceWidth;
         int widthRemainder = destBand.getRasterWidth() - (sourceOffsetX + sourceWidth);
 
         if (widthRemainder < 0) {
             sourceWidth += widthRemainder;
         }
-        start[0] = sourceOffsetY;
-        start[1] = sourceOffsetX;
-        stride[0] = sourceStepY;
-        stride[1] = sourceStepX;
-        count[0] = sourceHeight;
-        count[1] = sourceWidth;
-        Object buffer = destBuffer.getElems();
+        final int[] start = {sourceOffsetY, sourceOffsetX};
+        final int[] stride = {sourceStepY, sourceStepX};
+        final int[] count = {sourceHeight, sourceWidth};
         Variable variable = variableMap.get(destBand);
 
         pm.beginTask("Reading band '" + variable.getShortName() + "'...", sourceHeight);
         try {
             Section section = new Section(start, count, stride);
 
-            Array array;
-            int[] newshape = {sourceHeight, sourceWidth};
-
-            array = variable.read(section);
+            Array array = readSection(variable, section);
             if (array.getRank() > 2) {
-                array = array.reshapeNoCopy(newshape);
+                array = array.reshapeNoCopy(new int[]{sourceHeight, sourceWidth});
             }
-            Object storage;
-
-            if (mustFlipX && !mustFlipY) {
-                storage = array.flip(1).copyTo1DJavaArray();
-            } else if (!mustFlipX && mustFlipY) {
-                storage = array.flip(0).copyTo1DJavaArray();
-            } else if (mustFlipX && mustFlipY) {
-                storage = array.flip(0).flip(1).copyTo1DJavaArray();
-            } else {
-                storage = array.copyTo1DJavaArray();
+            copyFlipped(array, sourceHeight, sourceWidth, destBuffer.getElems(), destWidth);
+        } finally {
+            pm.done();
+        }
+
+    }
+
+    /**
+     * Releases the additional file handles used for concurrent reading.
+     */
+    public void close() {
+        final NetcdfFilePool pool;
+        synchronized (this) {
+            pool = filePool;
+            filePool = null;
+            filePoolClosed = true;
+        }
+        if (pool != null) {
+            pool.close();
+        }
+    }
+
+    // Reads through a handle of the pool. Variables which are not part of the product file (or if the file cannot be
+    // opened again) are read under the reader lock, as before.
+    protected Array readSection(Variable variable, Section section) throws IOException, InvalidRangeException {
+        final NetcdfFilePool pool = getFilePool();
+        final NetcdfFile file = pool != null ? pool.acquire() : null;
+        if (file != null) {
+            try {
+                final Variable pooledVariable = file.findVariable(variable.getFullNameEscaped());
+                if (pooledVariable != null && pooledVariable.getDataType() == variable.getDataType()
+                    && Arrays.equals(pooledVariable.getShape(), variable.getShape())) {
+                    return pooledVariable.read(section);
+                }
+            } finally {
+                pool.release(file);
             }
+        }
+        synchronized (this) {
+            return variable.read(section);
+        }
+    }
+
+    private synchronized NetcdfFilePool getFilePool() {
+        if (filePool == null && !filePoolClosed && productReader.getInputFile() != null) {
+            // the handles are opened on demand, the product file itself stays with the reader
+            final String path = productReader.getInputFile().getPath();
+            filePool = new NetcdfFilePool(null, () -> NetcdfFileOpener.open(path),
+                                          NetcdfFilePool.DEFAULT_MAX_HANDLES);
+        }
+        return filePool;
+    }
 
-            if (widthRemainder < 0) {
-                arraycopy(storage, 0, buffer, 0, destBuffer.getNumElems() + widthRemainder);
+    // Copies the samples of the array into the destination buffer, flipping them as required. The array storage is
+    // used directly, it is not copied into an intermediate java array.
+    private void copyFlipped(Array array, int height, int width, Object destBuffer, int destWidth) {
+        Object storage = array.getStorage();
+        if (java.lang.reflect.Array.getLength(storage) != height * width) {
+            // e.g. a strided view, fall back to a canonical copy
+            storage = array.copyTo1DJavaArray();
+        }
+        for (int y = 0; y < height; y++) {
+            final int srcPos = (mustFlipY ? height - 1 - y : y) * width;
+            final int destPos = y * destWidth;
+            if (mustFlipX) {
+                copyReversed(storage, srcPos, destBuffer, destPos, width);
             } else {
-                arraycopy(storage, 0, buffer, 0, destBuffer.getNumElems());
+                arraycopy(storage, srcPos, destBuffer, destPos, width);
+            }
+        }
+    }
 
+    private static void copyReversed(Object src, int srcPos, Object dest, int destPos, int length) {
+        final int last = srcPos + length - 1;
+        if (src instanceof float[] && dest instanceof float[]) {
+            final float[] s = (float[]) src;
+            final float[] d = (float[]) dest;
+            for (int i = 0; i < length; i++) {
+                d[destPos + i] = s[last - i];
             }
-        } finally {
-            pm.done();
+        } else if (src instanceof short[] && dest instanceof short[]) {
+            final short[] s = (short[]) src;
+            final short[] d = (short[]) dest;
+            for (int i = 0; i < length; i++) {
+                d[destPos + i] = s[last - i];
+            }
+        } else if (src instanceof byte[] && dest instanceof byte[]) {
+            final byte[] s = (byte[]) src;
+            final byte[] d = (byte[]) dest;
+            for (int i = 0; i < length; i++) {
+                d[destPos + i] = s[last - i];
+            }
+        } else if (src instanceof int[] && dest instanceof int[]) {
+            final int[] s = (int[]) src;
+            final int[] d = (int[]) dest;
+            for (int i = 0; i < length; i++) {
+                d[destPos + i] = s[last - i];
+            }
+        } else if (src instanceof double[] && dest instanceof double[]) {
+            final double[] s = (double[]) src;
+            final double[] d = (double[]) dest;
+            for (int i = 0; i < length; i++) {
+                d[destPos + i] = s[last - i];
+            }
+        } else {
+            for (int i = 0; i < length; i++) {
+                arraycopy(src, last - i, dest, destPos + i, 1);
+            }
+        }
+    }
+
+    /**
+     * Sets a preferred tile size which is a multiple of the chunk size of the band variables, so that a tile read
+     * does not decompress chunks shared with neighbouring tiles. Nothing is done if the product already has a
+     * preferred tile size or the variables are not chunked.
+     *
+     * @param product the product
+     */
+    protected void setChunkAlignedTileSize(Product product) {
+        if (product.getPreferredTileSize() != null || variableMap == null) {
+            return;
         }
+        for (Map.Entry<Band, Variable> entry : variableMap.entrySet()) {
+            final Variable variable = entry.getValue();
+            final Attribute chunkSizes = variable.findAttribute("_ChunkSizes");
+            if (variable.getRank() != 2 || chunkSizes == null || chunkSizes.getLength() != 2) {
+                continue;
+            }
+            final int chunkHeight = chunkSizes.getNumericValue(0).intValue();
+            final int chunkWidth = chunkSizes.getNumericValue(1).intValue();
+            if (chunkHeight <= 0 || chunkWidth <= 0) {
+                continue;
+            }
+            final Band band = entry.getKey();
+            product.setPreferredTileSize(alignToChunks(band.getRasterWidth(), chunkWidth),
+                                         alignToChunks(band.getRasterHeight(), chunkHeight));
+            return;
+        }
+    }
 
+    static int alignToChunks(int rasterSize, int chunkSize) {
+        final int chunkCount = Math.max(1, Math.round(PREFERRED_TILE_SIZE / (float) chunkSize));
+        return Math.min(rasterSize, chunkCount * chunkSize);
     }
 
     public FlagCoding readFlagCoding(Product product, Band bandName) {
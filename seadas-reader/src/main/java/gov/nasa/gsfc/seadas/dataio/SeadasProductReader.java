@@ -184,6 +184,7 @@ public class SeadasProductReader extends AbstractProductReader {
 
             Product product = seadasFileReader.createProduct();
 
+            seadasFileReader.setChunkAlignedTileSize(product);
             configurePreferredTileSize(product);
             return product;
 
@@ -194,6 +195,9 @@ public class SeadasProductReader extends AbstractProductReader {
 
     @Override
     public void close() throws IOException {
+        if (seadasFileReader != null) {
+            seadasFileReader.close();
+        }
         if (getNcfile() != null) {
             getNcfile().close();
         }
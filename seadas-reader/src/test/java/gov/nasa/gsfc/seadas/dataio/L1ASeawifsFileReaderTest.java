@@ -0,0 +1,140 @@
+/*
+ * Copyright (C) 2015 Brockmann Consult GmbH (info@brockmann-consult.de)
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+
+package gov.nasa.gsfc.seadas.dataio;
+
+import com.bc.ceres.core.ProgressMonitor;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static gov.nasa.gsfc.seadas.dataio.SeaWiFSL1AGeonavTest.NUM_LINES;
+import static gov.nasa.gsfc.seadas.dataio.SeaWiFSL1AGeonavTest.NUM_PIXELS;
+import static org.junit.Assert.*;
+
+public class L1ASeawifsFileReaderTest {
+
+    private static final int BLOCK_LINES = 2;
+    private static final int NUM_BLOCKS = NUM_LINES / BLOCK_LINES;
+
+    private SeaWiFSL1AGeonav geonav;
+    private AtomicInteger navigatedLines;
+
+    @Before
+    public void setUp() {
+        navigatedLines = new AtomicInteger();
+        geonav = new SeaWiFSL1AGeonav(SeaWiFSL1AGeonavTest.createNetcdfFile()) {
+            @Override
+            public void computeGeolocation(int firstLine, int numLines, float[] latitudes, float[] longitudes) {
+                navigatedLines.addAndGet(numLines);
+                super.computeGeolocation(firstLine, numLines, latitudes, longitudes);
+            }
+        };
+    }
+
+    @Test
+    public void testFullLatitudeThenLongitudeReadNavigatesOnce() {
+        final L1ASeawifsFileReader.GeolocationCache cache = new L1ASeawifsFileReader.GeolocationCache(geonav,
+                                                                                                      BLOCK_LINES, 1,
+                                                                                                      NUM_BLOCKS);
+        final float[] latitudes = readFully(cache, true);
+        final float[] longitudes = readFully(cache, false);
+
+        assertEquals(NUM_LINES, navigatedLines.get());
+        assertSceneEquals(geonav.getLatitudes(), latitudes);
+        assertSceneEquals(geonav.getLongitudes(), longitudes);
+    }
+
+    @Test
+    public void testRecentBlocksAreReused() {
+        final L1ASeawifsFileReader.GeolocationCache cache = new L1ASeawifsFileReader.GeolocationCache(geonav,
+                                                                                                      BLOCK_LINES,
+                                                                                                      NUM_BLOCKS,
+                                                                                                      NUM_BLOCKS);
+        readFully(cache, false);
+        readFully(cache, true);
+        readFully(cache, false);
+        readFully(cache, true);
+
+        assertEquals(NUM_LINES, navigatedLines.get());
+    }
+
+    @Test
+    public void testCompletelyReadBlocksAreEvicted() {
+        final L1ASeawifsFileReader.GeolocationCache cache = new L1ASeawifsFileReader.GeolocationCache(geonav,
+                                                                                                      BLOCK_LINES, 1,
+                                                                                                      NUM_BLOCKS);
+        readFully(cache, true);
+        readFully(cache, false);
+        readFully(cache, true);
+
+        // only the last block is still cached
+        assertEquals(NUM_LINES + NUM_LINES - BLOCK_LINES, navigatedLines.get());
+    }
+
+    @Test
+    public void testPendingBlocksAreBounded() {
+        final L1ASeawifsFileReader.GeolocationCache cache = new L1ASeawifsFileReader.GeolocationCache(geonav,
+                                                                                                      BLOCK_LINES, 1,
+                                                                                                      2);
+        final float[] latitudes = readFully(cache, true);
+        final float[] longitudes = readFully(cache, false);
+
+        // the blocks waiting for their longitudes are dropped and navigated again
+        assertEquals(2 * NUM_LINES, navigatedLines.get());
+        assertSceneEquals(geonav.getLatitudes(), latitudes);
+        assertSceneEquals(geonav.getLongitudes(), longitudes);
+    }
+
+    @Test
+    public void testSubsampledRegion() {
+        final L1ASeawifsFileReader.GeolocationCache cache = new L1ASeawifsFileReader.GeolocationCache(geonav,
+                                                                                                      BLOCK_LINES, 1,
+                                                                                                      NUM_BLOCKS);
+        final int offsetX = 5;
+        final int offsetY = 1;
+        final int width = 100;
+        final int height = 8;
+        final int stepX = 3;
+        final int stepY = 3;
+        final int destWidth = (width - 1) / stepX + 1;
+        final int destHeight = (height - 1) / stepY + 1;
+        final float[] longitudes = new float[destWidth * destHeight];
+        cache.read(false, offsetX, offsetY, width, height, stepX, stepY, longitudes, ProgressMonitor.NULL);
+
+        for (int j = 0; j < destHeight; j++) {
+            for (int i = 0; i < destWidth; i++) {
+                assertEquals(geonav.getLongitudes()[offsetY + j * stepY][offsetX + i * stepX],
+                             longitudes[j * destWidth + i], 0.0f);
+            }
+        }
+    }
+
+    private static float[] readFully(L1ASeawifsFileReader.GeolocationCache cache, boolean latitude) {
+        final float[] values = new float[NUM_LINES * NUM_PIXELS];
+        cache.read(latitude, 0, 0, NUM_PIXELS, NUM_LINES, 1, 1, values, ProgressMonitor.NULL);
+        return values;
+    }
+
+    private static void assertSceneEquals(float[][] expected, float[] actual) {
+        for (int y = 0; y < NUM_LINES; y++) {
+            for (int x = 0; x < NUM_PIXELS; x++) {
+                assertEquals(expected[y][x], actual[y * NUM_PIXELS + x], 0.0f);
+            }
+        }
+    }
+}
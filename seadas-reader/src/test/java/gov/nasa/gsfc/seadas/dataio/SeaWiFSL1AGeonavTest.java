@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2015 Brockmann Consult GmbH (info@brockmann-consult.de)
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ */
+
+package gov.nasa.gsfc.seadas.dataio;
+
+import org.junit.Test;
+import ucar.ma2.Array;
+import ucar.ma2.DataType;
+import ucar.nc2.Attribute;
+import ucar.nc2.Dimension;
+import ucar.nc2.Group;
+import ucar.nc2.NetcdfFile;
+import ucar.nc2.Variable;
+
+import static org.junit.Assert.*;
+
+public class SeaWiFSL1AGeonavTest {
+
+    static final int NUM_LINES = 10;
+    static final int NUM_PIXELS = 248;
+
+    private static final double ORBIT_RADIUS = 7083.0;
+    private static final double LON_STEP = 0.002;
+
+    @Test
+    public void testComputeGeolocationOfBlockEqualsWholeScene() {
+        final SeaWiFSL1AGeonav geonav = new SeaWiFSL1AGeonav(createNetcdfFile());
+        assertEquals(NUM_LINES, geonav.getNumberScanLines());
+        assertEquals(NUM_PIXELS, geonav.getNumberPixels());
+
+        final int firstLine = 3;
+        final int numLines = 4;
+        final float[] latitudes = new float[numLines * NUM_PIXELS];
+        final float[] longitudes = new float[numLines * NUM_PIXELS];
+        geonav.computeGeolocation(firstLine, numLines, latitudes, longitudes);
+
+        final float[][] sceneLatitudes = geonav.getLatitudes();
+        final float[][] sceneLongitudes = geonav.getLongitudes();
+        for (int i = 0; i < numLines; i++) {
+            for (int x = 0; x < NUM_PIXELS; x++) {
+                assertEquals(sceneLatitudes[firstLine + i][x], latitudes[i * NUM_PIXELS + x], 0.0f);
+                assertEquals(sceneLongitudes[firstLine + i][x], longitudes[i * NUM_PIXELS + x], 0.0f);
+            }
+        }
+    }
+
+    @Test
+    public void testNadirPixelIsBelowSpacecraft() {
+        final SeaWiFSL1AGeonav geonav = new SeaWiFSL1AGeonav(createNetcdfFile());
+        // GAC pixel 124 is the LAC pixel 643, which is looking to nadir
+        final int nadirPixel = 124;
+        for (int line = 0; line < NUM_LINES; line++) {
+            assertEquals(0.0, geonav.getLatitudes()[line][nadirPixel], 0.05);
+            assertEquals(Math.toDegrees(line * LON_STEP), geonav.getLongitudes()[line][nadirPixel], 0.05);
+        }
+    }
+
+    // A GAC file with a spacecraft on an equatorial orbit, its longitude increases with the scan line. The scan
+    // ellipse coefficients are those of a spherical earth.
+    static NetcdfFile createNetcdfFile() {
+        final float[] orbit = new float[NUM_LINES * 3];
+        final float[] sensor = new float[NUM_LINES * 9];
+        final float[] sun = new float[NUM_LINES * 3];
+        final float[] ellipse = new float[NUM_LINES * 6];
+        for (int line = 0; line < NUM_LINES; line++) {
+            final double cosLon = Math.cos(line * LON_STEP);
+            final double sinLon = Math.sin(line * LON_STEP);
+            orbit[line * 3] = (float) (ORBIT_RADIUS * cosLon);
+            orbit[line * 3 + 1] = (float) (ORBIT_RADIUS * sinLon);
+            // the columns are the scan direction (to nadir at the scan center), the track and the cross direction
+            final float[] matrix = {
+                    (float) -cosLon, 0.0f, (float) -sinLon,
+                    (float) -sinLon, 0.0f, (float) cosLon,
+                    0.0f, 1.0f, 0.0f
+            };
+            System.arraycopy(matrix, 0, sensor, line * 9, 9);
+            sun[line * 3] = 0.6f;
+            sun[line * 3 + 2] = 0.8f;
+            ellipse[line * 6] = 1.0f;
+            ellipse[line * 6 + 2] = 1.0f;
+            ellipse[line * 6 + 3] = (float) (-2.0 * ORBIT_RADIUS);
+            ellipse[line * 6 + 5] = (float) (ORBIT_RADIUS * ORBIT_RADIUS
+                                             - SeaWiFSL1AGeonav.EARTH_RADIUS * SeaWiFSL1AGeonav.EARTH_RADIUS);
+        }
+
+        final Group.Builder navigation = Group.builder().setName("Navigation");
+        navigation.addDimension(new Dimension("nsamp", NUM_LINES));
+        navigation.addDimension(new Dimension("vec", 3));
+        navigation.addDimension(new Dimension("ell", 6));
+        addVariable(navigation, "orb_vec", "nsamp vec", new int[]{NUM_LINES, 3}, orbit);
+        addVariable(navigation, "sen_mat", "nsamp vec vec", new int[]{NUM_LINES, 3, 3}, sensor);
+        addVariable(navigation, "sun_ref", "nsamp vec", new int[]{NUM_LINES, 3}, sun);
+        addVariable(navigation, "scan_ell", "nsamp ell", new int[]{NUM_LINES, 6}, ellipse);
+
+        final Group.Builder root = Group.builder();
+        root.addAttribute(new Attribute("Data_Type", "GAC"));
+        root.addAttribute(new Attribute("Number_of_Scan_Lines", NUM_LINES));
+        root.addAttribute(new Attribute("Pixels_per_Scan_Line", NUM_PIXELS));
+        root.addAttribute(new Attribute("LAC_Pixel_Start_Number", 147));
+        root.addAttribute(new Attribute("LAC_Pixel_Subsampling", 4));
+        root.addGroup(navigation);
+        return NetcdfFile.builder().setRootGroup(root).setLocation("seawifs_gac.nc").build();
+    }
+
+    private static void addVariable(Group.Builder group, String name, String dimensions, int[] shape, float[] data) {
+        group.addVariable(Variable.builder()
+                                  .setName(name)
+                                  .setDataType(DataType.FLOAT)
+                                  .setParentGroupBuilder(group)
+                                  .setDimensionsByName(dimensions)
+                                  .setCachedData(Array.factory(DataType.FLOAT, shape, data), false));
+    }
+}
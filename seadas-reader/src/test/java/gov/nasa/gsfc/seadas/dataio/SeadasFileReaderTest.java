@@ -16,15 +16,35 @@
 
 package gov.nasa.gsfc.seadas.dataio;
 
+import com.bc.ceres.core.ProgressMonitor;
+import org.esa.snap.core.datamodel.Band;
+import org.esa.snap.core.datamodel.Product;
 import org.esa.snap.core.datamodel.ProductData;
 import org.junit.Test;
+import ucar.nc2.NetcdfFile;
+import ucar.nc2.NetcdfFiles;
+import ucar.nc2.Variable;
 
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.text.DateFormat;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.junit.Assert.*;
 
 public class SeadasFileReaderTest {
 
+    private static final int WIDTH = 32;
+    private static final int HEIGHT = 64;
+
     @Test
     public void testParseUtcDate() throws Exception {
         DateFormat format = ProductData.UTC.createDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'");
@@ -67,4 +87,117 @@ public class SeadasFileReaderTest {
         assertEquals(123000, parsed.getMicroSecondsFraction());
 
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testAlignToChunks() {
+        assertEquals(512, SeadasFileReader.alignToChunks(2030, 256));
+        assertEquals(512, SeadasFileReader.alignToChunks(2030, 1));
+        assertEquals(1354, SeadasFileReader.alignToChunks(1354, 1354));
+        assertEquals(600, SeadasFileReader.alignToChunks(2030, 600));
+        assertEquals(100, SeadasFileReader.alignToChunks(100, 64));
+    }
+
+    @Test
+    public void testConcurrentReadBandData() throws Exception {
+        final File file = File.createTempFile("seadas", ".nc");
+        try (OutputStream outputStream = new FileOutputStream(file)) {
+            outputStream.write(createNetcdf3File());
+        }
+        final NetcdfFile ncFile = NetcdfFiles.open(file.getPath());
+        final SeadasFileReader reader = createFileReader(file, ncFile);
+        final Band band = new Band("v", ProductData.TYPE_INT16, WIDTH, HEIGHT);
+        final Variable variable = ncFile.findVariable("v");
+        reader.variableMap = new HashMap<>();
+        reader.variableMap.put(band, variable);
+
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < 400; i++) {
+                final int y = i % HEIGHT;
+                final int x = i % 5;
+                results.add(executor.submit(new Callable<Boolean>() {
+                    @Override
+                    public Boolean call() throws Exception {
+                        // two rows of a region which starts in column x
+                        final int width = WIDTH - x;
+                        final int height = Math.min(2, HEIGHT - y);
+                        final ProductData data = ProductData.createInstance(new short[width * height]);
+                        reader.readBandData(band, x, y, width, height, 1, 1, data, ProgressMonitor.NULL);
+                        for (int j = 0; j < height; j++) {
+                            for (int k = 0; k < width; k++) {
+                                if (data.getElemIntAt(j * width + k) != value(y + j, x + k)) {
+                                    return false;
+                                }
+                            }
+                        }
+                        return true;
+                    }
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get());
+            }
+        } finally {
+            executor.shutdown();
+            reader.close();
+            ncFile.close();
+            file.delete();
+        }
+    }
+
+    private static SeadasFileReader createFileReader(final File file, final NetcdfFile ncFile) {
+        final SeadasProductReader productReader = new SeadasProductReader(null) {
+            @Override
+            public File getInputFile() {
+                return file;
+            }
+
+            @Override
+            public NetcdfFile getNcfile() {
+                return ncFile;
+            }
+        };
+        return new SeadasFileReader(productReader) {
+            @Override
+            public Product createProduct() {
+                return null;
+            }
+        };
+    }
+
+    private static short value(int y, int x) {
+        return (short) (100 * y + x);
+    }
+
+    // a netCDF-3 classic file with a single short variable v(y, x)
+    private static byte[] createNetcdf3File() {
+        final ByteBuffer buffer = ByteBuffer.allocate(96 + HEIGHT * WIDTH * 2);
+        buffer.put(new byte[]{'C', 'D', 'F', 1});
+        buffer.putInt(0);                  // numrecs
+        buffer.putInt(10).putInt(2);       // NC_DIMENSION, 2 dimensions
+        putName(buffer, 'y');
+        buffer.putInt(HEIGHT);
+        putName(buffer, 'x');
+        buffer.putInt(WIDTH);
+        buffer.putInt(0).putInt(0);        // no global attributes
+        buffer.putInt(11).putInt(1);       // NC_VARIABLE, 1 variable
+        putName(buffer, 'v');
+        buffer.putInt(2).putInt(0).putInt(1);
+        buffer.putInt(0).putInt(0);        // no variable attributes
+        buffer.putInt(3);                  // NC_SHORT
+        buffer.putInt(HEIGHT * WIDTH * 2); // vsize
+        buffer.putInt(96);                 // begin
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                buffer.putShort(value(y, x));
+            }
+        }
+        return buffer.array();
+    }
+
+    private static void putName(ByteBuffer buffer, char name) {
+        buffer.putInt(1);
+        buffer.put(new byte[]{(byte) name, 0, 0, 0});
+    }
+}